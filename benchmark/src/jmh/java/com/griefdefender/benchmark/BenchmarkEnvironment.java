@@ -0,0 +1,306 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.benchmark;
+
+import com.flowpowered.math.vector.Vector3i;
+import com.google.inject.Guice;
+import com.google.inject.Stage;
+import com.griefdefender.GDBootstrap;
+import com.griefdefender.GriefDefenderPlugin;
+import com.griefdefender.api.claim.ClaimType;
+import com.griefdefender.claim.GDClaim;
+import com.griefdefender.claim.GDClaimManager;
+import com.griefdefender.inject.GriefDefenderImplModule;
+import com.griefdefender.permission.GDPermissionGroup;
+import com.griefdefender.permission.GDPermissionUser;
+import com.griefdefender.registry.ChatTypeRegistryModule;
+import com.griefdefender.registry.ClaimTypeRegistryModule;
+import com.griefdefender.registry.ClaimVisualTypeRegistryModule;
+import com.griefdefender.registry.CreateModeTypeRegistryModule;
+import com.griefdefender.registry.FlagRegistryModule;
+import com.griefdefender.registry.GameModeTypeRegistryModule;
+import com.griefdefender.registry.ResultTypeRegistryModule;
+import com.griefdefender.registry.ShovelTypeRegistryModule;
+import com.griefdefender.registry.TrustTypeRegistryModule;
+import com.griefdefender.registry.WeatherTypeRegistryModule;
+import com.griefdefender.storage.FileStorage;
+
+import org.apache.commons.io.FileUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.World.Environment;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.PluginLogger;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import sun.misc.Unsafe;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Boots just enough of GriefDefender to exercise claim and permission code
+ * without a running server.
+ *
+ * <p>Bukkit interfaces are backed by dynamic proxies and permissions are served
+ * by {@link InMemoryPermissionProvider}. All data is written to a temporary
+ * folder so benchmarks never depend on network or server state.</p>
+ */
+public final class BenchmarkEnvironment {
+
+    private static BenchmarkEnvironment instance;
+
+    private final Path dataFolder;
+    private final Logger logger = Logger.getLogger("GriefDefenderBenchmark");
+    private final Map<UUID, World> worlds = new HashMap<>();
+    private final InMemoryPermissionProvider permissionProvider = new InMemoryPermissionProvider();
+
+    public static synchronized BenchmarkEnvironment getInstance() {
+        if (instance == null) {
+            try {
+                instance = new BenchmarkEnvironment();
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not initialize benchmark environment", e);
+            }
+        }
+        return instance;
+    }
+
+    private BenchmarkEnvironment() throws Exception {
+        this.dataFolder = Files.createTempDirectory("gd-benchmark");
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> FileUtils.deleteQuietly(this.dataFolder.toFile())));
+
+        final Server server = this.createServer();
+        Bukkit.setServer(server);
+        this.createBootstrap(server);
+
+        final GriefDefenderPlugin plugin = GriefDefenderPlugin.getInstance();
+        setField(GriefDefenderPlugin.class, plugin, "configPath", this.dataFolder.resolve("plugins").resolve("GriefDefender"));
+        setField(GriefDefenderPlugin.class, plugin, "permissionProvider", this.permissionProvider);
+        GriefDefenderPlugin.DEFAULT_HOLDER = new GDPermissionGroup(GriefDefenderPlugin.DEFAULT_GROUP_NAME);
+        GriefDefenderPlugin.GD_DEFAULT_HOLDER = new GDPermissionGroup(GriefDefenderPlugin.GD_DEFAULT_GROUP_NAME);
+        GriefDefenderPlugin.GD_CLAIM_HOLDER = new GDPermissionGroup(GriefDefenderPlugin.GD_CLAIM_GROUP_NAME);
+        GriefDefenderPlugin.GD_DEFINITION_HOLDER = new GDPermissionGroup(GriefDefenderPlugin.GD_DEFINITION_GROUP_NAME);
+        GriefDefenderPlugin.GD_OPTION_HOLDER = new GDPermissionGroup(GriefDefenderPlugin.GD_OPTION_GROUP_NAME);
+        GriefDefenderPlugin.GD_OVERRIDE_HOLDER = new GDPermissionGroup(GriefDefenderPlugin.GD_OVERRIDE_GROUP_NAME);
+        GriefDefenderPlugin.PUBLIC_USER = new GDPermissionUser(GriefDefenderPlugin.PUBLIC_UUID, GriefDefenderPlugin.PUBLIC_NAME);
+        GriefDefenderPlugin.WORLD_USER = new GDPermissionUser(GriefDefenderPlugin.WORLD_USER_UUID, GriefDefenderPlugin.WORLD_USER_NAME);
+
+        Guice.createInjector(Stage.PRODUCTION, new GriefDefenderImplModule());
+        // Block, entity and item registries require a running server so are not registered
+        ChatTypeRegistryModule.getInstance().registerDefaults();
+        ClaimTypeRegistryModule.getInstance().registerDefaults();
+        ClaimVisualTypeRegistryModule.getInstance().registerDefaults();
+        ShovelTypeRegistryModule.getInstance().registerDefaults();
+        TrustTypeRegistryModule.getInstance().registerDefaults();
+        FlagRegistryModule.getInstance().registerDefaults();
+        ResultTypeRegistryModule.getInstance().registerDefaults();
+        CreateModeTypeRegistryModule.getInstance().registerDefaults();
+        GameModeTypeRegistryModule.getInstance().registerDefaults();
+        WeatherTypeRegistryModule.getInstance().registerDefaults();
+        plugin.loadConfig();
+
+        plugin.dataStore = new FileStorage();
+        plugin.dataStore.initialize();
+    }
+
+    public InMemoryPermissionProvider getPermissionProvider() {
+        return this.permissionProvider;
+    }
+
+    public Path getDataFolder() {
+        return this.dataFolder;
+    }
+
+    /**
+     * Creates and registers a new empty world with a wilderness claim.
+     *
+     * @param name The world name
+     * @return The world
+     */
+    public World createWorld(String name) {
+        final World world = this.createWorldProxy(name, UUID.randomUUID());
+        this.worlds.put(world.getUID(), world);
+        ((FileStorage) GriefDefenderPlugin.getInstance().dataStore).registerWorld(world);
+        GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(world.getUID()).createWildernessClaim(world);
+        return world;
+    }
+
+    /**
+     * Creates a world sharing the UUID and name of an existing world so its
+     * claim data can be loaded again from disk.
+     *
+     * @param world The world to copy
+     * @return A new world instance
+     */
+    public World copyWorld(World world) {
+        final World copy = this.createWorldProxy(world.getName(), world.getUID());
+        this.worlds.put(copy.getUID(), copy);
+        return copy;
+    }
+
+    public GDClaim createClaim(World world, ClaimType type, UUID owner, Vector3i lesser, Vector3i greater, GDClaim parent) {
+        final GDClaim claim = new GDClaim(world, lesser, greater, type, owner, false, parent);
+        claim.initializeClaimData(parent);
+        if (parent != null) {
+            claim.getData().setParent(parent.getUniqueId());
+        }
+        final GDClaimManager claimManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(world.getUID());
+        claimManager.addClaim(claim, true);
+        return claim;
+    }
+
+    private void createBootstrap(Server server) throws Exception {
+        final Field unsafeField = Unsafe.class.getDeclaredField("theUnsafe");
+        unsafeField.setAccessible(true);
+        final Unsafe unsafe = (Unsafe) unsafeField.get(null);
+        // JavaPlugin can only be constructed by a plugin class loader so bypass the constructor
+        final GDBootstrap bootstrap = (GDBootstrap) unsafe.allocateInstance(GDBootstrap.class);
+        setField(JavaPlugin.class, bootstrap, "server", server);
+        setField(JavaPlugin.class, bootstrap, "description", new PluginDescriptionFile("GriefDefender", "benchmark", GDBootstrap.class.getName()));
+        setField(JavaPlugin.class, bootstrap, "dataFolder", this.dataFolder.toFile());
+        setField(JavaPlugin.class, bootstrap, "logger", new PluginLogger(bootstrap));
+        setField(GDBootstrap.class, null, "instance", bootstrap);
+    }
+
+    private Server createServer() {
+        return proxy(Server.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getLogger":
+                    return this.logger;
+                case "getName":
+                    return "Benchmark";
+                case "getVersion":
+                    return "git-Spigot (MC: 1.16.4)";
+                case "getBukkitVersion":
+                    return "1.16.4-R0.1-SNAPSHOT";
+                case "getWorldContainer":
+                    return this.dataFolder.toFile();
+                case "getWorld":
+                    if (args[0] instanceof UUID) {
+                        return this.worlds.get(args[0]);
+                    }
+                    for (World world : this.worlds.values()) {
+                        if (world.getName().equals(args[0])) {
+                            return world;
+                        }
+                    }
+                    return null;
+                case "getWorlds":
+                    return new ArrayList<>(this.worlds.values());
+                default:
+                    return defaultValue(method);
+            }
+        });
+    }
+
+    private World createWorldProxy(String name, UUID uniqueId) {
+        final File worldFolder = this.dataFolder.resolve(name).toFile();
+        worldFolder.mkdirs();
+        return proxy(World.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getName":
+                    return name;
+                case "getUID":
+                    return uniqueId;
+                case "getEnvironment":
+                    return Environment.NORMAL;
+                case "getMaxHeight":
+                    return 256;
+                case "getSeaLevel":
+                    return 63;
+                case "getWorldFolder":
+                    return worldFolder;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return uniqueId.hashCode();
+                case "toString":
+                    return "BenchmarkWorld{name=" + name + "}";
+                default:
+                    return defaultValue(method);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(BenchmarkEnvironment.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+
+    private static Object defaultValue(Method method) {
+        final Class<?> returnType = method.getReturnType();
+        if (returnType == boolean.class) {
+            return false;
+        }
+        if (returnType == int.class || returnType == short.class || returnType == byte.class || returnType == char.class) {
+            return 0;
+        }
+        if (returnType == long.class) {
+            return 0L;
+        }
+        if (returnType == double.class) {
+            return 0D;
+        }
+        if (returnType == float.class) {
+            return 0F;
+        }
+        if (returnType == String.class) {
+            return "";
+        }
+        if (returnType == List.class || returnType == Collection.class) {
+            return Collections.emptyList();
+        }
+        if (returnType == Set.class) {
+            return Collections.emptySet();
+        }
+        if (returnType == PluginManager.class || returnType == BukkitScheduler.class) {
+            return proxy(returnType, (proxy, m, args) -> defaultValue(m));
+        }
+        return null;
+    }
+
+    private static void setField(Class<?> owner, Object target, String name, Object value) throws ReflectiveOperationException {
+        final Field field = owner.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
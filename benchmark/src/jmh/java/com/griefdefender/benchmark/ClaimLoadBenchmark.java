@@ -0,0 +1,89 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.benchmark;
+
+import com.flowpowered.math.vector.Vector3i;
+import com.griefdefender.GriefDefenderPlugin;
+import com.griefdefender.api.claim.ClaimTypes;
+import com.griefdefender.claim.GDClaim;
+import com.griefdefender.storage.FileStorage;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link FileStorage#loadWorldData(World)} over a generated set of
+ * claim files with one subdivision per basic claim.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ClaimLoadBenchmark {
+
+    @Param({"500", "5000"})
+    public int claimCount;
+
+    private FileStorage storage;
+    private World world;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final BenchmarkEnvironment environment = BenchmarkEnvironment.getInstance();
+        this.storage = (FileStorage) GriefDefenderPlugin.getInstance().dataStore;
+        this.world = environment.createWorld("load_" + this.claimCount);
+
+        final int gridSize = (int) Math.ceil(Math.sqrt(this.claimCount));
+        for (int i = 0; i < this.claimCount; i++) {
+            final int minX = (i % gridSize) * 48;
+            final int minZ = (i / gridSize) * 48;
+            final UUID owner = UUID.randomUUID();
+            final GDClaim claim = environment.createClaim(this.world, ClaimTypes.BASIC, owner,
+                    new Vector3i(minX, 0, minZ), new Vector3i(minX + 31, 255, minZ + 31), null);
+            environment.createClaim(this.world, ClaimTypes.SUBDIVISION, owner,
+                    new Vector3i(minX + 8, 0, minZ + 8), new Vector3i(minX + 15, 255, minZ + 15), claim);
+        }
+        this.storage.unloadWorldData(this.world);
+    }
+
+    @TearDown(Level.Invocation)
+    public void unload() {
+        this.storage.unloadWorldData(this.world);
+    }
+
+    @Benchmark
+    public int load() {
+        this.world = BenchmarkEnvironment.getInstance().copyWorld(this.world);
+        this.storage.loadWorldData(this.world);
+        return this.storage.getClaimWorldManager(this.world.getUID()).getWorldClaims().size();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.benchmark;
+
+import com.flowpowered.math.vector.Vector3i;
+import com.griefdefender.GDPlayerData;
+import com.griefdefender.GriefDefenderPlugin;
+import com.griefdefender.api.claim.Claim;
+import com.griefdefender.api.claim.ClaimTypes;
+import com.griefdefender.claim.GDClaim;
+import com.griefdefender.claim.GDClaimManager;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.UUID;
+
+/**
+ * Measures {@link GDClaimManager#getClaimAt(int, int, int, GDPlayerData, boolean)}
+ * against a grid of basic claims, each optionally containing a subdivision.
+ */
+@State(Scope.Benchmark)
+public class ClaimLookupBenchmark {
+
+    private static final int CLAIM_SIZE = 32;
+    private static final int CLAIM_SPACING = 48;
+
+    @Param({"100", "1000"})
+    public int claimCount;
+
+    private GDClaimManager claimManager;
+    private GDPlayerData playerData;
+    private int[] insideX;
+    private int[] insideZ;
+    private int[] nestedX;
+    private int[] nestedZ;
+    private int[] borderX;
+    private int[] borderZ;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final BenchmarkEnvironment environment = BenchmarkEnvironment.getInstance();
+        final World world = environment.createWorld("lookup_" + this.claimCount);
+        this.claimManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(world.getUID());
+        this.playerData = this.claimManager.getOrCreatePlayerData(UUID.randomUUID());
+
+        final int gridSize = (int) Math.ceil(Math.sqrt(this.claimCount));
+        this.insideX = new int[this.claimCount];
+        this.insideZ = new int[this.claimCount];
+        this.nestedX = new int[this.claimCount];
+        this.nestedZ = new int[this.claimCount];
+        this.borderX = new int[this.claimCount];
+        this.borderZ = new int[this.claimCount];
+        for (int i = 0; i < this.claimCount; i++) {
+            final int minX = (i % gridSize) * CLAIM_SPACING;
+            final int minZ = (i / gridSize) * CLAIM_SPACING;
+            final UUID owner = UUID.randomUUID();
+            final GDClaim claim = environment.createClaim(world, ClaimTypes.BASIC, owner,
+                    new Vector3i(minX, 0, minZ), new Vector3i(minX + CLAIM_SIZE - 1, 255, minZ + CLAIM_SIZE - 1), null);
+            environment.createClaim(world, ClaimTypes.SUBDIVISION, owner,
+                    new Vector3i(minX + 8, 0, minZ + 8), new Vector3i(minX + 15, 255, minZ + 15), claim);
+            this.insideX[i] = minX + 24;
+            this.insideZ[i] = minZ + 24;
+            this.nestedX[i] = minX + 10;
+            this.nestedZ[i] = minZ + 10;
+            // Just outside the claim, only matched when a border radius applies
+            this.borderX[i] = minX + CLAIM_SIZE + 1;
+            this.borderZ[i] = minZ + 4;
+        }
+    }
+
+    private int next() {
+        final int i = this.index;
+        this.index = i + 1 == this.claimCount ? 0 : i + 1;
+        return i;
+    }
+
+    @Benchmark
+    public Claim flat() {
+        final int i = this.next();
+        return this.claimManager.getClaimAt(this.insideX[i], 64, this.insideZ[i], null, false);
+    }
+
+    @Benchmark
+    public Claim nested() {
+        final int i = this.next();
+        return this.claimManager.getClaimAt(this.nestedX[i], 64, this.nestedZ[i], null, false);
+    }
+
+    @Benchmark
+    public Claim borderRadius() {
+        final int i = this.next();
+        return this.claimManager.getClaimAt(this.borderX[i], 64, this.borderZ[i], this.playerData, true);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.benchmark;
+
+import com.flowpowered.math.vector.Vector3i;
+import com.griefdefender.api.claim.ClaimTypes;
+import com.griefdefender.api.claim.TrustTypes;
+import com.griefdefender.cache.PermissionHolderCache;
+import com.griefdefender.claim.GDClaim;
+import com.griefdefender.permission.GDPermissionUser;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Measures {@link GDClaim#isUserTrusted(GDPermissionUser, com.griefdefender.api.claim.TrustType)}
+ * for owners, trusted users and untrusted users.
+ */
+@State(Scope.Benchmark)
+public class ClaimTrustBenchmark {
+
+    @Param({"10", "200"})
+    public int trustedCount;
+
+    private GDClaim claim;
+    private GDPermissionUser owner;
+    private GDPermissionUser trusted;
+    private GDPermissionUser untrusted;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final BenchmarkEnvironment environment = BenchmarkEnvironment.getInstance();
+        final World world = environment.createWorld("trust_" + this.trustedCount);
+        final UUID ownerUniqueId = UUID.randomUUID();
+        this.claim = environment.createClaim(world, ClaimTypes.BASIC, ownerUniqueId, new Vector3i(0, 0, 0), new Vector3i(63, 255, 63), null);
+        final List<UUID> builders = new ArrayList<>();
+        for (int i = 0; i < this.trustedCount; i++) {
+            builders.add(UUID.randomUUID());
+        }
+        this.claim.addUserTrusts(builders, TrustTypes.BUILDER);
+
+        this.owner = PermissionHolderCache.getInstance().getOrCreateUser(ownerUniqueId);
+        this.trusted = PermissionHolderCache.getInstance().getOrCreateUser(builders.get(builders.size() - 1));
+        this.untrusted = PermissionHolderCache.getInstance().getOrCreateUser(UUID.randomUUID());
+    }
+
+    @Benchmark
+    public boolean owner() {
+        return this.claim.isUserTrusted(this.owner, TrustTypes.BUILDER);
+    }
+
+    @Benchmark
+    public boolean trusted() {
+        return this.claim.isUserTrusted(this.trusted, TrustTypes.BUILDER);
+    }
+
+    @Benchmark
+    public boolean untrusted() {
+        return this.claim.isUserTrusted(this.untrusted, TrustTypes.BUILDER);
+    }
+}
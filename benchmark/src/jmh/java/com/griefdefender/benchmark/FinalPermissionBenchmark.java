@@ -0,0 +1,108 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.benchmark;
+
+import com.flowpowered.math.vector.Vector3i;
+import com.griefdefender.GriefDefenderPlugin;
+import com.griefdefender.api.Tristate;
+import com.griefdefender.api.claim.ClaimContexts;
+import com.griefdefender.api.claim.ClaimTypes;
+import com.griefdefender.api.permission.Context;
+import com.griefdefender.api.permission.ContextKeys;
+import com.griefdefender.api.permission.flag.Flags;
+import com.griefdefender.cache.FlagDecisionCache;
+import com.griefdefender.cache.PermissionHolderCache;
+import com.griefdefender.claim.GDClaim;
+import com.griefdefender.permission.GDPermissionManager;
+import com.griefdefender.permission.GDPermissionUser;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Measures {@link GDPermissionManager#getFinalPermission} for a block break
+ * resolved through {@link InMemoryPermissionProvider}, with and without the
+ * flag decision cache.
+ */
+@State(Scope.Benchmark)
+public class FinalPermissionBenchmark {
+
+    private static final String SOURCE = "minecraft:player";
+    private static final String TARGET = "minecraft:stone";
+
+    private GDClaim claim;
+    private Location location;
+    private GDPermissionUser user;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final BenchmarkEnvironment environment = BenchmarkEnvironment.getInstance();
+        final World world = environment.createWorld("permission");
+        this.claim = environment.createClaim(world, ClaimTypes.BASIC, UUID.randomUUID(), new Vector3i(0, 0, 0), new Vector3i(63, 255, 63), null);
+        this.location = new Location(world, 16, 64, 16);
+        this.user = PermissionHolderCache.getInstance().getOrCreateUser(UUID.randomUUID());
+
+        // Populate a default deny for basic claims and an override for this claim
+        final InMemoryPermissionProvider provider = environment.getPermissionProvider();
+        final Set<Context> defaultContexts = new HashSet<>();
+        defaultContexts.add(ClaimContexts.BASIC_DEFAULT_CONTEXT);
+        provider.setTransientPermission(GriefDefenderPlugin.GD_DEFAULT_HOLDER, Flags.BLOCK_BREAK.getPermission(), Tristate.FALSE, defaultContexts);
+        final Set<Context> claimContexts = new HashSet<>();
+        claimContexts.add(this.claim.getContext());
+        claimContexts.add(new Context(ContextKeys.TARGET, TARGET));
+        provider.setPermissionValue(GriefDefenderPlugin.DEFAULT_HOLDER, Flags.BLOCK_BREAK.getPermission(), Tristate.TRUE, claimContexts, false, false);
+    }
+
+    @Benchmark
+    public Tristate cached() {
+        return GDPermissionManager.getInstance().getFinalPermission(null, this.location, this.claim, Flags.BLOCK_BREAK, SOURCE, TARGET, this.user);
+    }
+
+    @Benchmark
+    public Tristate uncached(EmptyDecisionCache emptyCache) {
+        return GDPermissionManager.getInstance().getFinalPermission(null, this.location, this.claim, Flags.BLOCK_BREAK, SOURCE, TARGET, this.user);
+    }
+
+    /**
+     * Clears the flag decision cache before every invocation, outside of the
+     * measured method.
+     */
+    @State(Scope.Thread)
+    public static class EmptyDecisionCache {
+
+        @Setup(Level.Invocation)
+        public void clear() {
+            FlagDecisionCache.getInstance().invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,357 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.benchmark;
+
+import com.griefdefender.GDPlayerData;
+import com.griefdefender.GriefDefenderPlugin;
+import com.griefdefender.api.Tristate;
+import com.griefdefender.api.claim.Claim;
+import com.griefdefender.api.permission.Context;
+import com.griefdefender.api.permission.PermissionResult;
+import com.griefdefender.api.permission.ResultTypes;
+import com.griefdefender.api.permission.flag.FlagDefinition;
+import com.griefdefender.api.permission.option.Option;
+import com.griefdefender.claim.GDClaim;
+import com.griefdefender.permission.GDPermissionHolder;
+import com.griefdefender.permission.GDPermissionResult;
+import com.griefdefender.permission.GDPermissionUser;
+import com.griefdefender.provider.PermissionProvider;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link PermissionProvider} backed by plain maps.
+ *
+ * <p>Nodes match when their contexts are a subset of the queried contexts.
+ * The most specific matching node wins and parent nodes are checked as
+ * wildcards. Users inherit from the default group.</p>
+ */
+public class InMemoryPermissionProvider implements PermissionProvider {
+
+    private final Map<String, Map<Set<Context>, Map<String, Boolean>>> permanentPermissions = new ConcurrentHashMap<>();
+    private final Map<String, Map<Set<Context>, Map<String, Boolean>>> transientPermissions = new ConcurrentHashMap<>();
+    private final Map<String, Map<Set<Context>, Map<String, List<String>>>> permanentOptions = new ConcurrentHashMap<>();
+    private final Map<String, Map<Set<Context>, Map<String, List<String>>>> transientOptions = new ConcurrentHashMap<>();
+    private final Set<String> groups = ConcurrentHashMap.newKeySet();
+
+    public void clear() {
+        this.permanentPermissions.clear();
+        this.transientPermissions.clear();
+        this.permanentOptions.clear();
+        this.transientOptions.clear();
+    }
+
+    @Override
+    public String getServerName() {
+        return "global";
+    }
+
+    @Override
+    public boolean hasGroupSubject(String identifier) {
+        return this.groups.contains(identifier);
+    }
+
+    @Override
+    public boolean createDefaultGroup(String identifier) {
+        return this.groups.add(identifier);
+    }
+
+    @Override
+    public UUID lookupUserUniqueId(String name) {
+        return null;
+    }
+
+    @Override
+    public List<String> getAllLoadedPlayerNames() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<String> getAllLoadedGroupNames() {
+        return new ArrayList<>(this.groups);
+    }
+
+    @Override
+    public void addActiveContexts(Set<Context> contexts, GDPermissionHolder permissionHolder) {
+    }
+
+    @Override
+    public void addActiveContexts(Set<Context> contexts, GDPermissionHolder permissionHolder, GDPlayerData playerData, Claim claim) {
+    }
+
+    @Override
+    public void clearPermissions(GDClaim claim) {
+        for (Map<Set<Context>, Map<String, Boolean>> holderData : this.permanentPermissions.values()) {
+            holderData.keySet().removeIf(contexts -> contexts.contains(claim.getContext()));
+        }
+    }
+
+    @Override
+    public void clearPermissions(GDPermissionHolder holder, Context context) {
+        final Map<Set<Context>, Map<String, Boolean>> holderData = this.permanentPermissions.get(holder.getIdentifier());
+        if (holderData != null) {
+            holderData.keySet().removeIf(contexts -> contexts.contains(context));
+        }
+    }
+
+    @Override
+    public void clearPermissions(GDPermissionHolder holder, Set<Context> contexts) {
+        final Map<Set<Context>, Map<String, Boolean>> holderData = this.permanentPermissions.get(holder.getIdentifier());
+        if (holderData != null) {
+            holderData.remove(contexts);
+        }
+    }
+
+    @Override
+    public boolean holderHasPermission(GDPermissionHolder holder, String permission) {
+        return this.getPermissionValue(holder, permission) == Tristate.TRUE;
+    }
+
+    @Override
+    public Map<String, Boolean> getPermissions(GDPermissionHolder holder, Set<Context> contexts) {
+        final Map<Set<Context>, Map<String, Boolean>> holderData = this.permanentPermissions.get(holder.getIdentifier());
+        if (holderData == null) {
+            return new HashMap<>();
+        }
+        final Map<String, Boolean> permissions = holderData.get(contexts);
+        return permissions == null ? new HashMap<>() : new HashMap<>(permissions);
+    }
+
+    @Override
+    public Map<String, List<String>> getOptions(GDPermissionHolder holder, Set<Context> contexts) {
+        final Map<Set<Context>, Map<String, List<String>>> holderData = this.permanentOptions.get(holder.getIdentifier());
+        if (holderData == null) {
+            return new HashMap<>();
+        }
+        final Map<String, List<String>> options = holderData.get(contexts);
+        return options == null ? new HashMap<>() : new HashMap<>(options);
+    }
+
+    @Override
+    public Map<Set<Context>, Map<String, Boolean>> getAllPermanentPermissions() {
+        final Map<Set<Context>, Map<String, Boolean>> permissions = new HashMap<>();
+        for (Map<Set<Context>, Map<String, Boolean>> holderData : this.permanentPermissions.values()) {
+            for (Map.Entry<Set<Context>, Map<String, Boolean>> entry : holderData.entrySet()) {
+                permissions.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).putAll(entry.getValue());
+            }
+        }
+        return permissions;
+    }
+
+    @Override
+    public Map<Set<Context>, Map<String, Boolean>> getPermanentPermissions(GDPermissionHolder holder) {
+        return new HashMap<>(this.permanentPermissions.getOrDefault(holder.getIdentifier(), Collections.emptyMap()));
+    }
+
+    @Override
+    public Map<Set<Context>, Map<String, Boolean>> getTransientPermissions(GDPermissionHolder holder) {
+        return new HashMap<>(this.transientPermissions.getOrDefault(holder.getIdentifier(), Collections.emptyMap()));
+    }
+
+    @Override
+    public Map<Set<Context>, Map<String, List<String>>> getPermanentOptions(GDPermissionHolder holder) {
+        return new HashMap<>(this.permanentOptions.getOrDefault(holder.getIdentifier(), Collections.emptyMap()));
+    }
+
+    @Override
+    public Map<Set<Context>, Map<String, List<String>>> getTransientOptions(GDPermissionHolder holder) {
+        return new HashMap<>(this.transientOptions.getOrDefault(holder.getIdentifier(), Collections.emptyMap()));
+    }
+
+    @Override
+    public Map<Set<Context>, Map<String, Boolean>> getAllPermissions(GDPermissionHolder holder) {
+        final Map<Set<Context>, Map<String, Boolean>> permissions = this.getTransientPermissions(holder);
+        for (Map.Entry<Set<Context>, Map<String, Boolean>> entry : this.getPermanentPermissions(holder).entrySet()) {
+            permissions.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).putAll(entry.getValue());
+        }
+        return permissions;
+    }
+
+    @Override
+    public Tristate getPermissionValue(GDPermissionHolder holder, String permission) {
+        return this.getPermissionValue(holder, permission, new HashSet<>());
+    }
+
+    @Override
+    public Tristate getPermissionValue(GDClaim claim, GDPermissionHolder holder, String permission, Set<Context> contexts) {
+        return this.getPermissionValue(claim, holder, permission, contexts, PermissionDataType.ALL);
+    }
+
+    @Override
+    public Tristate getPermissionValue(GDClaim claim, GDPermissionHolder holder, String permission, Set<Context> contexts, PermissionDataType type) {
+        Tristate value = Tristate.UNDEFINED;
+        if (type != PermissionDataType.PERSISTENT && type != PermissionDataType.USER_PERSISTENT) {
+            value = this.resolvePermission(this.transientPermissions, holder, permission, contexts);
+        }
+        if (value == Tristate.UNDEFINED && type != PermissionDataType.TRANSIENT) {
+            value = this.resolvePermission(this.permanentPermissions, holder, permission, contexts);
+        }
+        if (value == Tristate.UNDEFINED && type != PermissionDataType.USER_PERSISTENT && holder instanceof GDPermissionUser) {
+            return this.getPermissionValue(claim, GriefDefenderPlugin.DEFAULT_HOLDER, permission, contexts, type);
+        }
+        return value;
+    }
+
+    @Override
+    public Tristate getPermissionValue(GDPermissionHolder holder, String permission, Set<Context> contexts) {
+        return this.getPermissionValue(null, holder, permission, contexts, PermissionDataType.ALL);
+    }
+
+    @Override
+    public String getOptionValue(GDPermissionHolder holder, Option option, Set<Context> contexts) {
+        final List<String> values = this.getOptionValueList(holder, option, contexts);
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    @Override
+    public List<String> getOptionValueList(GDPermissionHolder holder, Option option, Set<Context> contexts) {
+        List<String> values = this.resolveOption(this.transientOptions, holder, option.getPermission(), contexts);
+        if (values == null) {
+            values = this.resolveOption(this.permanentOptions, holder, option.getPermission(), contexts);
+        }
+        if (values == null && holder instanceof GDPermissionUser) {
+            return this.getOptionValueList(GriefDefenderPlugin.DEFAULT_HOLDER, option, contexts);
+        }
+        return values == null ? Collections.emptyList() : values;
+    }
+
+    @Override
+    public CompletableFuture<PermissionResult> setFlagDefinition(GDPermissionHolder holder, FlagDefinition definition, Tristate value, Set<Context> contexts, boolean isTransient) {
+        return CompletableFuture.completedFuture(new GDPermissionResult(ResultTypes.SUCCESS));
+    }
+
+    @Override
+    public CompletableFuture<PermissionResult> setOptionValue(GDPermissionHolder holder, String permission, String value, Set<Context> contexts, boolean check) {
+        this.putOption(this.permanentOptions, holder, permission, value, contexts);
+        return CompletableFuture.completedFuture(new GDPermissionResult(ResultTypes.SUCCESS));
+    }
+
+    @Override
+    public CompletableFuture<PermissionResult> setPermissionValue(GDPermissionHolder holder, String permission, Tristate value, Set<Context> contexts, boolean check, boolean save) {
+        this.putPermission(this.permanentPermissions, holder, permission, value, contexts);
+        return CompletableFuture.completedFuture(new GDPermissionResult(ResultTypes.SUCCESS));
+    }
+
+    @Override
+    public CompletableFuture<PermissionResult> setTransientOption(GDPermissionHolder holder, String permission, String value, Set<Context> contexts) {
+        this.putOption(this.transientOptions, holder, permission, value, contexts);
+        return CompletableFuture.completedFuture(new GDPermissionResult(ResultTypes.SUCCESS));
+    }
+
+    @Override
+    public CompletableFuture<PermissionResult> setTransientPermission(GDPermissionHolder holder, String permission, Tristate value, Set<Context> contexts) {
+        this.putPermission(this.transientPermissions, holder, permission, value, contexts);
+        return CompletableFuture.completedFuture(new GDPermissionResult(ResultTypes.SUCCESS));
+    }
+
+    @Override
+    public void refreshCachedData(GDPermissionHolder holder) {
+    }
+
+    @Override
+    public CompletableFuture<Void> save(GDPermissionHolder holder) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private void putPermission(Map<String, Map<Set<Context>, Map<String, Boolean>>> data, GDPermissionHolder holder, String permission, Tristate value, Set<Context> contexts) {
+        final Map<String, Boolean> permissions = data.computeIfAbsent(holder.getIdentifier(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(ImmutableSet.copyOf(contexts), k -> new ConcurrentHashMap<>());
+        if (value == Tristate.UNDEFINED) {
+            permissions.remove(permission);
+        } else {
+            permissions.put(permission, value.asBoolean());
+        }
+    }
+
+    private void putOption(Map<String, Map<Set<Context>, Map<String, List<String>>>> data, GDPermissionHolder holder, String key, String value, Set<Context> contexts) {
+        final Map<String, List<String>> options = data.computeIfAbsent(holder.getIdentifier(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(ImmutableSet.copyOf(contexts), k -> new ConcurrentHashMap<>());
+        if (value == null) {
+            options.remove(key);
+        } else {
+            options.put(key, Collections.singletonList(value));
+        }
+    }
+
+    private Tristate resolvePermission(Map<String, Map<Set<Context>, Map<String, Boolean>>> data, GDPermissionHolder holder, String permission, Set<Context> contexts) {
+        final Map<Set<Context>, Map<String, Boolean>> holderData = data.get(holder.getIdentifier());
+        if (holderData == null) {
+            return Tristate.UNDEFINED;
+        }
+
+        String node = permission;
+        while (node != null) {
+            Boolean value = null;
+            int specificity = -1;
+            for (Map.Entry<Set<Context>, Map<String, Boolean>> entry : holderData.entrySet()) {
+                if (entry.getKey().size() <= specificity || !contexts.containsAll(entry.getKey())) {
+                    continue;
+                }
+                final Boolean nodeValue = entry.getValue().get(node);
+                if (nodeValue != null) {
+                    value = nodeValue;
+                    specificity = entry.getKey().size();
+                }
+            }
+            if (value != null) {
+                return Tristate.fromBoolean(value);
+            }
+            final int index = node.lastIndexOf('.');
+            node = index == -1 ? null : node.substring(0, index);
+        }
+        return Tristate.UNDEFINED;
+    }
+
+    private List<String> resolveOption(Map<String, Map<Set<Context>, Map<String, List<String>>>> data, GDPermissionHolder holder, String key, Set<Context> contexts) {
+        final Map<Set<Context>, Map<String, List<String>>> holderData = data.get(holder.getIdentifier());
+        if (holderData == null) {
+            return null;
+        }
+
+        List<String> values = null;
+        int specificity = -1;
+        for (Map.Entry<Set<Context>, Map<String, List<String>>> entry : holderData.entrySet()) {
+            if (entry.getKey().size() <= specificity || !contexts.containsAll(entry.getKey())) {
+                continue;
+            }
+            final List<String> nodeValues = entry.getValue().get(key);
+            if (nodeValues != null) {
+                values = nodeValues;
+                specificity = entry.getKey().size();
+            }
+        }
+        return values;
+    }
+}
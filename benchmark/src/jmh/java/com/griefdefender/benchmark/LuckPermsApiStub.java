@@ -0,0 +1,171 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.benchmark;
+
+import net.luckperms.api.LuckPerms;
+import net.luckperms.api.context.ContextManager;
+import net.luckperms.api.context.ContextSetFactory;
+import net.luckperms.api.context.ImmutableContextSet;
+import net.luckperms.api.context.MutableContextSet;
+import net.luckperms.api.query.QueryOptions;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal in-process LuckPerms API used to measure how GriefDefender builds
+ * context sets and query options.
+ *
+ * <p>Only context set creation and the query options builder are supported.
+ * Both keep their state in plain collections so allocation closely follows
+ * what the calling code requests. Any other API call fails.</p>
+ */
+public final class LuckPermsApiStub {
+
+    private static boolean installed;
+
+    private LuckPermsApiStub() {
+    }
+
+    public static synchronized void install() {
+        if (installed) {
+            return;
+        }
+
+        final ContextSetFactory contextSetFactory = proxy(ContextSetFactory.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "mutable":
+                    return createContextSet(MutableContextSet.class, new ArrayList<>());
+                case "immutableOf":
+                    final List<String[]> entries = new ArrayList<>();
+                    entries.add(new String[] {(String) args[0], (String) args[1]});
+                    return createContextSet(ImmutableContextSet.class, entries);
+                default:
+                    return unsupported(proxy, method, args);
+            }
+        });
+        final ContextManager contextManager = proxy(ContextManager.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getContextSetFactory":
+                    return contextSetFactory;
+                case "queryOptionsBuilder":
+                    return createQueryOptionsBuilder(args[0]);
+                default:
+                    return unsupported(proxy, method, args);
+            }
+        });
+        final LuckPerms luckPerms = proxy(LuckPerms.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getContextManager":
+                    return contextManager;
+                case "getServerName":
+                    return "global";
+                default:
+                    return unsupported(proxy, method, args);
+            }
+        });
+
+        try {
+            final Method register = net.luckperms.api.LuckPermsProvider.class.getDeclaredMethod("register", LuckPerms.class);
+            register.setAccessible(true);
+            register.invoke(null, luckPerms);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not register LuckPerms API stub", e);
+        }
+        installed = true;
+    }
+
+    private static <T> T createContextSet(Class<T> type, List<String[]> entries) {
+        return proxy(type, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "add":
+                    entries.add(new String[] {(String) args[0], (String) args[1]});
+                    return null;
+                case "immutableCopy":
+                    return createContextSet(ImmutableContextSet.class, new ArrayList<>(entries));
+                case "mutableCopy":
+                    return createContextSet(MutableContextSet.class, new ArrayList<>(entries));
+                case "size":
+                    return entries.size();
+                case "isEmpty":
+                    return entries.isEmpty();
+                default:
+                    return unsupported(proxy, method, args);
+            }
+        });
+    }
+
+    private static QueryOptions.Builder createQueryOptionsBuilder(Object mode) {
+        final Map<Object, Object> options = new HashMap<>();
+        return proxy(QueryOptions.Builder.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "build":
+                    final Map<Object, Object> built = new HashMap<>(options);
+                    return proxy(QueryOptions.class, (queryProxy, queryMethod, queryArgs) -> {
+                        switch (queryMethod.getName()) {
+                            case "mode":
+                                return mode;
+                            case "context":
+                                return built.get("context");
+                            default:
+                                return unsupported(queryProxy, queryMethod, queryArgs);
+                        }
+                    });
+                case "option":
+                    options.put(args[0], args[1]);
+                    return proxy;
+                case "context":
+                    options.put("context", args[0]);
+                    return proxy;
+                default:
+                    options.put(method.getName(), args == null ? null : args[0]);
+                    return proxy;
+            }
+        });
+    }
+
+    private static Object unsupported(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return proxy.getClass().getSimpleName();
+            default:
+                throw new UnsupportedOperationException(method.getName() + " is not supported by the LuckPerms API stub");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(LuckPermsApiStub.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+}
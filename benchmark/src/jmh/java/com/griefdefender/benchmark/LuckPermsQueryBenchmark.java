@@ -0,0 +1,80 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.benchmark;
+
+import com.griefdefender.api.permission.Context;
+import com.griefdefender.api.permission.ContextKeys;
+import com.griefdefender.provider.LuckPermsProvider;
+import com.griefdefender.provider.LuckPermsQueryCache;
+import com.griefdefender.provider.PermissionProvider.PermissionDataType;
+import net.luckperms.api.query.QueryOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Measures building LuckPerms query options from GD contexts, as done for
+ * every permission and option lookup, with and without interning.
+ *
+ * <p>Runs against {@link LuckPermsApiStub}. Per lookup allocation can be
+ * compared by running with {@code -PjmhProfilers=gc}.</p>
+ */
+@State(Scope.Benchmark)
+public class LuckPermsQueryBenchmark {
+
+    private LuckPermsQueryCache queryCache;
+    private Set<Context> contexts;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        LuckPermsApiStub.install();
+        this.queryCache = new LuckPermsQueryCache(LuckPermsProvider::createQueryOptions);
+
+        // Typical contexts for a block break inside a claim
+        this.contexts = new HashSet<>();
+        this.contexts.add(new Context("gd_claim", UUID.randomUUID().toString()));
+        this.contexts.add(new Context(ContextKeys.SOURCE, "minecraft:player"));
+        this.contexts.add(new Context(ContextKeys.TARGET, "minecraft:stone"));
+        this.contexts.add(new Context(ContextKeys.TARGET, "minecraft:any"));
+        this.contexts.add(new Context(ContextKeys.STATE, "snowy:false"));
+        this.contexts.add(new Context("server", "global"));
+    }
+
+    @Benchmark
+    public QueryOptions cached() {
+        return this.queryCache.getQueryOptions(this.contexts, PermissionDataType.PERSISTENT);
+    }
+
+    @Benchmark
+    public QueryOptions uncached() {
+        return LuckPermsProvider.createQueryOptions(LuckPermsQueryCache.createContextSet(this.contexts), PermissionDataType.PERSISTENT);
+    }
+}
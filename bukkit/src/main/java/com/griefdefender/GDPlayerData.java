@@ -59,7 +59,8 @@
 import com.griefdefender.api.permission.option.type.CreateModeTypes;
 import com.griefdefender.api.permission.option.type.GameModeType;
 import com.griefdefender.api.permission.option.type.GameModeTypes;
-import com.griefdefender.api.permission.option.type.WeatherType;
+import com.griefdefender.cache.ClaimLocalityCache;
+import com.griefdefender.cache.MovementStateSnapshot;
 import com.griefdefender.cache.EventResultCache;
 import com.griefdefender.cache.MessageCache;
 import com.griefdefender.cache.PermissionHolderCache;
@@ -126,6 +127,7 @@ public class GDPlayerData implements PlayerData {
     public boolean ignoreActiveContexts = true;
 
     public EventResultCache eventResultCache;
+    public final ClaimLocalityCache claimLocalityCache = new ClaimLocalityCache();
 
     // collide event cache
     public int lastCollideEntityId = 0;
@@ -176,11 +178,7 @@ public class GDPlayerData implements PlayerData {
     public boolean userOptionBypassPlayerGamemode = false;
 
     // option cache
-    public Boolean optionNoGodMode = null;
-    public Double optionFlySpeed = null;
-    public Double optionWalkSpeed = null;
-    public GameModeType optionGameModeType = null;
-    public WeatherType optionWeatherType = null;
+    public final MovementStateSnapshot movementState = new MovementStateSnapshot();
 
     public boolean dataInitialized = false;
     public boolean showNoClaimsFoundMessage = true;
@@ -890,11 +888,7 @@ public void onClaimDelete() {
     }
 
     public void resetOptionCache() {
-        this.optionNoGodMode = null;
-        this.optionFlySpeed = null;
-        this.optionWalkSpeed = null;
-        this.optionGameModeType = null;
-        this.optionWeatherType = null;
+        this.movementState.invalidate();
     }
 
     public void onDisconnect() {
@@ -909,6 +903,8 @@ public void onDisconnect() {
         this.ignoreClaims = false;
         this.lastShovelLocation = null;
         this.eventResultCache = null;
+        this.claimLocalityCache.invalidate();
+        this.movementState.invalidate();
         this.claimResizing = null;
         this.claimSubdividing = null;
         this.commandInputTimestamp = null;
@@ -44,7 +44,6 @@
 
 import com.griefdefender.provider.permissionsex.PermissionsExProvider;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.LocaleUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
@@ -77,7 +76,9 @@
 import com.griefdefender.api.permission.option.type.GameModeType;
 import com.griefdefender.api.permission.option.type.WeatherType;
 import com.griefdefender.cache.MessageCache;
+import com.griefdefender.cache.OptionValueCache;
 import com.griefdefender.cache.PermissionHolderCache;
+import com.griefdefender.cache.PermissionIdentifierCache;
 import com.griefdefender.claim.GDClaim;
 import com.griefdefender.claim.GDClaimManager;
 import com.griefdefender.command.CommandAdjustBonusClaimBlocks;
@@ -234,6 +235,7 @@
 import com.griefdefender.task.SignUpdateTask;
 import com.griefdefender.task.TaxApplyTask;
 import com.griefdefender.util.PermissionUtil;
+import com.griefdefender.util.WildcardMatcher;
 
 import co.aikar.commands.BaseCommand;
 import co.aikar.commands.PaperCommandManager;
@@ -721,7 +723,7 @@ public void onDisable() {
                 continue;
             }
     
-            claimWorldManager.save();
+            claimWorldManager.saveAll();
         }
         this.getLogger().info("Save complete.");
     }
@@ -1213,6 +1215,9 @@ public void loadConfig() {
             if (this.tagProvider != null && getMajorMinecraftVersion() > 15) {
                 this.tagProvider.refresh();
             }
+            PermissionIdentifierCache.getInstance().invalidateAll();
+            FlagDecisionCache.getInstance().invalidateAll();
+            OptionValueCache.getInstance().invalidateAll();
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -1297,8 +1302,8 @@ public static GDPermissionUser getOrCreateUser(UUID uuid) {
     }
 
     public static boolean isSourceIdBlacklisted(String flag, Object source, UUID worldUniqueId) {
-        final List<String> flagList = GriefDefenderPlugin.getGlobalConfig().getConfig().blacklist.flagIdBlacklist.get(flag);
-        final boolean checkFlag = flagList != null && !flagList.isEmpty();
+        final WildcardMatcher flagMatcher = GriefDefenderPlugin.getGlobalConfig().getConfig().blacklist.getFlagMatcher(flag);
+        final boolean checkFlag = flagMatcher != null && !flagMatcher.isEmpty();
         final boolean checkGlobal = !GriefDefenderPlugin.getGlobalConfig().getConfig().blacklist.globalSourceBlacklist.isEmpty();
         if (!checkFlag && !checkGlobal) {
             return false;
@@ -1311,28 +1316,18 @@ public static boolean isSourceIdBlacklisted(String flag, Object source, UUID wor
         // Check global
         if (checkGlobal) {
             final BlacklistCategory blacklistCategory = activeConfig.getConfig().blacklist;
-            final List<String> globalSourceBlacklist = blacklistCategory.getGlobalSourceBlacklist();
-            if (globalSourceBlacklist == null) {
+            if (blacklistCategory.getGlobalSourceBlacklist() == null) {
                 return false;
             }
-            for (String str : globalSourceBlacklist) {
-                if (FilenameUtils.wildcardMatch(id, str)) {
-                    return true;
-                }
-                if (FilenameUtils.wildcardMatch(idNoMeta, str)) {
-                    return true;
-                }
+            final WildcardMatcher globalSourceMatcher = blacklistCategory.getGlobalSourceMatcher();
+            if (globalSourceMatcher.matches(id) || globalSourceMatcher.matches(idNoMeta)) {
+                return true;
             }
         }
         // Check flag
         if (checkFlag) {
-            for (String str : flagList) {
-                if (FilenameUtils.wildcardMatch(id, str)) {
-                    return true;
-                }
-                if (FilenameUtils.wildcardMatch(idNoMeta, str)) {
-                    return true;
-                }
+            if (flagMatcher.matches(id) || flagMatcher.matches(idNoMeta)) {
+                return true;
             }
         }
 
@@ -1340,8 +1335,8 @@ public static boolean isSourceIdBlacklisted(String flag, Object source, UUID wor
     }
 
     public static boolean isTargetIdBlacklisted(String flag, Object target, UUID worldUniqueId) {
-        final List<String> flagList = GriefDefenderPlugin.getGlobalConfig().getConfig().blacklist.flagIdBlacklist.get(flag);
-        final boolean checkFlag = flagList != null && !flagList.isEmpty();
+        final WildcardMatcher flagMatcher = GriefDefenderPlugin.getGlobalConfig().getConfig().blacklist.getFlagMatcher(flag);
+        final boolean checkFlag = flagMatcher != null && !flagMatcher.isEmpty();
         final boolean checkGlobal = !GriefDefenderPlugin.getGlobalConfig().getConfig().blacklist.globalTargetBlacklist.isEmpty();
         if (!checkFlag && !checkGlobal) {
             return false;
@@ -1354,28 +1349,18 @@ public static boolean isTargetIdBlacklisted(String flag, Object target, UUID wor
         // Check global
         if (checkGlobal) {
             final BlacklistCategory blacklistCategory = activeConfig.getConfig().blacklist;
-            final List<String> globalTargetBlacklist = blacklistCategory.getGlobalTargetBlacklist();
-            if (globalTargetBlacklist == null) {
+            if (blacklistCategory.getGlobalTargetBlacklist() == null) {
                 return false;
             }
-            for (String str : globalTargetBlacklist) {
-                if (FilenameUtils.wildcardMatch(id, str)) {
-                    return true;
-                }
-                if (FilenameUtils.wildcardMatch(idNoMeta, str)) {
-                    return true;
-                }
+            final WildcardMatcher globalTargetMatcher = blacklistCategory.getGlobalTargetMatcher();
+            if (globalTargetMatcher.matches(id) || globalTargetMatcher.matches(idNoMeta)) {
+                return true;
             }
         }
         // Check flag
         if (checkFlag) {
-            for (String str : flagList) {
-                if (FilenameUtils.wildcardMatch(id, str)) {
-                    return true;
-                }
-                if (FilenameUtils.wildcardMatch(idNoMeta, str)) {
-                    return true;
-                }
+            if (flagMatcher.matches(id) || flagMatcher.matches(idNoMeta)) {
+                return true;
             }
         }
 
@@ -0,0 +1,171 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import com.griefdefender.claim.GDClaim;
+import com.griefdefender.claim.GDClaimManager;
+import com.griefdefender.internal.tracking.chunk.GDChunk;
+import com.griefdefender.internal.util.NMSUtil;
+
+/**
+ * Deduplicates work done for block physics updates within a single tick.
+ *
+ * <p>Redstone clocks and observer chains notify the same positions many
+ * times per tick. Claims are remembered per packed block position until the
+ * tick ends or claims in the world change. Notifier tracking is skipped when
+ * the same user was already recorded for a position during the tick.</p>
+ *
+ * <p>Any other tracking write in a world must call
+ * {@link #invalidateTracking(World)} so a skipped write can never hide a
+ * newer value. All access must happen on the main thread.</p>
+ */
+public class BlockPhysicsTickCache {
+
+    private static BlockPhysicsTickCache instance;
+
+    // Stop remembering positions if a single tick touches more than this
+    private static final int MAX_ENTRIES = 8192;
+
+    private final Map<UUID, WorldEntries> worldEntries = new HashMap<>();
+    private int tick = -1;
+
+    /**
+     * Gets the claim at a block, reusing the result of earlier lookups during
+     * the current tick.
+     *
+     * @param claimManager The claim manager of the block's world
+     * @param block The block
+     * @return The claim at the block
+     */
+    public GDClaim getClaimAt(GDClaimManager claimManager, Block block) {
+        final WorldEntries entries = this.getWorldEntries(claimManager);
+        final Long pos = asLong(block.getX(), block.getY(), block.getZ());
+        GDClaim claim = entries.claims.get(pos);
+        if (claim == null) {
+            claim = (GDClaim) claimManager.getClaimAt(block.getX(), block.getY(), block.getZ());
+            if (entries.claims.size() < MAX_ENTRIES) {
+                entries.claims.put(pos, claim);
+            }
+        }
+        return claim;
+    }
+
+    /**
+     * Checks if a notifier must be tracked for a block.
+     *
+     * <p>Returns false if the same user was already tracked as notifier of
+     * the block in the same chunk during this tick. Otherwise the write is
+     * remembered and true is returned.</p>
+     *
+     * @param claimManager The claim manager of the block's world
+     * @param block The block
+     * @param uuid The notifier's unique id
+     * @return Whether the notifier must be written to the chunk
+     */
+    public boolean shouldTrackNotifier(GDClaimManager claimManager, Block block, UUID uuid) {
+        final WorldEntries entries = this.getWorldEntries(claimManager);
+        final GDChunk gdChunk = claimManager.getChunkIfLoaded(block.getX() >> 4, block.getZ() >> 4);
+        final Long pos = asLong(block.getX(), block.getY(), block.getZ());
+        final TrackedNotifier tracked = entries.notifiers.get(pos);
+        if (tracked != null && gdChunk != null && tracked.chunk == gdChunk && tracked.uuid.equals(uuid)) {
+            return false;
+        }
+
+        if (gdChunk != null && entries.notifiers.size() < MAX_ENTRIES) {
+            entries.notifiers.put(pos, new TrackedNotifier(gdChunk, uuid));
+        } else if (tracked != null) {
+            entries.notifiers.remove(pos);
+        }
+        return true;
+    }
+
+    public void invalidateTracking(World world) {
+        final WorldEntries entries = this.worldEntries.get(world.getUID());
+        if (entries != null) {
+            entries.notifiers.clear();
+        }
+    }
+
+    private WorldEntries getWorldEntries(GDClaimManager claimManager) {
+        final int currentTick = NMSUtil.getInstance().getRunningServerTicks();
+        if (currentTick != this.tick) {
+            this.tick = currentTick;
+            for (WorldEntries entries : this.worldEntries.values()) {
+                entries.claims.clear();
+                entries.notifiers.clear();
+            }
+        }
+
+        WorldEntries entries = this.worldEntries.get(claimManager.getWorldId());
+        if (entries == null) {
+            entries = new WorldEntries();
+            this.worldEntries.put(claimManager.getWorldId(), entries);
+        }
+        if (entries.claimManager != claimManager || entries.claimGeneration != claimManager.getClaimGeneration()) {
+            entries.claimManager = claimManager;
+            entries.claimGeneration = claimManager.getClaimGeneration();
+            entries.claims.clear();
+        }
+        return entries;
+    }
+
+    private static long asLong(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFFL) << 38 | ((long) z & 0x3FFFFFFL) << 12 | (long) y & 0xFFFL;
+    }
+
+    private static class WorldEntries {
+
+        private GDClaimManager claimManager;
+        private int claimGeneration;
+        private final Map<Long, GDClaim> claims = new HashMap<>();
+        private final Map<Long, TrackedNotifier> notifiers = new HashMap<>();
+    }
+
+    private static class TrackedNotifier {
+
+        private final GDChunk chunk;
+        private final UUID uuid;
+
+        private TrackedNotifier(GDChunk chunk, UUID uuid) {
+            this.chunk = chunk;
+            this.uuid = uuid;
+        }
+    }
+
+    static {
+        instance = new BlockPhysicsTickCache();
+    }
+
+    public static BlockPhysicsTickCache getInstance() {
+        return instance;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.cache;
+
+import com.griefdefender.claim.GDClaim;
+import com.griefdefender.claim.GDClaimManager;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the last claim a player was found in so movement and tick
+ * processing can skip the chunk index while the player stays inside it.
+ *
+ * <p>Entries are stamped with the claim manager generation and are
+ * discarded whenever claims in that world are created, resized, deleted
+ * or transferred.</p>
+ */
+public class ClaimLocalityCache {
+
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+
+    private GDClaimManager claimManager;
+    private int generation;
+    private GDClaim lastClaim;
+    private long lastChunkKey;
+    private boolean lastChunkEmpty;
+
+    public GDClaim getLastClaim(GDClaimManager claimManager, int generation) {
+        if (this.claimManager != claimManager || this.generation != generation) {
+            return null;
+        }
+        return this.lastClaim;
+    }
+
+    public boolean isLastChunkEmpty(long chunkKey) {
+        return this.lastChunkEmpty && this.lastChunkKey == chunkKey;
+    }
+
+    public void update(GDClaimManager claimManager, int generation, GDClaim claim, long chunkKey, boolean chunkEmpty) {
+        this.claimManager = claimManager;
+        this.generation = generation;
+        this.lastClaim = claim;
+        this.lastChunkKey = chunkKey;
+        this.lastChunkEmpty = chunkEmpty;
+    }
+
+    public void invalidate() {
+        this.claimManager = null;
+        this.lastClaim = null;
+    }
+
+    public static void recordHit() {
+        HITS.increment();
+    }
+
+    public static void recordMiss() {
+        MISSES.increment();
+    }
+
+    public static long getHitCount() {
+        return HITS.sum();
+    }
+
+    public static long getMissCount() {
+        return MISSES.sum();
+    }
+
+    public static double getHitRate() {
+        final long hits = HITS.sum();
+        final long total = hits + MISSES.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public static void resetStats() {
+        HITS.reset();
+        MISSES.reset();
+    }
+}
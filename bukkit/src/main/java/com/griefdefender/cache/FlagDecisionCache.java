@@ -0,0 +1,225 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.ImmutableSet;
+import com.griefdefender.api.Tristate;
+import com.griefdefender.api.claim.Claim;
+import com.griefdefender.api.claim.TrustType;
+import com.griefdefender.api.permission.Context;
+import com.griefdefender.api.permission.flag.Flag;
+import com.griefdefender.permission.GDPermissionHolder;
+
+import net.kyori.text.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches final flag decisions across ticks.
+ *
+ * <p>Entries are keyed by claim, flag, source, target, holder, trust type,
+ * the holder's ignore and admin claim state and the full set of contexts used
+ * for the lookup. Any change that may affect a decision must invalidate the
+ * affected claim or the entire cache. Invalidating a claim bumps its
+ * generation so existing entries are never matched again and simply age
+ * out. Claims that are deleted or unloaded must be removed so their
+ * generations do not pile up.</p>
+ */
+public class FlagDecisionCache {
+
+    private static FlagDecisionCache instance;
+    private final Cache<Key, Decision> decisionCache = Caffeine.newBuilder().maximumSize(20000)
+            .expireAfterWrite(30, TimeUnit.SECONDS)
+            .build();
+    // Claim UUID -> generation
+    private final Map<UUID, Integer> claimGenerations = new ConcurrentHashMap<>();
+
+    public Key createKey(Claim claim, Flag flag, String sourceId, String targetId, GDPermissionHolder holder, TrustType type, boolean checkOverride,
+            boolean ignoreClaim, boolean manageAdminClaims, Set<Context> contexts) {
+        final UUID claimUniqueId = claim.getUniqueId();
+        return new Key(claimUniqueId, this.claimGenerations.getOrDefault(claimUniqueId, 0), flag, sourceId, targetId, holder == null ? null : holder.getIdentifier(),
+                type, checkOverride, ignoreClaim, manageAdminClaims, contexts);
+    }
+
+    public Decision get(Key key) {
+        return this.decisionCache.getIfPresent(key);
+    }
+
+    public void put(Key key, Tristate result, Component message) {
+        // Store an immutable copy of contexts as callers may reuse their set
+        this.decisionCache.put(key.copy(), new Decision(result, message));
+    }
+
+    public void invalidate(Claim claim) {
+        if (claim == null) {
+            return;
+        }
+
+        this.claimGenerations.merge(claim.getUniqueId(), 1, Integer::sum);
+        // Children may inherit trust and flags from this claim
+        for (Claim child : claim.getChildren(true)) {
+            this.claimGenerations.merge(child.getUniqueId(), 1, Integer::sum);
+        }
+    }
+
+    public void invalidateAll() {
+        this.decisionCache.invalidateAll();
+    }
+
+    // Used when a claim is deleted
+    public void remove(Claim claim) {
+        if (claim == null) {
+            return;
+        }
+
+        this.removeAll(Collections.singleton(claim.getUniqueId()));
+    }
+
+    // Used when a claim is deleted or its world unloads
+    public void removeAll(Collection<UUID> claimUniqueIds) {
+        if (claimUniqueIds.isEmpty()) {
+            return;
+        }
+
+        this.claimGenerations.keySet().removeAll(claimUniqueIds);
+        // The generation restarts at 0 so older entries could match again
+        this.decisionCache.asMap().keySet().removeIf(key -> claimUniqueIds.contains(key.claimUniqueId));
+    }
+
+    public long size() {
+        return this.decisionCache.estimatedSize();
+    }
+
+    int getClaimGenerationCount() {
+        return this.claimGenerations.size();
+    }
+
+    public static final class Key {
+
+        private final UUID claimUniqueId;
+        private final int claimGeneration;
+        private final Flag flag;
+        private final String sourceId;
+        private final String targetId;
+        private final String holderId;
+        private final TrustType trustType;
+        private final boolean checkOverride;
+        private final boolean ignoreClaim;
+        private final boolean manageAdminClaims;
+        private final Set<Context> contexts;
+        private final int hashCode;
+
+        private Key(UUID claimUniqueId, int claimGeneration, Flag flag, String sourceId, String targetId, String holderId, TrustType trustType, boolean checkOverride,
+                boolean ignoreClaim, boolean manageAdminClaims, Set<Context> contexts) {
+            this(claimUniqueId, claimGeneration, flag, sourceId, targetId, holderId, trustType, checkOverride, ignoreClaim, manageAdminClaims, contexts,
+                    Objects.hash(claimUniqueId, claimGeneration, flag, sourceId, targetId, holderId, trustType, checkOverride, ignoreClaim, manageAdminClaims, contexts));
+        }
+
+        private Key(UUID claimUniqueId, int claimGeneration, Flag flag, String sourceId, String targetId, String holderId, TrustType trustType, boolean checkOverride,
+                boolean ignoreClaim, boolean manageAdminClaims, Set<Context> contexts, int hashCode) {
+            this.claimUniqueId = claimUniqueId;
+            this.claimGeneration = claimGeneration;
+            this.flag = flag;
+            this.sourceId = sourceId;
+            this.targetId = targetId;
+            this.holderId = holderId;
+            this.trustType = trustType;
+            this.checkOverride = checkOverride;
+            this.ignoreClaim = ignoreClaim;
+            this.manageAdminClaims = manageAdminClaims;
+            this.contexts = contexts;
+            this.hashCode = hashCode;
+        }
+
+        private Key copy() {
+            return new Key(this.claimUniqueId, this.claimGeneration, this.flag, this.sourceId, this.targetId, this.holderId, this.trustType, this.checkOverride,
+                    this.ignoreClaim, this.manageAdminClaims, ImmutableSet.copyOf(this.contexts), this.hashCode);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return this.hashCode == other.hashCode
+                    && this.claimGeneration == other.claimGeneration
+                    && this.checkOverride == other.checkOverride
+                    && this.ignoreClaim == other.ignoreClaim
+                    && this.manageAdminClaims == other.manageAdminClaims
+                    && Objects.equals(this.flag, other.flag)
+                    && Objects.equals(this.trustType, other.trustType)
+                    && this.claimUniqueId.equals(other.claimUniqueId)
+                    && Objects.equals(this.sourceId, other.sourceId)
+                    && Objects.equals(this.targetId, other.targetId)
+                    && Objects.equals(this.holderId, other.holderId)
+                    && this.contexts.equals(other.contexts);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+    }
+
+    public static final class Decision {
+
+        private final Tristate result;
+        private final Component message;
+
+        private Decision(Tristate result, Component message) {
+            this.result = result;
+            this.message = message;
+        }
+
+        public Tristate getResult() {
+            return this.result;
+        }
+
+        public Component getMessage() {
+            return this.message;
+        }
+    }
+
+    static {
+        instance = new FlagDecisionCache();
+    }
+
+    public static FlagDecisionCache getInstance() {
+        return instance;
+    }
+}
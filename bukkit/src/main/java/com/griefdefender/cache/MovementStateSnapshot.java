@@ -0,0 +1,106 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.cache;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.GameMode;
+import org.bukkit.entity.Player;
+
+import com.google.common.reflect.TypeToken;
+import com.griefdefender.api.permission.option.Option;
+import com.griefdefender.claim.GDClaim;
+import com.griefdefender.permission.GDPermissionHolder;
+import com.griefdefender.permission.GDPermissionManager;
+
+/**
+ * Holds the option values applied to a player on movement for the claim
+ * they are currently in.
+ *
+ * <p>Values are resolved lazily the first time a check needs them and are
+ * reused on every following move. The snapshot is discarded when the player
+ * enters another claim, changes world or game mode, when any option or
+ * permission change invalidates the {@link OptionValueCache}, or when the
+ * permissions plugin reports that the player's contexts changed.</p>
+ */
+public class MovementStateSnapshot {
+
+    private static final Object NULL_VALUE = new Object();
+
+    private final Map<Option<?>, Object> optionValues = new IdentityHashMap<>();
+    private final OptionResolver optionResolver;
+    private GDClaim claim;
+    private UUID worldUniqueId;
+    private GameMode gameMode;
+    private int generation;
+    private volatile boolean invalidated = true;
+
+    public MovementStateSnapshot() {
+        this(GDPermissionManager.getInstance()::getInternalOptionValue);
+    }
+
+    MovementStateSnapshot(OptionResolver optionResolver) {
+        this.optionResolver = optionResolver;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T getOptionValue(TypeToken<T> type, Option<T> option, GDPermissionHolder holder, GDClaim claim, Player player) {
+        this.validate(claim, player);
+        final Object value = this.optionValues.get(option);
+        if (value != null) {
+            return value == NULL_VALUE ? null : (T) value;
+        }
+
+        final T resolvedValue = this.optionResolver.getOptionValue(type, holder, option, claim);
+        this.optionValues.put(option, resolvedValue == null ? NULL_VALUE : resolvedValue);
+        return resolvedValue;
+    }
+
+    public void invalidate() {
+        this.invalidated = true;
+    }
+
+    private void validate(GDClaim claim, Player player) {
+        final int generation = OptionValueCache.getInstance().getGeneration();
+        if (!this.invalidated && this.claim == claim && this.generation == generation
+                && this.gameMode == player.getGameMode() && player.getWorld().getUID().equals(this.worldUniqueId)) {
+            return;
+        }
+
+        this.invalidated = false;
+        this.optionValues.clear();
+        this.claim = claim;
+        this.generation = generation;
+        this.gameMode = player.getGameMode();
+        this.worldUniqueId = player.getWorld().getUID();
+    }
+
+    interface OptionResolver {
+
+        <T> T getOptionValue(TypeToken<T> type, GDPermissionHolder holder, Option<T> option, GDClaim claim);
+    }
+}
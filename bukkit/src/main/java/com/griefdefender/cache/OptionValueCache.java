@@ -0,0 +1,211 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.reflect.TypeToken;
+import com.griefdefender.api.claim.Claim;
+import com.griefdefender.api.claim.ClaimType;
+import com.griefdefender.api.permission.Context;
+import com.griefdefender.api.permission.option.Option;
+import com.griefdefender.permission.GDPermissionHolder;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caches resolved option values.
+ *
+ * <p>Entries are keyed by holder, option, value type, claim, claim type and
+ * the active contexts used for the lookup. Any change to option data must
+ * invalidate the affected holder, claim or the entire cache. Holder and claim
+ * invalidation bump a generation that is part of the key, so stale entries
+ * are never matched again and simply age out. Null results are cached as
+ * well.</p>
+ */
+public class OptionValueCache {
+
+    private static OptionValueCache instance;
+    private static final Object NULL_VALUE = new Object();
+    private final Cache<Key, Object> valueCache = Caffeine.newBuilder().maximumSize(20000)
+            .expireAfterWrite(30, TimeUnit.SECONDS)
+            .build();
+    // Bumped on every invalidation so values held outside this cache can detect changes
+    private final AtomicInteger generation = new AtomicInteger();
+    private final Map<String, Integer> holderGenerations = new ConcurrentHashMap<>();
+    private final Map<UUID, Integer> claimGenerations = new ConcurrentHashMap<>();
+
+    public Key createKey(GDPermissionHolder holder, Option<?> option, TypeToken<?> type, Claim claim, ClaimType claimType, Set<Context> contexts) {
+        final String holderId = holder.getIdentifier();
+        final UUID claimUniqueId = claim == null ? null : claim.getUniqueId();
+        final int claimGeneration = claimUniqueId == null ? 0 : this.claimGenerations.getOrDefault(claimUniqueId, 0);
+        return new Key(holderId, this.holderGenerations.getOrDefault(holderId, 0), option, type, claimUniqueId, claimGeneration,
+                claim == null ? null : claim.getType(), claimType, contexts);
+    }
+
+    /**
+     * Gets a cached value.
+     *
+     * @param key The key
+     * @return The cached value, or null if the value was not cached
+     */
+    public CachedValue get(Key key) {
+        final Object value = this.valueCache.getIfPresent(key);
+        if (value == null) {
+            return null;
+        }
+        return new CachedValue(value == NULL_VALUE ? null : value);
+    }
+
+    public void put(Key key, Object value) {
+        // Store an immutable copy of contexts as callers may reuse their set
+        this.valueCache.put(key.copy(), value == null ? NULL_VALUE : value);
+    }
+
+    public void invalidate(GDPermissionHolder holder) {
+        if (holder == null) {
+            return;
+        }
+
+        this.holderGenerations.merge(holder.getIdentifier(), 1, Integer::sum);
+        this.generation.incrementAndGet();
+    }
+
+    public void invalidate(Claim claim) {
+        if (claim == null) {
+            return;
+        }
+
+        this.claimGenerations.merge(claim.getUniqueId(), 1, Integer::sum);
+        this.generation.incrementAndGet();
+    }
+
+    public void invalidateAll() {
+        this.generation.incrementAndGet();
+        this.valueCache.invalidateAll();
+    }
+
+    public int getGeneration() {
+        return this.generation.get();
+    }
+
+    public long size() {
+        return this.valueCache.estimatedSize();
+    }
+
+    public static final class Key {
+
+        private final String holderId;
+        private final int holderGeneration;
+        private final Option<?> option;
+        private final TypeToken<?> type;
+        private final UUID claimUniqueId;
+        private final int claimGeneration;
+        private final ClaimType currentClaimType;
+        private final ClaimType claimType;
+        private final Set<Context> contexts;
+        private final int hashCode;
+
+        private Key(String holderId, int holderGeneration, Option<?> option, TypeToken<?> type, UUID claimUniqueId, int claimGeneration, ClaimType currentClaimType,
+                ClaimType claimType, Set<Context> contexts) {
+            this(holderId, holderGeneration, option, type, claimUniqueId, claimGeneration, currentClaimType, claimType, contexts,
+                    Objects.hash(holderId, holderGeneration, option, type, claimUniqueId, claimGeneration, currentClaimType, claimType, contexts));
+        }
+
+        private Key(String holderId, int holderGeneration, Option<?> option, TypeToken<?> type, UUID claimUniqueId, int claimGeneration, ClaimType currentClaimType,
+                ClaimType claimType, Set<Context> contexts, int hashCode) {
+            this.holderId = holderId;
+            this.holderGeneration = holderGeneration;
+            this.option = option;
+            this.type = type;
+            this.claimUniqueId = claimUniqueId;
+            this.claimGeneration = claimGeneration;
+            this.currentClaimType = currentClaimType;
+            this.claimType = claimType;
+            this.contexts = contexts;
+            this.hashCode = hashCode;
+        }
+
+        private Key copy() {
+            return new Key(this.holderId, this.holderGeneration, this.option, this.type, this.claimUniqueId, this.claimGeneration, this.currentClaimType,
+                    this.claimType, ImmutableSet.copyOf(this.contexts), this.hashCode);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return this.hashCode == other.hashCode
+                    && this.holderGeneration == other.holderGeneration
+                    && this.claimGeneration == other.claimGeneration
+                    && this.holderId.equals(other.holderId)
+                    && Objects.equals(this.option, other.option)
+                    && Objects.equals(this.type, other.type)
+                    && Objects.equals(this.claimUniqueId, other.claimUniqueId)
+                    && Objects.equals(this.currentClaimType, other.currentClaimType)
+                    && Objects.equals(this.claimType, other.claimType)
+                    && this.contexts.equals(other.contexts);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+    }
+
+    public static final class CachedValue {
+
+        private final Object value;
+
+        private CachedValue(Object value) {
+            this.value = value;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T getValue() {
+            return (T) this.value;
+        }
+    }
+
+    static {
+        instance = new OptionValueCache();
+    }
+
+    public static OptionValueCache getInstance() {
+        return instance;
+    }
+}
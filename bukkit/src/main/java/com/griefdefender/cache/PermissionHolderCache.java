@@ -33,6 +33,7 @@
 import com.griefdefender.util.PermissionUtil;
 
 import org.bukkit.OfflinePlayer;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
@@ -102,6 +103,28 @@ public GDPermissionGroup getOrCreateGroup(String groupName) {
         return holder;
     }
 
+    @Nullable
+    public GDPermissionUser getUserIfPresent(UUID uuid) {
+        if (uuid.equals(GriefDefenderPlugin.PUBLIC_UUID)) {
+            return GriefDefenderPlugin.PUBLIC_USER;
+        }
+        if (uuid.equals(GriefDefenderPlugin.WORLD_USER_UUID)) {
+            return GriefDefenderPlugin.WORLD_USER;
+        }
+        return this.userCache.getIfPresent(uuid);
+    }
+
+    @Nullable
+    public GDPermissionGroup getGroupIfPresent(String groupName) {
+        for (GDPermissionGroup defaultGroup : new GDPermissionGroup[] {GriefDefenderPlugin.DEFAULT_HOLDER, GriefDefenderPlugin.GD_DEFAULT_HOLDER,
+                GriefDefenderPlugin.GD_CLAIM_HOLDER, GriefDefenderPlugin.GD_DEFINITION_HOLDER, GriefDefenderPlugin.GD_OPTION_HOLDER, GriefDefenderPlugin.GD_OVERRIDE_HOLDER}) {
+            if (defaultGroup != null && defaultGroup.getIdentifier().equalsIgnoreCase(groupName)) {
+                return defaultGroup;
+            }
+        }
+        return this.groupCache.getIfPresent(groupName);
+    }
+
     public GDPermissionHolder getOrCreateHolder(String identifier) {
         if (identifier == null) {
             return null;
@@ -0,0 +1,159 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.ImmutableSet;
+import com.griefdefender.api.permission.Context;
+
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Caches permission identifiers and the contexts derived from them.
+ *
+ * <p>Everything stored here is a pure function of an id, block data string or
+ * entity type, so the results can be shared by every event. Contexts that
+ * depend on a specific instance, such as pets or enchantments, are never
+ * cached. Custom id providers can store their resolved ids through
+ * {@link #getCustomIdentifier(String, String, Function)}.</p>
+ *
+ * <p>The cache must be invalidated whenever tags or config are reloaded.</p>
+ */
+public class PermissionIdentifierCache {
+
+    private static PermissionIdentifierCache instance;
+
+    private final Cache<String, String> normalizedIdCache = Caffeine.newBuilder().maximumSize(10000).build();
+    private final Cache<String, Set<Context>> sourceIdContextCache = Caffeine.newBuilder().maximumSize(10000).build();
+    private final Cache<String, Set<Context>> targetIdContextCache = Caffeine.newBuilder().maximumSize(10000).build();
+    private final Cache<String, Set<Context>> blockStateContextCache = Caffeine.newBuilder().maximumSize(10000).build();
+    private final Cache<String, Set<Context>> sourceEntityTypeContextCache = Caffeine.newBuilder().maximumSize(1000).build();
+    private final Cache<String, Set<Context>> targetEntityTypeContextCache = Caffeine.newBuilder().maximumSize(1000).build();
+    private final Cache<String, CustomIdentifier> customIdentifierCache = Caffeine.newBuilder().maximumSize(10000).build();
+
+    /**
+     * Gets the normalized form of a raw permission identifier.
+     *
+     * @param id The raw id
+     * @param normalizer Creates the normalized id on a miss
+     * @return The normalized id
+     */
+    public String getNormalizedId(String id, Function<String, String> normalizer) {
+        return this.normalizedIdCache.get(id, normalizer);
+    }
+
+    /**
+     * Gets the source or target contexts for a namespaced id, including tag contexts.
+     *
+     * @param id The namespaced id
+     * @param isSource Whether the id is the source of the event
+     * @param loader Creates the contexts on a miss
+     * @return An immutable set of contexts
+     */
+    public Set<Context> getIdContexts(String id, boolean isSource, Function<String, Set<Context>> loader) {
+        final Cache<String, Set<Context>> cache = isSource ? this.sourceIdContextCache : this.targetIdContextCache;
+        return cache.get(id, k -> ImmutableSet.copyOf(loader.apply(k)));
+    }
+
+    /**
+     * Gets the block state contexts for a block data string.
+     *
+     * @param blockData The block data string
+     * @param loader Creates the contexts on a miss
+     * @return An immutable set of contexts
+     */
+    public Set<Context> getBlockStateContexts(String blockData, Function<String, Set<Context>> loader) {
+        return this.blockStateContextCache.get(blockData, k -> ImmutableSet.copyOf(loader.apply(k)));
+    }
+
+    /**
+     * Gets the contexts shared by every entity of a type.
+     *
+     * @param typeId The entity type id
+     * @param isSource Whether the entity is the source of the event
+     * @param loader Creates the contexts on a miss
+     * @return An immutable set of contexts
+     */
+    public Set<Context> getEntityTypeContexts(String typeId, boolean isSource, Function<String, Set<Context>> loader) {
+        final Cache<String, Set<Context>> cache = isSource ? this.sourceEntityTypeContextCache : this.targetEntityTypeContextCache;
+        return cache.get(typeId, k -> ImmutableSet.copyOf(loader.apply(k)));
+    }
+
+    /**
+     * Gets an identifier resolved by a custom id provider.
+     *
+     * @param namespace The provider namespace, such as "slimefun"
+     * @param rawId The id as known by the provider
+     * @param resolver Resolves the raw id on a miss
+     * @return The resolved identifier
+     */
+    public CustomIdentifier getCustomIdentifier(String namespace, String rawId, Function<String, CustomIdentifier> resolver) {
+        return this.customIdentifierCache.get(namespace + ":" + rawId, k -> resolver.apply(rawId));
+    }
+
+    public void invalidateAll() {
+        this.normalizedIdCache.invalidateAll();
+        this.sourceIdContextCache.invalidateAll();
+        this.targetIdContextCache.invalidateAll();
+        this.blockStateContextCache.invalidateAll();
+        this.sourceEntityTypeContextCache.invalidateAll();
+        this.targetEntityTypeContextCache.invalidateAll();
+        this.customIdentifierCache.invalidateAll();
+    }
+
+    public static PermissionIdentifierCache getInstance() {
+        return instance;
+    }
+
+    static {
+        instance = new PermissionIdentifierCache();
+    }
+
+    public static class CustomIdentifier {
+
+        private final String id;
+        private final Set<Context> contexts;
+
+        public CustomIdentifier(String id, Set<Context> contexts) {
+            this.id = id;
+            this.contexts = ImmutableSet.copyOf(contexts);
+        }
+
+        public String getId() {
+            return this.id;
+        }
+
+        /**
+         * Gets additional contexts the provider derived from the raw id.
+         *
+         * @return An immutable set of contexts
+         */
+        public Set<Context> getContexts() {
+            return this.contexts;
+        }
+    }
+}
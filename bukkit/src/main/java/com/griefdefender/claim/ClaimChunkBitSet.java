@@ -0,0 +1,172 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks which chunks of a world touch at least one claim.
+ *
+ * <p>Chunks are grouped into 32x32 regions, each stored as a bitset of
+ * sixteen longs. Regions are kept in an open-addressing table keyed by
+ * primitive region keys so a lookup never allocates. Regions are never
+ * removed as claims usually return to the same areas.</p>
+ */
+public class ClaimChunkBitSet {
+
+    private static final LongAdder CLAIM_FREE_SKIPS = new LongAdder();
+
+    private static final int REGION_SHIFT = 5;
+    private static final int REGION_MASK = (1 << REGION_SHIFT) - 1;
+    private static final int REGION_WORDS = (1 << (REGION_SHIFT * 2)) >>> 6;
+    private static final int DEFAULT_CAPACITY = 64;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private long[][] regions;
+    private int size;
+    private int mask;
+    private int resizeThreshold;
+
+    public ClaimChunkBitSet() {
+        this.allocate(DEFAULT_CAPACITY);
+    }
+
+    public boolean get(int cx, int cz) {
+        final int index = this.indexOf(getRegionKey(cx, cz));
+        if (index < 0) {
+            return false;
+        }
+        final int bit = getBitIndex(cx, cz);
+        return (this.regions[index][bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    public boolean get(long chunkKey) {
+        return this.get((int) chunkKey, (int) (chunkKey >>> 32));
+    }
+
+    public void set(long chunkKey) {
+        final int cx = (int) chunkKey;
+        final int cz = (int) (chunkKey >>> 32);
+        final int bit = getBitIndex(cx, cz);
+        this.getOrCreateRegion(getRegionKey(cx, cz))[bit >>> 6] |= 1L << bit;
+    }
+
+    public void clear(long chunkKey) {
+        final int cx = (int) chunkKey;
+        final int cz = (int) (chunkKey >>> 32);
+        final int index = this.indexOf(getRegionKey(cx, cz));
+        if (index < 0) {
+            return;
+        }
+        final int bit = getBitIndex(cx, cz);
+        this.regions[index][bit >>> 6] &= ~(1L << bit);
+    }
+
+    public void clear() {
+        Arrays.fill(this.keys, 0L);
+        Arrays.fill(this.regions, null);
+        this.size = 0;
+    }
+
+    public static void recordClaimFreeSkip() {
+        CLAIM_FREE_SKIPS.increment();
+    }
+
+    public static long getClaimFreeSkipCount() {
+        return CLAIM_FREE_SKIPS.sum();
+    }
+
+    public static void resetStats() {
+        CLAIM_FREE_SKIPS.reset();
+    }
+
+    private long[] getOrCreateRegion(long regionKey) {
+        int slot = mix(regionKey) & this.mask;
+        while (this.regions[slot] != null) {
+            if (this.keys[slot] == regionKey) {
+                return this.regions[slot];
+            }
+            slot = (slot + 1) & this.mask;
+        }
+
+        final long[] region = new long[REGION_WORDS];
+        this.keys[slot] = regionKey;
+        this.regions[slot] = region;
+        if (++this.size >= this.resizeThreshold) {
+            this.allocate(this.keys.length << 1);
+        }
+        return region;
+    }
+
+    private int indexOf(long regionKey) {
+        int slot = mix(regionKey) & this.mask;
+        while (this.regions[slot] != null) {
+            if (this.keys[slot] == regionKey) {
+                return slot;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        return -1;
+    }
+
+    private void allocate(int capacity) {
+        final long[] oldKeys = this.keys;
+        final long[][] oldRegions = this.regions;
+        this.keys = new long[capacity];
+        this.regions = new long[capacity][];
+        this.mask = capacity - 1;
+        this.resizeThreshold = (int) (capacity * LOAD_FACTOR);
+        if (oldRegions == null) {
+            return;
+        }
+
+        for (int i = 0; i < oldRegions.length; i++) {
+            if (oldRegions[i] == null) {
+                continue;
+            }
+            int slot = mix(oldKeys[i]) & this.mask;
+            while (this.regions[slot] != null) {
+                slot = (slot + 1) & this.mask;
+            }
+            this.keys[slot] = oldKeys[i];
+            this.regions[slot] = oldRegions[i];
+        }
+    }
+
+    private static long getRegionKey(int cx, int cz) {
+        return (long) (cx >> REGION_SHIFT) & 0xffffffffL | ((long) (cz >> REGION_SHIFT) & 0xffffffffL) << 32;
+    }
+
+    private static int getBitIndex(int cx, int cz) {
+        return ((cz & REGION_MASK) << REGION_SHIFT) | (cx & REGION_MASK);
+    }
+
+    private static int mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import com.griefdefender.api.claim.Claim;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps chunk keys to the claims that touch them.
+ *
+ * <p>Keys are stored as primitive longs in an open-addressing table so lookups
+ * never box the chunk key. Each chunk holds a compact claim array sorted by
+ * nesting depth, shallowest first. Arrays are replaced on every change so a
+ * returned array is safe to iterate while the index is modified.</p>
+ */
+public class ClaimChunkIndex {
+
+    private static final int DEFAULT_CAPACITY = 256;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private GDClaim[][] values;
+    private int size;
+    private int mask;
+    private int resizeThreshold;
+
+    public ClaimChunkIndex() {
+        this.allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Gets the claims touching the chunk key.
+     *
+     * <p>The returned array must not be modified.</p>
+     *
+     * @param chunkKey The chunk key
+     * @return The claims sorted by nesting depth, or null if none
+     */
+    public GDClaim[] get(long chunkKey) {
+        int index = this.indexOf(chunkKey);
+        return index < 0 ? null : this.values[index];
+    }
+
+    public boolean containsKey(long chunkKey) {
+        return this.indexOf(chunkKey) >= 0;
+    }
+
+    public boolean add(long chunkKey, GDClaim claim) {
+        int slot = mix(chunkKey) & this.mask;
+        while (this.values[slot] != null) {
+            if (this.keys[slot] == chunkKey) {
+                final GDClaim[] claims = this.values[slot];
+                for (GDClaim existing : claims) {
+                    if (existing.equals(claim)) {
+                        return false;
+                    }
+                }
+                this.values[slot] = insertSorted(claims, claim);
+                return true;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+
+        this.keys[slot] = chunkKey;
+        this.values[slot] = new GDClaim[] {claim};
+        if (++this.size >= this.resizeThreshold) {
+            this.allocate(this.keys.length << 1);
+        }
+        return true;
+    }
+
+    public boolean remove(long chunkKey, Claim claim) {
+        final int index = this.indexOf(chunkKey);
+        if (index < 0) {
+            return false;
+        }
+
+        final GDClaim[] claims = this.values[index];
+        int found = -1;
+        for (int i = 0; i < claims.length; i++) {
+            if (claims[i].equals(claim)) {
+                found = i;
+                break;
+            }
+        }
+        if (found < 0) {
+            return false;
+        }
+        if (claims.length == 1) {
+            this.removeSlot(index);
+            return true;
+        }
+
+        final GDClaim[] newClaims = new GDClaim[claims.length - 1];
+        System.arraycopy(claims, 0, newClaims, 0, found);
+        System.arraycopy(claims, found + 1, newClaims, found, claims.length - found - 1);
+        this.values[index] = newClaims;
+        return true;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(this.keys, 0L);
+        Arrays.fill(this.values, null);
+        this.size = 0;
+    }
+
+    /**
+     * Creates a snapshot of this index in the {@link Map} form exposed by the API.
+     *
+     * @return An unmodifiable chunk key to claim set map
+     */
+    public Map<Long, Set<Claim>> toMap() {
+        final Map<Long, Set<Claim>> map = new HashMap<>(this.size * 2);
+        for (int i = 0; i < this.values.length; i++) {
+            final GDClaim[] claims = this.values[i];
+            if (claims == null) {
+                continue;
+            }
+            map.put(this.keys[i], Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(claims))));
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    private int indexOf(long chunkKey) {
+        int slot = mix(chunkKey) & this.mask;
+        while (this.values[slot] != null) {
+            if (this.keys[slot] == chunkKey) {
+                return slot;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        return -1;
+    }
+
+    // Backward shift deletion keeps probe sequences intact without tombstones
+    private void removeSlot(int slot) {
+        int hole = slot;
+        int next = (hole + 1) & this.mask;
+        while (this.values[next] != null) {
+            final int home = mix(this.keys[next]) & this.mask;
+            // Move the entry back if the hole lies cyclically between its home slot and its current slot
+            if (((next - home) & this.mask) >= ((next - hole) & this.mask)) {
+                this.keys[hole] = this.keys[next];
+                this.values[hole] = this.values[next];
+                hole = next;
+            }
+            next = (next + 1) & this.mask;
+        }
+        this.keys[hole] = 0L;
+        this.values[hole] = null;
+        this.size--;
+    }
+
+    private void allocate(int capacity) {
+        final long[] oldKeys = this.keys;
+        final GDClaim[][] oldValues = this.values;
+        this.keys = new long[capacity];
+        this.values = new GDClaim[capacity][];
+        this.mask = capacity - 1;
+        this.resizeThreshold = (int) (capacity * LOAD_FACTOR);
+        if (oldValues == null) {
+            return;
+        }
+
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == null) {
+                continue;
+            }
+            int slot = mix(oldKeys[i]) & this.mask;
+            while (this.values[slot] != null) {
+                slot = (slot + 1) & this.mask;
+            }
+            this.keys[slot] = oldKeys[i];
+            this.values[slot] = oldValues[i];
+        }
+    }
+
+    private static GDClaim[] insertSorted(GDClaim[] claims, GDClaim claim) {
+        final int depth = getDepth(claim);
+        int index = claims.length;
+        while (index > 0 && getDepth(claims[index - 1]) > depth) {
+            index--;
+        }
+        final GDClaim[] newClaims = new GDClaim[claims.length + 1];
+        System.arraycopy(claims, 0, newClaims, 0, index);
+        newClaims[index] = claim;
+        System.arraycopy(claims, index, newClaims, index + 1, claims.length - index);
+        return newClaims;
+    }
+
+    private static int getDepth(GDClaim claim) {
+        int depth = 0;
+        GDClaim parent = claim.parent;
+        while (parent != null) {
+            depth++;
+            parent = parent.parent;
+        }
+        return depth;
+    }
+
+    private static int mix(long key) {
+        // Chunk keys pack x and z into each half, spread both across the table
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
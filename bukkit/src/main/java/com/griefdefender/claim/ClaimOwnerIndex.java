@@ -0,0 +1,87 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import com.griefdefender.api.claim.Claim;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Maps owners to the top level claims they own in a world.
+ *
+ * <p>Admin and wilderness claims are never indexed. The owner each claim
+ * was indexed under is remembered so a claim can be moved after its owner
+ * changes.</p>
+ */
+public class ClaimOwnerIndex {
+
+    // Owner UUID -> top level claims
+    private final Map<UUID, Set<Claim>> ownerToClaims = new HashMap<>();
+    // Claim UUID -> indexed owner UUID
+    private final Map<UUID, UUID> claimToOwner = new HashMap<>();
+
+    public void add(GDClaim claim) {
+        this.remove(claim);
+        if (claim.isAdminClaim() || claim.isWilderness()) {
+            return;
+        }
+
+        final UUID ownerUniqueId = claim.getOwnerUniqueId();
+        if (ownerUniqueId == null) {
+            return;
+        }
+        this.ownerToClaims.computeIfAbsent(ownerUniqueId, k -> new HashSet<>()).add(claim);
+        this.claimToOwner.put(claim.getUniqueId(), ownerUniqueId);
+    }
+
+    public void remove(Claim claim) {
+        final UUID ownerUniqueId = this.claimToOwner.remove(claim.getUniqueId());
+        if (ownerUniqueId == null) {
+            return;
+        }
+        final Set<Claim> claims = this.ownerToClaims.get(ownerUniqueId);
+        if (claims != null) {
+            claims.remove(claim);
+            if (claims.isEmpty()) {
+                this.ownerToClaims.remove(ownerUniqueId);
+            }
+        }
+    }
+
+    public Set<Claim> getClaims(UUID ownerUniqueId) {
+        final Set<Claim> claims = this.ownerToClaims.get(ownerUniqueId);
+        return claims == null ? Collections.emptySet() : Collections.unmodifiableSet(claims);
+    }
+
+    public void clear() {
+        this.ownerToClaims.clear();
+        this.claimToOwner.clear();
+    }
+}
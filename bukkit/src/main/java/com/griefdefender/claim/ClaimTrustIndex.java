@@ -0,0 +1,143 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import com.griefdefender.api.claim.TrustType;
+import com.griefdefender.api.claim.TrustTypes;
+import com.griefdefender.configuration.IClaimData;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Maps users to the trust types they were directly granted in a claim.
+ *
+ * <p>Trust is stored as a bitmask per user so a check is a single hash
+ * lookup regardless of how many users are trusted. The index is built
+ * lazily from the claim data lists and must be invalidated whenever one of
+ * those lists is modified. Replacing a list, such as when claim data is
+ * reloaded, is detected automatically.</p>
+ */
+public class ClaimTrustIndex {
+
+    public static final int ACCESSOR = 1;
+    public static final int CONTAINER = 1 << 1;
+    public static final int BUILDER = 1 << 2;
+    public static final int MANAGER = 1 << 3;
+
+    private final GDClaim claim;
+    private volatile Snapshot snapshot;
+
+    public ClaimTrustIndex(GDClaim claim) {
+        this.claim = claim;
+    }
+
+    /**
+     * Checks if a user was directly granted a trust type, or a type that
+     * implies it, in this claim.
+     *
+     * @param uuid The user's unique id
+     * @param type The trust type
+     * @return Whether the user holds the trust
+     */
+    public boolean hasTrust(UUID uuid, TrustType type) {
+        final int requiredBits = getRequiredBits(type);
+        if (requiredBits == 0) {
+            return false;
+        }
+
+        final Integer bits = this.getSnapshot().trustBits.get(uuid);
+        return bits != null && (bits & requiredBits) != 0;
+    }
+
+    public void invalidate() {
+        this.snapshot = null;
+    }
+
+    private Snapshot getSnapshot() {
+        final IClaimData data = this.claim.getInternalClaimData();
+        Snapshot snapshot = this.snapshot;
+        if (snapshot == null || !snapshot.isBuiltFrom(data)) {
+            snapshot = new Snapshot(data);
+            this.snapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    // Bits of every trust type that grants the requested type
+    private static int getRequiredBits(TrustType type) {
+        if (type == TrustTypes.ACCESSOR) {
+            return ACCESSOR | CONTAINER | BUILDER | MANAGER;
+        }
+        if (type == TrustTypes.CONTAINER) {
+            return CONTAINER | BUILDER | MANAGER;
+        }
+        if (type == TrustTypes.BUILDER) {
+            return BUILDER | MANAGER;
+        }
+        if (type == TrustTypes.MANAGER) {
+            return MANAGER;
+        }
+        return 0;
+    }
+
+    private static class Snapshot {
+
+        private final List<UUID> accessors;
+        private final List<UUID> containers;
+        private final List<UUID> builders;
+        private final List<UUID> managers;
+        private final Map<UUID, Integer> trustBits;
+
+        private Snapshot(IClaimData data) {
+            this.accessors = data.getAccessors();
+            this.containers = data.getContainers();
+            this.builders = data.getBuilders();
+            this.managers = data.getManagers();
+            final Map<UUID, Integer> trustBits = new HashMap<>();
+            addBits(trustBits, this.accessors, ACCESSOR);
+            addBits(trustBits, this.containers, CONTAINER);
+            addBits(trustBits, this.builders, BUILDER);
+            addBits(trustBits, this.managers, MANAGER);
+            this.trustBits = Collections.unmodifiableMap(trustBits);
+        }
+
+        private boolean isBuiltFrom(IClaimData data) {
+            return this.accessors == data.getAccessors()
+                    && this.containers == data.getContainers()
+                    && this.builders == data.getBuilders()
+                    && this.managers == data.getManagers();
+        }
+
+        private static void addBits(Map<UUID, Integer> trustBits, List<UUID> uuids, int bit) {
+            for (UUID uuid : uuids) {
+                trustBits.merge(uuid, bit, (a, b) -> a | b);
+            }
+        }
+    }
+}
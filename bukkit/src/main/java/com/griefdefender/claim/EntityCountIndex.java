@@ -0,0 +1,181 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import com.griefdefender.internal.tracking.chunk.GDChunk;
+import com.griefdefender.internal.util.NMSUtil;
+import com.griefdefender.util.BlockUtil;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.IntSupplier;
+import java.util.function.LongFunction;
+
+/**
+ * Tracks living entity counts per loaded chunk and entity type for spawn
+ * limit checks.
+ *
+ * <p>Counts are adjusted as entities spawn, die and teleport. Entities can
+ * also walk between chunks or be removed without an event, so a chunk is
+ * recounted once its counts are older than {@link #RECONCILE_INTERVAL_TICKS}.
+ * Reaching a limit recounts the chunks of the claim at most once per interval
+ * for each entity type, so a claim sitting at its limit is not rescanned on
+ * every spawn attempt.</p>
+ */
+public class EntityCountIndex {
+
+    static final int RECONCILE_INTERVAL_TICKS = 100;
+    private static final int ENTITY_TYPE_COUNT = EntityType.values().length;
+
+    // Chunk key -> entity counts
+    private final Map<Long, ChunkCounts> chunkCounts = new HashMap<>();
+    // Claim -> tick of the last recount at the limit, per entity type
+    private final Map<UUID, int[]> limitRecountTicks = new HashMap<>();
+    private final LongFunction<Chunk> chunkLookup;
+    private final IntSupplier tickSupplier;
+
+    public EntityCountIndex(GDClaimManager claimManager) {
+        this(chunkKey -> {
+            final GDChunk gdChunk = claimManager.getChunk(chunkKey);
+            return gdChunk == null ? null : gdChunk.getHandle();
+        }, () -> NMSUtil.getInstance().getRunningServerTicks());
+    }
+
+    EntityCountIndex(LongFunction<Chunk> chunkLookup, IntSupplier tickSupplier) {
+        this.chunkLookup = chunkLookup;
+        this.tickSupplier = tickSupplier;
+    }
+
+    /**
+     * Gets the number of entities of a type within the loaded chunks of a claim.
+     *
+     * <p>If the tracked count reaches the limit, the chunks are recounted so
+     * a missed removal denies spawns for at most one reconcile interval.</p>
+     *
+     * @param claim The claim
+     * @param type The entity type
+     * @param limit The spawn limit, or -1 if none
+     * @return The entity count
+     */
+    public int countEntities(GDClaim claim, EntityType type, int limit) {
+        final int count = this.countEntities(claim, type, false);
+        if (limit > -1 && count >= limit) {
+            final int currentTick = this.tickSupplier.getAsInt();
+            final int[] recountTicks = this.limitRecountTicks.computeIfAbsent(claim.getUniqueId(), k -> {
+                final int[] ticks = new int[ENTITY_TYPE_COUNT];
+                Arrays.fill(ticks, currentTick - RECONCILE_INTERVAL_TICKS);
+                return ticks;
+            });
+            if (currentTick - recountTicks[type.ordinal()] >= RECONCILE_INTERVAL_TICKS) {
+                recountTicks[type.ordinal()] = currentTick;
+                return this.countEntities(claim, type, true);
+            }
+        }
+        return count;
+    }
+
+    public void onEntitySpawn(Entity entity) {
+        this.onEntitySpawn(entity, entity.getLocation());
+    }
+
+    public void onEntitySpawn(Entity entity, Location location) {
+        final ChunkCounts counts = this.getCounts(location);
+        if (counts != null) {
+            counts.entityCounts[entity.getType().ordinal()]++;
+        }
+    }
+
+    public void onEntityRemove(Entity entity) {
+        this.onEntityRemove(entity, entity.getLocation());
+    }
+
+    public void onEntityRemove(Entity entity, Location location) {
+        final ChunkCounts counts = this.getCounts(location);
+        if (counts != null && counts.entityCounts[entity.getType().ordinal()] > 0) {
+            counts.entityCounts[entity.getType().ordinal()]--;
+        }
+    }
+
+    public void onChunkLoad(Chunk chunk) {
+        // Entities may not be attached yet so count lazily on first use
+        this.chunkCounts.remove(BlockUtil.getInstance().asLong(chunk.getX(), chunk.getZ()));
+    }
+
+    public void onChunkUnload(Chunk chunk) {
+        this.chunkCounts.remove(BlockUtil.getInstance().asLong(chunk.getX(), chunk.getZ()));
+    }
+
+    public void onClaimDelete(GDClaim claim) {
+        this.limitRecountTicks.remove(claim.getUniqueId());
+    }
+
+    public void clear() {
+        this.chunkCounts.clear();
+        this.limitRecountTicks.clear();
+    }
+
+    private int countEntities(GDClaim claim, EntityType type, boolean recount) {
+        final int currentTick = this.tickSupplier.getAsInt();
+        int count = 0;
+        for (long chunkKey : claim.getLoadedChunkHashes()) {
+            final Chunk chunk = this.chunkLookup.apply(chunkKey);
+            if (chunk == null) {
+                continue;
+            }
+            ChunkCounts counts = this.chunkCounts.get(chunkKey);
+            if (recount || counts == null || currentTick - counts.lastReconcileTick >= RECONCILE_INTERVAL_TICKS) {
+                counts = this.reconcileChunk(chunkKey, chunk, currentTick);
+            }
+            count += counts.entityCounts[type.ordinal()];
+        }
+        return count;
+    }
+
+    private ChunkCounts getCounts(Location location) {
+        return this.chunkCounts.get(BlockUtil.getInstance().asLong(location.getBlockX() >> 4, location.getBlockZ() >> 4));
+    }
+
+    private ChunkCounts reconcileChunk(long chunkKey, Chunk chunk, int currentTick) {
+        final ChunkCounts counts = new ChunkCounts();
+        for (Entity entity : chunk.getEntities()) {
+            counts.entityCounts[entity.getType().ordinal()]++;
+        }
+        counts.lastReconcileTick = currentTick;
+        this.chunkCounts.put(chunkKey, counts);
+        return counts;
+    }
+
+    private static class ChunkCounts {
+
+        private final int[] entityCounts = new int[ENTITY_TYPE_COUNT];
+        private int lastReconcileTick;
+    }
+}
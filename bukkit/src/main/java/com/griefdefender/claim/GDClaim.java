@@ -56,6 +56,7 @@
 import com.griefdefender.api.permission.ContextKeys;
 import com.griefdefender.api.permission.flag.Flags;
 import com.griefdefender.api.permission.option.Options;
+import com.griefdefender.cache.FlagDecisionCache;
 import com.griefdefender.cache.MessageCache;
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.configuration.ClaimDataConfig;
@@ -154,6 +155,7 @@ public class GDClaim implements Claim {
     public Set<Long> loadedChunkHashes = new HashSet<>();
 
     private GDPlayerData ownerPlayerData;
+    private final ClaimTrustIndex trustIndex = new ClaimTrustIndex(this);
 
     public GDClaim(World world, Vector3i point1, Vector3i point2, ClaimType type, UUID ownerUniqueId, boolean cuboid) {
         this(world, point1, point2, type, ownerUniqueId, cuboid, null);
@@ -241,6 +243,7 @@ public void initializeClaimData(GDClaim parent) {
             this.claimStorage = new ClaimStorageData(claimFile.toPath(), this.world.getUID(), this.ownerUniqueId, this.type, this.cuboid);
         }
         this.claimData = this.claimStorage.getConfig();
+        this.bindClaimData();
         this.parent = parent;
         if (parent != null) {
             this.claimStorage.getConfig().setParent(parent.getUniqueId());
@@ -875,6 +878,12 @@ public Set<Long> getChunkHashes(boolean refresh) {
         return this.chunkHashes;
     }
 
+    public Set<Long> getLoadedChunkHashes() {
+        // Fills the loaded chunk hashes on first use
+        this.getChunkHashes();
+        return this.loadedChunkHashes;
+    }
+
     @Override
     public ClaimData getData() {
         return (ClaimData) this.claimData;
@@ -899,6 +908,21 @@ public ClaimStorageData getClaimStorage() {
 
     public void setClaimData(IClaimData data) {
         this.claimData = data;
+        this.bindClaimData();
+    }
+
+    // Queues this claim for the next world save whenever its data requires saving
+    private void bindClaimData() {
+        if (!(this.claimData instanceof ClaimDataConfig)) {
+            return;
+        }
+
+        ((ClaimDataConfig) this.claimData).setSaveListener(() -> {
+            final GDClaimManager claimManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(this.world.getUID());
+            if (claimManager != null) {
+                claimManager.markClaimDirty(this);
+            }
+        });
     }
 
     public void setClaimStorage(ClaimStorageData storage) {
@@ -1007,6 +1031,9 @@ public ClaimResult transferOwner(UUID newOwnerID, boolean checkEconomy, boolean
 
         this.ownerPlayerData = newOwnerData;
         this.getClaimStorage().save();
+        FlagDecisionCache.getInstance().invalidate(this);
+        this.worldClaimManager.invalidateClaimLocality();
+        this.worldClaimManager.updateOwnerIndex(this);
         if (this.isTown()) {
             // update children
             for (Claim child : this.children) {
@@ -1055,24 +1082,43 @@ public ClaimResult doesClaimOverlap() {
         }
 
         final GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(this.world.getUID());
-        final Set<Long> chunkHashes = this.getChunkHashes(true);
-
         // Since there is no parent we need to check all claims stored in chunk hashes
-        for (Long chunkHash : chunkHashes) {
-            Set<Claim> claimsInChunk = claimWorldManager.getInternalChunksToClaimsMap().get(chunkHash);
-            if (claimsInChunk == null || claimsInChunk.size() == 0) {
+        for (GDClaim gpChild : this.getIntersectingChunkClaims(claimWorldManager)) {
+            // First check if newly resized claim is crossing another
+            if (this.isBandingAcross(gpChild) || gpChild.isBandingAcross(this)) {
+                return new GDClaimResult(gpChild, ClaimResultType.OVERLAPPING_CLAIM);
+            }
+        }
+
+        return new GDClaimResult(this, ClaimResultType.SUCCESS);
+    }
+
+    // Gets each claim stored in this claim's chunks once, skipping claims that do not intersect on the x/z plane
+    // Claims with disjoint bounds can never band across, enclose or be enclosed by this claim
+    private List<GDClaim> getIntersectingChunkClaims(GDClaimManager claimWorldManager) {
+        final int minX = this.lesserBoundaryCorner.getX();
+        final int minZ = this.lesserBoundaryCorner.getZ();
+        final int maxX = this.greaterBoundaryCorner.getX();
+        final int maxZ = this.greaterBoundaryCorner.getZ();
+        final Set<GDClaim> visited = new HashSet<>();
+        final List<GDClaim> candidates = new ArrayList<>();
+        for (long chunkHash : this.getChunkHashes(true)) {
+            final GDClaim[] claimsInChunk = claimWorldManager.getChunksToClaimsIndex().get(chunkHash);
+            if (claimsInChunk == null) {
                 continue;
             }
-            for (Claim child : claimsInChunk) {
-                final GDClaim gpChild = (GDClaim) child;
-                // First check if newly resized claim is crossing another
-                if (this.isBandingAcross(gpChild) || gpChild.isBandingAcross(this)) {
-                    return new GDClaimResult(child, ClaimResultType.OVERLAPPING_CLAIM);
+            for (GDClaim chunkClaim : claimsInChunk) {
+                if (!visited.add(chunkClaim)) {
+                    continue;
                 }
+                if (chunkClaim.greaterBoundaryCorner.getX() < minX || chunkClaim.lesserBoundaryCorner.getX() > maxX
+                        || chunkClaim.greaterBoundaryCorner.getZ() < minZ || chunkClaim.lesserBoundaryCorner.getZ() > maxZ) {
+                    continue;
+                }
+                candidates.add(chunkClaim);
             }
         }
-
-        return new GDClaimResult(this, ClaimResultType.SUCCESS);
+        return candidates;
     }
 
     // Scans area for any overlaps and migrates children to a newly created or resized claim
@@ -1113,57 +1159,43 @@ public ClaimResult checkArea(boolean resize) {
         }
 
         final GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(this.world.getUID());
-        final Set<Long> chunkHashes = this.getChunkHashes(true);
+        final Set<Claim> worldClaims = this.worldClaimManager.getWorldClaims();
 
         // Since there is no parent we need to check all claims stored in chunk hashes
-        for (Long chunkHash : chunkHashes) {
-            Set<Claim> claimsInChunk = claimWorldManager.getInternalChunksToClaimsMap().get(chunkHash);
-            if (claimsInChunk == null || claimsInChunk.size() == 0) {
+        for (GDClaim gpChunkClaim : this.getIntersectingChunkClaims(claimWorldManager)) {
+            if (gpChunkClaim.equals(this)) {
+                continue;
+            }
+            if (this.isAdminClaim() && gpChunkClaim.isAdminClaim() && gpChunkClaim.parent != null && gpChunkClaim.parent.equals(this)) {
                 continue;
             }
-            for (Claim chunkClaim : claimsInChunk) {
-                final GDClaim gpChunkClaim = (GDClaim) chunkClaim;
-                if (gpChunkClaim.equals(this) || claimsInArea.contains(gpChunkClaim)) {
-                    continue;
-                }
-                if (this.isAdminClaim() && gpChunkClaim.isAdminClaim() && gpChunkClaim.parent != null && gpChunkClaim.parent.equals(this)) {
-                    continue;
-                }
 
-                // validate this claim exists
-                boolean claimExists = false;
-                for (Claim claim : this.worldClaimManager.getWorldClaims()) {
-                    if (claim.getUniqueId().equals(chunkClaim.getUniqueId())) {
-                        claimExists = true;
-                        break;
+            // validate this claim exists
+            if (!worldClaims.contains(gpChunkClaim)) {
+                //GriefDefenderPlugin.getInstance().getLogger().warning("Detected Ghost chunk claim with the following data [UUID:  " + gpChunkClaim.getUniqueId() + ", Owner: " + gpChunkClaim.getOwnerName() + ", Type: " + gpChunkClaim.getType().getName() + "]. Ignoring...");
+                continue;
+            }
+            // First check if new claim is crossing another
+            if (this.isBandingAcross(gpChunkClaim) || gpChunkClaim.isBandingAcross(this)) {
+                return new GDClaimResult(gpChunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
+            }
+            if (gpChunkClaim.isInside(this)) {
+                 if (!this.isAdminClaim()) {
+                    if (this.type.equals(gpChunkClaim.type) || gpChunkClaim.isAdminClaim()) {
+                        return new GDClaimResult(gpChunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
                     }
                 }
-                if (!claimExists) {
-                    //GriefDefenderPlugin.getInstance().getLogger().warning("Detected Ghost chunk claim with the following data [UUID:  " + chunkClaim.getUniqueId() + ", Owner: " + chunkClaim.getOwnerName() + ", Type: " + chunkClaim.getType().getName() + "]. Ignoring...");
-                    continue;
-                }
-                // First check if new claim is crossing another
-                if (this.isBandingAcross(gpChunkClaim) || gpChunkClaim.isBandingAcross(this)) {
+                if (!this.canEnclose(gpChunkClaim)) {
                     return new GDClaimResult(gpChunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
                 }
-                if (gpChunkClaim.isInside(this)) {
-                     if (!this.isAdminClaim()) {
-                        if (this.type.equals(gpChunkClaim.type) || gpChunkClaim.isAdminClaim()) {
-                            return new GDClaimResult(gpChunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
-                        }
-                    }
-                    if (!this.canEnclose(gpChunkClaim)) {
-                        return new GDClaimResult(gpChunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
-                    }
-                    if (!this.isSubdivision()) {
-                        claimsInArea.add(gpChunkClaim);
-                    }
-                } else if (this.isInside(gpChunkClaim)) {
-                    // Fix WorldEdit issue
-                    // Make sure to check if chunk claim can enclose newly created claim
-                    if (!gpChunkClaim.canEnclose(this)) {
-                        return new GDClaimResult(gpChunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
-                    }
+                if (!this.isSubdivision()) {
+                    claimsInArea.add(gpChunkClaim);
+                }
+            } else if (this.isInside(gpChunkClaim)) {
+                // Fix WorldEdit issue
+                // Make sure to check if chunk claim can enclose newly created claim
+                if (!gpChunkClaim.canEnclose(this)) {
+                    return new GDClaimResult(gpChunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
                 }
             }
         }
@@ -1448,29 +1480,22 @@ public ClaimResult resize(int x1, int x2, int y1, int y2, int z1, int z2) {
 
         // resize validated, remove invalid chunkHashes
         if (this.parent == null) {
-            for (Long chunkHash : currentChunkHashes) {
-                Set<Claim> claimsInChunk = claimWorldManager.getInternalChunksToClaimsMap().get(chunkHash);
-                if (claimsInChunk != null && claimsInChunk.size() > 0) {
-                    claimsInChunk.remove(this);
-                }
+            for (long chunkHash : currentChunkHashes) {
+                claimWorldManager.getChunksToClaimsIndex().remove(chunkHash, this);
             }
 
             final Set<Long> newChunkHashes = this.getChunkHashes(true);
             // add new chunk hashes
-            for (Long chunkHash : newChunkHashes) {
-                Set<Claim> claimsInChunk = claimWorldManager.getInternalChunksToClaimsMap().get(chunkHash);
-                if (claimsInChunk == null) {
-                    claimsInChunk = new HashSet<>();
-                    claimWorldManager.getInternalChunksToClaimsMap().put(chunkHash, claimsInChunk);
-                }
-
-                claimsInChunk.add(this);
+            for (long chunkHash : newChunkHashes) {
+                claimWorldManager.getChunksToClaimsIndex().add(chunkHash, this);
             }
         }
 
         this.claimData.setLesserBoundaryCorner(BlockUtil.getInstance().posToString(this.lesserBoundaryCorner));
         this.claimData.setGreaterBoundaryCorner(BlockUtil.getInstance().posToString(this.greaterBoundaryCorner));
         this.claimData.setRequiresSave(true);
+        FlagDecisionCache.getInstance().invalidate(this);
+        claimWorldManager.invalidateClaimLocality();
         this.getClaimStorage().save();
 
         if (result.getClaims().size() > 1) {
@@ -1897,6 +1922,7 @@ public ClaimResult changeType(ClaimType type, Optional<UUID> ownerUniqueId, Comm
                 this.setClaimStorage(new ClaimStorageData(newPath, this.getWorldUniqueId(), (ClaimDataConfig) this.getInternalClaimData()));
             }
             this.claimData = this.claimStorage.getConfig();
+            this.bindClaimData();
             this.getClaimStorage().save();
         } catch (IOException e) {
             e.printStackTrace();
@@ -1940,6 +1966,9 @@ public ClaimResult changeType(ClaimType type, Optional<UUID> ownerUniqueId, Comm
         this.setType(type);
         this.claimVisual = null;
         this.getInternalClaimData().setRequiresSave(true);
+        FlagDecisionCache.getInstance().invalidate(this);
+        this.worldClaimManager.invalidateClaimLocality();
+        this.worldClaimManager.updateOwnerIndex(this);
         this.getClaimStorage().save();
         return new GDClaimResult(ClaimResultType.SUCCESS);
     }
@@ -2033,17 +2062,8 @@ public int getSpawnLimit(Set<Context> contexts) {
         return GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Integer.class), GriefDefenderPlugin.DEFAULT_HOLDER, Options.SPAWN_LIMIT, this, new HashSet<>(contexts));
     }
 
-    public int countEntities(Entity spawnedEntity) {
-        int count = 0;
-        for (Chunk chunk : this.getChunks()) {
-            for (Entity entity : chunk.getEntities()) {
-                if (spawnedEntity.getType() == entity.getType()) {
-                    count++;
-                }
-            }
-        }
-
-        return count;
+    public int countEntities(Entity spawnedEntity, int spawnLimit) {
+        return this.worldClaimManager.getEntityCountIndex().countEntities(this, spawnedEntity.getType(), spawnLimit);
     }
 
     @Override
@@ -2134,40 +2154,8 @@ public boolean isUserTrusted(GDPermissionUser user, TrustType type, Set<Context>
             return true;
         }
 
-        if (type == TrustTypes.ACCESSOR) {
-            if (this.claimData.getAccessors().contains(user.getUniqueId())) {
-                return true;
-            }
-            if (this.claimData.getBuilders().contains(user.getUniqueId())) {
-                return true;
-            }
-            if (this.claimData.getContainers().contains(user.getUniqueId())) {
-                return true;
-            }
-            if (this.claimData.getManagers().contains(user.getUniqueId())) {
-                return true;
-            }
-        } else if (type == TrustTypes.BUILDER) {
-            if (this.claimData.getBuilders().contains(user.getUniqueId())) {
-                return true;
-            }
-            if (this.claimData.getManagers().contains(user.getUniqueId())) {
-                return true;
-            }
-        } else if (type == TrustTypes.CONTAINER) {
-            if (this.claimData.getContainers().contains(user.getUniqueId())) {
-                return true;
-            }
-            if (this.claimData.getBuilders().contains(user.getUniqueId())) {
-                return true;
-            }
-            if (this.claimData.getManagers().contains(user.getUniqueId())) {
-                return true;
-            }
-        } else if (type == TrustTypes.MANAGER) {
-            if (this.claimData.getManagers().contains(user.getUniqueId())) {
-                return true;
-            }
+        if (this.trustIndex.hasTrust(user.getUniqueId(), type)) {
+            return true;
         }
 
         if (contexts == null) {
@@ -2258,6 +2246,8 @@ public ClaimResult addUserTrust(UUID uuid, TrustType type) {
         }
 
         this.claimData.setRequiresSave(true);
+        this.trustIndex.invalidate();
+        FlagDecisionCache.getInstance().invalidate(this);
         this.claimData.save();
         return new GDClaimResult(this, ClaimResultType.SUCCESS);
     }
@@ -2278,6 +2268,8 @@ public ClaimResult addUserTrusts(List<UUID> uuids, TrustType type) {
         }
 
         this.claimData.setRequiresSave(true);
+        this.trustIndex.invalidate();
+        FlagDecisionCache.getInstance().invalidate(this);
         this.claimData.save();
         return new GDClaimResult(this, ClaimResultType.SUCCESS);
     }
@@ -2293,12 +2285,16 @@ public ClaimResult removeUserTrust(UUID uuid, TrustType type) {
         if (type == TrustTypes.NONE) {
             final ClaimResult result = this.removeAllTrustsFromUser(uuid);
             this.claimData.setRequiresSave(true);
+            this.trustIndex.invalidate();
+            FlagDecisionCache.getInstance().invalidate(this);
             this.claimData.save();
             return result;
         }
 
         this.getUserTrustList(type).remove(uuid);
         this.claimData.setRequiresSave(true);
+        this.trustIndex.invalidate();
+        FlagDecisionCache.getInstance().invalidate(this);
         this.claimData.save();
         return new GDClaimResult(this, ClaimResultType.SUCCESS);
     }
@@ -2317,6 +2313,8 @@ public ClaimResult removeUserTrusts(List<UUID> uuids, TrustType type) {
             }
 
             this.claimData.setRequiresSave(true);
+            this.trustIndex.invalidate();
+            FlagDecisionCache.getInstance().invalidate(this);
             this.claimData.save();
             return new GDClaimResult(this, ClaimResultType.SUCCESS);
         }
@@ -2329,6 +2327,8 @@ public ClaimResult removeUserTrusts(List<UUID> uuids, TrustType type) {
         }
 
         this.claimData.setRequiresSave(true);
+        this.trustIndex.invalidate();
+        FlagDecisionCache.getInstance().invalidate(this);
         this.claimData.save();
         return new GDClaimResult(this, ClaimResultType.SUCCESS);
     }
@@ -2347,6 +2347,7 @@ public ClaimResult addGroupTrust(String group, TrustType type) {
         }
 
         this.claimData.setRequiresSave(true);
+        FlagDecisionCache.getInstance().invalidate(this);
         this.claimData.save();
         return new GDClaimResult(this, ClaimResultType.SUCCESS);
     }
@@ -2367,6 +2368,7 @@ public ClaimResult addGroupTrusts(List<String> groups, TrustType type) {
         }
 
         this.claimData.setRequiresSave(true);
+        FlagDecisionCache.getInstance().invalidate(this);
         this.claimData.save();
         return new GDClaimResult(this, ClaimResultType.SUCCESS);
     }
@@ -2382,12 +2384,14 @@ public ClaimResult removeGroupTrust(String group, TrustType type) {
         if (type == TrustTypes.NONE) {
             final ClaimResult result = this.removeAllTrustsFromGroup(group);
             this.claimData.setRequiresSave(true);
+            FlagDecisionCache.getInstance().invalidate(this);
             this.claimData.save();
             return result;
         }
 
         this.getGroupTrustList(type).remove(group);
         this.claimData.setRequiresSave(true);
+        FlagDecisionCache.getInstance().invalidate(this);
         this.claimData.save();
         return new GDClaimResult(this, ClaimResultType.SUCCESS);
     }
@@ -2406,6 +2410,7 @@ public ClaimResult removeGroupTrusts(List<String> groups, TrustType type) {
             }
 
             this.claimData.setRequiresSave(true);
+            FlagDecisionCache.getInstance().invalidate(this);
             this.claimData.save();
             return new GDClaimResult(this, ClaimResultType.SUCCESS);
         }
@@ -2418,6 +2423,7 @@ public ClaimResult removeGroupTrusts(List<String> groups, TrustType type) {
         }
 
         this.claimData.setRequiresSave(true);
+        FlagDecisionCache.getInstance().invalidate(this);
         this.claimData.save();
         return new GDClaimResult(this, ClaimResultType.SUCCESS);
     }
@@ -2447,6 +2453,8 @@ public ClaimResult removeAllTrusts() {
         }
 
         this.claimData.setRequiresSave(true);
+        this.trustIndex.invalidate();
+        FlagDecisionCache.getInstance().invalidate(this);
         this.claimData.save();
         return new GDClaimResult(this, ClaimResultType.SUCCESS);
     }
@@ -2465,6 +2473,8 @@ public ClaimResult removeAllUserTrusts() {
         }
 
         this.claimData.setRequiresSave(true);
+        this.trustIndex.invalidate();
+        FlagDecisionCache.getInstance().invalidate(this);
         this.claimData.save();
         return new GDClaimResult(this, ClaimResultType.SUCCESS);
     }
@@ -2483,6 +2493,7 @@ public ClaimResult removeAllGroupTrusts() {
         }
 
         this.claimData.setRequiresSave(true);
+        FlagDecisionCache.getInstance().invalidate(this);
         this.claimData.save();
         return new GDClaimResult(this, ClaimResultType.SUCCESS);
     }
@@ -2492,6 +2503,8 @@ public ClaimResult removeAllTrustsFromUser(UUID userUniqueId) {
             this.getUserTrustList(type).remove(userUniqueId);
         }
 
+        this.trustIndex.invalidate();
+        FlagDecisionCache.getInstance().invalidate(this);
         return new GDClaimResult(this, ClaimResultType.SUCCESS);
     }
 
@@ -2500,9 +2513,17 @@ public ClaimResult removeAllTrustsFromGroup(String group) {
             this.getGroupTrustList(type).remove(group);
         }
 
+        FlagDecisionCache.getInstance().invalidate(this);
         return new GDClaimResult(this, ClaimResultType.SUCCESS);
     }
 
+    /**
+     * Invalidates the trust index after a user trust list was modified directly.
+     */
+    public void invalidateTrustIndex() {
+        this.trustIndex.invalidate();
+    }
+
     public List<UUID> getUserTrustList(TrustType type) {
         if (type == TrustTypes.NONE) {
             return new ArrayList<>();
@@ -38,13 +38,15 @@
 import com.griefdefender.api.claim.ClaimResultType;
 import com.griefdefender.api.claim.ClaimTypes;
 import com.griefdefender.api.permission.option.Options;
+import com.griefdefender.cache.ClaimLocalityCache;
+import com.griefdefender.cache.FlagDecisionCache;
+import com.griefdefender.cache.OptionValueCache;
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.configuration.ClaimDataConfig;
 import com.griefdefender.configuration.ClaimStorageData;
 import com.griefdefender.event.GDRemoveClaimEvent;
 import com.griefdefender.internal.tracking.PlayerIndexStorage;
 import com.griefdefender.internal.tracking.chunk.GDChunk;
-import com.griefdefender.internal.util.VecHelper;
 import com.griefdefender.permission.GDPermissionManager;
 import com.griefdefender.permission.GDPermissionUser;
 import com.griefdefender.storage.BaseStorage;
@@ -67,7 +69,6 @@
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -89,13 +90,23 @@ public class GDClaimManager implements ClaimManager {
     private Set<Claim> worldClaims = new HashSet<>();
     // Claim UUID -> Claim
     private Map<UUID, Claim> claimUniqueIdMap = Maps.newHashMap();
-    // String -> Claim
-    private Map<Long, Set<Claim>> chunksToClaimsMap = new HashMap<>();
+    // Chunk key -> Claims
+    private final ClaimChunkIndex chunksToClaimsIndex = new ClaimChunkIndex();
+    // Chunks touching any claim, mirrors the keys of chunksToClaimsIndex
+    private final ClaimChunkBitSet claimedChunks = new ClaimChunkBitSet();
+    // Owner UUID -> top level claims
+    private final ClaimOwnerIndex ownerToClaimsIndex = new ClaimOwnerIndex();
     // Entity Index
     public PlayerIndexStorage playerIndexStorage;
     private Map<Long, GDChunk> chunksToGDChunks = new HashMap<>();
+    // Claims and player index changed since the last save
+    private final WorldSaveQueue saveQueue = new WorldSaveQueue();
+    // Living entity counts used for spawn limits
+    private final EntityCountIndex entityCountIndex = new EntityCountIndex(this);
 
     private GDClaim theWildernessClaim;
+    // Bumped on any claim change to invalidate player claim locality caches
+    private int claimGeneration;
 
     public GDClaimManager(World world) {
         this.worldUniqueId = world.getUID();
@@ -129,38 +140,10 @@ private Set<Claim> createPlayerClaimList(UUID playerUniqueId) {
         if (BaseStorage.USE_GLOBAL_PLAYER_STORAGE) {
             for (World world : Bukkit.getServer().getWorlds()) {
                 GDClaimManager claimmanager = DATASTORE.getClaimWorldManager(world.getUID());
-                for (Claim claim : claimmanager.worldClaims) {
-                    GDClaim gdClaim = (GDClaim) claim;
-                    if (gdClaim.isAdminClaim()) {
-                        continue;
-                    }
-                    if (gdClaim.parent != null) {
-                       if (gdClaim.parent.getOwnerUniqueId().equals(playerUniqueId)) {
-                           claimList.add(claim);
-                       }
-                    } else {
-                        if (gdClaim.getOwnerUniqueId().equals(playerUniqueId)) {
-                            claimList.add(claim);
-                        }
-                    }
-                }
+                claimList.addAll(claimmanager.ownerToClaimsIndex.getClaims(playerUniqueId));
             }
         } else {
-            for (Claim claim : this.worldClaims) {
-                GDClaim gdClaim = (GDClaim) claim;
-                if (gdClaim.isAdminClaim()) {
-                    continue;
-                }
-                if (gdClaim.parent != null) {
-                   if (gdClaim.parent.getOwnerUniqueId().equals(playerUniqueId)) {
-                       claimList.add(claim);
-                   }
-                } else {
-                    if (gdClaim.getOwnerUniqueId().equals(playerUniqueId)) {
-                        claimList.add(claim);
-                    }
-                }
-            }
+            claimList.addAll(this.ownerToClaimsIndex.getClaims(playerUniqueId));
         }
 
         return claimList;
@@ -204,6 +187,8 @@ public void addClaim(Claim claimToAdd, boolean writeToStorage) {
 
         // We need to keep track of all claims so they can be referenced by children during server startup
         this.claimUniqueIdMap.put(claim.getUniqueId(), claim);
+        this.markClaimDirty(claim);
+        this.invalidateClaimLocality();
 
         if (claim.isWilderness()) {
             this.theWildernessClaim = claim;
@@ -213,6 +198,7 @@ public void addClaim(Claim claimToAdd, boolean writeToStorage) {
         if (claim.parent != null) {
             claim.parent.children.add(claim);
             this.worldClaims.remove(claim);
+            this.ownerToClaimsIndex.remove(claim);
             this.deleteChunkHashes((GDClaim) claim);
             if (!claim.isAdminClaim() && (!claim.isInTown() || !claim.getTownClaim().getOwnerUniqueId().equals(claim.getOwnerUniqueId()))) {
                 final GDPlayerData playerData = this.getPlayerDataMap().get(claim.getOwnerUniqueId());
@@ -229,6 +215,7 @@ public void addClaim(Claim claimToAdd, boolean writeToStorage) {
         if (!this.worldClaims.contains(claim)) {
             this.worldClaims.add(claim);
         }
+        this.ownerToClaimsIndex.add(claim);
         final UUID ownerId = claim.getOwnerUniqueId();
         final GDPlayerData playerData = this.getPlayerDataMap().get(ownerId);
         if (playerData != null) {
@@ -245,22 +232,20 @@ public void addClaim(Claim claimToAdd, boolean writeToStorage) {
     }
 
     public void updateChunkHashes(GDClaim claim) {
+        this.invalidateClaimLocality();
         this.deleteChunkHashes(claim);
         Set<Long> chunkHashes = claim.getChunkHashes(true);
-        for (Long chunkHash : chunkHashes) {
-            Set<Claim> claimsInChunk = this.getInternalChunksToClaimsMap().get(chunkHash);
-            if (claimsInChunk == null) {
-                claimsInChunk = new HashSet<Claim>();
-                this.getInternalChunksToClaimsMap().put(chunkHash, claimsInChunk);
-            }
-
-            claimsInChunk.add(claim);
+        for (long chunkHash : chunkHashes) {
+            this.chunksToClaimsIndex.add(chunkHash, claim);
+            this.claimedChunks.set(chunkHash);
         }
     }
 
     // Used when parent claims becomes children
     public void removeClaimData(Claim claim) {
+        this.invalidateClaimLocality();
         this.worldClaims.remove(claim);
+        this.ownerToClaimsIndex.remove(claim);
         this.deleteChunkHashes((GDClaim) claim);
     }
 
@@ -277,6 +262,9 @@ public ClaimResult deleteClaim(Claim claim, boolean deleteChildren) {
 
     public ClaimResult deleteClaimInternal(Claim claim, boolean deleteChildren) {
         final GDClaim gdClaim = (GDClaim) claim;
+        FlagDecisionCache.getInstance().invalidate(claim);
+        OptionValueCache.getInstance().invalidate(claim);
+        this.invalidateClaimLocality();
         Set<Claim> subClaims = claim.getChildren(false);
         for (Claim child : subClaims) {
             if (deleteChildren || (gdClaim.parent == null && child.isSubdivision())) {
@@ -310,7 +298,10 @@ public ClaimResult deleteClaimInternal(Claim claim, boolean deleteChildren) {
             economy.deleteBank(claim.getUniqueId().toString());
         }
         this.worldClaims.remove(claim);
+        this.ownerToClaimsIndex.remove(claim);
         this.claimUniqueIdMap.remove(claim.getUniqueId());
+        FlagDecisionCache.getInstance().remove(claim);
+        this.entityCountIndex.onClaimDelete(gdClaim);
         this.deleteChunkHashes((GDClaim) claim);
         if (gdClaim.parent != null) {
             gdClaim.parent.children.remove(claim);
@@ -391,13 +382,9 @@ private void deleteChunkHashes(GDClaim claim) {
             return;
         }
 
-        for (Long chunkHash : chunkHashes) {
-            Set<Claim> claimsInChunk = this.chunksToClaimsMap.get(chunkHash);
-            if (claimsInChunk != null) {
-                claimsInChunk.remove(claim);
-                if (claimsInChunk.isEmpty()) {
-                    this.chunksToClaimsMap.remove(chunkHash);
-                }
+        for (long chunkHash : chunkHashes) {
+            if (this.chunksToClaimsIndex.remove(chunkHash, claim) && !this.chunksToClaimsIndex.containsKey(chunkHash)) {
+                this.claimedChunks.clear(chunkHash);
             }
         }
     }
@@ -435,6 +422,7 @@ public void createWildernessClaim(World world) {
         wilderness.claimStorage.save();
         this.theWildernessClaim = wilderness;
         this.claimUniqueIdMap.put(wilderness.getUniqueId(), wilderness);
+        this.markClaimDirty(wilderness);
     }
 
     @Override
@@ -460,8 +448,8 @@ public Map<UUID, GDPlayerData> getPlayerDataMap() {
 
     public Set<Claim> findOverlappingClaims(Claim claim) {
         Set<Claim> claimSet = new HashSet<>();
-        for (Long chunkHash : claim.getChunkHashes()) {
-            final Set<Claim> chunkClaims = this.chunksToClaimsMap.get(chunkHash);
+        for (long chunkHash : claim.getChunkHashes()) {
+            final GDClaim[] chunkClaims = this.chunksToClaimsIndex.get(chunkHash);
             if (chunkClaims == null) {
                 continue;
             }
@@ -476,37 +464,62 @@ public Set<Claim> findOverlappingClaims(Claim claim) {
 
     @Override
     public Map<Long, Set<Claim>> getChunksToClaimsMap() {
-        return Collections.unmodifiableMap(this.chunksToClaimsMap);
+        return this.chunksToClaimsIndex.toMap();
     }
 
-    public Map<Long, Set<Claim>> getInternalChunksToClaimsMap() {
-        return this.chunksToClaimsMap;
+    public ClaimChunkIndex getChunksToClaimsIndex() {
+        return this.chunksToClaimsIndex;
     }
 
+    /**
+     * Saves the claims changed since the last save, the tracking data of
+     * dirty loaded chunks and the player index if any tracking changed.
+     *
+     * <p>Player data itself is stored by the permission provider, so it is
+     * not written here.</p>
+     */
     public void save() {
-        for (Claim claim : this.worldClaims) {
-            GDClaim gdClaim = (GDClaim) claim;
-            gdClaim.save();
+        this.saveQueue.saveClaims(this.claimUniqueIdMap);
+        this.saveQueue.saveChunks(this.chunksToGDChunks.values());
+        if (this.saveQueue.takePlayerIndexDirty()) {
+            this.playerIndexStorage.savePlayerDatData();
         }
-        this.getWildernessClaim().save();
+    }
 
-        for (GDChunk chunk : this.chunksToGDChunks.values()) {
-            if (!chunk.isDirty()) {
-                continue;
-            }
-            if (chunk.getTrackedShortPlayerPositions().size() > 0) {
-                chunk.saveChunkTrackingData();
-            }
+    /**
+     * Saves everything that requires it regardless of the dirty queue.
+     *
+     * <p>Used on shutdown to catch changes made outside of the queue.</p>
+     */
+    public void saveAll() {
+        for (Claim claim : this.claimUniqueIdMap.values()) {
+            this.markClaimDirty((GDClaim) claim);
         }
+        this.saveQueue.markPlayerIndexDirty();
+        this.save();
+    }
+
+    // Queues a claim for the next save if its data requires it
+    public void markClaimDirty(GDClaim claim) {
+        this.saveQueue.markClaimDirty(claim);
+    }
 
-        this.playerIndexStorage.savePlayerDatData();
+    // Must be called after writing block tracking data to a chunk, the chunk
+    // itself is picked up by the isDirty sweep on save but may unload first
+    public void markChunkDirty(GDChunk chunk) {
+        this.saveQueue.markPlayerIndexDirty();
     }
 
     public void unload() {
+        FlagDecisionCache.getInstance().removeAll(this.claimUniqueIdMap.keySet());
         this.playerDataList.clear();
         this.worldClaims.clear();
+        this.ownerToClaimsIndex.clear();
         this.claimUniqueIdMap.clear();
-        this.chunksToClaimsMap.clear();
+        this.chunksToClaimsIndex.clear();
+        this.claimedChunks.clear();
+        this.entityCountIndex.clear();
+        this.saveQueue.clear();
         if (this.theWildernessClaim != null) {
             this.theWildernessClaim.unload();
             this.theWildernessClaim = null;
@@ -515,77 +528,145 @@ public void unload() {
     }
 
     public Claim getClaimAt(Location location, boolean useBorderBlockRadius) {
-        return this.getClaimAt(VecHelper.toVector3i(location), null, useBorderBlockRadius);
+        return this.getClaimAt(location.getBlockX(), location.getBlockY(), location.getBlockZ(), null, useBorderBlockRadius);
     }
 
     public Claim getClaimAtPlayer(Location location, GDPlayerData playerData) {
-        return this.getClaimAt(VecHelper.toVector3i(location), playerData, false);
+        return this.getClaimAt(location.getBlockX(), location.getBlockY(), location.getBlockZ(), playerData, false);
     }
 
     public Claim getClaimAtPlayer(Location location, GDPlayerData playerData, boolean useBorderBlockRadius) {
-        return this.getClaimAt(VecHelper.toVector3i(location), playerData, useBorderBlockRadius);
+        return this.getClaimAt(location.getBlockX(), location.getBlockY(), location.getBlockZ(), playerData, useBorderBlockRadius);
     }
 
     @Override
     public Claim getClaimAt(Vector3i pos) {
-        return this.getClaimAt(pos, null, false);
+        return this.getClaimAt(pos.getX(), pos.getY(), pos.getZ(), null, false);
     }
 
     @Override
     public Claim getClaimAt(int x, int y, int z) {
-        return this.getClaimAt(new Vector3i(x, y, z), null, false);
+        return this.getClaimAt(x, y, z, null, false);
     }
 
     public Claim getClaimAt(Vector3i pos, GDPlayerData playerData, boolean useBorderBlockRadius) {
-        Set<Claim> claimsInChunk = this.getInternalChunksToClaimsMap().get(BlockUtil.getInstance().asLong(pos.getX() >> 4, pos.getZ() >> 4));
+        return this.getClaimAt(pos.getX(), pos.getY(), pos.getZ(), playerData, useBorderBlockRadius);
+    }
+
+    // Must be called after a claim owner or type changes
+    public void updateOwnerIndex(GDClaim claim) {
+        if (this.worldClaims.contains(claim)) {
+            this.ownerToClaimsIndex.add(claim);
+        } else {
+            this.ownerToClaimsIndex.remove(claim);
+        }
+    }
+
+    public void invalidateClaimLocality() {
+        this.claimGeneration++;
+    }
+
+    public int getClaimGeneration() {
+        return this.claimGeneration;
+    }
+
+    // Used for player movement and ticks where the player usually remains in the same claim
+    public GDClaim getClaimAtPlayerLocality(int x, int y, int z, GDPlayerData playerData) {
+        final ClaimLocalityCache localityCache = playerData.claimLocalityCache;
+        final long chunkKey = BlockUtil.getInstance().asLong(x >> 4, z >> 4);
+        final GDClaim lastClaim = localityCache.getLastClaim(this, this.claimGeneration);
+        if (lastClaim != null) {
+            if (lastClaim.isWilderness()) {
+                if (localityCache.isLastChunkEmpty(chunkKey)) {
+                    ClaimLocalityCache.recordHit();
+                    return lastClaim;
+                }
+            } else {
+                // Top level claims never overlap so a claim containing the position is the only candidate
+                final GDClaim foundClaim = this.findClaim(lastClaim, x, y, z, playerData, false);
+                if (foundClaim != null) {
+                    ClaimLocalityCache.recordHit();
+                    localityCache.update(this, this.claimGeneration, foundClaim, chunkKey, false);
+                    return foundClaim;
+                }
+            }
+        }
+
+        ClaimLocalityCache.recordMiss();
+        final GDClaim[] claimsInChunk = this.chunksToClaimsIndex.get(chunkKey);
+        GDClaim foundClaim = this.findClaim(claimsInChunk, x, y, z, playerData, false);
+        if (foundClaim == null) {
+            foundClaim = this.getWildernessClaim();
+        }
+        localityCache.update(this, this.claimGeneration, foundClaim, chunkKey, claimsInChunk == null);
+        return foundClaim;
+    }
+
+    // Hot path, avoid any allocation here
+    public Claim getClaimAt(int x, int y, int z, GDPlayerData playerData, boolean useBorderBlockRadius) {
+        final long chunkKey = BlockUtil.getInstance().asLong(x >> 4, z >> 4);
+        GDClaim foundClaim = this.findClaim(this.chunksToClaimsIndex.get(chunkKey), x, y, z, playerData, useBorderBlockRadius);
+        if (foundClaim != null) {
+            return foundClaim;
+        }
+
         if (useBorderBlockRadius && (playerData != null && !playerData.bypassBorderCheck)) {
             final int borderBlockRadius = GriefDefenderPlugin.getActiveConfig(this.worldUniqueId).getConfig().claim.borderBlockRadius;
             // if borderBlockRadius > 0, check surrounding chunks
             if (borderBlockRadius > 0) {
                 for (Direction direction : BlockUtil.ORDINAL_SET) {
-                    Vector3i currentPos = pos;
-                    for (int i = 0; i < borderBlockRadius; i++) { // Handle depth
-                        currentPos = BlockUtil.getInstance().getBlockRelative(currentPos, direction); 
-                        Set<Claim> relativeClaims = this.getInternalChunksToClaimsMap().get(BlockUtil.getInstance().asLong(currentPos.getX() >> 4, currentPos.getZ() >> 4));
-                        if (relativeClaims != null) {
-                            if (claimsInChunk == null) {
-                                claimsInChunk = new HashSet<>();
-                            }
-                            claimsInChunk.addAll(relativeClaims);
+                    final int offsetX = direction.asBlockOffset().getX();
+                    final int offsetZ = direction.asBlockOffset().getZ();
+                    long lastChunkKey = chunkKey;
+                    for (int i = 1; i <= borderBlockRadius; i++) { // Handle depth
+                        final long relativeChunkKey = BlockUtil.getInstance().asLong((x + offsetX * i) >> 4, (z + offsetZ * i) >> 4);
+                        if (relativeChunkKey == lastChunkKey || relativeChunkKey == chunkKey) {
+                            continue;
+                        }
+                        lastChunkKey = relativeChunkKey;
+                        foundClaim = this.findClaim(this.chunksToClaimsIndex.get(relativeChunkKey), x, y, z, playerData, useBorderBlockRadius);
+                        if (foundClaim != null) {
+                            return foundClaim;
                         }
                     }
                 }
             }
         }
+
+        // if no claim found, return the world claim
+        return this.getWildernessClaim();
+    }
+
+    private GDClaim findClaim(GDClaim[] claimsInChunk, int x, int y, int z, GDPlayerData playerData, boolean useBorderBlockRadius) {
         if (claimsInChunk == null) {
-            return this.getWildernessClaim();
+            return null;
         }
-
-        for (Claim claim : claimsInChunk) {
-            GDClaim foundClaim = findClaim((GDClaim) claim, pos, playerData, useBorderBlockRadius);
+        for (GDClaim claim : claimsInChunk) {
+            final GDClaim foundClaim = this.findClaim(claim, x, y, z, playerData, useBorderBlockRadius);
             if (foundClaim != null) {
                 return foundClaim;
             }
         }
-
-        // if no claim found, return the world claim
-        return this.getWildernessClaim();
+        return null;
     }
 
-    private GDClaim findClaim(GDClaim claim, Vector3i pos, GDPlayerData playerData, boolean useBorderBlockRadius) {
-        if (claim.contains(pos, playerData, useBorderBlockRadius)) {
+    private GDClaim findClaim(GDClaim claim, int x, int y, int z, GDPlayerData playerData, boolean useBorderBlockRadius) {
+        if (claim.contains(x, y, z, false, playerData, useBorderBlockRadius)) {
             // when we find a top level claim, if the location is in one of its children,
             // return the child claim, not the top level claim
+            if (claim.children.isEmpty()) {
+                return claim;
+            }
             for (Claim childClaim : claim.children) {
                 GDClaim child = (GDClaim) childClaim;
                 if (!child.children.isEmpty()) {
-                    GDClaim innerChild = findClaim(child, pos, playerData, useBorderBlockRadius);
+                    GDClaim innerChild = this.findClaim(child, x, y, z, playerData, useBorderBlockRadius);
                     if (innerChild != null) {
                         return innerChild;
                     }
                 }
                 // check if child has children (Town -> Basic -> Subdivision)
-                if (child.contains(pos, playerData, useBorderBlockRadius)) {
+                if (child.contains(x, y, z, false, playerData, useBorderBlockRadius)) {
                     return child;
                 }
             }
@@ -653,6 +734,19 @@ public void resetPlayerData() {
         }
     }
 
+    /**
+     * Checks if the chunk containing a block position is not touched by any claim.
+     *
+     * <p>Any position in such a chunk is in the wilderness.</p>
+     *
+     * @param x The block x position
+     * @param z The block z position
+     * @return Whether the chunk is claim free
+     */
+    public boolean isClaimFree(int x, int z) {
+        return !this.claimedChunks.get(x >> 4, z >> 4);
+    }
+
     @Override
     public UUID getWorldId() {
         return this.worldUniqueId;
@@ -672,13 +766,41 @@ public GDChunk getChunk(Chunk chunk, boolean force) {
         if (gdChunk == null && force) {
             gdChunk = new GDChunk(chunk);
             this.chunksToGDChunks.put(chunkKey, gdChunk);
-            if (this.chunksToClaimsMap.get(chunkKey) == null) {
+            final GDClaim[] claimsInChunk = this.chunksToClaimsIndex.get(chunkKey);
+            if (claimsInChunk == null) {
                 this.getWildernessClaim().loadedChunkHashes.add(chunkKey);
+            } else {
+                for (GDClaim claim : claimsInChunk) {
+                    this.addLoadedChunkHash(claim, chunkKey);
+                }
             }
         }
         return gdChunk;
     }
 
+    private void addLoadedChunkHash(GDClaim claim, long chunkKey) {
+        if (!claim.getChunkHashes().contains(chunkKey)) {
+            return;
+        }
+        claim.loadedChunkHashes.add(chunkKey);
+        for (Claim child : claim.children) {
+            this.addLoadedChunkHash((GDClaim) child, chunkKey);
+        }
+    }
+
+    private void removeLoadedChunkHash(GDClaim claim, long chunkKey) {
+        if (!claim.loadedChunkHashes.remove(chunkKey)) {
+            return;
+        }
+        for (Claim child : claim.children) {
+            this.removeLoadedChunkHash((GDClaim) child, chunkKey);
+        }
+    }
+
+    public EntityCountIndex getEntityCountIndex() {
+        return this.entityCountIndex;
+    }
+
     public GDChunk getChunkIfLoaded(int cx, int cz) {
         return this.chunksToGDChunks.get(getChunkKey(cx, cz));
     }
@@ -702,6 +824,12 @@ public boolean isChunkLoaded(long key) {
     public void removeChunk(long key) {
         this.chunksToGDChunks.remove(key);
         this.getWildernessClaim().loadedChunkHashes.remove(key);
+        final GDClaim[] claimsInChunk = this.chunksToClaimsIndex.get(key);
+        if (claimsInChunk != null) {
+            for (GDClaim claim : claimsInChunk) {
+                this.removeLoadedChunkHash(claim, key);
+            }
+        }
     }
 
     private long getChunkKey(int cx, int cz) {
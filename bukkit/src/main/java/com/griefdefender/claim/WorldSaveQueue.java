@@ -0,0 +1,124 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import com.griefdefender.api.claim.Claim;
+import com.griefdefender.internal.tracking.chunk.GDChunk;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks what changed in a world since its last save.
+ *
+ * <p>Claims are queued when their data goes from clean to requiring a save.
+ * Loaded chunks are not queued, they are swept with the cheap
+ * {@link GDChunk#isDirty()} check on each save. Player data is persisted by
+ * the permission provider, so the player index is the only player file
+ * written here.</p>
+ */
+class WorldSaveQueue {
+
+    private final Set<GDClaim> dirtyClaims = ConcurrentHashMap.newKeySet();
+    private volatile boolean playerIndexDirty = false;
+
+    // Queues a claim for the next save if its data requires it
+    void markClaimDirty(GDClaim claim) {
+        if (claim.getInternalClaimData() != null && claim.getInternalClaimData().requiresSave()) {
+            this.dirtyClaims.add(claim);
+        }
+    }
+
+    void markPlayerIndexDirty() {
+        this.playerIndexDirty = true;
+    }
+
+    /**
+     * Saves the queued claims that still belong to the world.
+     *
+     * @param claimsById The claims currently loaded in the world
+     * @return The number of claims saved
+     */
+    int saveClaims(Map<UUID, Claim> claimsById) {
+        int saved = 0;
+        final Iterator<GDClaim> iterator = this.dirtyClaims.iterator();
+        while (iterator.hasNext()) {
+            final GDClaim claim = iterator.next();
+            iterator.remove();
+            // Skip removed claims and children already saved by their parent
+            if (claimsById.get(claim.getUniqueId()) != claim || !claim.getInternalClaimData().requiresSave()) {
+                continue;
+            }
+            claim.save();
+            saved++;
+        }
+        return saved;
+    }
+
+    /**
+     * Saves tracking data of dirty loaded chunks.
+     *
+     * <p>Any dirty chunk also marks the player index dirty.</p>
+     *
+     * @param loadedChunks The chunks currently loaded in the world
+     * @return The number of chunks saved
+     */
+    int saveChunks(Collection<GDChunk> loadedChunks) {
+        int saved = 0;
+        for (GDChunk chunk : loadedChunks) {
+            if (!chunk.isDirty()) {
+                continue;
+            }
+            this.playerIndexDirty = true;
+            if (chunk.getTrackedShortPlayerPositions().size() > 0) {
+                chunk.saveChunkTrackingData();
+                saved++;
+            }
+        }
+        return saved;
+    }
+
+    // Returns whether the player index needs a save and resets the flag
+    boolean takePlayerIndexDirty() {
+        if (!this.playerIndexDirty) {
+            return false;
+        }
+        this.playerIndexDirty = false;
+        return true;
+    }
+
+    int getQueuedClaimCount() {
+        return this.dirtyClaims.size();
+    }
+
+    void clear() {
+        this.dirtyClaims.clear();
+        this.playerIndexDirty = false;
+    }
+}
@@ -44,6 +44,7 @@
 import com.griefdefender.api.claim.TrustTypes;
 import com.griefdefender.api.permission.Context;
 import com.griefdefender.api.permission.option.Options;
+import com.griefdefender.cache.FlagDecisionCache;
 import com.griefdefender.cache.MessageCache;
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.claim.GDClaim;
@@ -806,6 +807,7 @@ private Consumer<CommandSender> createClaimInfoConsumer(CommandSender src, Claim
 
                     gpClaim.getInternalClaimData().setInheritParent(!gpClaim.getInternalClaimData().doesInheritParent());
                     gpClaim.getInternalClaimData().setRequiresSave(true);
+                    FlagDecisionCache.getInstance().invalidate(gpClaim);
                     claim.getData().save();
                     CommandHelper.executeCommand(src, "claiminfo", gpClaim.getUniqueId().toString());
                     return;
@@ -823,6 +825,7 @@ private Consumer<CommandSender> createClaimInfoConsumer(CommandSender src, Claim
                 case FLAG_OVERRIDES :
                     gpClaim.getInternalClaimData().setFlagOverrides(!gpClaim.getInternalClaimData().allowFlagOverrides());
                     gpClaim.getInternalClaimData().setRequiresSave(true);
+                    FlagDecisionCache.getInstance().invalidate(gpClaim);
                     gpClaim.getClaimStorage().save();
                     break;
                 case RAID_OVERRIDE :
@@ -872,6 +875,7 @@ private Consumer<CommandSender> createClaimInfoConsumer(CommandSender src, Claim
                     boolean isExpired = gpClaim.getInternalClaimData().isExpired();
                     gpClaim.getInternalClaimData().setExpired(!isExpired);
                     gpClaim.getInternalClaimData().setRequiresSave(true);
+                    FlagDecisionCache.getInstance().invalidate(gpClaim);
                     gpClaim.getClaimStorage().save();
                     CommandHelper.executeCommand(src, "claiminfo", gpClaim.getUniqueId().toString());
                     return;
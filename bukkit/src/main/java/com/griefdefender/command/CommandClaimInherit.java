@@ -31,6 +31,7 @@
 import co.aikar.commands.annotation.Subcommand;
 import com.griefdefender.GDPlayerData;
 import com.griefdefender.GriefDefenderPlugin;
+import com.griefdefender.cache.FlagDecisionCache;
 import com.griefdefender.cache.MessageCache;
 import com.griefdefender.claim.GDClaim;
 import com.griefdefender.configuration.MessageStorage;
@@ -62,6 +63,7 @@ public void execute(Player player) {
         }
         claim.getData().setInheritParent(!claim.getData().doesInheritParent());
         claim.getInternalClaimData().setRequiresSave(true);
+        FlagDecisionCache.getInstance().invalidate(claim);
 
         if (!claim.getData().doesInheritParent()) {
             GriefDefenderPlugin.sendMessage(player, MessageCache.getInstance().COMMAND_CLAIMINHERIT_DISABLED);
@@ -24,9 +24,7 @@
  */
 package com.griefdefender.command;
 
-import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 
 import org.bukkit.Location;
@@ -46,6 +44,7 @@
 import com.griefdefender.internal.visual.GDClaimVisual;
 import com.griefdefender.permission.GDPermissionManager;
 import com.griefdefender.permission.GDPermissions;
+import com.griefdefender.task.NearbyClaimVisualTask;
 import com.griefdefender.util.BlockUtil;
 import com.griefdefender.util.PlayerUtil;
 
@@ -97,37 +96,7 @@ public void execute(Player player, @Optional String cmd) {
                     return;
                 }
 
-                Location nearbyLocation = playerData.lastValidInspectLocation != null ? playerData.lastValidInspectLocation : player.getLocation();
-                Set<Claim> claims = BlockUtil.getInstance().getNearbyClaims(nearbyLocation, maxDistance, true);
-                List<Claim> visualClaims = new ArrayList<>();
-                for (Claim nearbyClaim : claims) {
-                    if (!((GDClaim) nearbyClaim).hasActiveVisual(player)) {
-                        visualClaims.add(nearbyClaim);
-                    }
-                }
-                int height = (int) (playerData.lastValidInspectLocation != null ? playerData.lastValidInspectLocation.getBlockY() : PlayerUtil.getInstance().getEyeHeight(player));
-
-                boolean hideBorders = worldEditProvider != null &&
-                                      worldEditProvider.hasCUISupport(player) &&
-                                      GriefDefenderPlugin.getActiveConfig(player.getWorld().getUID()).getConfig().visual.hideBorders;
-                if (!hideBorders) {
-                    for (Claim visualClaim : visualClaims) {
-                        final GDClaimVisual visual = ((GDClaim) visualClaim).getVisualizer();
-                        visual.createClaimBlockVisuals(playerData.getClaimCreateMode() == CreateModeTypes.VOLUME ? height : PlayerUtil.getInstance().getEyeHeight(player), player.getLocation(), playerData);
-                        visual.apply(player);
-                    }
-                }
-
-                final Component message = GriefDefenderPlugin.getInstance().messageData.getMessage(MessageStorage.CLAIM_SHOW_NEARBY,
-                        ImmutableMap.of(
-                        "amount", claims.size()));
-                GriefDefenderPlugin.sendMessage(player, message);
-                if (!claims.isEmpty()) {
-                    if (worldEditProvider != null && !visualClaims.isEmpty()) {
-                         worldEditProvider.visualizeClaims(visualClaims, player, playerData, true);
-                     }
-                    CommandHelper.showClaims(player, claims);
-                }
+                NearbyClaimVisualTask.submit(player, playerData, maxDistance);
                 return;
             }
             if (claim != null && claim.isWilderness()) {
@@ -41,6 +41,7 @@
 import com.griefdefender.GriefDefenderPlugin;
 import com.griefdefender.api.economy.TransactionResultType;
 import com.griefdefender.api.economy.TransactionType;
+import com.griefdefender.cache.FlagDecisionCache;
 import com.griefdefender.cache.MessageCache;
 import com.griefdefender.claim.GDClaim;
 import com.griefdefender.configuration.MessageStorage;
@@ -128,6 +129,7 @@ public void execute(Player player, String[] args) throws CommandException {
                     claim.getEconomyData().setTaxPastDueDate(null);
                     claim.getEconomyData().setTaxBalance(0);
                     claim.getInternalClaimData().setExpired(false);
+                    FlagDecisionCache.getInstance().invalidate(claim);
                     final Component message = GriefDefenderPlugin.getInstance().messageData.getMessage(MessageStorage.TAX_PAID_BALANCE,
                             ImmutableMap.of(
                                 "amount", taxBalance));
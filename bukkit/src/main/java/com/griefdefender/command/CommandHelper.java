@@ -77,6 +77,7 @@
 import com.griefdefender.api.permission.option.Option;
 import com.griefdefender.api.permission.option.Options;
 import com.griefdefender.api.permission.option.type.CreateModeTypes;
+import com.griefdefender.cache.FlagDecisionCache;
 import com.griefdefender.cache.MessageCache;
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.claim.GDClaim;
@@ -1158,6 +1159,7 @@ public static void handleBankTransaction(CommandSender src, String[] args, GDCla
                             claim.getEconomyData().setTaxPastDueDate(null);
                             claim.getEconomyData().setTaxBalance(0);
                             claim.getInternalClaimData().setExpired(false);
+                            FlagDecisionCache.getInstance().invalidate(claim);
                             final Component message = GriefDefenderPlugin.getInstance().messageData.getMessage(MessageStorage.TAX_PAID_BALANCE,
                                     ImmutableMap.of(
                                         "amount", taxBalance));
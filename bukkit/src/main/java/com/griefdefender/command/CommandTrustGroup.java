@@ -42,6 +42,7 @@
 import com.griefdefender.api.claim.TrustType;
 import com.griefdefender.api.claim.TrustTypes;
 import com.griefdefender.api.permission.Context;
+import com.griefdefender.cache.FlagDecisionCache;
 import com.griefdefender.cache.MessageCache;
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.claim.GDClaim;
@@ -138,6 +139,7 @@ public void execute(Player player, String groupName, @Optional String type) {
 
         PermissionUtil.getInstance().setPermissionValue(group, permission, Tristate.TRUE, contexts);
         claim.getInternalClaimData().setRequiresSave(true);
+        FlagDecisionCache.getInstance().invalidate(claim);
         claim.getInternalClaimData().save();
 
         final Component message = MessageStorage.MESSAGE_DATA.getMessage(MessageStorage.TRUST_GRANT, ImmutableMap.of(
@@ -39,6 +39,7 @@
 import com.griefdefender.api.GriefDefender;
 import com.griefdefender.api.claim.Claim;
 import com.griefdefender.api.claim.TrustType;
+import com.griefdefender.cache.FlagDecisionCache;
 import com.griefdefender.cache.MessageCache;
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.claim.GDClaim;
@@ -120,6 +121,7 @@ private void addAllGroupTrust(Claim claim, GDPermissionGroup holder, TrustType t
         }
 
         gdClaim.getInternalClaimData().setRequiresSave(true);
+        FlagDecisionCache.getInstance().invalidate(gdClaim);
         gdClaim.getInternalClaimData().save();
         for (Claim child : gdClaim.children) {
             this.addAllGroupTrust(child, holder, trustType);
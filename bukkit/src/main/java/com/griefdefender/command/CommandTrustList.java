@@ -35,6 +35,7 @@
 import com.griefdefender.GriefDefenderPlugin;
 import com.griefdefender.api.claim.TrustType;
 import com.griefdefender.api.claim.TrustTypes;
+import com.griefdefender.cache.FlagDecisionCache;
 import com.griefdefender.cache.MessageCache;
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.claim.GDClaim;
@@ -477,7 +478,9 @@ private static Consumer<CommandSender> createCancelConsumer(Player src, GDClaim
     private static Consumer<CommandSender> createRemoveConsumer(Player src, GDClaim claim, GDPlayerData playerData, TrustType type, Component returnCommand, IClaimData data, List<UUID> trustList, UUID uuid) {
         return consumer -> {
             trustList.remove(uuid);
+            claim.invalidateTrustIndex();
             data.setRequiresSave(true);
+            FlagDecisionCache.getInstance().invalidate(claim);
             data.save();
             showTrustList(src, claim, playerData, type, new ArrayList<>(), returnCommand);
         };
@@ -487,6 +490,7 @@ private static Consumer<CommandSender> createRemoveGroupConsumer(Player src, GDC
         return consumer -> {
             trustList.remove(group);
             data.setRequiresSave(true);
+            FlagDecisionCache.getInstance().invalidate(claim);
             data.save();
             showTrustList(src, claim, playerData, type, new ArrayList<>(), returnCommand);
         };
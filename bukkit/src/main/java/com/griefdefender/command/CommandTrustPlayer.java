@@ -44,6 +44,7 @@
 import com.griefdefender.api.GriefDefender;
 import com.griefdefender.api.claim.TrustType;
 import com.griefdefender.api.claim.TrustTypes;
+import com.griefdefender.cache.FlagDecisionCache;
 import com.griefdefender.cache.MessageCache;
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.claim.GDClaim;
@@ -161,7 +162,9 @@ public void execute(Player player, String target, @Optional String type) {
         }
 
         trustList.add(user.getUniqueId());
+        claim.invalidateTrustIndex();
         claim.getInternalClaimData().setRequiresSave(true);
+        FlagDecisionCache.getInstance().invalidate(claim);
         claim.getInternalClaimData().save();
 
         final Component message = MessageStorage.MESSAGE_DATA.getMessage(MessageStorage.TRUST_GRANT, ImmutableMap.of(
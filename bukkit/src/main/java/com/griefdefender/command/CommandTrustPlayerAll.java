@@ -41,6 +41,7 @@
 import com.griefdefender.api.claim.Claim;
 import com.griefdefender.api.claim.TrustType;
 import com.griefdefender.api.claim.TrustTypes;
+import com.griefdefender.cache.FlagDecisionCache;
 import com.griefdefender.cache.MessageCache;
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.claim.GDClaim;
@@ -136,9 +137,11 @@ private void addAllUserTrust(Claim claim, GDPermissionUser user, TrustType trust
         List<UUID> trustList = gdClaim.getUserTrustList(trustType);
         if (!trustList.contains(user.getUniqueId())) {
             trustList.add(user.getUniqueId());
+            gdClaim.invalidateTrustIndex();
         }
 
         gdClaim.getInternalClaimData().setRequiresSave(true);
+        FlagDecisionCache.getInstance().invalidate(gdClaim);
         gdClaim.getInternalClaimData().save();
         for (Claim child : gdClaim.children) {
             this.addAllUserTrust(child, user, trustType);
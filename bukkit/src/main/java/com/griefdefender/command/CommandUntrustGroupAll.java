@@ -41,6 +41,7 @@
 import com.griefdefender.api.claim.Claim;
 import com.griefdefender.api.claim.TrustType;
 import com.griefdefender.api.claim.TrustTypes;
+import com.griefdefender.cache.FlagDecisionCache;
 import com.griefdefender.cache.MessageCache;
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.claim.GDClaim;
@@ -128,6 +129,7 @@ private void removeGroupTrust(GDClaim claim, GDPermissionGroup group, TrustType
         final List<String> trustList = claim.getGroupTrustList(type);
         if (trustList.remove(group.getName())) {
             claim.getInternalClaimData().setRequiresSave(true);
+            FlagDecisionCache.getInstance().invalidate(claim);
             claim.getInternalClaimData().save();
         }
         for (Claim child : claim.children) {
@@ -139,6 +141,7 @@ private void removeAllGroupTrust(Claim claim, GDPermissionGroup holder) {
         GDClaim gdClaim = (GDClaim) claim;
         gdClaim.removeAllTrustsFromGroup(holder.getName());
         gdClaim.getInternalClaimData().setRequiresSave(true);
+        FlagDecisionCache.getInstance().invalidate(gdClaim);
         gdClaim.getInternalClaimData().save();
         for (Claim child : gdClaim.children) {
             this.removeAllGroupTrust(child, holder);
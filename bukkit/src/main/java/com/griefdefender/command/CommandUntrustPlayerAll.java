@@ -41,6 +41,7 @@
 import com.griefdefender.api.claim.Claim;
 import com.griefdefender.api.claim.TrustType;
 import com.griefdefender.api.claim.TrustTypes;
+import com.griefdefender.cache.FlagDecisionCache;
 import com.griefdefender.cache.MessageCache;
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.claim.GDClaim;
@@ -138,7 +139,9 @@ public void execute(Player player, String target, @Optional String type) {
     private void removeUserTrust(GDClaim claim, GDPermissionUser user, TrustType type) {
         final List<UUID> trustList = claim.getUserTrustList(type);
         if (trustList.remove(user.getUniqueId())) {
+            claim.invalidateTrustIndex();
             claim.getInternalClaimData().setRequiresSave(true);
+            FlagDecisionCache.getInstance().invalidate(claim);
             claim.getInternalClaimData().save();
         }
         for (Claim child : claim.children) {
@@ -149,6 +152,7 @@ private void removeUserTrust(GDClaim claim, GDPermissionUser user, TrustType typ
     private void removeAllUserTrust(GDClaim claim, GDPermissionUser user) {
         claim.removeAllTrustsFromUser(user.getUniqueId());
         claim.getInternalClaimData().setRequiresSave(true);
+        FlagDecisionCache.getInstance().invalidate(claim);
         claim.getInternalClaimData().save();
         for (Claim child : claim.children) {
             this.removeAllUserTrust((GDClaim) child, user);
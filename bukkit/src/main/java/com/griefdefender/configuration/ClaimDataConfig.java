@@ -47,6 +47,8 @@
 public class ClaimDataConfig extends ConfigCategory implements IClaimData {
 
     private boolean requiresSave = false;
+    // Notified when this data goes from clean to requiring a save
+    private Runnable saveListener;
     private Vector3i lesserPos;
     private Vector3i greaterPos;
     private Vector3i spawnPos;
@@ -204,7 +206,7 @@ public Optional<Vector3i> getSpawnPos() {
         if (this.spawnPos == null && this.claimSpawn != null) {
             try {
                 this.spawnPos = BlockUtil.getInstance().posFromString(this.claimSpawn);
-                this.requiresSave = true;
+                this.markRequiresSave();
             } catch (Exception e) {
                 e.printStackTrace();
             }
@@ -273,13 +275,13 @@ public List<String> getManagerGroups() {
 
     @Override
     public void setDenyMessages(boolean flag) {
-        this.requiresSave = true;
+        this.markRequiresSave();
         this.allowDenyMessages = flag;
     }
 
     @Override
     public void setExpiration(boolean flag) {
-        this.requiresSave = true;
+        this.markRequiresSave();
         this.allowClaimExpiration = flag;
     }
 
@@ -295,75 +297,75 @@ public void setCuboid(boolean cuboid) {
 
     @Override
     public void setResizable(boolean resizable) {
-        this.requiresSave = true;
+        this.markRequiresSave();
         this.isResizable = resizable;
     }
 
     @Override
     public void setType(ClaimType type) {
-        this.requiresSave = true;
+        this.markRequiresSave();
         this.claimType = type;
     }
 
     @Override
     public void setDateLastActive(Instant date) {
-        this.requiresSave = true;
+        this.markRequiresSave();
         this.dateLastActive = date.toString();
     }
 
     @Override
     public void setName(Component name) {
-        this.requiresSave = true;
+        this.markRequiresSave();
         this.claimName = name;
     }
 
     @Override
     public void setGreeting(Component message) {
-        this.requiresSave = true;
+        this.markRequiresSave();
         this.claimGreetingMessage = message;
     }
 
     @Override
     public void setFarewell(Component message) {
-        this.requiresSave = true;
+        this.markRequiresSave();
         this.claimFarewellMessage = message;
     }
 
     @Override
     public void setLesserBoundaryCorner(String location) {
-        this.requiresSave = true;
+        this.markRequiresSave();
         this.lesserBoundaryCornerPos = location;
         this.lesserPos = null;
     }
 
     @Override
     public void setGreaterBoundaryCorner(String location) {
-        this.requiresSave = true;
+        this.markRequiresSave();
         this.greaterBoundaryCornerPos = location;
         this.greaterPos = null;
     }
 
     @Override
     public void setAccessors(List<UUID> accessors) {
-        this.requiresSave = true;
+        this.markRequiresSave();
         this.accessors = accessors;
     }
 
     @Override
     public void setBuilders(List<UUID> builders) {
-        this.requiresSave = true;
+        this.markRequiresSave();
         this.builders = builders;
     }
 
     @Override
     public void setContainers(List<UUID> containers) {
-        this.requiresSave = true;
+        this.markRequiresSave();
         this.containers = containers;
     }
 
     @Override
     public void setManagers(List<UUID> coowners) {
-        this.requiresSave = true;
+        this.markRequiresSave();
         this.managers = coowners;
     }
 
@@ -373,7 +375,26 @@ public boolean requiresSave() {
 
     @Override
     public void setRequiresSave(boolean flag) {
-        this.requiresSave = flag;
+        if (flag) {
+            this.markRequiresSave();
+        } else {
+            this.requiresSave = false;
+        }
+    }
+
+    public void setSaveListener(Runnable listener) {
+        this.saveListener = listener;
+    }
+
+    private void markRequiresSave() {
+        if (this.requiresSave) {
+            return;
+        }
+
+        this.requiresSave = true;
+        if (this.saveListener != null) {
+            this.saveListener.run();
+        }
     }
 
     @Override
@@ -389,19 +410,19 @@ public boolean doesInheritParent() {
 
     @Override
     public void setInheritParent(boolean flag) {
-        this.requiresSave = true;
+        this.markRequiresSave();
         this.inheritParent = flag;
     }
 
     @Override
     public void setOwnerUniqueId(UUID newClaimOwner) {
-        this.requiresSave = true;
+        this.markRequiresSave();
         this.ownerUniqueId = newClaimOwner;
     }
 
     @Override
     public void setWorldUniqueId(UUID uuid) {
-        this.requiresSave = true;
+        this.markRequiresSave();
         this.worldUniqueId = uuid;
     }
 
@@ -420,14 +441,14 @@ public void setSpawnPos(Vector3i spawnPos) {
             return;
         }
 
-        this.requiresSave = true;
+        this.markRequiresSave();
         this.spawnPos = spawnPos;
         this.claimSpawn = BlockUtil.getInstance().posToString(spawnPos);
     }
 
     @Override
     public void setSpawnPos(int x, int y, int z) {
-        this.requiresSave = true;
+        this.markRequiresSave();
         this.spawnPos = new Vector3i(x, y, z);
         this.claimSpawn = BlockUtil.getInstance().posToString(this.spawnPos);
     }
@@ -439,13 +460,13 @@ public boolean requiresClaimBlocks() {
 
     @Override
     public void setRequiresClaimBlocks(boolean requiresClaimBlocks) {
-        this.requiresSave = true;
+        this.markRequiresSave();
         this.requiresClaimBlocks = requiresClaimBlocks;
     }
 
     @Override
     public void setParent(UUID uuid) {
-        this.requiresSave = true;
+        this.markRequiresSave();
         this.parent = uuid;
     }
 
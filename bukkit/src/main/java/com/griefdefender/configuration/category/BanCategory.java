@@ -24,6 +24,7 @@
  */
 package com.griefdefender.configuration.category;
 
+import com.griefdefender.util.WildcardMatcher;
 import net.kyori.text.Component;
 import net.kyori.text.TextComponent;
 import ninja.leaping.configurate.objectmapping.Setting;
@@ -42,7 +43,11 @@ public class BanCategory extends ConfigCategory {
     private Map<String, Component> entities = new HashMap<>();
     @Setting(value = "items")
     private Map<String, Component> items = new HashMap<>();
-    
+
+    // Compiled on first use, cleared when a ban is added or removed and rebuilt when a config load replaces the map
+    private volatile WildcardMatcher blockMatcher;
+    private volatile WildcardMatcher entityMatcher;
+    private volatile WildcardMatcher itemMatcher;
 
     public Map<String, Component> getBlockMap() {
         return this.blocks;
@@ -56,6 +61,33 @@ public Map<String, Component> getItemMap() {
         return this.items;
     }
 
+    public WildcardMatcher getBlockMatcher() {
+        WildcardMatcher matcher = this.blockMatcher;
+        if (matcher == null || !matcher.isCompiledFrom(this.blocks, this.blocks.size())) {
+            matcher = new WildcardMatcher(this.blocks, this.blocks.keySet());
+            this.blockMatcher = matcher;
+        }
+        return matcher;
+    }
+
+    public WildcardMatcher getEntityMatcher() {
+        WildcardMatcher matcher = this.entityMatcher;
+        if (matcher == null || !matcher.isCompiledFrom(this.entities, this.entities.size())) {
+            matcher = new WildcardMatcher(this.entities, this.entities.keySet());
+            this.entityMatcher = matcher;
+        }
+        return matcher;
+    }
+
+    public WildcardMatcher getItemMatcher() {
+        WildcardMatcher matcher = this.itemMatcher;
+        if (matcher == null || !matcher.isCompiledFrom(this.items, this.items.size())) {
+            matcher = new WildcardMatcher(this.items, this.items.keySet());
+            this.itemMatcher = matcher;
+        }
+        return matcher;
+    }
+
     public boolean isBlockBanned(String id) {
         if (id == null) {
             return false;
@@ -77,6 +109,7 @@ public void addBlockBan(String id, Component reason) {
             id = "minecraft:" + id;
         }
         this.blocks.put(id, reason);
+        this.blockMatcher = null;
     }
 
     public void removeBlockBan(String id) {
@@ -87,6 +120,7 @@ public void removeBlockBan(String id) {
             id = "minecraft:" + id;
         }
         this.blocks.remove(id);
+        this.blockMatcher = null;
     }
 
     public Component getBlockBanReason(String id) {
@@ -117,6 +151,7 @@ public void addEntityBan(String id, Component reason) {
             reason = TextComponent.empty();
         }
         this.entities.put(id, reason);
+        this.entityMatcher = null;
     }
 
     public void removeEntityBan(String id) {
@@ -127,6 +162,7 @@ public void removeEntityBan(String id) {
             id = "minecraft:" + id;
         }
         this.entities.remove(id);
+        this.entityMatcher = null;
     }
 
     public Component getEntityBanReason(String id) {
@@ -160,6 +196,7 @@ public void addItemBan(String id, Component reason) {
             id = "minecraft:" + id;
         }
         this.items.put(id, reason);
+        this.itemMatcher = null;
     }
 
     public void removeItemBan(String id) {
@@ -170,6 +207,7 @@ public void removeItemBan(String id) {
             id = "minecraft:" + id;
         }
         this.items.remove(id);
+        this.itemMatcher = null;
     }
 
     public Component getItemBanReason(String id) {
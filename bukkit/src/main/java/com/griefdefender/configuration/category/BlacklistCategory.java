@@ -26,6 +26,7 @@
 
 import com.griefdefender.api.permission.flag.Flag;
 import com.griefdefender.registry.FlagRegistryModule;
+import com.griefdefender.util.WildcardMatcher;
 import ninja.leaping.configurate.objectmapping.Setting;
 import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
 
@@ -33,6 +34,7 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.event.entity.EntityDamageEvent.DamageCause;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -52,6 +54,11 @@ public class BlacklistCategory extends ConfigCategory {
     @Setting(value = "entity-damage-source-blacklist", comment = "A global list of entity damage sources that are ignored in events by default.")
     public List<String> entityDamageSourceBlacklist = new ArrayList<>();
 
+    // Compiled on first use and rebuilt when a config load replaces the backing list
+    private volatile WildcardMatcher globalSourceMatcher;
+    private volatile WildcardMatcher globalTargetMatcher;
+    private final Map<String, WildcardMatcher> flagMatchers = new ConcurrentHashMap<>();
+
     public BlacklistCategory() {
         for (Flag flag : FlagRegistryModule.getInstance().getAll()) {
             this.flagIdBlacklist.put(flag.getName().toLowerCase(), new ArrayList<>());
@@ -86,4 +93,36 @@ public List<String> getEntityDamageSourceBlacklist() {
     public List<String> getFlagBlacklist(String flag) {
         return this.flagIdBlacklist.get(flag);
     }
+
+    public WildcardMatcher getGlobalSourceMatcher() {
+        WildcardMatcher matcher = this.globalSourceMatcher;
+        if (matcher == null || !matcher.isCompiledFrom(this.globalSourceBlacklist, this.globalSourceBlacklist.size())) {
+            matcher = new WildcardMatcher(this.globalSourceBlacklist);
+            this.globalSourceMatcher = matcher;
+        }
+        return matcher;
+    }
+
+    public WildcardMatcher getGlobalTargetMatcher() {
+        WildcardMatcher matcher = this.globalTargetMatcher;
+        if (matcher == null || !matcher.isCompiledFrom(this.globalTargetBlacklist, this.globalTargetBlacklist.size())) {
+            matcher = new WildcardMatcher(this.globalTargetBlacklist);
+            this.globalTargetMatcher = matcher;
+        }
+        return matcher;
+    }
+
+    @Nullable
+    public WildcardMatcher getFlagMatcher(String flag) {
+        final List<String> flagList = this.flagIdBlacklist.get(flag);
+        if (flagList == null) {
+            return null;
+        }
+        WildcardMatcher matcher = this.flagMatchers.get(flag);
+        if (matcher == null || !matcher.isCompiledFrom(flagList, flagList.size())) {
+            matcher = new WildcardMatcher(flagList);
+            this.flagMatchers.put(flag, matcher);
+        }
+        return matcher;
+    }
 }
@@ -32,4 +32,8 @@ public class ThreadCategory extends ConfigCategory {
 
     @Setting(value = "executor-threads", comment = "The number of threads to use for GD's executor. (Default: 1)")
     public int numExecutorThreads = 1;
+
+    @Setting(value = "claim-load-threads", comment = "The number of threads to use for parsing claim files during world load. "
+            + "\nNote: A value of 0 will use the number of available processors. (Default: 0)")
+    public int numClaimLoadThreads = 0;
 }
@@ -40,8 +40,10 @@
 import com.griefdefender.api.economy.PaymentType;
 import com.griefdefender.api.permission.flag.Flags;
 import com.griefdefender.api.permission.option.Options;
+import com.griefdefender.cache.BlockPhysicsTickCache;
 import com.griefdefender.cache.EventResultCache;
 import com.griefdefender.cache.MessageCache;
+import com.griefdefender.claim.ClaimChunkBitSet;
 import com.griefdefender.claim.GDClaim;
 import com.griefdefender.claim.GDClaimManager;
 import com.griefdefender.configuration.GriefDefenderConfig;
@@ -67,7 +69,6 @@
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
-import org.bukkit.World.Environment;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.block.BlockState;
@@ -97,9 +98,6 @@
 import org.bukkit.event.world.StructureGrowEvent;
 import org.bukkit.inventory.Inventory;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class BlockEventHandler implements Listener {
 
     private final BaseStorage storage;
@@ -180,28 +178,9 @@ public void onBlockPistonExtend(BlockPistonExtendEvent event) {
 
         final boolean pistonProtectionInClaims = GriefDefenderPlugin.getActiveConfig(sourceBlock.getWorld().getUID()).getConfig().claim.pistonProtectionInClaims;
         final GDClaim sourceClaim = this.storage.getClaimAt(sourceBlock.getLocation());
-        for (Block block : event.getBlocks()) {
-            // always check next block in direction
-            final Location location = BlockUtil.getInstance().getBlockRelative(block.getLocation(), event.getDirection());
-            final GDClaim targetClaim = this.storage.getClaimAt(location);
-            if (targetClaim.isWilderness()) {
-                continue;
-            }
-            if (!pistonProtectionInClaims && sourceClaim.getUniqueId().equals(targetClaim.getUniqueId())) {
-                continue;
-            }
-
-            if (location.getBlock().isEmpty()) {
-                if (handleBlockPlace(event, location, targetClaim, sourceBlock, block, user, false)) {
-                    event.setCancelled(true);
-                    return;
-                }
-            } else {
-                if (handleBlockBreak(event, location, targetClaim, sourceBlock, location.getBlock(), user, false)) {
-                    event.setCancelled(true);
-                    return;
-                }
-            }
+        // always check next block in direction
+        if (PistonEvaluator.getInstance().isExtendDenied(event, event.getBlocks(), event.getDirection(), sourceClaim, user, pistonProtectionInClaims)) {
+            event.setCancelled(true);
         }
     }
 
@@ -219,24 +198,8 @@ public void onBlockPistonRetract(BlockPistonRetractEvent event) {
         }
 
         final GDClaim sourceClaim = this.storage.getClaimAt(sourceBlock.getLocation());
-        for (Block block : event.getBlocks()) {
-            final Location location = block.getLocation();
-            final GDClaim targetClaim = this.storage.getClaimAt(location);
-            if (sourceClaim.getUniqueId().equals(targetClaim.getUniqueId())) {
-                continue;
-            }
-
-            if (location.getBlock().isEmpty()) {
-                if (handleBlockPlace(event, location, targetClaim, sourceBlock, block, user, false)) {
-                    event.setCancelled(true);
-                    return;
-                }
-            } else {
-                if (handleBlockBreak(event, location, targetClaim, sourceBlock, location.getBlock(), user, false)) {
-                    event.setCancelled(true);
-                    return;
-                }
-            }
+        if (PistonEvaluator.getInstance().isRetractDenied(event, event.getBlocks(), sourceClaim, user)) {
+            event.setCancelled(true);
         }
     }
 
@@ -316,6 +279,12 @@ public void onBlockFromTo(BlockFromToEvent event) {
             return;
         }
 
+        // Flow into the wilderness is never checked so skip the tracking lookup when no claim can be involved
+        if (this.storage.getClaimWorldManager(world.getUID()).isClaimFree(toBlock.getX(), toBlock.getZ())) {
+            ClaimChunkBitSet.recordClaimFreeSkip();
+            return;
+        }
+
         final GDPermissionUser user = CauseContextHelper.getEventUser(fromBlock.getLocation(), PlayerTracker.Type.NOTIFIER);
         if (user == null) {
             return;
@@ -359,27 +328,6 @@ private boolean handleBlockBreak(BlockEvent event, Location location, GDClaim cl
         return false;
     }
 
-    private boolean handleBlockPlace(BlockEvent event, Location location, GDClaim claim, Object source, Object target, GDPermissionUser user, boolean sendDenyMessage) {
-        // check overrides
-        final Tristate result = GDPermissionManager.getInstance().getFinalPermission(event, location, claim, Flags.BLOCK_PLACE, source, target, user, TrustTypes.BUILDER, true);
-        if (result == Tristate.FALSE) {
-            if (sendDenyMessage && user != null) {
-                final Component message = GriefDefenderPlugin.getInstance().messageData.getMessage(MessageStorage.PERMISSION_BUILD,
-                        ImmutableMap.of(
-                        "player", claim.getOwnerDisplayName()
-                ));
-                final Player player = Bukkit.getPlayer(user.getUniqueId());
-                if (player != null && player.isOnline()) {
-                    GriefDefenderPlugin.sendClaimDenyMessage(claim, (Player) player, message);
-                }
-            }
-
-            return true;
-        }
-
-        return false;
-    }
-
     @EventHandler(priority = EventPriority.LOWEST)
     public void onBlockIgnite(BlockIgniteEvent event) {
         if (!GDFlags.BLOCK_MODIFY) {
@@ -444,8 +392,10 @@ public void onBlockNotify(BlockPhysicsEvent event) {
         }
 
         final GDPlayerData playerData =  GriefDefenderPlugin.getInstance().dataStore.getOrCreatePlayerData(world, user.getUniqueId());
-        final GDClaim sourceClaim = this.storage.getClaimAt(sourceLocation);
-        final GDClaim targetClaim = this.storage.getClaimAt(location);
+        // Redstone clocks notify the same positions repeatedly so reuse claim lookups within the tick
+        final GDClaimManager claimManager = this.storage.getClaimWorldManager(world.getUID());
+        final GDClaim sourceClaim = BlockPhysicsTickCache.getInstance().getClaimAt(claimManager, source);
+        final GDClaim targetClaim = BlockPhysicsTickCache.getInstance().getClaimAt(claimManager, event.getBlock());
         if (sourceClaim.isWilderness() && targetClaim.isWilderness()) {
             if (playerData != null) {
                 playerData.eventResultCache = new EventResultCache(targetClaim, "block-notify", Tristate.TRUE);
@@ -496,35 +446,16 @@ public void onExplosionEvent(BlockExplodeEvent event) {
 
         final GDPermissionUser user = CauseContextHelper.getEventUser(event.getBlock().getLocation(), PlayerTracker.Type.OWNER);
         GDTimings.EXPLOSION_EVENT.startTiming();
-        GDClaim targetClaim = null;
-        final List<Block> filteredLocations = new ArrayList<>();
         final String sourceId = GDPermissionManager.getInstance().getPermissionIdentifier(source);
         boolean denySurfaceExplosion = GriefDefenderPlugin.getActiveConfig(world.getUID()).getConfig().claim.explosionBlockSurfaceBlacklist.contains(sourceId);
         if (!denySurfaceExplosion) {
             denySurfaceExplosion = GriefDefenderPlugin.getActiveConfig(world.getUID()).getConfig().claim.explosionBlockSurfaceBlacklist.contains("any");
         }
         final int surfaceBlockLevel = GriefDefenderPlugin.getActiveConfig(world.getUID()).getConfig().claim.explosionSurfaceBlockLevel;
-        for (Block block : event.blockList()) {
-            final Location location = block.getLocation();
-            if (location.getBlock().isEmpty()) {
-                continue;
-            }
-            targetClaim =  GriefDefenderPlugin.getInstance().dataStore.getClaimAt(location);
-            if (denySurfaceExplosion && block.getWorld().getEnvironment() != Environment.NETHER && location.getBlockY() >= surfaceBlockLevel) {
-                filteredLocations.add(block);
-                GDPermissionManager.getInstance().processEventLog(event, location, targetClaim, Flags.EXPLOSION_BLOCK.getPermission(), source, block, user, "explosion-surface", Tristate.FALSE);
-                continue;
-            }
-            Tristate result = GDPermissionManager.getInstance().getFinalPermission(event, location, targetClaim, Flags.EXPLOSION_BLOCK, source, block, user, true);
-            if (result == Tristate.FALSE) {
-                filteredLocations.add(block);
-            }
-        }
-
         if (event.isCancelled()) {
             event.blockList().clear();
-        } else if (!filteredLocations.isEmpty()) {
-            event.blockList().removeAll(filteredLocations);
+        } else {
+            ExplosionEvaluator.getInstance().filterBlocks(event, event.blockList(), source, user, denySurfaceExplosion, surfaceBlockLevel, true);
         }
         GDTimings.EXPLOSION_EVENT.stopTiming();
     }
@@ -26,6 +26,7 @@
 
 import com.griefdefender.GriefDefenderPlugin;
 import com.griefdefender.api.claim.Claim;
+import com.griefdefender.cache.BlockPhysicsTickCache;
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.claim.GDClaimManager;
 import com.griefdefender.event.GDCauseStackManager;
@@ -67,6 +68,8 @@ public void onBlockBreakMonitor(BlockBreakEvent event) {
         final GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(event.getBlock().getWorld().getUID());
         final GDChunk gpChunk = claimWorldManager.getChunk(event.getBlock().getChunk());
         gpChunk.updateBreakPosition(event.getBlock(), event.getPlayer().getUniqueId());
+        claimWorldManager.markChunkDirty(gpChunk);
+        BlockPhysicsTickCache.getInstance().invalidateTracking(event.getBlock().getWorld());
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
@@ -74,13 +77,16 @@ public void onBlockBurn(BlockBurnEvent event) {
         final GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(event.getBlock().getWorld().getUID());
         final GDChunk gpChunk = claimWorldManager.getChunk(event.getBlock().getChunk());
         final GDPermissionUser notifier = gpChunk.getBlockNotifier(event.getBlock().getLocation());
+        BlockPhysicsTickCache.getInstance().invalidateTracking(event.getBlock().getWorld());
         if (notifier != null) {
             gpChunk.addTrackedBlockPosition(event.getBlock(), notifier.getUniqueId(), PlayerTracker.Type.NOTIFIER);
+            claimWorldManager.markChunkDirty(gpChunk);
             return;
         }
         final GDPermissionUser owner = gpChunk.getBlockOwner(event.getBlock().getLocation());
         if (owner != null) {
             gpChunk.addTrackedBlockPosition(event.getBlock(), owner.getUniqueId(), PlayerTracker.Type.OWNER);
+            claimWorldManager.markChunkDirty(gpChunk);
         }
     }
 
@@ -114,6 +120,8 @@ public void onBlockSpawnFalling(EntityChangeBlockEvent event) {
                 final GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(event.getBlock().getWorld().getUID());
                 final GDChunk gdChunk = claimWorldManager.getChunk(event.getBlock().getChunk());
                 gdChunk.addTrackedBlockPosition(event.getBlock(), user.getUniqueId(), PlayerTracker.Type.OWNER);
+                claimWorldManager.markChunkDirty(gdChunk);
+                BlockPhysicsTickCache.getInstance().invalidateTracking(event.getBlock().getWorld());
             }
         }
     }
@@ -125,6 +133,8 @@ public void onBlockIgnite(BlockIgniteEvent event) {
         final GDChunk gpChunk = claimWorldManager.getChunk(event.getBlock().getChunk());
         if (event.getPlayer() != null) {
             gpChunk.addTrackedBlockPosition(event.getBlock(), event.getPlayer().getUniqueId(), PlayerTracker.Type.NOTIFIER);
+            claimWorldManager.markChunkDirty(gpChunk);
+            BlockPhysicsTickCache.getInstance().invalidateTracking(event.getBlock().getWorld());
         }
     }
 
@@ -134,6 +144,8 @@ public void onBlockPlaceMonitor(BlockPlaceEvent event) {
             final GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(event.getBlock().getWorld().getUID());
             final GDChunk gpChunk = claimWorldManager.getChunk(event.getBlock().getChunk());
             gpChunk.addTrackedBlockPosition(event.getBlock(), event.getPlayer().getUniqueId(), PlayerTracker.Type.OWNER);
+            claimWorldManager.markChunkDirty(gpChunk);
+            BlockPhysicsTickCache.getInstance().invalidateTracking(event.getBlock().getWorld());
         }
     }
 
@@ -169,14 +181,16 @@ public void onBlockPhysicsMonitor(BlockPhysicsEvent event) {
         }
 
         final GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(block.getWorld().getUID());
-        final GDChunk gpChunk = claimWorldManager.getChunk(block.getChunk());
         final GDPermissionUser user = CauseContextHelper.getEventUser(sourceLocation);
         final UUID uuid = user != null ? user.getUniqueId() : null;
 
         //final Vector3i sourcePos = VecHelper.toVector3i(event.getSourceBlock().getLocation());
         //final Location targetLocation = event.getBlock().getLocation();
-        if (uuid != null) {
+        // Skip positions already notified by the same user this tick
+        if (uuid != null && BlockPhysicsTickCache.getInstance().shouldTrackNotifier(claimWorldManager, block, uuid)) {
+            final GDChunk gpChunk = claimWorldManager.getChunk(block.getChunk());
             gpChunk.addTrackedBlockPosition(block, uuid, PlayerTracker.Type.NOTIFIER);
+            claimWorldManager.markChunkDirty(gpChunk);
             // Bukkit doesn't send surrounding events for performance reasons so we must handle it manually
             /*for (Direction direction : NOTIFY_DIRECTIONS) {
                 final Vector3i directionPos = targetPos.add(direction.asBlockOffset());
@@ -194,8 +208,10 @@ public void onPlayerInteractBlockSecondary(PlayerInteractEvent event) {
         final GDChunk gpChunk = claimWorldManager.getChunk(event.getClickedBlock().getChunk());
         GDCauseStackManager.getInstance().pushCause(event.getPlayer());
         gpChunk.addTrackedBlockPosition(event.getClickedBlock(), event.getPlayer().getUniqueId(), PlayerTracker.Type.NOTIFIER);
+        BlockPhysicsTickCache.getInstance().invalidateTracking(event.getClickedBlock().getWorld());
         // We must track the position above clicked to block actions like water flow properly.
         final Location aboveLocation = BlockUtil.getInstance().getBlockRelative(event.getClickedBlock().getLocation(), BlockFace.UP);
         gpChunk.addTrackedBlockPosition(aboveLocation.getBlock(), event.getPlayer().getUniqueId(), PlayerTracker.Type.NOTIFIER);
+        claimWorldManager.markChunkDirty(gpChunk);
     }
 }
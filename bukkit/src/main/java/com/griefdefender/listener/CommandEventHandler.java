@@ -33,6 +33,8 @@
 import com.griefdefender.api.claim.TrustTypes;
 import com.griefdefender.api.permission.flag.Flags;
 import com.griefdefender.api.permission.option.Options;
+import com.griefdefender.cache.FlagDecisionCache;
+import com.griefdefender.cache.PermissionIdentifierCache;
 import com.griefdefender.claim.GDClaim;
 import com.griefdefender.configuration.MessageStorage;
 import com.griefdefender.event.GDCauseStackManager;
@@ -293,6 +295,9 @@ public void onPlayerCommandMonitor(PlayerCommandPreprocessEvent event) {
             if (GriefDefenderPlugin.getInstance().getTagProvider() != null) {
                 GriefDefenderPlugin.getInstance().getTagProvider().refresh();
             }
+            // Cached id contexts and flag decisions include tag contexts
+            PermissionIdentifierCache.getInstance().invalidateAll();
+            FlagDecisionCache.getInstance().invalidateAll();
         }
     }
 }
@@ -151,11 +151,14 @@ public boolean onEntityMove(Event event, Location fromLocation, Location toLocat
         }
 
         GDClaim fromClaim = null;
-        GDClaim toClaim = this.storage.getClaimAt(toLocation);
+        GDClaim toClaim = null;
         if (user != null) {
-            fromClaim = this.storage.getClaimAtPlayer(user.getInternalPlayerData(), fromLocation);
+            final GDPlayerData playerData = user.getInternalPlayerData();
+            fromClaim = this.storage.getClaimAtPlayerLocality(playerData, fromLocation);
+            toClaim = this.storage.getClaimAtPlayerLocality(playerData, toLocation);
         } else {
             fromClaim = this.storage.getClaimAt(fromLocation);
+            toClaim = this.storage.getClaimAt(toLocation);
         }
 
         if (fromClaim == toClaim) {
@@ -521,7 +524,7 @@ private void checkPlayerFlight(GDPermissionUser user, GDClaim fromClaim, GDClaim
             return;
         }
 
-        final Boolean noFly = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Boolean.class), playerData.getSubject(), Options.PLAYER_DENY_FLIGHT, toClaim);
+        final Boolean noFly = playerData.movementState.getOptionValue(TypeToken.of(Boolean.class), Options.PLAYER_DENY_FLIGHT, playerData.getSubject(), toClaim, player);
         if (noFly != null && noFly) {
             player.setAllowFlight(false);
             player.setFlying(false);
@@ -549,11 +552,7 @@ private void checkPlayerGodMode(GDPermissionUser user, GDClaim fromClaim, GDClai
             return;
         }
 
-        Boolean noGodMode = playerData.optionNoGodMode;
-        if (noGodMode == null || fromClaim != toClaim) {
-            noGodMode = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Boolean.class), playerData.getSubject(), Options.PLAYER_DENY_GODMODE, toClaim);
-            playerData.optionNoGodMode = noGodMode;
-        }
+        final Boolean noGodMode = playerData.movementState.getOptionValue(TypeToken.of(Boolean.class), Options.PLAYER_DENY_GODMODE, playerData.getSubject(), toClaim, player);
         final boolean bypassOption = playerData.userOptionBypassPlayerDenyGodmode;
         if (!bypassOption && noGodMode) {
             player.setInvulnerable(false);
@@ -576,11 +575,7 @@ private void checkPlayerGameMode(GDPermissionUser user, GDClaim fromClaim, GDCla
 
         final GDPlayerData playerData = user.getInternalPlayerData();
         final GameMode currentGameMode = player.getGameMode();
-        GameModeType gameModeType = playerData.optionGameModeType;
-        if (gameModeType == null || fromClaim != toClaim) {
-            gameModeType = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(GameModeType.class), playerData.getSubject(), Options.PLAYER_GAMEMODE, toClaim);
-            playerData.optionGameModeType = gameModeType;
-        }
+        final GameModeType gameModeType = playerData.movementState.getOptionValue(TypeToken.of(GameModeType.class), Options.PLAYER_GAMEMODE, playerData.getSubject(), toClaim, player);
         if (gameModeType == GameModeTypes.UNDEFINED && playerData.lastGameMode != GameModeTypes.UNDEFINED) {
             player.setGameMode(PlayerUtil.GAMEMODE_MAP.get(playerData.lastGameMode));
             return;
@@ -615,11 +610,7 @@ private void checkPlayerFlySpeed(GDPermissionUser user, GDClaim fromClaim, GDCla
 
         final GDPlayerData playerData = user.getInternalPlayerData();
         final float currentFlySpeed = player.getFlySpeed();
-        Double flySpeed = playerData.optionFlySpeed;
-        if (flySpeed == null || fromClaim != toClaim) {
-            flySpeed = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Double.class), playerData.getSubject(), Options.PLAYER_FLY_SPEED, toClaim);
-            playerData.optionFlySpeed = flySpeed;
-        }
+        final Double flySpeed = playerData.movementState.getOptionValue(TypeToken.of(Double.class), Options.PLAYER_FLY_SPEED, playerData.getSubject(), toClaim, player);
         if (flySpeed <= 0) {
             String configValue = GriefDefenderPlugin.getOptionConfig().getConfig().vanillaFallbackMap.get(Options.PLAYER_FLY_SPEED.getName().toLowerCase());
             Double defaultFlySpeed = null;
@@ -667,11 +658,7 @@ private void checkPlayerWalkSpeed(GDPermissionUser user, GDClaim fromClaim, GDCl
 
         final GDPlayerData playerData = user.getInternalPlayerData();
         final float currentWalkSpeed = player.getWalkSpeed();
-        Double walkSpeed = user.getInternalPlayerData().optionWalkSpeed;
-        if (walkSpeed == null || fromClaim != toClaim) {
-            walkSpeed = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Double.class), playerData.getSubject(), Options.PLAYER_WALK_SPEED, toClaim);
-            user.getInternalPlayerData().optionWalkSpeed = walkSpeed;
-        }
+        final Double walkSpeed = playerData.movementState.getOptionValue(TypeToken.of(Double.class), Options.PLAYER_WALK_SPEED, playerData.getSubject(), toClaim, player);
         if (walkSpeed <= 0) {
             String configValue = GriefDefenderPlugin.getOptionConfig().getConfig().vanillaFallbackMap.get(Options.PLAYER_WALK_SPEED.getName().toLowerCase());
             Double defaultWalkSpeed = null;
@@ -718,11 +705,7 @@ public void checkPlayerWeather(GDPermissionUser user, GDClaim fromClaim, GDClaim
         }
 
         final GDPlayerData playerData = user.getInternalPlayerData();
-        WeatherType weatherType = playerData.optionWeatherType;
-        if (weatherType == null || fromClaim != toClaim) {
-            weatherType = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(WeatherType.class), playerData.getSubject(), Options.PLAYER_WEATHER, toClaim);
-            playerData.optionWeatherType = weatherType;
-        }
+        final WeatherType weatherType = playerData.movementState.getOptionValue(TypeToken.of(WeatherType.class), Options.PLAYER_WEATHER, playerData.getSubject(), toClaim, player);
         if (weatherType == null || weatherType == WeatherTypes.UNDEFINED) {
             player.resetPlayerWeather();
             return;
@@ -95,13 +95,16 @@
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.event.entity.EntityDamageEvent.DamageCause;
+import org.bukkit.event.entity.EntityDeathEvent;
 import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.entity.EntitySpawnEvent;
 import org.bukkit.event.entity.ExplosionPrimeEvent;
 import org.bukkit.event.entity.ItemSpawnEvent;
 import org.bukkit.event.entity.PotionSplashEvent;
 import org.bukkit.event.entity.ProjectileLaunchEvent;
 import org.bukkit.event.entity.SlimeSplitEvent;
 import org.bukkit.event.entity.SpawnerSpawnEvent;
+import org.bukkit.event.entity.EntityTeleportEvent;
 import org.bukkit.event.entity.CreatureSpawnEvent.SpawnReason;
 import org.bukkit.event.hanging.HangingBreakByEntityEvent;
 import org.bukkit.event.vehicle.VehicleDamageEvent;
@@ -111,9 +114,7 @@
 import org.bukkit.projectiles.ProjectileSource;
 
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
@@ -284,28 +285,7 @@ public void onEntityExplodeEvent(EntityExplodeEvent event) {
             denySurfaceExplosion = GriefDefenderPlugin.getActiveConfig(world.getUID()).getConfig().claim.explosionBlockSurfaceBlacklist.contains("any");
         }
         GDTimings.EXPLOSION_EVENT.startTiming();
-        GDClaim targetClaim = null;
-        final List<Block> filteredLocations = new ArrayList<>();
-        boolean clearAll = false;
-        for (Block block : event.blockList()) {
-            final Location location = block.getLocation();
-            targetClaim =  GriefDefenderPlugin.getInstance().dataStore.getClaimAt(location);
-            if (denySurfaceExplosion && block.getWorld().getEnvironment() != Environment.NETHER && location.getBlockY() >= surfaceBlockLevel) {
-                filteredLocations.add(block);
-                GDPermissionManager.getInstance().processEventLog(event, location, targetClaim, Flags.EXPLOSION_BLOCK.getPermission(), source, block, user, "explosion-surface", Tristate.FALSE);
-                continue;
-            }
-            final Tristate result = GDPermissionManager.getInstance().getFinalPermission(event, location, targetClaim, Flags.EXPLOSION_BLOCK, source, block, user, true);
-            if (result == Tristate.FALSE) {
-                filteredLocations.add(block);
-            }
-        }
-
-        if (clearAll) {
-            event.blockList().clear();
-        } else if (!filteredLocations.isEmpty()) {
-            event.blockList().removeAll(filteredLocations);
-        }
+        ExplosionEvaluator.getInstance().filterBlocks(event, event.blockList(), source, user, denySurfaceExplosion, surfaceBlockLevel, false);
         GDTimings.EXPLOSION_EVENT.stopTiming();
     }
 
@@ -749,6 +729,46 @@ public void onSlimeSplitEvent(SlimeSplitEvent event) {
         handleEntitySpawn(event, event.getEntity(), event.getEntity());
     }
 
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntitySpawnMonitor(EntitySpawnEvent event) {
+        if (!GDOptions.SPAWN_LIMIT || !(event.getEntity() instanceof LivingEntity)) {
+            return;
+        }
+        final GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(event.getEntity().getWorld().getUID());
+        if (claimWorldManager != null) {
+            claimWorldManager.getEntityCountIndex().onEntitySpawn(event.getEntity());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityDeathMonitor(EntityDeathEvent event) {
+        if (!GDOptions.SPAWN_LIMIT) {
+            return;
+        }
+        final GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(event.getEntity().getWorld().getUID());
+        if (claimWorldManager != null) {
+            claimWorldManager.getEntityCountIndex().onEntityRemove(event.getEntity());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityTeleportMonitor(EntityTeleportEvent event) {
+        if (!GDOptions.SPAWN_LIMIT || !(event.getEntity() instanceof LivingEntity)) {
+            return;
+        }
+        final GDClaimManager fromWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(event.getFrom().getWorld().getUID());
+        if (fromWorldManager != null) {
+            fromWorldManager.getEntityCountIndex().onEntityRemove(event.getEntity(), event.getFrom());
+        }
+        if (event.getTo() == null || event.getTo().getWorld() == null) {
+            return;
+        }
+        final GDClaimManager toWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(event.getTo().getWorld().getUID());
+        if (toWorldManager != null) {
+            toWorldManager.getEntityCountIndex().onEntitySpawn(event.getEntity(), event.getTo());
+        }
+    }
+
     public void handleEntitySpawn(Event event, Object source, Entity entity) {
         if (!GDFlags.ENTITY_SPAWN) {
             return;
@@ -0,0 +1,134 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.listener;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.World.Environment;
+import org.bukkit.block.Block;
+import org.bukkit.event.Event;
+
+import com.griefdefender.GriefDefenderPlugin;
+import com.griefdefender.api.Tristate;
+import com.griefdefender.api.permission.flag.Flags;
+import com.griefdefender.claim.GDClaim;
+import com.griefdefender.claim.GDClaimManager;
+import com.griefdefender.internal.util.NMSUtil;
+import com.griefdefender.permission.GDPermissionManager;
+import com.griefdefender.permission.GDPermissionUser;
+
+/**
+ * Evaluates {@link Flags#EXPLOSION_BLOCK} for all blocks affected by an explosion.
+ *
+ * <p>Blocks are grouped by claim and block state so each pair is only
+ * checked once. Denied blocks are tracked in a bitset and removed from
+ * the block list in a single pass.</p>
+ */
+public class ExplosionEvaluator {
+
+    private static ExplosionEvaluator instance;
+
+    static {
+        instance = new ExplosionEvaluator();
+    }
+
+    public static ExplosionEvaluator getInstance() {
+        return instance;
+    }
+
+    public void filterBlocks(Event event, List<Block> blocks, Object source, GDPermissionUser user, boolean denySurfaceExplosion, int surfaceBlockLevel, boolean skipEmpty) {
+        final int size = blocks.size();
+        if (size == 0) {
+            return;
+        }
+
+        final World world = blocks.get(0).getWorld();
+        final GDClaimManager claimManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(world.getUID());
+        // Debug output and slimefun ids depend on each block so results can only be shared when neither are active
+        final boolean groupResults = !GriefDefenderPlugin.debugActive && GriefDefenderPlugin.getInstance().getSlimefunProvider() == null;
+        final Map<GDClaim, Map<String, Tristate>> claimResults = new HashMap<>();
+        final BitSet denied = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            final Block block = blocks.get(i);
+            if (skipEmpty && block.isEmpty()) {
+                continue;
+            }
+
+            final GDClaim targetClaim = (GDClaim) claimManager.getClaimAt(block.getX(), block.getY(), block.getZ());
+            if (denySurfaceExplosion && world.getEnvironment() != Environment.NETHER && block.getY() >= surfaceBlockLevel) {
+                denied.set(i);
+                GDPermissionManager.getInstance().processEventLog(event, block.getLocation(), targetClaim, Flags.EXPLOSION_BLOCK.getPermission(), source, block, user, "explosion-surface", Tristate.FALSE);
+                continue;
+            }
+
+            // Renter checks depend on the owner of each block
+            if (!groupResults || (user != null && targetClaim.getEconomyData() != null && targetClaim.getEconomyData().isRented())) {
+                if (this.getResult(event, targetClaim, source, block, user) == Tristate.FALSE) {
+                    denied.set(i);
+                }
+                continue;
+            }
+
+            Map<String, Tristate> results = claimResults.get(targetClaim);
+            if (results == null) {
+                results = new HashMap<>();
+                claimResults.put(targetClaim, results);
+            }
+            final String targetKey = block.getType().name() + NMSUtil.getInstance().getBlockDataString(block);
+            Tristate result = results.get(targetKey);
+            if (result == null) {
+                result = this.getResult(event, targetClaim, source, block, user);
+                results.put(targetKey, result);
+            }
+            if (result == Tristate.FALSE) {
+                denied.set(i);
+            }
+        }
+
+        if (denied.isEmpty()) {
+            return;
+        }
+
+        final List<Block> allowed = new ArrayList<>(size - denied.cardinality());
+        for (int i = 0; i < size; i++) {
+            if (!denied.get(i)) {
+                allowed.add(blocks.get(i));
+            }
+        }
+        blocks.clear();
+        blocks.addAll(allowed);
+    }
+
+    private Tristate getResult(Event event, GDClaim targetClaim, Object source, Block block, GDPermissionUser user) {
+        final Location location = block.getLocation();
+        return GDPermissionManager.getInstance().getFinalPermission(event, location, targetClaim, Flags.EXPLOSION_BLOCK, source, block, user, true);
+    }
+}
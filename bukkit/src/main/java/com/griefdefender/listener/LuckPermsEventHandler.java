@@ -29,12 +29,18 @@
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
+import com.griefdefender.cache.FlagDecisionCache;
+import com.griefdefender.cache.OptionValueCache;
 import com.griefdefender.cache.PermissionHolderCache;
+import com.griefdefender.permission.GDPermissionGroup;
 import com.griefdefender.permission.GDPermissionUser;
 
 import net.luckperms.api.LuckPerms;
+import net.luckperms.api.event.context.ContextUpdateEvent;
 import net.luckperms.api.event.group.GroupDataRecalculateEvent;
+import net.luckperms.api.event.group.GroupDeleteEvent;
 import net.luckperms.api.event.user.UserDataRecalculateEvent;
+import net.luckperms.api.event.user.UserUnloadEvent;
 import net.luckperms.api.model.group.Group;
 import net.luckperms.api.model.user.User;
 import net.luckperms.api.query.QueryOptions;
@@ -47,9 +53,15 @@ public LuckPermsEventHandler(LuckPerms luckPermsApi) {
         this.luckPermsApi = luckPermsApi;
         this.luckPermsApi.getEventBus().subscribe(GroupDataRecalculateEvent.class, this::onGroupDataRecalculate);
         this.luckPermsApi.getEventBus().subscribe(UserDataRecalculateEvent.class, this::onUserDataRecalculate);
+        this.luckPermsApi.getEventBus().subscribe(UserUnloadEvent.class, this::onUserUnload);
+        this.luckPermsApi.getEventBus().subscribe(GroupDeleteEvent.class, this::onGroupDelete);
+        this.luckPermsApi.getEventBus().subscribe(ContextUpdateEvent.class, this::onContextUpdate);
     }
 
     public void onGroupDataRecalculate(GroupDataRecalculateEvent event) {
+        FlagDecisionCache.getInstance().invalidateAll();
+        // Group options are inherited by every user
+        OptionValueCache.getInstance().invalidateAll();
         for (Player player : Bukkit.getOnlinePlayers()) {
             final GDPermissionUser user = PermissionHolderCache.getInstance().getOrCreateUser(player);
             user.getInternalPlayerData().resetOptionCache();
@@ -66,10 +78,38 @@ public void onGroupDataRecalculate(GroupDataRecalculateEvent event) {
     }
 
     public void onUserDataRecalculate(UserDataRecalculateEvent event) {
+        FlagDecisionCache.getInstance().invalidateAll();
         final GDPermissionUser user = PermissionHolderCache.getInstance().getOrCreateUser(event.getUser().getUniqueId());
+        OptionValueCache.getInstance().invalidate(user);
         if (user.getOnlinePlayer() != null) {
             user.getInternalPlayerData().resetOptionCache();
             user.getInternalPlayerData().refreshPlayerOptions();
         }
     }
+
+    public void onContextUpdate(ContextUpdateEvent event) {
+        final Player player = event.getSubject(Player.class).orElse(null);
+        if (player == null) {
+            return;
+        }
+        // Options resolved for the old contexts no longer apply
+        final GDPermissionUser user = PermissionHolderCache.getInstance().getOrCreateUser(player);
+        OptionValueCache.getInstance().invalidate(user);
+        user.getInternalPlayerData().resetOptionCache();
+    }
+
+    public void onUserUnload(UserUnloadEvent event) {
+        // Drop the resolved holder so the next lookup fetches the user LuckPerms loads next
+        final GDPermissionUser user = PermissionHolderCache.getInstance().getUserIfPresent(event.getUser().getUniqueId());
+        if (user != null) {
+            user.clearResolvedHolder();
+        }
+    }
+
+    public void onGroupDelete(GroupDeleteEvent event) {
+        final GDPermissionGroup group = PermissionHolderCache.getInstance().getGroupIfPresent(event.getGroupName());
+        if (group != null) {
+            group.clearResolvedHolder();
+        }
+    }
 }
@@ -0,0 +1,236 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.listener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.event.block.BlockPistonEvent;
+
+import com.griefdefender.GriefDefenderPlugin;
+import com.griefdefender.api.Tristate;
+import com.griefdefender.api.claim.TrustTypes;
+import com.griefdefender.api.permission.flag.Flag;
+import com.griefdefender.api.permission.flag.Flags;
+import com.griefdefender.claim.GDClaim;
+import com.griefdefender.claim.GDClaimManager;
+import com.griefdefender.internal.util.NMSUtil;
+import com.griefdefender.permission.GDPermissionManager;
+import com.griefdefender.permission.GDPermissionUser;
+
+/**
+ * Evaluates {@link Flags#BLOCK_PLACE} and {@link Flags#BLOCK_BREAK} for all
+ * blocks moved by a piston.
+ *
+ * <p>The claim of every checked position is resolved up front. If none of
+ * them need a permission check, such as when the whole contraption is in the
+ * piston's own claim, the event is allowed without touching the world again.
+ * Otherwise each claim, flag and block state is only checked once.</p>
+ */
+public class PistonEvaluator {
+
+    private static PistonEvaluator instance;
+
+    static {
+        instance = new PistonEvaluator();
+    }
+
+    public static PistonEvaluator getInstance() {
+        return instance;
+    }
+
+    private final Function<World, GDClaimManager> claimManagerLookup;
+    private final Function<Block, String> blockDataLookup;
+    private final BooleanSupplier groupResults;
+    private final PermissionResolver permissionResolver;
+
+    private PistonEvaluator() {
+        this(world -> GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(world.getUID()),
+                block -> NMSUtil.getInstance().getBlockDataString(block),
+                // Debug output and slimefun ids depend on each block so results can only be shared when neither are active
+                () -> !GriefDefenderPlugin.debugActive && GriefDefenderPlugin.getInstance().getSlimefunProvider() == null,
+                (event, location, claim, flag, source, target, user) -> GDPermissionManager.getInstance().getFinalPermission(event, location, claim, flag,
+                        source, target, user, TrustTypes.BUILDER, true));
+    }
+
+    PistonEvaluator(Function<World, GDClaimManager> claimManagerLookup, Function<Block, String> blockDataLookup, BooleanSupplier groupResults,
+            PermissionResolver permissionResolver) {
+        this.claimManagerLookup = claimManagerLookup;
+        this.blockDataLookup = blockDataLookup;
+        this.groupResults = groupResults;
+        this.permissionResolver = permissionResolver;
+    }
+
+    /**
+     * Checks if a piston extending in a direction should be cancelled.
+     *
+     * <p>The position each block is pushed into is checked. Positions in the
+     * wilderness are skipped, as are positions in the piston's own claim
+     * unless piston protection in claims is enabled.</p>
+     *
+     * @param event The piston event
+     * @param blocks The blocks being pushed
+     * @param direction The direction blocks are pushed
+     * @param sourceClaim The claim containing the piston
+     * @param user The user who owns the piston
+     * @param pistonProtectionInClaims Whether moves within the piston's claim are checked
+     * @return Whether the event should be cancelled
+     */
+    public boolean isExtendDenied(BlockPistonEvent event, List<Block> blocks, BlockFace direction, GDClaim sourceClaim, GDPermissionUser user, boolean pistonProtectionInClaims) {
+        final int size = blocks.size();
+        if (size == 0) {
+            return false;
+        }
+
+        final GDClaimManager claimManager = this.claimManagerLookup.apply(event.getBlock().getWorld());
+        final GDClaim[] targetClaims = new GDClaim[size];
+        boolean requiresCheck = false;
+        for (int i = 0; i < size; i++) {
+            final Block block = blocks.get(i);
+            final GDClaim targetClaim = (GDClaim) claimManager.getClaimAt(block.getX() + direction.getModX(), block.getY() + direction.getModY(), block.getZ() + direction.getModZ());
+            if (targetClaim.isWilderness()) {
+                continue;
+            }
+            if (!pistonProtectionInClaims && sourceClaim.getUniqueId().equals(targetClaim.getUniqueId())) {
+                continue;
+            }
+            targetClaims[i] = targetClaim;
+            requiresCheck = true;
+        }
+        if (!requiresCheck) {
+            return false;
+        }
+
+        final Map<GDClaim, Map<String, Tristate>> placeResults = new HashMap<>();
+        final Map<GDClaim, Map<String, Tristate>> breakResults = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            final GDClaim targetClaim = targetClaims[i];
+            if (targetClaim == null) {
+                continue;
+            }
+
+            final Block block = blocks.get(i);
+            final Block toBlock = block.getRelative(direction);
+            final boolean denied = toBlock.isEmpty()
+                    ? this.isDenied(event, placeResults, toBlock.getLocation(), targetClaim, Flags.BLOCK_PLACE, block, user)
+                    : this.isDenied(event, breakResults, toBlock.getLocation(), targetClaim, Flags.BLOCK_BREAK, toBlock, user);
+            if (denied) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks if a piston retracting should be cancelled.
+     *
+     * <p>The position of each block being pulled is checked unless it is in
+     * the piston's own claim.</p>
+     *
+     * @param event The piston event
+     * @param blocks The blocks being pulled
+     * @param sourceClaim The claim containing the piston
+     * @param user The user who owns the piston
+     * @return Whether the event should be cancelled
+     */
+    public boolean isRetractDenied(BlockPistonEvent event, List<Block> blocks, GDClaim sourceClaim, GDPermissionUser user) {
+        final int size = blocks.size();
+        if (size == 0) {
+            return false;
+        }
+
+        final GDClaimManager claimManager = this.claimManagerLookup.apply(event.getBlock().getWorld());
+        final GDClaim[] targetClaims = new GDClaim[size];
+        boolean requiresCheck = false;
+        for (int i = 0; i < size; i++) {
+            final Block block = blocks.get(i);
+            final GDClaim targetClaim = (GDClaim) claimManager.getClaimAt(block.getX(), block.getY(), block.getZ());
+            if (sourceClaim.getUniqueId().equals(targetClaim.getUniqueId())) {
+                continue;
+            }
+            targetClaims[i] = targetClaim;
+            requiresCheck = true;
+        }
+        if (!requiresCheck) {
+            return false;
+        }
+
+        final Map<GDClaim, Map<String, Tristate>> placeResults = new HashMap<>();
+        final Map<GDClaim, Map<String, Tristate>> breakResults = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            final GDClaim targetClaim = targetClaims[i];
+            if (targetClaim == null) {
+                continue;
+            }
+
+            final Block block = blocks.get(i);
+            final boolean denied = block.isEmpty()
+                    ? this.isDenied(event, placeResults, block.getLocation(), targetClaim, Flags.BLOCK_PLACE, block, user)
+                    : this.isDenied(event, breakResults, block.getLocation(), targetClaim, Flags.BLOCK_BREAK, block, user);
+            if (denied) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isDenied(BlockPistonEvent event, Map<GDClaim, Map<String, Tristate>> claimResults, Location location, GDClaim targetClaim, Flag flag, Block target, GDPermissionUser user) {
+        // Renter checks depend on each block so results can only be shared outside rented claims
+        if (!this.groupResults.getAsBoolean() || (targetClaim.getEconomyData() != null && targetClaim.getEconomyData().isRented())) {
+            return this.getResult(event, location, targetClaim, flag, target, user) == Tristate.FALSE;
+        }
+
+        Map<String, Tristate> results = claimResults.get(targetClaim);
+        if (results == null) {
+            results = new HashMap<>();
+            claimResults.put(targetClaim, results);
+        }
+        final String targetKey = target.getType().name() + this.blockDataLookup.apply(target);
+        Tristate result = results.get(targetKey);
+        if (result == null) {
+            result = this.getResult(event, location, targetClaim, flag, target, user);
+            results.put(targetKey, result);
+        }
+        return result == Tristate.FALSE;
+    }
+
+    private Tristate getResult(BlockPistonEvent event, Location location, GDClaim targetClaim, Flag flag, Block target, GDPermissionUser user) {
+        return this.permissionResolver.getFinalPermission(event, location, targetClaim, flag, event.getBlock(), target, user);
+    }
+
+    interface PermissionResolver {
+
+        Tristate getFinalPermission(BlockPistonEvent event, Location location, GDClaim claim, Flag flag, Block source, Block target, GDPermissionUser user);
+    }
+}
@@ -70,6 +70,7 @@
 import com.griefdefender.provider.VaultProvider;
 import com.griefdefender.storage.BaseStorage;
 import com.griefdefender.task.ClaimVisualRevertTask;
+import com.griefdefender.task.NearbyClaimVisualTask;
 import com.griefdefender.text.action.GDCallbackHolder;
 import com.griefdefender.util.BlockRay;
 import com.griefdefender.util.BlockRayHit;
@@ -133,11 +134,9 @@
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -1719,37 +1718,7 @@ private boolean investigateClaim(PlayerInteractEvent event, Player player, Block
                     return false;
                 }
 
-                Location nearbyLocation = playerData.lastValidInspectLocation != null ? playerData.lastValidInspectLocation : player.getLocation();
-                Set<Claim> claims = BlockUtil.getInstance().getNearbyClaims(nearbyLocation, maxDistance, true);
-                List<Claim> visualClaims = new ArrayList<>();
-                for (Claim nearbyClaim : claims) {
-                    if (!((GDClaim) nearbyClaim).hasActiveVisual(player)) {
-                        visualClaims.add(nearbyClaim);
-                    }
-                }
-                int height = (int) (playerData.lastValidInspectLocation != null ? playerData.lastValidInspectLocation.getBlockY() : PlayerUtil.getInstance().getEyeHeight(player));
-
-                boolean hideBorders = this.worldEditProvider != null &&
-                                      this.worldEditProvider.hasCUISupport(player) &&
-                                      GriefDefenderPlugin.getActiveConfig(player.getWorld().getUID()).getConfig().visual.hideBorders;
-                if (!hideBorders) {
-                    for (Claim visualClaim : visualClaims) {
-                        final GDClaimVisual visual = ((GDClaim) visualClaim).getVisualizer();
-                        visual.createClaimBlockVisuals(playerData.getClaimCreateMode() == CreateModeTypes.VOLUME ? height : PlayerUtil.getInstance().getEyeHeight(player), player.getLocation(), playerData);
-                        visual.apply(player);
-                    }
-                }
-
-                final Component message = GriefDefenderPlugin.getInstance().messageData.getMessage(MessageStorage.CLAIM_SHOW_NEARBY,
-                        ImmutableMap.of(
-                        "amount", claims.size()));
-                GriefDefenderPlugin.sendMessage(player, message);
-                if (!claims.isEmpty()) {
-                    if (this.worldEditProvider != null && !visualClaims.isEmpty()) {
-                         worldEditProvider.visualizeClaims(visualClaims, player, playerData, true);
-                     }
-                    CommandHelper.showClaims(player, claims);
-                }
+                NearbyClaimVisualTask.submit(player, playerData, maxDistance);
                 GDTimings.PLAYER_INVESTIGATE_CLAIM.stopTiming();
                 return true;
             }
@@ -76,6 +76,7 @@ public void onChunkLoad(ChunkLoadEvent event) {
 
         final GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(event.getWorld().getUID());
         final GDChunk gdChunk = claimWorldManager.getChunk(event.getChunk());
+        claimWorldManager.getEntityCountIndex().onChunkLoad(event.getChunk());
         if (gdChunk != null) {
             try {
                 gdChunk.loadChunkTrackingData();
@@ -93,6 +94,7 @@ public void onChunkUnload(ChunkUnloadEvent event) {
 
         final GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(event.getWorld().getUID());
         final GDChunk gdChunk = claimWorldManager.getChunk(event.getChunk(), false);
+        claimWorldManager.getEntityCountIndex().onChunkUnload(event.getChunk());
         if (gdChunk != null) {
             if (gdChunk.getTrackedShortPlayerPositions().size() > 0) {
                 gdChunk.saveChunkTrackingData();
@@ -0,0 +1,71 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.permission;
+
+/**
+ * Tracks the flag evaluation in progress on each thread.
+ *
+ * <p>A nested evaluation restores the outer one when it finishes. Once the
+ * outermost evaluation finishes only its result message is kept, so a thread
+ * never holds on to the event, location or subject of a finished
+ * evaluation.</p>
+ */
+public class EvaluationContextHolder {
+
+    private final ThreadLocal<PermissionEvaluationContext> current = ThreadLocal.withInitial(PermissionEvaluationContext::new);
+
+    /**
+     * Gets the evaluation in progress on this thread, or the result of the
+     * last finished evaluation if none is in progress.
+     *
+     * @return The evaluation context
+     */
+    public PermissionEvaluationContext get() {
+        return this.current.get();
+    }
+
+    /**
+     * Makes an evaluation current on this thread.
+     *
+     * <p>The returned context must be passed to {@link #exit} once the
+     * evaluation finishes.</p>
+     *
+     * @param evaluation The evaluation starting
+     * @return The context that was current before
+     */
+    public PermissionEvaluationContext enter(PermissionEvaluationContext evaluation) {
+        final PermissionEvaluationContext previous = this.current.get();
+        this.current.set(evaluation);
+        return previous;
+    }
+
+    public void exit(PermissionEvaluationContext previous, PermissionEvaluationContext evaluation) {
+        if (previous.isEvaluating()) {
+            this.current.set(previous);
+        } else {
+            this.current.set(PermissionEvaluationContext.ofResult(evaluation.getMessage()));
+        }
+    }
+}
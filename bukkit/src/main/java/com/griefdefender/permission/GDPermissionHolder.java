@@ -26,11 +26,17 @@
 
 import com.griefdefender.api.Subject;
 
+import java.lang.ref.WeakReference;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
 public class GDPermissionHolder implements Subject {
 
     private String identifier;
     private String friendlyName;
     private Integer hashCode;
+    // The holder resolved by the permission provider, held weakly so it never outlives the provider's copy
+    private volatile WeakReference<Object> resolvedHolder;
 
     public GDPermissionHolder(String identifier) {
         this.identifier = identifier;
@@ -56,6 +62,31 @@ public String getIdentifier() {
         return this.identifier;
     }
 
+    /**
+     * Gets the holder previously resolved by the permission provider.
+     *
+     * @return The resolved holder, or null if not resolved or no longer loaded
+     */
+    @Nullable
+    public Object getResolvedHolder() {
+        final WeakReference<Object> reference = this.resolvedHolder;
+        return reference == null ? null : reference.get();
+    }
+
+    public void setResolvedHolder(Object holder) {
+        this.resolvedHolder = holder == null ? null : new WeakReference<>(holder);
+    }
+
+    /**
+     * Clears the resolved holder so the next lookup resolves it again.
+     *
+     * <p>Must be called whenever the permission provider unloads or deletes
+     * the holder.</p>
+     */
+    public void clearResolvedHolder() {
+        this.resolvedHolder = null;
+    }
+
     @Override
     public int hashCode() {
         if (this.hashCode == null) {
@@ -53,8 +53,11 @@
 import com.griefdefender.api.permission.option.type.WeatherType;
 import com.griefdefender.api.permission.option.type.WeatherTypes;
 import com.griefdefender.cache.EventResultCache;
+import com.griefdefender.cache.FlagDecisionCache;
 import com.griefdefender.cache.MessageCache;
+import com.griefdefender.cache.OptionValueCache;
 import com.griefdefender.cache.PermissionHolderCache;
+import com.griefdefender.cache.PermissionIdentifierCache;
 import com.griefdefender.claim.GDClaim;
 import com.griefdefender.claim.GDClaimManager;
 import com.griefdefender.command.CommandHelper;
@@ -82,7 +85,6 @@
 import net.kyori.text.adapter.bukkit.TextAdapter;
 import net.kyori.text.format.TextColor;
 
-import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
@@ -115,7 +117,6 @@
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -125,18 +126,10 @@
 
 public class GDPermissionManager implements PermissionManager {
 
-    private static final Pattern BLOCKSTATE_PATTERN = Pattern.compile("(?:\\w+=\\w+,)*\\w+=\\w+", Pattern.MULTILINE);
-
     private static GDPermissionManager instance;
     public boolean blacklistCheck = false;
-    private Event currentEvent;
-    private Location eventLocation;
-    private GDPermissionHolder eventSubject;
-    private GDPlayerData eventPlayerData;
-    private String eventSourceId = "none";
-    private String eventTargetId = "none";
-    private Set<Context> eventContexts = new HashSet<>();
-    private Component eventMessage;
+    // Evaluation state is confined to the thread performing the check
+    private final EvaluationContextHolder evaluationContext = new EvaluationContextHolder();
     private static final Pattern PATTERN_META = Pattern.compile("\\.[\\d+]*$");
 
     private enum BanType {
@@ -186,25 +179,27 @@ public Tristate getFinalPermission(Event event, Location location, Set<Context>
             return Tristate.TRUE;
         }
 
-        GDPlayerData playerData = null;
         final GDPermissionUser user = permissionHolder instanceof GDPermissionUser ? (GDPermissionUser) permissionHolder : null;
-        this.eventSubject = user;
-        this.eventMessage = null;
-        this.eventSourceId = "none";
-        this.eventTargetId = "none";
+        final PermissionEvaluationContext evaluation = new PermissionEvaluationContext(event, location, user);
+        final PermissionEvaluationContext previous = this.evaluationContext.enter(evaluation);
+        try {
+            return this.getFinalPermission(evaluation, event, location, contexts, claim, flag, source, target, permissionHolder, user, type, checkOverride);
+        } finally {
+            this.evaluationContext.exit(previous, evaluation);
+        }
+    }
+
+    private Tristate getFinalPermission(PermissionEvaluationContext evaluation, Event event, Location location, Set<Context> contexts, Claim claim, Flag flag, Object source, Object target,
+            GDPermissionHolder permissionHolder, GDPermissionUser user, TrustType type, boolean checkOverride) {
+        GDPlayerData playerData = null;
         if (permissionHolder != null) {
             if (user != null) {
                 playerData = GriefDefenderPlugin.getInstance().dataStore.getOrCreatePlayerData(claim.getWorldUniqueId(), user.getUniqueId());
             }
         }
 
-        this.currentEvent = event;
-        this.eventLocation = location;
-        // refresh contexts
-        this.eventContexts = new HashSet<>();
-
         if (source instanceof Player && flag != Flags.COLLIDE_BLOCK && flag != Flags.COLLIDE_ENTITY) {
-            this.addPlayerContexts((Player) source, contexts, flag);
+            this.addPlayerContexts(evaluation, (Player) source, contexts, flag);
         }
         if (!(source instanceof Player) && user != null && user.getOnlinePlayer() != null) {
             boolean addPlayerContext = false;
@@ -236,8 +231,8 @@ public Tristate getFinalPermission(Event event, Location location, Set<Context>
         contexts.addAll(sourceContexts);
         contexts.addAll(targetContexts);
         contexts.add(((GDClaim) claim).getWorldContext());
-        this.eventContexts = contexts;
-        this.eventPlayerData = playerData;
+        evaluation.setContexts(contexts);
+        evaluation.setPlayerData(playerData);
         final String targetPermission = flag.getPermission();
 
         if (flag == Flags.ENTITY_SPAWN && GDOptions.SPAWN_LIMIT && target instanceof LivingEntity) {
@@ -246,7 +241,7 @@ public Tristate getFinalPermission(Event event, Location location, Set<Context>
             final int spawnLimit = gdClaim.getSpawnLimit(contexts);
             if (spawnLimit > -1) {
                 final Entity entity = (Entity) target;
-                final int currentEntityCount = gdClaim.countEntities(entity);
+                final int currentEntityCount = gdClaim.countEntities(entity, spawnLimit);
                 if (currentEntityCount >= spawnLimit) {
                     if (user != null && user.getOnlinePlayer() != null && (source == SpawnReason.ENDER_PEARL || source == SpawnReason.SPAWNER_EGG || source == SpawnReason.SPAWNER)) {
                         final String name = entity.getType().getName() == null ? entity.getType().name().toLowerCase() : entity.getType().getName();
@@ -257,32 +252,59 @@ public Tristate getFinalPermission(Event event, Location location, Set<Context>
                                 "limit", spawnLimit));
                         GriefDefenderPlugin.sendMessage(user.getOnlinePlayer(), message);
                     }
-                    return this.processResult(claim, flag.getPermission(), "spawn-limit", Tristate.FALSE, this.eventSubject);
+                    return this.processResult(evaluation, claim, flag.getPermission(), "spawn-limit", Tristate.FALSE, evaluation.getSubject());
                 }
             }
         }
 
         if (user != null && playerData != null && !playerData.debugClaimPermissions && playerData.canIgnoreClaim(claim)) {
-            return processResult(claim, targetPermission, "ignore", Tristate.TRUE, user);
+            return processResult(evaluation, claim, targetPermission, "ignore", Tristate.TRUE, user);
+        }
+
+        // Rented claims depend on block ownership at location so are never cached
+        final boolean useDecisionCache = !GriefDefenderPlugin.debugActive && (playerData == null || !playerData.debugClaimPermissions)
+                && (user == null || claim.getEconomyData() == null || !claim.getEconomyData().isRented());
+        FlagDecisionCache.Key decisionKey = null;
+        if (useDecisionCache) {
+            // Ignore and admin claim state are toggled at runtime without a permission change
+            final boolean ignoreClaim = playerData != null && playerData.canIgnoreClaim(claim);
+            final boolean manageAdminClaims = user != null && claim.isAdminClaim() && user.getInternalPlayerData() != null && user.getInternalPlayerData().canManageAdminClaims;
+            decisionKey = FlagDecisionCache.getInstance().createKey(claim, flag, evaluation.getSourceId(), evaluation.getTargetId(), permissionHolder, type, checkOverride,
+                    ignoreClaim, manageAdminClaims, contexts);
+            final FlagDecisionCache.Decision decision = FlagDecisionCache.getInstance().get(decisionKey);
+            if (decision != null) {
+                evaluation.setMessage(decision.getMessage());
+                return processResult(evaluation, claim, targetPermission, decision.getResult(), permissionHolder);
+            }
+        }
+
+        final Tristate result = this.getFinalPermission(evaluation, location, claim, flag, target, permissionHolder, user, playerData, targetPermission, type, checkOverride);
+        if (decisionKey != null) {
+            FlagDecisionCache.getInstance().put(decisionKey, result, evaluation.getMessage());
         }
+        return result;
+    }
+
+    private Tristate getFinalPermission(PermissionEvaluationContext evaluation, Location location, Claim claim, Flag flag, Object target, GDPermissionHolder permissionHolder, GDPermissionUser user,
+            GDPlayerData playerData, String targetPermission, TrustType type, boolean checkOverride) {
         if (checkOverride) {
             // First check for claim flag overrides
-            final Tristate override = getFlagOverride(claim, permissionHolder == null ? GriefDefenderPlugin.DEFAULT_HOLDER : permissionHolder, playerData, targetPermission);
+            final Tristate override = getFlagOverride(evaluation, claim, permissionHolder == null ? GriefDefenderPlugin.DEFAULT_HOLDER : permissionHolder, playerData, targetPermission);
             if (override != Tristate.UNDEFINED) {
-                return processResult(claim, targetPermission, type == null ? "none" : type.getName().toLowerCase(), override, user);
+                return processResult(evaluation, claim, targetPermission, type == null ? "none" : type.getName().toLowerCase(), override, user);
             }
         }
 
         if (playerData != null && user != null) {
             if (playerData.debugClaimPermissions) {
                 if (type != null && claim.isUserTrusted(user.getUniqueId(), type)) {
-                    return processResult(claim, targetPermission, type.getName().toLowerCase(), Tristate.TRUE, user);
+                    return processResult(evaluation, claim, targetPermission, type.getName().toLowerCase(), Tristate.TRUE, user);
                 }
-                return getClaimFlagPermission(claim, targetPermission);
+                return getClaimFlagPermission(evaluation, claim, targetPermission);
             }
              // Check for ignoreclaims after override and debug checks
             if (playerData.canIgnoreClaim(claim)) {
-                return processResult(claim, targetPermission, "ignore", Tristate.TRUE, user);
+                return processResult(evaluation, claim, targetPermission, "ignore", Tristate.TRUE, user);
             }
         }
         if (user != null) {
@@ -296,19 +318,19 @@ public Tristate getFinalPermission(Event event, Location location, Set<Context>
                     flag != Flags.ENTITY_TELEPORT_TO &&
                     flag != Flags.INTERACT_INVENTORY_CLICK) {
                 if (claim.getOwnerUniqueId() != null && user != null && claim.getOwnerUniqueId().equals(user.getUniqueId())) {
-                    return processResult(claim, targetPermission, "rent-owner-deny", Tristate.FALSE, user);
+                    return processResult(evaluation, claim, targetPermission, "rent-owner-deny", Tristate.FALSE, user);
                 }
 
                 if (EconomyUtil.getInstance().isRenter(claim, user) && (targetPermission.contains("interact") || targetPermission.contains("block"))) {
                     if ((targetPermission.contains("interact") || targetPermission.contains("block-place"))) {
                         final boolean hasInventory = NMSUtil.getInstance().isTileInventory(location) || location.getBlock().getType() == Material.ENDER_CHEST;
                         if (!hasInventory || flag == Flags.BLOCK_PLACE) {
-                            return processResult(claim, targetPermission, "renter-interact", Tristate.TRUE, user);
+                            return processResult(evaluation, claim, targetPermission, "renter-interact", Tristate.TRUE, user);
                         }
                         // check entity interactions
                         if (targetPermission.contains("interact-entity") && target instanceof LivingEntity) {
                             // Allow interaction with all living entities
-                            return processResult(claim, targetPermission, "renter-interact", Tristate.TRUE, user);
+                            return processResult(evaluation, claim, targetPermission, "renter-interact", Tristate.TRUE, user);
                         }
                     }
 
@@ -318,7 +340,7 @@ public Tristate getFinalPermission(Event event, Location location, Set<Context>
                     final GDPermissionUser owner = gdChunk.getBlockOwner(location);
                     if (owner != null && owner.getUniqueId().equals(user.getUniqueId())) {
                         // allow
-                        return processResult(claim, targetPermission, "renter-owned", Tristate.TRUE, user);
+                        return processResult(evaluation, claim, targetPermission, "renter-owned", Tristate.TRUE, user);
                     }
                 }
             }
@@ -327,25 +349,25 @@ public Tristate getFinalPermission(Event event, Location location, Set<Context>
                     // check persisted flags
                     if (!claim.isWilderness()) {
                         if ((claim.isAdminClaim() && !user.getInternalPlayerData().canManageAdminClaims) || !user.getUniqueId().equals(claim.getOwnerUniqueId())) {
-                            final Tristate result = getUserPermission(user, claim, targetPermission, PermissionDataType.USER_PERSISTENT);
+                            final Tristate result = getUserPermission(evaluation, user, claim, targetPermission, PermissionDataType.USER_PERSISTENT);
                             if (result != Tristate.UNDEFINED) {
-                                return processResult(claim, targetPermission, result, user);
+                                return processResult(evaluation, claim, targetPermission, result, user);
                             }
                         }
                     }
-                    return processResult(claim, targetPermission, type.getName().toLowerCase(), Tristate.TRUE, permissionHolder);
+                    return processResult(evaluation, claim, targetPermission, type.getName().toLowerCase(), Tristate.TRUE, permissionHolder);
                 }
             }
-            return getUserPermission(user, claim, targetPermission, PermissionDataType.PERSISTENT);
+            return getUserPermission(evaluation, user, claim, targetPermission, PermissionDataType.PERSISTENT);
         }
 
-        return getClaimFlagPermission(claim, targetPermission);
+        return getClaimFlagPermission(evaluation, claim, targetPermission);
     }
 
-    private Tristate getUserPermission(GDPermissionHolder holder, Claim claim, String permission, PermissionDataType dataType) {
+    private Tristate getUserPermission(PermissionEvaluationContext evaluation, GDPermissionHolder holder, Claim claim, String permission, PermissionDataType dataType) {
         final List<Claim> inheritParents = claim.getInheritedParents();
         final Set<Context> contexts = new HashSet<>();
-        contexts.addAll(this.eventContexts);
+        contexts.addAll(evaluation.getContexts());
 
         for (Claim parentClaim : inheritParents) {
             GDClaim parent = (GDClaim) parentClaim;
@@ -353,7 +375,7 @@ private Tristate getUserPermission(GDPermissionHolder holder, Claim claim, Strin
             contexts.add(parent.getContext());
             Tristate value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, holder, permission, contexts, dataType);
             if (value != Tristate.UNDEFINED) {
-                return processResult(claim, permission, value, holder);
+                return processResult(evaluation, claim, permission, value, holder);
             }
 
             contexts.remove(parent.getContext());
@@ -363,7 +385,7 @@ private Tristate getUserPermission(GDPermissionHolder holder, Claim claim, Strin
         contexts.add(claim.getContext());
         Tristate value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, holder, permission, contexts, dataType);
         if (value != Tristate.UNDEFINED) {
-            return processResult(claim, permission, value, holder);
+            return processResult(evaluation, claim, permission, value, holder);
         }
         if (dataType == PermissionDataType.USER_PERSISTENT) {
             // don't log, just return result
@@ -372,26 +394,26 @@ private Tristate getUserPermission(GDPermissionHolder holder, Claim claim, Strin
 
         // Group MUST inherit default group or above will return undefined if no permission set on non-default group/user.
         contexts.remove(claim.getContext());
-        return getFlagDefaultPermission(claim, permission, contexts);
+        return getFlagDefaultPermission(evaluation, claim, permission, contexts);
     }
 
-    private Tristate getClaimFlagPermission(Claim claim, String permission) {
-        return this.getClaimFlagPermission(claim, permission, new HashSet<>(), null);
+    private Tristate getClaimFlagPermission(PermissionEvaluationContext evaluation, Claim claim, String permission) {
+        return this.getClaimFlagPermission(evaluation, claim, permission, new HashSet<>(), null);
     }
 
-    private Tristate getClaimFlagPermission(Claim claim, String permission, Set<Context> contexts, List<Claim> inheritParents) {
+    private Tristate getClaimFlagPermission(PermissionEvaluationContext evaluation, Claim claim, String permission, Set<Context> contexts, List<Claim> inheritParents) {
         if (contexts.isEmpty()) {
             if (inheritParents == null) {
                 inheritParents = claim.getInheritedParents();
             }
-            contexts.addAll(this.eventContexts);
+            contexts.addAll(evaluation.getContexts());
             for (Claim parentClaim : inheritParents) {
                 GDClaim parent = (GDClaim) parentClaim;
                 // check parent context
                 contexts.add(parent.getContext());
                 Tristate value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, GriefDefenderPlugin.DEFAULT_HOLDER, permission, contexts, PermissionDataType.PERSISTENT);
                 if (value != Tristate.UNDEFINED) {
-                    return processResult(claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
+                    return processResult(evaluation, claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
                 }
 
                 contexts.remove(parent.getContext());
@@ -401,18 +423,18 @@ private Tristate getClaimFlagPermission(Claim claim, String permission, Set<Cont
 
         Tristate value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, GriefDefenderPlugin.DEFAULT_HOLDER, permission, contexts, PermissionDataType.PERSISTENT);
         if (value != Tristate.UNDEFINED) {
-            return processResult(claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
+            return processResult(evaluation, claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
         }
 
-        return getFlagDefaultPermission(claim, permission, contexts);
+        return getFlagDefaultPermission(evaluation, claim, permission, contexts);
     }
 
     // Only uses world and claim type contexts
-    private Tristate getFlagDefaultPermission(Claim claim, String permission, Set<Context> contexts) {
+    private Tristate getFlagDefaultPermission(PermissionEvaluationContext evaluation, Claim claim, String permission, Set<Context> contexts) {
         contexts.add(claim.getDefaultTypeContext());
         Tristate value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, GriefDefenderPlugin.DEFAULT_HOLDER, permission, contexts, PermissionDataType.PERSISTENT);
         if (value != Tristate.UNDEFINED) {
-            return processResult(claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
+            return processResult(evaluation, claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
         }
         contexts.remove(claim.getDefaultTypeContext());
         if (!claim.isWilderness()) {
@@ -420,14 +442,14 @@ private Tristate getFlagDefaultPermission(Claim claim, String permission, Set<Co
             contexts.add(ClaimContexts.USER_DEFAULT_CONTEXT);
             value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, GriefDefenderPlugin.DEFAULT_HOLDER, permission, contexts, PermissionDataType.PERSISTENT);
             if (value != Tristate.UNDEFINED) {
-                return processResult(claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
+                return processResult(evaluation, claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
             }
             contexts.remove(ClaimContexts.USER_DEFAULT_CONTEXT);
         } else {
             contexts.add(ClaimContexts.GLOBAL_DEFAULT_CONTEXT);
             value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, GriefDefenderPlugin.DEFAULT_HOLDER, permission, contexts, PermissionDataType.PERSISTENT);
             if (value != Tristate.UNDEFINED) {
-                return processResult(claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
+                return processResult(evaluation, claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
             }
         }
 
@@ -436,13 +458,13 @@ private Tristate getFlagDefaultPermission(Claim claim, String permission, Set<Co
         contexts.add(claim.getDefaultTypeContext());
         value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, GriefDefenderPlugin.GD_DEFAULT_HOLDER, permission, contexts, PermissionDataType.TRANSIENT);
         if (value != Tristate.UNDEFINED) {
-            return processResult(claim, permission, value, GriefDefenderPlugin.GD_DEFAULT_HOLDER);
+            return processResult(evaluation, claim, permission, value, GriefDefenderPlugin.GD_DEFAULT_HOLDER);
         }
 
-        return processResult(claim, permission, Tristate.UNDEFINED, GriefDefenderPlugin.DEFAULT_HOLDER);
+        return processResult(evaluation, claim, permission, Tristate.UNDEFINED, GriefDefenderPlugin.DEFAULT_HOLDER);
     }
 
-    private Tristate getFlagOverride(Claim claim, GDPermissionHolder permissionHolder, GDPlayerData playerData, String flagPermission) {
+    private Tristate getFlagOverride(PermissionEvaluationContext evaluation, Claim claim, GDPermissionHolder permissionHolder, GDPlayerData playerData, String flagPermission) {
         if (!((GDClaim) claim).getInternalClaimData().allowFlagOverrides()) {
             return Tristate.UNDEFINED;
         }
@@ -465,7 +487,7 @@ private Tristate getFlagOverride(Claim claim, GDPermissionHolder permissionHolde
 
         contexts.add(((GDClaim) claim).getWorldContext());
         contexts.add(ClaimContexts.GLOBAL_OVERRIDE_CONTEXT);
-        contexts.addAll(this.eventContexts);
+        contexts.addAll(evaluation.getContexts());
 
         Tristate value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, permissionHolder, flagPermission, contexts, PermissionDataType.PERSISTENT);
         if (value == Tristate.UNDEFINED) {
@@ -473,7 +495,7 @@ private Tristate getFlagOverride(Claim claim, GDPermissionHolder permissionHolde
             /*final List<Claim> inheritParents = claim.getInheritedParents();
             contexts = new HashSet<>();
             contexts.add(((GDClaim) claim).getWorldContext());
-            contexts.addAll(this.eventContexts);
+            contexts.addAll(evaluation.getContexts());
             for (Claim parentClaim : inheritParents) {
                 GDClaim parent = (GDClaim) parentClaim;
                 // check parent override claim context
@@ -481,9 +503,9 @@ private Tristate getFlagOverride(Claim claim, GDPermissionHolder permissionHolde
                 value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, permissionHolder, flagPermission, contexts);
                 if (value != Tristate.UNDEFINED) {
                     if (value == Tristate.FALSE) {
-                        this.eventMessage = MessageCache.getInstance().PERMISSION_OVERRIDE_DENY;
+                        evaluation.setMessage(MessageCache.getInstance().PERMISSION_OVERRIDE_DENY);
                     }
-                    return processResult(claim, flagPermission, value, permissionHolder);
+                    return processResult(evaluation, claim, flagPermission, value, permissionHolder);
                 }
 
                 contexts.remove(parent.getOverrideClaimContext());
@@ -492,26 +514,35 @@ private Tristate getFlagOverride(Claim claim, GDPermissionHolder permissionHolde
             // check claim owner override
             contexts = new HashSet<>();
             contexts.add(((GDClaim) claim).getWorldContext());
-            contexts.addAll(this.eventContexts);
+            contexts.addAll(evaluation.getContexts());
             contexts.add(claim.getOverrideClaimContext());
             value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, permissionHolder, flagPermission, contexts, PermissionDataType.PERSISTENT);
         }
         if (value != Tristate.UNDEFINED) {
             if (value == Tristate.FALSE) {
-                this.eventMessage = MessageCache.getInstance().PERMISSION_OVERRIDE_DENY;
+                evaluation.setMessage(MessageCache.getInstance().PERMISSION_OVERRIDE_DENY);
             }
-            return processResult(claim, flagPermission, value, permissionHolder);
+            return processResult(evaluation, claim, flagPermission, value, permissionHolder);
         }
 
         return Tristate.UNDEFINED;
     }
 
     public Tristate processResult(Claim claim, String permission, Tristate permissionValue, GDPermissionHolder permissionHolder) {
-        return processResult(claim, permission, null, permissionValue, permissionHolder);
+        return processResult(this.evaluationContext.get(), claim, permission, null, permissionValue, permissionHolder);
     }
 
     public Tristate processResult(Claim claim, String permission, String trust, Tristate permissionValue, GDPermissionHolder permissionHolder) {
-        if (GriefDefenderPlugin.debugActive && this.currentEvent != null) {
+        return processResult(this.evaluationContext.get(), claim, permission, trust, permissionValue, permissionHolder);
+    }
+
+    private Tristate processResult(PermissionEvaluationContext evaluation, Claim claim, String permission, Tristate permissionValue, GDPermissionHolder permissionHolder) {
+        return processResult(evaluation, claim, permission, null, permissionValue, permissionHolder);
+    }
+
+    private Tristate processResult(PermissionEvaluationContext evaluation, Claim claim, String permission, String trust, Tristate permissionValue, GDPermissionHolder permissionHolder) {
+        final GDPermissionHolder eventSubject = evaluation.getSubject();
+        if (GriefDefenderPlugin.debugActive && evaluation.getEvent() != null) {
             // Use the event subject always if available
             // This prevents debug showing 'default' for users
             if (eventSubject != null) {
@@ -525,16 +556,17 @@ public Tristate processResult(Claim claim, String permission, String trust, Tris
                 }
             }
 
-            if (this.currentEvent instanceof BlockPhysicsEvent) {
+            if (evaluation.getEvent() instanceof BlockPhysicsEvent) {
                 if (((GDClaim) claim).getWorld().getTime() % 100 != 0L) {
                     return permissionValue;
                 }
             }
 
-            GriefDefenderPlugin.addEventLogEntry(this.currentEvent, claim, this.eventLocation, this.eventSourceId, this.eventTargetId, this.eventSubject == null ? permissionHolder : this.eventSubject, permission, trust, permissionValue, this.eventContexts);
+            GriefDefenderPlugin.addEventLogEntry(evaluation.getEvent(), claim, evaluation.getLocation(), evaluation.getSourceId(), evaluation.getTargetId(), eventSubject == null ? permissionHolder : eventSubject, permission, trust, permissionValue, evaluation.getContexts());
         }
 
 
+        final GDPlayerData eventPlayerData = evaluation.getPlayerData();
         if (eventPlayerData != null && eventPlayerData.eventResultCache != null) {
             final Flag flag = FlagRegistryModule.getInstance().getById(permission).orElse(null);
             if (flag != null) {
@@ -901,9 +933,10 @@ public boolean isObjectIdBanned(GDClaim claim, String id, BanType type) {
             return false;
         }
 
+        final PermissionEvaluationContext evaluation = this.evaluationContext.get();
         GDPermissionUser user = null;
-        if (this.eventSubject != null && this.eventSubject instanceof GDPermissionUser) {
-            user = (GDPermissionUser) this.eventSubject;
+        if (evaluation.getSubject() instanceof GDPermissionUser) {
+            user = (GDPermissionUser) evaluation.getSubject();
             if (user.getInternalPlayerData() != null && user.getInternalPlayerData().canIgnoreClaim(claim)) {
                 return false;
             }
@@ -913,34 +946,33 @@ public boolean isObjectIdBanned(GDClaim claim, String id, BanType type) {
         Component banReason = null;
         final BanCategory banCategory = GriefDefenderPlugin.getGlobalConfig().getConfig().bans;
         if (type == BanType.BLOCK) {
-            for (Entry<String, Component> banId : banCategory.getBlockMap().entrySet()) {
-                if (FilenameUtils.wildcardMatch(id, banId.getKey())) {
-                    banReason = GriefDefenderPlugin.getGlobalConfig().getConfig().bans.getBlockBanReason(banId.getKey());
-                    if (banReason != null && banReason.equals(TextComponent.empty())) {
-                        banReason = MessageStorage.MESSAGE_DATA.getMessage(MessageStorage.PERMISSION_BAN_BLOCK, 
-                                ImmutableMap.of("id", TextComponent.of(id, TextColor.GOLD)));
-                    }
-                    break;
+            // The first matching ban wins
+            final String banId = banCategory.getBlockMatcher().findFirst(id);
+            if (banId != null) {
+                banReason = GriefDefenderPlugin.getGlobalConfig().getConfig().bans.getBlockBanReason(banId);
+                if (banReason != null && banReason.equals(TextComponent.empty())) {
+                    banReason = MessageStorage.MESSAGE_DATA.getMessage(MessageStorage.PERMISSION_BAN_BLOCK, 
+                            ImmutableMap.of("id", TextComponent.of(id, TextColor.GOLD)));
                 }
             }
         } else if (type == BanType.ITEM) {
-            for (Entry<String, Component> banId : banCategory.getItemMap().entrySet()) {
-                if (FilenameUtils.wildcardMatch(id, banId.getKey())) {
-                    banReason = GriefDefenderPlugin.getGlobalConfig().getConfig().bans.getItemBanReason(banId.getKey());
-                    if (banReason != null && banReason.equals(TextComponent.empty())) {
-                        banReason = MessageStorage.MESSAGE_DATA.getMessage(MessageStorage.PERMISSION_BAN_ITEM, 
-                                ImmutableMap.of("id", TextComponent.of(id, TextColor.GOLD)));
-                    }
+            // The last matching ban wins
+            final String banId = banCategory.getItemMatcher().findLast(id);
+            if (banId != null) {
+                banReason = GriefDefenderPlugin.getGlobalConfig().getConfig().bans.getItemBanReason(banId);
+                if (banReason != null && banReason.equals(TextComponent.empty())) {
+                    banReason = MessageStorage.MESSAGE_DATA.getMessage(MessageStorage.PERMISSION_BAN_ITEM, 
+                            ImmutableMap.of("id", TextComponent.of(id, TextColor.GOLD)));
                 }
             }
         } else if (type == BanType.ENTITY) {
-            for (Entry<String, Component> banId : banCategory.getEntityMap().entrySet()) {
-                if (FilenameUtils.wildcardMatch(id, banId.getKey())) {
-                    banReason = GriefDefenderPlugin.getGlobalConfig().getConfig().bans.getEntityBanReason(banId.getKey());
-                    if (banReason != null && banReason.equals(TextComponent.empty())) {
-                        banReason = MessageStorage.MESSAGE_DATA.getMessage(MessageStorage.PERMISSION_BAN_ENTITY, 
-                                ImmutableMap.of("id", TextComponent.of(id, TextColor.GOLD)));
-                    }
+            // The last matching ban wins
+            final String banId = banCategory.getEntityMatcher().findLast(id);
+            if (banId != null) {
+                banReason = GriefDefenderPlugin.getGlobalConfig().getConfig().bans.getEntityBanReason(banId);
+                if (banReason != null && banReason.equals(TextComponent.empty())) {
+                    banReason = MessageStorage.MESSAGE_DATA.getMessage(MessageStorage.PERMISSION_BAN_ENTITY, 
+                            ImmutableMap.of("id", TextComponent.of(id, TextColor.GOLD)));
                 }
             }
         }
@@ -953,26 +985,20 @@ public boolean isObjectIdBanned(GDClaim claim, String id, BanType type) {
                             ImmutableMap.of("id", id));
                 }
                 TextAdapter.sendComponent(player, banReason);
-                this.processResult(claim, permission, "banned", Tristate.FALSE, user);
+                this.processResult(evaluation, claim, permission, "banned", Tristate.FALSE, user);
                 return true;
             }
         }
         if (banReason != null) {
             // Detected ban
-            this.processResult(claim, permission, "banned", Tristate.FALSE, this.eventSubject);
+            this.processResult(evaluation, claim, permission, "banned", Tristate.FALSE, evaluation.getSubject());
             return true;
         }
         return false;
     }
 
     public void addCustomEntityTypeContexts(Entity targetEntity, String id, Set<Context> contexts, GDEntityType type, boolean isSource) {
-        if (isSource) {
-            contexts.add(ContextGroups.SOURCE_ANY);
-            contexts.add(new Context(ContextKeys.SOURCE, "#" + type.getModId().toLowerCase() + ":any"));
-        } else {
-            contexts.add(ContextGroups.TARGET_ANY);
-            contexts.add(new Context(ContextKeys.TARGET, "#" + type.getModId().toLowerCase() + ":any"));
-        }
+        contexts.addAll(PermissionIdentifierCache.getInstance().getEntityTypeContexts(type.getId(), isSource, typeId -> this.createEntityTypeContexts(targetEntity, type, isSource)));
         // check vehicle
         if (targetEntity instanceof Vehicle) {
             if (isSource) {
@@ -981,14 +1007,6 @@ public void addCustomEntityTypeContexts(Entity targetEntity, String id, Set<Cont
                 contexts.add(ContextGroups.TARGET_VEHICLE);
             }
         }
-        // pixelmon
-        if (targetEntity.getType() != null && targetEntity.getType().name().equalsIgnoreCase("pixelmon_pixelmon") || targetEntity.getType().name().equalsIgnoreCase("pixelmon")) {
-            if (isSource) {
-                contexts.add(ContextGroups.SOURCE_PIXELMON);
-            } else {
-                contexts.add(ContextGroups.TARGET_PIXELMON);
-            }
-        }
         // potion
         if (targetEntity instanceof ThrownPotion && GriefDefenderPlugin.getGlobalConfig().getConfig().context.potionEffects) {
             final ThrownPotion potion = (ThrownPotion) targetEntity;
@@ -1005,6 +1023,36 @@ public void addCustomEntityTypeContexts(Entity targetEntity, String id, Set<Cont
             return;
         }
 
+        // pets are only checked for animal, aquatic and ambient creatures
+        if (creatureType.contains("animal") || creatureType.contains("aquatic") || (!creatureType.contains("monster") && creatureType.contains("ambient"))) {
+            this.checkPetContext(targetEntity, type.getModId().toLowerCase(), contexts, isSource);
+        }
+    }
+
+    // Contexts shared by every entity of the given type
+    private Set<Context> createEntityTypeContexts(Entity targetEntity, GDEntityType type, boolean isSource) {
+        final Set<Context> contexts = new HashSet<>();
+        if (isSource) {
+            contexts.add(ContextGroups.SOURCE_ANY);
+            contexts.add(new Context(ContextKeys.SOURCE, "#" + type.getModId().toLowerCase() + ":any"));
+        } else {
+            contexts.add(ContextGroups.TARGET_ANY);
+            contexts.add(new Context(ContextKeys.TARGET, "#" + type.getModId().toLowerCase() + ":any"));
+        }
+        // pixelmon
+        if (targetEntity.getType() != null && targetEntity.getType().name().equalsIgnoreCase("pixelmon_pixelmon") || targetEntity.getType().name().equalsIgnoreCase("pixelmon")) {
+            if (isSource) {
+                contexts.add(ContextGroups.SOURCE_PIXELMON);
+            } else {
+                contexts.add(ContextGroups.TARGET_PIXELMON);
+            }
+        }
+
+        final String creatureType = type.getEnumCreatureTypeId();
+        if (creatureType == null) {
+            return contexts;
+        }
+
         final String modId = type.getModId().toLowerCase();
         if (creatureType.contains("animal")) {
             if (isSource) {
@@ -1014,7 +1062,6 @@ public void addCustomEntityTypeContexts(Entity targetEntity, String id, Set<Cont
                 contexts.add(ContextGroups.TARGET_ANIMAL);
                 contexts.add(new Context(ContextKeys.TARGET, "#" + modId + ":animal"));
             }
-            this.checkPetContext(targetEntity, modId, contexts, isSource);
         } else if (creatureType.contains("aquatic")) {
             if (isSource) {
                 contexts.add(ContextGroups.SOURCE_AQUATIC);
@@ -1023,7 +1070,6 @@ public void addCustomEntityTypeContexts(Entity targetEntity, String id, Set<Cont
                 contexts.add(ContextGroups.TARGET_AQUATIC);
                 contexts.add(new Context(ContextKeys.TARGET, "#" + modId + ":aquatic"));
             }
-            this.checkPetContext(targetEntity, modId, contexts, isSource);
         } else if (creatureType.contains("monster")) {
             if (isSource) {
                 contexts.add(ContextGroups.SOURCE_MONSTER);
@@ -1040,7 +1086,6 @@ public void addCustomEntityTypeContexts(Entity targetEntity, String id, Set<Cont
                 contexts.add(ContextGroups.TARGET_AMBIENT);
                 contexts.add(new Context(ContextKeys.TARGET, "#" + modId + ":ambient"));
             }
-            this.checkPetContext(targetEntity, modId, contexts, isSource);
         } else {
             if (isSource) {
                 contexts.add(ContextGroups.SOURCE_MISC);
@@ -1050,11 +1095,13 @@ public void addCustomEntityTypeContexts(Entity targetEntity, String id, Set<Cont
                 contexts.add(new Context(ContextKeys.TARGET, "#" + modId + ":misc"));
             }
         }
+        return contexts;
     }
 
     private void checkPetContext(Entity targetEntity, String modId, Set<Context> contexts, boolean isSource) {
-        if (this.eventSubject != null && this.eventSubject instanceof GDPermissionUser) {
-            final GDPermissionUser user = (GDPermissionUser) this.eventSubject;
+        final GDPermissionHolder eventSubject = this.evaluationContext.get().getSubject();
+        if (eventSubject instanceof GDPermissionUser) {
+            final GDPermissionUser user = (GDPermissionUser) eventSubject;
             final UUID uuid = NMSUtil.getInstance().getTameableOwnerUUID(targetEntity);
             if (uuid != null && uuid.equals(user.getUniqueId())) {
                 if (isSource) {
@@ -1072,7 +1119,7 @@ private void checkPetContext(Entity targetEntity, String modId, Set<Context> con
         }
     }
 
-    private void addPlayerContexts(Player player, Set<Context> contexts, Flag flag) {
+    private void addPlayerContexts(PermissionEvaluationContext evaluation, Player player, Set<Context> contexts, Flag flag) {
         Context usedItemContext = null;
         for (Context context : contexts) {
             if (context.getKey().equals(ContextKeys.USED_ITEM)) {
@@ -1082,11 +1129,11 @@ private void addPlayerContexts(Player player, Set<Context> contexts, Flag flag)
         }
         if(usedItemContext == null) {
             // special case
-            if (this.currentEvent instanceof PlayerBucketEvent) {
-                final PlayerBucketEvent bucketEvent = (PlayerBucketEvent) this.currentEvent;
+            if (evaluation.getEvent() instanceof PlayerBucketEvent) {
+                final PlayerBucketEvent bucketEvent = (PlayerBucketEvent) evaluation.getEvent();
                 contexts.add(new Context(ContextKeys.USED_ITEM, "minecraft:" + bucketEvent.getBucket().name().toLowerCase()));
             } else {
-                final ItemStack stack = NMSUtil.getInstance().getActiveItem(player, this.currentEvent);
+                final ItemStack stack = NMSUtil.getInstance().getActiveItem(player, evaluation.getEvent());
                 if (stack != null && stack.getType() != Material.AIR) {
                     final String stackId = getPermissionIdentifier(stack);
                     contexts.add(new Context(ContextKeys.USED_ITEM, stackId));
@@ -1202,18 +1249,8 @@ private void addPlayerContexts(Player player, Set<Context> contexts, Flag flag)
     }
 
     private Set<Context> addBlockContexts(Set<Context> contexts, Block block, boolean isSource) {
-        Matcher matcher = BLOCKSTATE_PATTERN.matcher(NMSUtil.getInstance().getBlockDataString((Block) block));
-        if (matcher.find()) {
-            final String properties[] = matcher.group(0).split(",");
-            for (String property : properties) {
-                String prop = property.replace("=", ":");
-                if (prop.equals("type:invalid")) {
-                    // ignore
-                    continue;
-                }
-                contexts.add(new Context(ContextKeys.STATE, prop));
-            }
-        }
+        final String blockData = NMSUtil.getInstance().getBlockDataString((Block) block);
+        contexts.addAll(PermissionIdentifierCache.getInstance().getBlockStateContexts(blockData, IdentifierContexts::createBlockStateContexts));
 
         if (NMSUtil.getInstance().isBlockCrops(block)) {
             if (isSource) {
@@ -1245,50 +1282,34 @@ private Set<Context> populateEventSourceTargetContext(Set<Context> contexts, Str
         if (!id.contains(":")) {
             id = "minecraft:" + id;
         }
-        contexts = this.populateTagContextsForId(contexts, id, isSource);
-        // always add source/target any contexts
-        contexts.add(ContextGroups.SOURCE_ANY);
-        contexts.add(ContextGroups.TARGET_ANY);
-        final String[] parts = id.split(":");
-        final String modId = parts[0];
         if (isSource) {
-            this.eventSourceId = id.toLowerCase();
-            contexts.add(new Context("source", this.eventSourceId));
-            contexts.add(new Context("source", modId + ":any"));
+            contexts.addAll(PermissionIdentifierCache.getInstance().getIdContexts(id, true, this::createSourceIdContexts));
+            this.evaluationContext.get().setSourceId(id.toLowerCase());
         } else {
-            this.eventTargetId = id.toLowerCase();
-            contexts.add(new Context("target", this.eventTargetId));
-            contexts.add(new Context("target", modId + ":any"));
+            contexts.addAll(PermissionIdentifierCache.getInstance().getIdContexts(id, false, this::createTargetIdContexts));
+            this.evaluationContext.get().setTargetId(id.toLowerCase());
         }
 
         return contexts;
     }
 
-    public Set<Context> populateTagContextsForId(Set<Context> contexts, String id, boolean isSource) {
-        if (GriefDefenderPlugin.getInstance().getTagProvider() == null) {
-            return contexts;
-        }
+    private Set<Context> createSourceIdContexts(String id) {
+        return IdentifierContexts.createIdContexts(id, true, this.getTagMap());
+    }
 
-        final Set<Context> tagContexts = GriefDefenderPlugin.getInstance().getTagProvider().getTagMap().get(id);
-        if (tagContexts == null) {
-            return contexts;
-        }
+    private Set<Context> createTargetIdContexts(String id) {
+        return IdentifierContexts.createIdContexts(id, false, this.getTagMap());
+    }
 
-        for (Context context : tagContexts) {
-            if (isSource) {
-                contexts.add(new Context(ContextKeys.SOURCE, "#" + context.getKey() + ":" + context.getValue()));
-                if (context.getKey().equalsIgnoreCase("minecraft")) {
-                    contexts.add(new Context(ContextKeys.SOURCE, "#" + context.getValue()));
-                }
-            } else {
-                contexts.add(new Context(ContextKeys.TARGET, "#" + context.getKey() + ":" + context.getValue()));
-                if (context.getKey().equalsIgnoreCase("minecraft")) {
-                    contexts.add(new Context(ContextKeys.TARGET, "#" + context.getValue()));
-                }
-            }
-        }
+    public Set<Context> populateTagContextsForId(Set<Context> contexts, String id, boolean isSource) {
+        return IdentifierContexts.addTagContexts(contexts, id, isSource, this.getTagMap());
+    }
 
-        return contexts;
+    private Map<String, Set<Context>> getTagMap() {
+        if (GriefDefenderPlugin.getInstance().getTagProvider() == null) {
+            return null;
+        }
+        return GriefDefenderPlugin.getInstance().getTagProvider().getTagMap();
     }
 
     private String populateEventSourceTarget(String id, boolean isSource) {
@@ -1296,19 +1317,11 @@ private String populateEventSourceTarget(String id, boolean isSource) {
             return id;
         }
 
-        if (!id.contains(":")) {
-            id = "minecraft:" + id;
-        }
-        String[] parts = id.split(":");
-        if (parts != null && parts.length == 3) {
-            if (parts[0].equals(parts[1])) {
-                id = parts[1] + ":" + parts[2];
-            }
-        }
+        id = PermissionIdentifierCache.getInstance().getNormalizedId(id, IdentifierContexts::normalizeId);
         if (isSource) {
-            this.eventSourceId = id.toLowerCase();
+            this.evaluationContext.get().setSourceId(id.toLowerCase());
         } else {
-            this.eventTargetId = id.toLowerCase();
+            this.evaluationContext.get().setTargetId(id.toLowerCase());
         }
 
         return id;
@@ -1506,6 +1519,18 @@ public <T> T getInternalOptionValue(TypeToken<T> type, GDPermissionHolder holder
             }
         }
 
+        final OptionValueCache.Key key = OptionValueCache.getInstance().createKey(holder, option, type, claim, claimType, contexts);
+        final OptionValueCache.CachedValue cachedValue = OptionValueCache.getInstance().get(key);
+        if (cachedValue != null) {
+            return cachedValue.getValue();
+        }
+
+        final T value = this.resolveInternalOptionValue(type, holder, option, claim, claimType, contexts);
+        OptionValueCache.getInstance().put(key, value);
+        return value;
+    }
+
+    private <T> T resolveInternalOptionValue(TypeToken<T> type, GDPermissionHolder holder, Option<T> option, Claim claim, ClaimType claimType, Set<Context> contexts) {
         Set<Context> optionContexts = new HashSet<>(contexts);
         if (!option.isGlobal() && (claim != null || claimType != null)) {
             // check claim
@@ -1760,7 +1785,7 @@ public Optional<Option> getOption(String value) {
     }
 
     public Component getEventMessage() {
-        return this.eventMessage;
+        return this.evaluationContext.get().getMessage();
     }
 
     @Override
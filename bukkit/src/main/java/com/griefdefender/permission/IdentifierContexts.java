@@ -0,0 +1,122 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.permission;
+
+import com.griefdefender.api.permission.Context;
+import com.griefdefender.api.permission.ContextKeys;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds the contexts that only depend on an identifier.
+ *
+ * <p>Results are stored by {@link com.griefdefender.cache.PermissionIdentifierCache}
+ * so these methods only run on a cache miss.</p>
+ */
+final class IdentifierContexts {
+
+    private static final Pattern BLOCKSTATE_PATTERN = Pattern.compile("(?:\\w+=\\w+,)*\\w+=\\w+", Pattern.MULTILINE);
+
+    private IdentifierContexts() {
+    }
+
+    static Set<Context> createIdContexts(String id, boolean isSource, Map<String, Set<Context>> tagMap) {
+        final Set<Context> contexts = addTagContexts(new HashSet<>(), id, isSource, tagMap);
+        // always add source/target any contexts
+        contexts.add(ContextGroups.SOURCE_ANY);
+        contexts.add(ContextGroups.TARGET_ANY);
+        final String[] parts = id.split(":");
+        final String modId = parts[0];
+        if (isSource) {
+            contexts.add(new Context("source", id.toLowerCase()));
+            contexts.add(new Context("source", modId + ":any"));
+        } else {
+            contexts.add(new Context("target", id.toLowerCase()));
+            contexts.add(new Context("target", modId + ":any"));
+        }
+        return contexts;
+    }
+
+    static Set<Context> addTagContexts(Set<Context> contexts, String id, boolean isSource, Map<String, Set<Context>> tagMap) {
+        if (tagMap == null) {
+            return contexts;
+        }
+
+        final Set<Context> tagContexts = tagMap.get(id);
+        if (tagContexts == null) {
+            return contexts;
+        }
+
+        for (Context context : tagContexts) {
+            if (isSource) {
+                contexts.add(new Context(ContextKeys.SOURCE, "#" + context.getKey() + ":" + context.getValue()));
+                if (context.getKey().equalsIgnoreCase("minecraft")) {
+                    contexts.add(new Context(ContextKeys.SOURCE, "#" + context.getValue()));
+                }
+            } else {
+                contexts.add(new Context(ContextKeys.TARGET, "#" + context.getKey() + ":" + context.getValue()));
+                if (context.getKey().equalsIgnoreCase("minecraft")) {
+                    contexts.add(new Context(ContextKeys.TARGET, "#" + context.getValue()));
+                }
+            }
+        }
+
+        return contexts;
+    }
+
+    static Set<Context> createBlockStateContexts(String blockData) {
+        final Set<Context> contexts = new HashSet<>();
+        Matcher matcher = BLOCKSTATE_PATTERN.matcher(blockData);
+        if (matcher.find()) {
+            final String properties[] = matcher.group(0).split(",");
+            for (String property : properties) {
+                String prop = property.replace("=", ":");
+                if (prop.equals("type:invalid")) {
+                    // ignore
+                    continue;
+                }
+                contexts.add(new Context(ContextKeys.STATE, prop));
+            }
+        }
+        return contexts;
+    }
+
+    static String normalizeId(String id) {
+        if (!id.contains(":")) {
+            id = "minecraft:" + id;
+        }
+        String[] parts = id.split(":");
+        if (parts != null && parts.length == 3) {
+            if (parts[0].equals(parts[1])) {
+                id = parts[1] + ":" + parts[2];
+            }
+        }
+        return id;
+    }
+}
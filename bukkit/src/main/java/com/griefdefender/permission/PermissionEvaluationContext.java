@@ -0,0 +1,138 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.permission;
+
+import com.griefdefender.GDPlayerData;
+import com.griefdefender.api.permission.Context;
+import net.kyori.text.Component;
+import org.bukkit.Location;
+import org.bukkit.event.Event;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Holds the state of a single flag evaluation.
+ *
+ * <p>A new instance is created for every call to
+ * {@link GDPermissionManager#getFinalPermission} and is only ever accessed
+ * by the thread performing that evaluation. Once finished it is replaced by
+ * a result only instance, see {@link EvaluationContextHolder}.</p>
+ */
+public class PermissionEvaluationContext {
+
+    private final Event event;
+    private final Location location;
+    private final GDPermissionHolder subject;
+    private final boolean evaluating;
+    private GDPlayerData playerData;
+    private String sourceId = "none";
+    private String targetId = "none";
+    private Set<Context> contexts = new HashSet<>();
+    private Component message;
+
+    public PermissionEvaluationContext() {
+        this(null, null, null, false);
+    }
+
+    public PermissionEvaluationContext(Event event, Location location, GDPermissionHolder subject) {
+        this(event, location, subject, true);
+    }
+
+    private PermissionEvaluationContext(Event event, Location location, GDPermissionHolder subject, boolean evaluating) {
+        this.event = event;
+        this.location = location;
+        this.subject = subject;
+        this.evaluating = evaluating;
+    }
+
+    /**
+     * Creates a context holding only the message of a finished evaluation.
+     *
+     * @param message The result message, may be null
+     * @return The context
+     */
+    public static PermissionEvaluationContext ofResult(Component message) {
+        final PermissionEvaluationContext context = new PermissionEvaluationContext();
+        context.message = message;
+        return context;
+    }
+
+    public boolean isEvaluating() {
+        return this.evaluating;
+    }
+
+    public Event getEvent() {
+        return this.event;
+    }
+
+    public Location getLocation() {
+        return this.location;
+    }
+
+    public GDPermissionHolder getSubject() {
+        return this.subject;
+    }
+
+    public GDPlayerData getPlayerData() {
+        return this.playerData;
+    }
+
+    public void setPlayerData(GDPlayerData playerData) {
+        this.playerData = playerData;
+    }
+
+    public String getSourceId() {
+        return this.sourceId;
+    }
+
+    public void setSourceId(String sourceId) {
+        this.sourceId = sourceId;
+    }
+
+    public String getTargetId() {
+        return this.targetId;
+    }
+
+    public void setTargetId(String targetId) {
+        this.targetId = targetId;
+    }
+
+    public Set<Context> getContexts() {
+        return this.contexts;
+    }
+
+    public void setContexts(Set<Context> contexts) {
+        this.contexts = contexts;
+    }
+
+    public Component getMessage() {
+        return this.message;
+    }
+
+    public void setMessage(Component message) {
+        this.message = message;
+    }
+}
@@ -107,6 +107,7 @@ public int compare(Set<Context> s1, Set<Context> s2) {
     };
 
     private final LuckPerms luckPermsApi;
+    private final LuckPermsQueryCache queryCache = new LuckPermsQueryCache(LuckPermsProvider::createQueryOptions);
     private final static DefaultDataQueryOrderFunction DEFAULT_DATA_QUERY_ORDER = new DefaultDataQueryOrderFunction();
     private final static DefaultPersistentOnlyDataFilter DEFAULT_PERSISTENT_ONLY = new DefaultPersistentOnlyDataFilter();
     private final static DefaultTransientOnlyDataFilter DEFAULT_TRANSIENT_ONLY = new DefaultTransientOnlyDataFilter();
@@ -133,11 +134,23 @@ public boolean hasGroupSubject(String identifier) {
     }
 
     public PermissionHolder getLuckPermsHolder(GDPermissionHolder holder) {
-        if (holder instanceof GDPermissionUser) {
-            return this.getLuckPermsUser(holder.getIdentifier());
+        // Reuse the holder resolved by a previous lookup until LuckPerms unloads it
+        final Object resolvedHolder = holder.getResolvedHolder();
+        if (resolvedHolder instanceof PermissionHolder) {
+            return (PermissionHolder) resolvedHolder;
         }
 
-        return this.getLuckPermsGroup(holder.getIdentifier());
+        final PermissionHolder permissionHolder;
+        if (holder instanceof GDPermissionUser) {
+            // Users are always identified by their UUID so there is no need to parse the identifier
+            permissionHolder = this.getUserSubject(((GDPermissionUser) holder).getUniqueId());
+        } else {
+            permissionHolder = this.getLuckPermsGroup(holder.getIdentifier());
+        }
+        if (permissionHolder != null) {
+            holder.setResolvedHolder(permissionHolder);
+        }
+        return permissionHolder;
     }
 
     public User getLuckPermsUser(String identifier) {
@@ -429,25 +442,23 @@ public boolean holderHasPermission(GDPermissionHolder holder, String permission)
     }
 
     public Map<String, Boolean> getPermissions(GDPermissionHolder holder, Set<Context> contexts) {
-        ImmutableContextSet set = this.getLPContexts(contexts).immutableCopy();
         final PermissionHolder permissionHolder = this.getLuckPermsHolder(holder);
         if (permissionHolder == null) {
             return new HashMap<>();
         }
 
-        final QueryOptions query = QueryOptions.builder(QueryMode.CONTEXTUAL).option(DataQueryOrderFunction.KEY, DEFAULT_DATA_QUERY_ORDER).context(set).build();
+        final QueryOptions query = this.queryCache.getQueryOptions(contexts, PermissionDataType.ALL);
         CachedPermissionData cachedData = permissionHolder.getCachedData().getPermissionData(query);
         return cachedData.getPermissionMap();
     }
 
     public Map<String, List<String>> getOptions(GDPermissionHolder holder, Set<Context> contexts) {
-        ImmutableContextSet set = this.getLPContexts(contexts).immutableCopy();
         final PermissionHolder permissionHolder = this.getLuckPermsHolder(holder);
         if (permissionHolder == null) {
             return new HashMap<>();
         }
 
-        final QueryOptions query = QueryOptions.builder(QueryMode.CONTEXTUAL).option(DataQueryOrderFunction.KEY, DEFAULT_DATA_QUERY_ORDER).context(set).build();
+        final QueryOptions query = this.queryCache.getQueryOptions(contexts, PermissionDataType.ALL);
         CachedMetaData cachedData = permissionHolder.getCachedData().getMetaData(query);
         // TODO
         Map<String, List<String>> metaMap = new HashMap<>();
@@ -669,9 +680,7 @@ public Tristate getPermissionValue(GDClaim claim, GDPermissionHolder holder, Str
 
     public Tristate getPermissionValue(GDPermissionHolder holder, String permission) {
         final Set<Context> contexts = new HashSet<>();
-        this.checkServerContext(contexts);
-        ImmutableContextSet set = this.getLPContexts(contexts).immutableCopy();
-        return this.getPermissionValue(holder, permission, set);
+        return this.getPermissionValue(holder, permission, contexts, PermissionDataType.PERSISTENT);
     }
 
     public Tristate getPermissionValue(GDPermissionHolder holder, String permission, MutableContextSet contexts) {
@@ -680,8 +689,7 @@ public Tristate getPermissionValue(GDPermissionHolder holder, String permission,
 
     public Tristate getPermissionValue(GDPermissionHolder holder, String permission, Set<Context> contexts, PermissionDataType type) {
         this.checkServerContext(contexts);
-        ImmutableContextSet contextSet = this.getLPContexts(contexts).immutableCopy();
-        return this.getPermissionValue(holder, permission, contextSet, type);
+        return this.getPermissionValue(holder, permission, this.queryCache.getQueryOptions(contexts, type), type);
     }
 
     public Tristate getPermissionValue(GDPermissionHolder holder, String permission, ContextSet contexts) {
@@ -689,23 +697,28 @@ public Tristate getPermissionValue(GDPermissionHolder holder, String permission,
     }
 
     public Tristate getPermissionValue(GDPermissionHolder holder, String permission, ContextSet contexts, PermissionDataType type) {
+        return this.getPermissionValue(holder, permission, createQueryOptions(contexts, type), type);
+    }
+
+    private Tristate getPermissionValue(GDPermissionHolder holder, String permission, QueryOptions query, PermissionDataType type) {
         final PermissionHolder permissionHolder = type == PermissionDataType.TRANSIENT ? this.getLuckPermsHolder(GriefDefenderPlugin.GD_DEFAULT_HOLDER) : this.getLuckPermsHolder(holder);
         if (permissionHolder == null) {
             return Tristate.UNDEFINED;
         }
 
-        QueryOptions query = null;
+        CachedPermissionData cachedData = permissionHolder.getCachedData().getPermissionData(query);
+        return getGDTristate(cachedData.checkPermission(permission));
+    }
+
+    public static QueryOptions createQueryOptions(ContextSet contexts, PermissionDataType type) {
         if (type == PermissionDataType.TRANSIENT) {
-            query = QueryOptions.builder(QueryMode.CONTEXTUAL).option(DataQueryOrderFunction.KEY, DEFAULT_DATA_QUERY_ORDER).option(DataTypeFilterFunction.KEY, DEFAULT_TRANSIENT_ONLY).context(contexts).build();
+            return QueryOptions.builder(QueryMode.CONTEXTUAL).option(DataQueryOrderFunction.KEY, DEFAULT_DATA_QUERY_ORDER).option(DataTypeFilterFunction.KEY, DEFAULT_TRANSIENT_ONLY).context(contexts).build();
         } else if (type == PermissionDataType.PERSISTENT) {
-            query = QueryOptions.builder(QueryMode.CONTEXTUAL).option(DataQueryOrderFunction.KEY, DEFAULT_DATA_QUERY_ORDER).option(DataTypeFilterFunction.KEY, DEFAULT_PERSISTENT_ONLY).context(contexts).build();
+            return QueryOptions.builder(QueryMode.CONTEXTUAL).option(DataQueryOrderFunction.KEY, DEFAULT_DATA_QUERY_ORDER).option(DataTypeFilterFunction.KEY, DEFAULT_PERSISTENT_ONLY).context(contexts).build();
         } else if (type == PermissionDataType.USER_PERSISTENT) {
-            query = QueryOptions.builder(QueryMode.CONTEXTUAL).option(DataQueryOrderFunction.KEY, DEFAULT_DATA_QUERY_ORDER).option(DataTypeFilterFunction.KEY, USER_PERSISTENT_ONLY).context(contexts).build();
-        } else {
-            query = QueryOptions.builder(QueryMode.CONTEXTUAL).option(DataQueryOrderFunction.KEY, DEFAULT_DATA_QUERY_ORDER).context(contexts).build();
+            return QueryOptions.builder(QueryMode.CONTEXTUAL).option(DataQueryOrderFunction.KEY, DEFAULT_DATA_QUERY_ORDER).option(DataTypeFilterFunction.KEY, USER_PERSISTENT_ONLY).context(contexts).build();
         }
-        CachedPermissionData cachedData = permissionHolder.getCachedData().getPermissionData(query);
-        return getGDTristate(cachedData.checkPermission(permission));
+        return QueryOptions.builder(QueryMode.CONTEXTUAL).option(DataQueryOrderFunction.KEY, DEFAULT_DATA_QUERY_ORDER).context(contexts).build();
     }
 
     // To set options, pass "meta.option".
@@ -713,13 +726,12 @@ public Tristate getPermissionValue(GDPermissionHolder holder, String permission,
     public String getOptionValue(GDPermissionHolder holder, Option option, Set<Context> contexts) {
         // If no server context exists, add global
         this.checkServerContext(contexts);
-        ImmutableContextSet set = this.getLPContexts(contexts).immutableCopy();
         final PermissionHolder permissionHolder = this.getLuckPermsHolder(holder);
         if (permissionHolder == null) {
             return null;
         }
 
-        final QueryOptions query = QueryOptions.builder(QueryMode.CONTEXTUAL).option(DataQueryOrderFunction.KEY, DEFAULT_DATA_QUERY_ORDER).context(set).build();
+        final QueryOptions query = this.queryCache.getQueryOptions(contexts, PermissionDataType.ALL);
         CachedMetaData metaData = permissionHolder.getCachedData().getMetaData(query);
         return metaData.getMetaValue(option.getPermission());
     }
@@ -728,14 +740,13 @@ public String getOptionValue(GDPermissionHolder holder, Option option, Set<Conte
     public List<String> getOptionValueList(GDPermissionHolder holder, Option option, Set<Context> contexts) {
         // If no server context exists, add global
         this.checkServerContext(contexts);
-        ImmutableContextSet set = this.getLPContexts(contexts).immutableCopy();
         final PermissionHolder permissionHolder = this.getLuckPermsHolder(holder);
         if (permissionHolder == null) {
             return null;
         }
 
         // First check user persistent data
-        QueryOptions query = QueryOptions.builder(QueryMode.CONTEXTUAL).option(DataQueryOrderFunction.KEY, DEFAULT_DATA_QUERY_ORDER).option(DataTypeFilterFunction.KEY, USER_PERSISTENT_ONLY).context(set).build();
+        QueryOptions query = this.queryCache.getQueryOptions(contexts, PermissionDataType.USER_PERSISTENT);
         CachedMetaData metaData = permissionHolder.getCachedData().getMetaData(query);
         List<String> list = metaData.getMeta().get(option.getPermission());
         if (list != null) {
@@ -743,7 +754,7 @@ public List<String> getOptionValueList(GDPermissionHolder holder, Option option,
         }
 
         // Now check default persistent data
-        query = QueryOptions.builder(QueryMode.CONTEXTUAL).option(DataQueryOrderFunction.KEY, DEFAULT_DATA_QUERY_ORDER).option(DataTypeFilterFunction.KEY, DEFAULT_PERSISTENT_ONLY).context(set).build();
+        query = this.queryCache.getQueryOptions(contexts, PermissionDataType.PERSISTENT);
         metaData = permissionHolder.getCachedData().getMetaData(query);
         list = metaData.getMeta().get(option.getPermission());
         if (list == null) {
@@ -0,0 +1,111 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.provider;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.ImmutableSet;
+import com.griefdefender.api.permission.Context;
+import com.griefdefender.provider.PermissionProvider.PermissionDataType;
+
+import net.luckperms.api.context.ContextSet;
+import net.luckperms.api.context.ImmutableContextSet;
+import net.luckperms.api.context.MutableContextSet;
+import net.luckperms.api.query.QueryOptions;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Interns the LuckPerms context sets and query options built from GD contexts.
+ *
+ * <p>Both are immutable on the LuckPerms side so a single instance can be
+ * shared by every lookup using an equal set of contexts.</p>
+ */
+public class LuckPermsQueryCache {
+
+    private static final int DATA_TYPE_COUNT = PermissionDataType.values().length;
+
+    private final BiFunction<ContextSet, PermissionDataType, QueryOptions> queryFactory;
+    private final Cache<Set<Context>, ContextQuery> contextQueryCache = Caffeine.newBuilder().maximumSize(10000)
+            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .build();
+
+    public LuckPermsQueryCache(BiFunction<ContextSet, PermissionDataType, QueryOptions> queryFactory) {
+        this.queryFactory = queryFactory;
+    }
+
+    public ImmutableContextSet getContextSet(Set<Context> contexts) {
+        return this.getContextQuery(contexts).contextSet;
+    }
+
+    public QueryOptions getQueryOptions(Set<Context> contexts, PermissionDataType type) {
+        return this.getContextQuery(contexts).getQueryOptions(type);
+    }
+
+    public void invalidateAll() {
+        this.contextQueryCache.invalidateAll();
+    }
+
+    private ContextQuery getContextQuery(Set<Context> contexts) {
+        // Lookups use the caller's set directly to avoid a copy on hits
+        ContextQuery query = this.contextQueryCache.getIfPresent(contexts);
+        if (query == null) {
+            query = new ContextQuery(createContextSet(contexts));
+            // Store an immutable copy as callers may reuse their set
+            this.contextQueryCache.put(ImmutableSet.copyOf(contexts), query);
+        }
+        return query;
+    }
+
+    public static ImmutableContextSet createContextSet(Set<Context> contexts) {
+        final MutableContextSet lpContexts = MutableContextSet.create();
+        contexts.forEach(entry -> {
+            lpContexts.add(entry.getKey(), entry.getValue());
+        });
+        return lpContexts.immutableCopy();
+    }
+
+    private class ContextQuery {
+
+        private final ImmutableContextSet contextSet;
+        // Built lazily per data type, racing threads produce equal options
+        private final QueryOptions[] queryOptions = new QueryOptions[DATA_TYPE_COUNT];
+
+        private ContextQuery(ImmutableContextSet contextSet) {
+            this.contextSet = contextSet;
+        }
+
+        private QueryOptions getQueryOptions(PermissionDataType type) {
+            QueryOptions options = this.queryOptions[type.ordinal()];
+            if (options == null) {
+                options = queryFactory.apply(this.contextSet, type);
+                this.queryOptions[type.ordinal()] = options;
+            }
+            return options;
+        }
+    }
+}
@@ -28,6 +28,7 @@
 import java.util.Set;
 
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
@@ -42,7 +43,6 @@
 import com.griefdefender.api.claim.TrustTypes;
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.claim.GDClaim;
-import com.griefdefender.internal.util.VecHelper;
 import com.griefdefender.permission.GDPermissionUser;
 import com.griefdefender.util.PlayerUtil;
 
@@ -77,7 +77,8 @@ public String onRequest(OfflinePlayer offlinePlayer, String identifier) {
             Claim claim = null;
             if (player != null) {
                 final World world = player.getWorld();
-                claim = GriefDefender.getCore().getClaimManager(world.getUID()).getClaimAt(VecHelper.toVector3i(player.getLocation()));
+                final Location location = player.getLocation();
+                claim = GriefDefender.getCore().getClaimManager(world.getUID()).getClaimAt(location.getBlockX(), location.getBlockY(), location.getBlockZ());
                 playerData = user.getInternalPlayerData();
             } else {
                 playerData = user.getInternalPlayerData();
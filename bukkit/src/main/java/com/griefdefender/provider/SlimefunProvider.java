@@ -24,12 +24,15 @@
  */
 package com.griefdefender.provider;
 
+import java.util.HashSet;
 import java.util.Set;
 
 import org.bukkit.block.Block;
 import org.bukkit.inventory.ItemStack;
 
 import com.griefdefender.api.permission.Context;
+import com.griefdefender.cache.PermissionIdentifierCache;
+import com.griefdefender.cache.PermissionIdentifierCache.CustomIdentifier;
 
 import me.mrCookieSlime.Slimefun.Objects.SlimefunItem.SlimefunItem;
 import me.mrCookieSlime.Slimefun.api.BlockStorage;
@@ -52,16 +55,11 @@ public String getSlimeItemId(ItemStack stack) {
     public String getSlimeItemId(ItemStack stack, Set<Context> contexts) {
         final SlimefunItem slimefunItem = SlimefunItem.getByItem(stack);
         if (slimefunItem != null) {
-            String level = null;
-            String id = slimefunItem.getId();
-            if (id.length() > 2 && id.matches("^.*\\_\\d$")) {
-                level = id.substring(id.length() - 1, id.length());
-                id = id.substring(0, id.length() - 2);
-                if (contexts != null) {
-                    contexts.add(new Context("slimefun_level", level));
-                }
+            final CustomIdentifier identifier = PermissionIdentifierCache.getInstance().getCustomIdentifier("slimefun", slimefunItem.getId(), this::resolveIdentifier);
+            if (contexts != null) {
+                contexts.addAll(identifier.getContexts());
             }
-            return "slimefun:" + id.toLowerCase();
+            return identifier.getId();
         }
 
         return "";
@@ -74,21 +72,26 @@ public String getSlimeBlockId(Block block) {
     public String getSlimeBlockId(Block block, Set<Context> contexts) {
         final SlimefunItem slimefunBlock = BlockStorage.check(block);
         if (slimefunBlock != null) {
-            String level = null;
-            String id = slimefunBlock.getId();
-            if (id.length() > 2 && id.matches("^.*\\_\\d$")) {
-                level = id.substring(id.length() - 1, id.length());
-                id = id.substring(0, id.length() - 2);
-                if (contexts != null) {
-                    contexts.add(new Context("slimefun_level", level));
-                }
+            final CustomIdentifier identifier = PermissionIdentifierCache.getInstance().getCustomIdentifier("slimefun", slimefunBlock.getId(), this::resolveIdentifier);
+            if (contexts != null) {
+                contexts.addAll(identifier.getContexts());
             }
-            return "slimefun:" + id.toLowerCase();
+            return identifier.getId();
         }
 
         return "";
     }
 
+    private CustomIdentifier resolveIdentifier(String id) {
+        final Set<Context> contexts = new HashSet<>();
+        if (id.length() > 2 && id.matches("^.*\\_\\d$")) {
+            final String level = id.substring(id.length() - 1, id.length());
+            id = id.substring(0, id.length() - 2);
+            contexts.add(new Context("slimefun_level", level));
+        }
+        return new CustomIdentifier("slimefun:" + id.toLowerCase(), contexts);
+    }
+
     public String getSlimeItemDisplayName(ItemStack stack) {
         final SlimefunItem slimefunItem = SlimefunItem.getByItem(stack);
         if (slimefunItem != null) {
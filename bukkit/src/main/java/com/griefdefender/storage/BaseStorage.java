@@ -55,7 +55,6 @@
 import com.griefdefender.event.GDCauseStackManager;
 import com.griefdefender.event.GDRemoveClaimEvent;
 import com.griefdefender.event.GDRemoveClaimEvent.Delete;
-import com.griefdefender.internal.util.VecHelper;
 import com.griefdefender.migrator.PlayerDataMigrator;
 import com.griefdefender.permission.ContextGroups;
 import com.griefdefender.permission.GDPermissionUser;
@@ -273,14 +272,19 @@ public GDClaim getClaimAtPlayer(GDPlayerData playerData, Location location) {
         return (GDClaim) claimManager.getClaimAtPlayer(location, playerData);
     }
 
+    public GDClaim getClaimAtPlayerLocality(GDPlayerData playerData, Location location) {
+        GDClaimManager claimManager = this.getClaimWorldManager(location.getWorld().getUID());
+        return claimManager.getClaimAtPlayerLocality(location.getBlockX(), location.getBlockY(), location.getBlockZ(), playerData);
+    }
+
     public GDClaim getClaimAtPlayer(Location location,  GDPlayerData playerData, boolean useBorderBlockRadius) {
         GDClaimManager claimManager = this.getClaimWorldManager(location.getWorld().getUID());
-        return (GDClaim) claimManager.getClaimAt(VecHelper.toVector3i(location), playerData, useBorderBlockRadius);
+        return (GDClaim) claimManager.getClaimAt(location.getBlockX(), location.getBlockY(), location.getBlockZ(), playerData, useBorderBlockRadius);
     }
 
     public GDClaim getClaimAt(Location location) {
         GDClaimManager claimManager = this.getClaimWorldManager(location.getWorld().getUID());
-        return (GDClaim) claimManager.getClaimAt(VecHelper.toVector3i(location), null, false);
+        return (GDClaim) claimManager.getClaimAt(location.getBlockX(), location.getBlockY(), location.getBlockZ(), null, false);
     }
 
     public GDPlayerData getPlayerData(World world, UUID playerUniqueId) {
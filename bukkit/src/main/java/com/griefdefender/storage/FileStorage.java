@@ -60,9 +60,16 @@
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class FileStorage extends BaseStorage {
 
@@ -272,41 +279,111 @@ public void unloadWorldData(World world) {
     }
 
     void loadClaimData(File[] files, World world) throws Exception {
+        final List<ClaimFile> claimFiles = new ArrayList<>();
+        this.collectClaimFiles(files, world, claimFiles);
+        if (claimFiles.isEmpty()) {
+            return;
+        }
+
+        final GDClaimManager claimManager = this.getClaimWorldManager(world.getUID());
+        final UUID wildernessUniqueId = claimManager.getWildernessClaim() != null ? claimManager.getWildernessClaim().getUniqueId() : null;
+        int numThreads = GriefDefenderPlugin.getGlobalConfig().getConfig().thread.numClaimLoadThreads;
+        if (numThreads <= 0) {
+            numThreads = Runtime.getRuntime().availableProcessors();
+        }
+        numThreads = Math.min(numThreads, claimFiles.size());
+        final ExecutorService parseExecutor = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+            private final AtomicInteger threadCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                final Thread thread = new Thread(runnable, "GriefDefender Claim Loader #" + this.threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        try {
+            // Parse claim files on worker threads
+            for (ClaimFile claimFile : claimFiles) {
+                // Wilderness is loaded before any other claim
+                if (claimFile.claimId.equals(wildernessUniqueId)) {
+                    continue;
+                }
+                final boolean isTown = claimFile.file.toPath().getParent().endsWith("town");
+                final Path path = claimFile.file.toPath();
+                claimFile.storage = parseExecutor.submit(() -> isTown ? new TownStorageData(path, world.getUID()) : new ClaimStorageData(path, world.getUID()));
+            }
+
+            // Link claims on the main thread in the same order as files were discovered.
+            // This keeps parent resolution, and therefore the loaded claim graph, identical to a serial load.
+            for (ClaimFile claimFile : claimFiles) {
+                try {
+                    final ClaimStorageData claimStorage = claimFile.storage != null ? claimFile.storage.get() : null;
+                    this.loadClaim(claimFile.file, world, claimFile.claimId, claimStorage);
+                } catch (Exception e) {
+                    GriefDefenderPlugin.getInstance().getLogger().severe(claimFile.file.getAbsolutePath() + " failed to load.");
+                    e.printStackTrace();
+                }
+            }
+        } finally {
+            parseExecutor.shutdownNow();
+        }
+    }
+
+    private void collectClaimFiles(File[] files, World world, List<ClaimFile> claimFiles) {
         for (int i = 0; i < files.length; i++) {
             File file = files[i];
             if (file.isFile()) {
-                this.loadClaimFile(file, world);
+                // Legacy files are moved into their type folder during load so must be handled before listing folders
+                if (file.getParentFile().getName().equalsIgnoreCase("claimdata")) {
+                    this.loadClaimFile(file, world);
+                    continue;
+                }
+                final ClaimFile claimFile = this.createClaimFile(file);
+                if (claimFile != null) {
+                    claimFiles.add(claimFile);
+                }
             }
         }
         for (int i = 0; i < files.length; i++) {
             File file = files[i];
             if (file.isDirectory()) {
-                this.loadClaimData(file.listFiles(), world);
+                this.collectClaimFiles(file.listFiles(), world, claimFiles);
+            }
+        }
+    }
+
+    private ClaimFile createClaimFile(File file) {
+        // the filename is the claim ID. try to parse it
+        UUID claimId;
+
+        try {
+            final String fileName = file.getName();
+            // UUID's should always be 36 in length
+            if (fileName.length() != 36) {
+                return null;
             }
+
+            claimId = UUID.fromString(fileName);
+        } catch (Exception e) {
+            GriefDefenderPlugin.getInstance().getLogger().severe("Could not read claim file " + file.getAbsolutePath());
+            return null;
         }
+
+        return new ClaimFile(file, claimId);
     }
 
     void loadClaimFile(File file, World world) {
         if (file.isFile())
         {
-            // the filename is the claim ID. try to parse it
-            UUID claimId;
-
-            try {
-                final String fileName = file.getName();
-                // UUID's should always be 36 in length
-                if (fileName.length() != 36) {
-                    return;
-                }
-
-                claimId = UUID.fromString(fileName);
-            } catch (Exception e) {
-                GriefDefenderPlugin.getInstance().getLogger().severe("Could not read claim file " + file.getAbsolutePath());
+            final ClaimFile claimFile = this.createClaimFile(file);
+            if (claimFile == null) {
                 return;
             }
 
             try {
-               this.loadClaim(file, world, claimId);
+               this.loadClaim(file, world, claimFile.claimId);
             } catch (Exception e) {
                 GriefDefenderPlugin.getInstance().getLogger().severe(file.getAbsolutePath() + " failed to load.");
                 e.printStackTrace();
@@ -363,6 +440,11 @@ void loadPlayerData(World world, File[] files) throws Exception {
 
     public GDClaim loadClaim(File claimFile, World world, UUID claimId)
             throws Exception {
+        return this.loadClaim(claimFile, world, claimId, null);
+    }
+
+    GDClaim loadClaim(File claimFile, World world, UUID claimId, ClaimStorageData claimStorage)
+            throws Exception {
         GDClaim claim;
 
         final GDClaimManager claimManager = this.getClaimWorldManager(world.getUID());
@@ -371,11 +453,12 @@ public GDClaim loadClaim(File claimFile, World world, UUID claimId)
         }
         boolean isTown = claimFile.toPath().getParent().endsWith("town");
         boolean writeToStorage = false;
-        ClaimStorageData claimStorage = null;
-        if (isTown) {
-            claimStorage = new TownStorageData(claimFile.toPath(), world.getUID());
-        } else {
-            claimStorage = new ClaimStorageData(claimFile.toPath(), world.getUID());
+        if (claimStorage == null) {
+            if (isTown) {
+                claimStorage = new TownStorageData(claimFile.toPath(), world.getUID());
+            } else {
+                claimStorage = new ClaimStorageData(claimFile.toPath(), world.getUID());
+            }
         }
 
         final ClaimType type = claimStorage.getConfig().getType();
@@ -498,4 +581,16 @@ GDPlayerData getPlayerDataFromStorage(UUID playerID) {
     void overrideSavePlayerData(UUID playerID, GDPlayerData playerData) {
     }
 
+    private static class ClaimFile {
+
+        private final File file;
+        private final UUID claimId;
+        private Future<ClaimStorageData> storage;
+
+        private ClaimFile(File file, UUID claimId) {
+            this.file = file;
+            this.claimId = claimId;
+        }
+    }
+
 }
\ No newline at end of file
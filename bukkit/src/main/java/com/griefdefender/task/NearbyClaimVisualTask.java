@@ -0,0 +1,297 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.task;
+
+import com.flowpowered.math.vector.Vector3i;
+import com.google.common.collect.ImmutableMap;
+import com.griefdefender.GDBootstrap;
+import com.griefdefender.GDPlayerData;
+import com.griefdefender.GriefDefenderPlugin;
+import com.griefdefender.api.claim.Claim;
+import com.griefdefender.api.permission.option.type.CreateModeTypes;
+import com.griefdefender.claim.GDClaim;
+import com.griefdefender.claim.GDClaimManager;
+import com.griefdefender.command.CommandHelper;
+import com.griefdefender.configuration.MessageStorage;
+import com.griefdefender.internal.provider.GDWorldEditProvider;
+import com.griefdefender.internal.util.NMSUtil;
+import com.griefdefender.internal.visual.GDClaimVisual;
+import com.griefdefender.util.PlayerUtil;
+
+import net.kyori.text.Component;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Visualizes the claims near a location for a player.
+ *
+ * <p>The claims in loaded chunks are captured once each on the main thread
+ * into an immutable snapshot. Ordering by distance happens off the main
+ * thread, after which visuals are applied on the main thread in small
+ * batches per tick, nearest claim first.</p>
+ */
+public class NearbyClaimVisualTask extends BukkitRunnable {
+
+    // Max claim visuals created and applied per tick
+    public static final int CLAIMS_PER_TICK = 4;
+
+    // Latest request per player, older requests are dropped
+    private static final Map<UUID, NearbyClaimVisualTask> activeRequests = new HashMap<>();
+
+    private final Player player;
+    private final GDPlayerData playerData;
+    private final GDWorldEditProvider worldEditProvider;
+    private final List<Candidate> candidates;
+    private final int centerX;
+    private final int centerZ;
+    private final int height;
+    private final boolean hideBorders;
+    private List<Candidate> visualQueue = Collections.emptyList();
+    private int visualIndex = 0;
+
+    private NearbyClaimVisualTask(Player player, GDPlayerData playerData, GDWorldEditProvider worldEditProvider, List<Candidate> candidates,
+            Location center, int height, boolean hideBorders) {
+        this.player = player;
+        this.playerData = playerData;
+        this.worldEditProvider = worldEditProvider;
+        this.candidates = candidates;
+        this.centerX = center.getBlockX();
+        this.centerZ = center.getBlockZ();
+        this.height = height;
+        this.hideBorders = hideBorders;
+    }
+
+    /**
+     * Starts visualizing the claims within a distance of the player's last
+     * inspect location, or the player's location if there is none.
+     *
+     * <p>Must be called from the main thread.</p>
+     *
+     * @param player The player
+     * @param playerData The player data
+     * @param maxDistance The block distance to search
+     */
+    public static void submit(Player player, GDPlayerData playerData, int maxDistance) {
+        final GDWorldEditProvider worldEditProvider = GriefDefenderPlugin.getInstance().getWorldEditProvider();
+        final Location center = playerData.lastValidInspectLocation != null ? playerData.lastValidInspectLocation : player.getLocation();
+        final int height = (int) (playerData.lastValidInspectLocation != null ? playerData.lastValidInspectLocation.getBlockY() : PlayerUtil.getInstance().getEyeHeight(player));
+        final boolean hideBorders = worldEditProvider != null &&
+                worldEditProvider.hasCUISupport(player) &&
+                GriefDefenderPlugin.getActiveConfig(player.getWorld().getUID()).getConfig().visual.hideBorders;
+
+        final NearbyClaimVisualTask request = new NearbyClaimVisualTask(player, playerData, worldEditProvider,
+                captureCandidates(player, center, maxDistance), center, height, hideBorders);
+        activeRequests.put(player.getUniqueId(), request);
+        Bukkit.getScheduler().runTaskAsynchronously(GDBootstrap.getInstance(), request::prepare);
+    }
+
+    // Captures the claims in loaded chunks within range, including children
+    private static List<Candidate> captureCandidates(Player player, Location location, int blockDistance) {
+        final World world = location.getWorld();
+        final GDClaimManager claimManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(world.getUID());
+        if (claimManager == null) {
+            return Collections.emptyList();
+        }
+
+        final List<Candidate> candidates = new ArrayList<>();
+        final Set<UUID> seen = new HashSet<>();
+        final int minChunkX = (location.getBlockX() - blockDistance) >> 4;
+        final int minChunkZ = (location.getBlockZ() - blockDistance) >> 4;
+        final int maxChunkX = (location.getBlockX() + blockDistance) >> 4;
+        final int maxChunkZ = (location.getBlockZ() + blockDistance) >> 4;
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                if (!world.isChunkLoaded(chunkX, chunkZ)) {
+                    continue;
+                }
+                final GDClaim[] claimsInChunk = claimManager.getChunksToClaimsIndex().get(NMSUtil.getInstance().getChunkCoordIntPair(chunkX, chunkZ));
+                if (claimsInChunk == null) {
+                    continue;
+                }
+                addCandidates(candidates, seen, claimsInChunk, player);
+            }
+        }
+        return Collections.unmodifiableList(candidates);
+    }
+
+    // A claim spanning several chunks is captured and expanded only once
+    static void addCandidates(List<Candidate> candidates, Set<UUID> seen, GDClaim[] claimsInChunk, Player player) {
+        for (GDClaim claim : claimsInChunk) {
+            if (!seen.add(claim.getUniqueId())) {
+                continue;
+            }
+            candidates.add(new Candidate(claim, player));
+            for (Claim child : claim.getChildren(true)) {
+                if (seen.add(child.getUniqueId())) {
+                    candidates.add(new Candidate((GDClaim) child, player));
+                }
+            }
+        }
+    }
+
+    // Runs off the main thread and only reads the immutable snapshot
+    private void prepare() {
+        final List<Candidate> claims = sortByDistance(this.candidates, this.centerX, this.centerZ);
+        final List<Candidate> visualClaims = getVisualCandidates(claims);
+        Bukkit.getScheduler().runTask(GDBootstrap.getInstance(), () -> this.start(claims, visualClaims));
+    }
+
+    // Orders claims nearest first, ties broken by claim id
+    static List<Candidate> sortByDistance(List<Candidate> candidates, int centerX, int centerZ) {
+        final List<Candidate> claims = new ArrayList<>(candidates);
+        claims.sort(Comparator.comparingLong((Candidate c) -> c.getDistanceSquared(centerX, centerZ))
+                .thenComparing(c -> c.uniqueId));
+        return claims;
+    }
+
+    // Claims already visualized for the player are listed but not drawn again
+    static List<Candidate> getVisualCandidates(List<Candidate> claims) {
+        final List<Candidate> visualClaims = new ArrayList<>();
+        for (Candidate candidate : claims) {
+            if (!candidate.hasActiveVisual) {
+                visualClaims.add(candidate);
+            }
+        }
+        return visualClaims;
+    }
+
+    private void start(List<Candidate> claims, List<Candidate> visualClaims) {
+        if (activeRequests.get(this.player.getUniqueId()) != this) {
+            return;
+        }
+        if (!this.player.isOnline()) {
+            activeRequests.remove(this.player.getUniqueId());
+            return;
+        }
+
+        final Set<Claim> claimSet = new LinkedHashSet<>();
+        for (Candidate candidate : claims) {
+            claimSet.add(candidate.claim);
+        }
+        final Component message = GriefDefenderPlugin.getInstance().messageData.getMessage(MessageStorage.CLAIM_SHOW_NEARBY,
+                ImmutableMap.of(
+                "amount", claimSet.size()));
+        GriefDefenderPlugin.sendMessage(this.player, message);
+        if (!claimSet.isEmpty()) {
+            if (this.worldEditProvider != null && !visualClaims.isEmpty()) {
+                final List<Claim> weClaims = new ArrayList<>();
+                for (Candidate candidate : visualClaims) {
+                    weClaims.add(candidate.claim);
+                }
+                this.worldEditProvider.visualizeClaims(weClaims, this.player, this.playerData, true);
+            }
+            CommandHelper.showClaims(this.player, claimSet);
+        }
+
+        if (this.hideBorders || visualClaims.isEmpty()) {
+            activeRequests.remove(this.player.getUniqueId());
+            return;
+        }
+        this.visualQueue = visualClaims;
+        this.runTaskTimer(GDBootstrap.getInstance(), 0L, 1L);
+    }
+
+    @Override
+    public void run() {
+        // Stop if the player left or submitted a newer request
+        if (!this.player.isOnline() || activeRequests.get(this.player.getUniqueId()) != this) {
+            this.finish();
+            return;
+        }
+
+        final GDClaimManager claimManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(this.player.getWorld().getUID());
+        int applied = 0;
+        while (applied < CLAIMS_PER_TICK && this.visualIndex < this.visualQueue.size()) {
+            final GDClaim claim = this.visualQueue.get(this.visualIndex++).claim;
+            // Claim may have been removed or visualized since the snapshot was taken
+            if (claimManager == null || !claimManager.getClaimByUUID(claim.getUniqueId()).isPresent() || claim.hasActiveVisual(this.player)) {
+                continue;
+            }
+            final GDClaimVisual visual = claim.getVisualizer();
+            visual.createClaimBlockVisuals(this.playerData.getClaimCreateMode() == CreateModeTypes.VOLUME ? this.height : PlayerUtil.getInstance().getEyeHeight(this.player), this.player.getLocation(), this.playerData);
+            visual.apply(this.player);
+            applied++;
+        }
+        if (this.visualIndex >= this.visualQueue.size()) {
+            this.finish();
+        }
+    }
+
+    private void finish() {
+        this.cancel();
+        if (activeRequests.get(this.player.getUniqueId()) == this) {
+            activeRequests.remove(this.player.getUniqueId());
+        }
+    }
+
+    static class Candidate {
+
+        private final GDClaim claim;
+        private final UUID uniqueId;
+        private final int lesserX;
+        private final int lesserZ;
+        private final int greaterX;
+        private final int greaterZ;
+        private final boolean hasActiveVisual;
+
+        Candidate(GDClaim claim, Player player) {
+            final Vector3i lesser = claim.getLesserBoundaryCorner();
+            final Vector3i greater = claim.getGreaterBoundaryCorner();
+            this.claim = claim;
+            this.uniqueId = claim.getUniqueId();
+            this.lesserX = lesser.getX();
+            this.lesserZ = lesser.getZ();
+            this.greaterX = greater.getX();
+            this.greaterZ = greater.getZ();
+            this.hasActiveVisual = claim.hasActiveVisual(player);
+        }
+
+        GDClaim getClaim() {
+            return this.claim;
+        }
+
+        // Squared distance from a point to the claim's horizontal bounds
+        private long getDistanceSquared(int x, int z) {
+            final long dx = x < this.lesserX ? this.lesserX - x : (x > this.greaterX ? x - this.greaterX : 0);
+            final long dz = z < this.lesserZ ? this.lesserZ - z : (z > this.greaterZ ? z - this.greaterZ : 0);
+            return dx * dx + dz * dz;
+        }
+    }
+}
@@ -46,7 +46,10 @@
 import net.kyori.text.format.TextColor;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import org.bukkit.Bukkit;
@@ -58,6 +61,13 @@
 
 public class PlayerTickTask extends BukkitRunnable {
 
+    // Health regen is applied to each player once per interval, spread across the interval
+    private static final int HEALTH_REGEN_INTERVAL = 100;
+    private static final long TICK_BUDGET_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+
+    private final StaggeredTickScheduler<Player> healthRegenScheduler = new StaggeredTickScheduler<>(HEALTH_REGEN_INTERVAL, TICK_BUDGET_NANOS, System::nanoTime);
+    private final List<Player> players = new ArrayList<>();
+
     public PlayerTickTask() {
         this.runTaskTimer(GDBootstrap.getInstance(), 1L, 1L);
     }
@@ -69,65 +79,86 @@ public void run() {
                 if (player.isDead()) {
                     continue;
                 }
+                this.players.add(player);
                 final GDPlayerData playerData = GriefDefenderPlugin.getInstance().dataStore.getOrCreatePlayerData(player.getWorld(), player.getUniqueId());
-                final GDClaim claim = GriefDefenderPlugin.getInstance().dataStore.getClaimAtPlayer(playerData, player.getLocation());
                 // send queued visuals
-                int count = 0;
-                final Iterator<BlockSnapshot> iterator = playerData.queuedVisuals.iterator();
-                while (iterator.hasNext()) {
-                    final BlockSnapshot snapshot = iterator.next();
-                    if (count > GriefDefenderPlugin.getGlobalConfig().getConfig().visual.clientVisualsPerTick) {
-                        break;
+                if (!playerData.queuedVisuals.isEmpty()) {
+                    int count = 0;
+                    final Iterator<BlockSnapshot> iterator = playerData.queuedVisuals.iterator();
+                    while (iterator.hasNext()) {
+                        final BlockSnapshot snapshot = iterator.next();
+                        if (count > GriefDefenderPlugin.getGlobalConfig().getConfig().visual.clientVisualsPerTick) {
+                            break;
+                        }
+                        NMSUtil.getInstance().sendBlockChange(player, snapshot);
+                        iterator.remove();
+                        count++;
                     }
-                    NMSUtil.getInstance().sendBlockChange(player, snapshot);
-                    iterator.remove();
-                    count++;
                 }
 
                 // chat capture
                 playerData.updateRecordChat();
-                // health regen
-                if (world.getFullTime() % 100 == 0L) {
-                    final GameMode gameMode = player.getGameMode();
-                    // Handle player health regen
-                    if (gameMode != GameMode.CREATIVE && gameMode != GameMode.SPECTATOR && GDOptions.PLAYER_HEALTH_REGEN) {
-                        final double maxHealth = player.getMaxHealth();
-                        if (player.getHealth() < maxHealth) {
-                            final double regenAmount = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Double.class), playerData.getSubject(), Options.PLAYER_HEALTH_REGEN, claim);
-                            if (regenAmount > 0) {
-                                final double newHealth = player.getHealth() + regenAmount;
-                                if (newHealth > maxHealth) {
-                                    player.setHealth(maxHealth);
-                                } else {
-                                    player.setHealth(newHealth);
-                                }
-                            }
-                        }
-                    }
-                }
                 // teleport delay
                 if (world.getFullTime() % 20 == 0L) {
-                    if (playerData.teleportDelay > 0) {
-                        final int delay = playerData.teleportDelay - 1;
-                        if (delay == 0) {
-                            playerData.teleportDelay = 0;
-                            if (playerData.trappedRequest) {
-                                playerData.lastTrappedTimestamp = Instant.now();
-                                GriefDefenderPlugin.sendMessage(player, MessageCache.getInstance().COMMAND_TRAPPED_SUCCESS);
-                            }
-                            // This must be set BEFORE teleport
-                            playerData.trappedRequest = false;
-                            player.teleport(playerData.teleportLocation);
-                            playerData.teleportLocation = null;
-                            playerData.teleportSourceLocation = null;
-                            continue;
-                        }
-                        TextAdapter.sendComponent(player, MessageStorage.MESSAGE_DATA.getMessage(MessageStorage.TELEPORT_DELAY_NOTICE, 
-                                ImmutableMap.of("delay", TextComponent.of(delay, TextColor.GOLD))));
-                        playerData.teleportDelay = delay;
-                    }
+                    this.handleTeleportDelay(player, playerData);
                 }
             }
         }
+
+        // Option lookups are not latency sensitive so they are staggered and limited by the tick budget
+        this.healthRegenScheduler.tick(this.players, this::handleHealthRegen);
+        this.players.clear();
+    }
+
+    private void handleTeleportDelay(Player player, GDPlayerData playerData) {
+        if (playerData.teleportDelay <= 0) {
+            return;
+        }
+
+        final int delay = playerData.teleportDelay - 1;
+        if (delay == 0) {
+            playerData.teleportDelay = 0;
+            if (playerData.trappedRequest) {
+                playerData.lastTrappedTimestamp = Instant.now();
+                GriefDefenderPlugin.sendMessage(player, MessageCache.getInstance().COMMAND_TRAPPED_SUCCESS);
+            }
+            // This must be set BEFORE teleport
+            playerData.trappedRequest = false;
+            player.teleport(playerData.teleportLocation);
+            playerData.teleportLocation = null;
+            playerData.teleportSourceLocation = null;
+            return;
+        }
+        TextAdapter.sendComponent(player, MessageStorage.MESSAGE_DATA.getMessage(MessageStorage.TELEPORT_DELAY_NOTICE, 
+                ImmutableMap.of("delay", TextComponent.of(delay, TextColor.GOLD))));
+        playerData.teleportDelay = delay;
+    }
+
+    private void handleHealthRegen(Player player) {
+        // Players may have left or died since the cycle started
+        if (!player.isOnline() || player.isDead()) {
+            return;
+        }
+
+        final GameMode gameMode = player.getGameMode();
+        if (gameMode == GameMode.CREATIVE || gameMode == GameMode.SPECTATOR || !GDOptions.PLAYER_HEALTH_REGEN) {
+            return;
+        }
+        final double maxHealth = player.getMaxHealth();
+        if (player.getHealth() >= maxHealth) {
+            return;
+        }
+
+        final GDPlayerData playerData = GriefDefenderPlugin.getInstance().dataStore.getOrCreatePlayerData(player.getWorld(), player.getUniqueId());
+        final GDClaim claim = GriefDefenderPlugin.getInstance().dataStore.getClaimAtPlayerLocality(playerData, player.getLocation());
+        final double regenAmount = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Double.class), playerData.getSubject(), Options.PLAYER_HEALTH_REGEN, claim);
+        if (regenAmount > 0) {
+            final double newHealth = player.getHealth() + regenAmount;
+            if (newHealth > maxHealth) {
+                player.setHealth(maxHealth);
+            } else {
+                player.setHealth(newHealth);
+            }
+        }
     }
 }
@@ -35,6 +35,7 @@
 import com.griefdefender.api.economy.TransactionResultType;
 import com.griefdefender.api.economy.TransactionType;
 import com.griefdefender.api.permission.option.Options;
+import com.griefdefender.cache.FlagDecisionCache;
 import com.griefdefender.cache.MessageCache;
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.claim.GDClaim;
@@ -164,6 +165,7 @@ private void handleClaimRent(GDClaim claim, GDPermissionUser renter) {
                 final int expireDaysToKeep = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Integer.class), ownerPlayerData.getSubject(), Options.RENT_EXPIRATION_DAYS_KEEP, claim).intValue();
                 if (pastDueDuration.toDays() > rentExpirationDays) {
                     claim.getInternalClaimData().setExpired(false);
+                    FlagDecisionCache.getInstance().invalidate(claim);
                     final int keepDays = (int) (expireDaysToKeep - pastDueDuration.toDays());
                     if (player != null) {
                         final Component message = GriefDefenderPlugin.getInstance().messageData.getMessage(MessageStorage.ECONOMY_CLAIM_RENTED_EXPIRED, ImmutableMap.of(
@@ -221,6 +223,7 @@ private void handleClaimRent(GDClaim claim, GDPermissionUser renter) {
                 claim.getEconomyData().setRentPastDueDate(null);
                 claim.getEconomyData().setRentBalance(playerData.playerID, 0);
                 claim.getInternalClaimData().setExpired(false);
+                FlagDecisionCache.getInstance().invalidate(claim);
                 claim.getData().save();
                 if (player != null) {
                     final Component message = GriefDefenderPlugin.getInstance().messageData.getMessage(MessageStorage.ECONOMY_CLAIM_RENT_PAYMENT_SUCCESS, ImmutableMap.of(
@@ -0,0 +1,109 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.task;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Spreads periodic work for a set of elements across the ticks of a period.
+ *
+ * <p>Every element present at the start of a cycle is handed to the task
+ * exactly once during that cycle. Each tick processes an even share of the
+ * remaining elements but stops early once the time budget is used up. At
+ * least one element is always processed so a cycle cannot stall. Elements
+ * left over at the end of a period are finished before the next cycle
+ * starts.</p>
+ *
+ * <p>The clock is supplied by the caller so the scheduler has no dependency
+ * on the server and can be driven by a fake clock.</p>
+ *
+ * @param <T> The element type
+ */
+public class StaggeredTickScheduler<T> {
+
+    private final int period;
+    private final long budgetNanos;
+    private final LongSupplier clock;
+    private final ArrayDeque<T> pending = new ArrayDeque<>();
+    private int cycleTick;
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param period The number of ticks each element should wait between runs
+     * @param budgetNanos The time that may be spent on the task per tick
+     * @param clock The clock, in nanoseconds
+     */
+    public StaggeredTickScheduler(int period, long budgetNanos, LongSupplier clock) {
+        this.period = Math.max(1, period);
+        this.budgetNanos = budgetNanos;
+        this.clock = clock;
+        this.cycleTick = this.period;
+    }
+
+    /**
+     * Advances the scheduler by one tick.
+     *
+     * @param elements The current elements, only read when a new cycle starts
+     * @param task The task to run for each element
+     * @return The number of elements processed
+     */
+    public int tick(Collection<? extends T> elements, Consumer<? super T> task) {
+        if (this.pending.isEmpty() && this.cycleTick >= this.period) {
+            this.pending.addAll(elements);
+            this.cycleTick = 0;
+        }
+
+        final int ticksLeft = Math.max(1, this.period - this.cycleTick);
+        this.cycleTick++;
+        if (this.pending.isEmpty()) {
+            return 0;
+        }
+
+        final int quota = (this.pending.size() + ticksLeft - 1) / ticksLeft;
+        final long start = this.clock.getAsLong();
+        int processed = 0;
+        while (processed < quota && !this.pending.isEmpty()) {
+            task.accept(this.pending.poll());
+            processed++;
+            if (this.clock.getAsLong() - start >= this.budgetNanos) {
+                break;
+            }
+        }
+        return processed;
+    }
+
+    public int getPendingCount() {
+        return this.pending.size();
+    }
+
+    public void clear() {
+        this.pending.clear();
+        this.cycleTick = this.period;
+    }
+}
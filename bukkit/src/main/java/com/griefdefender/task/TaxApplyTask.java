@@ -33,6 +33,7 @@
 import com.griefdefender.api.economy.TransactionType;
 import com.griefdefender.api.economy.TransactionResultType;
 import com.griefdefender.api.permission.option.Options;
+import com.griefdefender.cache.FlagDecisionCache;
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.claim.GDClaim;
 import com.griefdefender.claim.GDClaimManager;
@@ -144,6 +145,7 @@ public static void handleClaimTax(GDClaim claim, GDPlayerData playerData, boolea
                 final int taxExpirationDays = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Integer.class), user, Options.TAX_EXPIRATION, claim).intValue();
                 if (taxExpirationDays > 0) {
                     claim.getInternalClaimData().setExpired(true);
+                    FlagDecisionCache.getInstance().invalidate(claim);
                     if (taxExpirationDays == 0) {
                         claim.getInternalClaimData().setExpired(true);
                         claim.getData().save();
@@ -161,6 +163,7 @@ public static void handleClaimTax(GDClaim claim, GDPlayerData playerData, boolea
             claim.getEconomyData().setTaxPastDueDate(null);
             claim.getEconomyData().setTaxBalance(0);
             claim.getInternalClaimData().setExpired(false);
+            FlagDecisionCache.getInstance().invalidate(claim);
 
             if (inTown) {
                 final GDClaim town = claim.getTownClaim();
@@ -289,7 +289,7 @@ public Set<Claim> getNearbyClaims(Location location, int blockDistance, boolean
                     }
                     org.bukkit.Chunk chunk = location.getWorld().getChunkAt(chunkX, chunkZ);
                     if (chunk != null) {
-                        Set<Claim> claimsInChunk = claimWorldManager.getInternalChunksToClaimsMap().get(NMSUtil.getInstance().getChunkCoordIntPair(chunkX, chunkZ));
+                        final GDClaim[] claimsInChunk = claimWorldManager.getChunksToClaimsIndex().get(NMSUtil.getInstance().getChunkCoordIntPair(chunkX, chunkZ));
                         if (claimsInChunk != null) {
                             for (Claim claim : claimsInChunk) {
                                 final GDClaim gdClaim = (GDClaim) claim;
@@ -37,6 +37,8 @@
 import com.griefdefender.api.permission.flag.FlagDefinition;
 import com.griefdefender.api.permission.flag.Flags;
 import com.griefdefender.api.permission.option.Option;
+import com.griefdefender.cache.FlagDecisionCache;
+import com.griefdefender.cache.OptionValueCache;
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.claim.GDClaim;
 import com.griefdefender.internal.util.VecHelper;
@@ -122,19 +124,28 @@ public boolean containsOverrideContext(Set<Context> contexts) {
     }
 
     public void clearPermissions(GDClaim claim) {
+        this.invalidateCaches();
         PERMISSION_PROVIDER.clearPermissions(claim);
+        // Provider may apply the change asynchronously and gives no completion signal
+        this.invalidateCaches();
     }
 
     public void clearPermissions(OfflinePlayer player, Context context) {
+        this.invalidateCaches();
         PERMISSION_PROVIDER.clearPermissions(PermissionHolderCache.getInstance().getOrCreateUser(player), context);
+        this.invalidateCaches();
     }
 
     public void clearPermissions(GDPermissionHolder holder, Context context) {
+        this.invalidateCaches();
         PERMISSION_PROVIDER.clearPermissions(holder, context);
+        this.invalidateCaches();
     }
 
     public void clearPermissions(GDPermissionHolder holder, Set<Context> contexts) {
+        this.invalidateCaches();
         PERMISSION_PROVIDER.clearPermissions(holder, contexts);
+        this.invalidateCaches();
     }
 
     public boolean holderHasPermission(GDPermissionHolder holder, String permission) {
@@ -198,49 +209,73 @@ public List<String> getOptionValueList(GDPermissionHolder holder, Option option,
     }
 
     public CompletableFuture<PermissionResult> setFlagDefinition(GDPermissionHolder holder, FlagDefinition definition, Tristate value, Set<Context> contexts, boolean isTransient) {
-        return PERMISSION_PROVIDER.setFlagDefinition(holder, definition, value, contexts, isTransient);
+        this.invalidateCaches();
+        return this.invalidateCachesOnComplete(PERMISSION_PROVIDER.setFlagDefinition(holder, definition, value, contexts, isTransient));
     }
 
     public CompletableFuture<PermissionResult> setOptionValue(GDPermissionHolder holder, String permission, String value, Set<Context> contexts) {
-        return PERMISSION_PROVIDER.setOptionValue(holder, permission, value, contexts, true);
+        this.invalidateCaches();
+        return this.invalidateCachesOnComplete(PERMISSION_PROVIDER.setOptionValue(holder, permission, value, contexts, true));
     }
 
     public CompletableFuture<PermissionResult> setOptionValue(GDPermissionHolder holder, String permission, String value, Set<Context> contexts, boolean check) {
-        return PERMISSION_PROVIDER.setOptionValue(holder, permission, value, contexts, check);
+        this.invalidateCaches();
+        return this.invalidateCachesOnComplete(PERMISSION_PROVIDER.setOptionValue(holder, permission, value, contexts, check));
     }
 
     public CompletableFuture<PermissionResult> setPermissionValue(GDPermissionHolder holder, Flag flag, Tristate value, Set<Context> contexts) {
-        return PERMISSION_PROVIDER.setPermissionValue(holder, flag, value, contexts, true, true);
+        this.invalidateCaches();
+        return this.invalidateCachesOnComplete(PERMISSION_PROVIDER.setPermissionValue(holder, flag, value, contexts, true, true));
     }
 
     public CompletableFuture<PermissionResult> setPermissionValue(GDPermissionHolder holder, String permission, Tristate value, Set<Context> contexts) {
-        return PERMISSION_PROVIDER.setPermissionValue(holder, permission, value, contexts, true, true);
+        this.invalidateCaches();
+        return this.invalidateCachesOnComplete(PERMISSION_PROVIDER.setPermissionValue(holder, permission, value, contexts, true, true));
     }
 
     public CompletableFuture<PermissionResult> setPermissionValue(GDPermissionHolder holder, Flag flag, Tristate value, Set<Context> contexts, boolean check, boolean save) {
-        return PERMISSION_PROVIDER.setPermissionValue(holder, flag, value, contexts, check, save);
+        this.invalidateCaches();
+        return this.invalidateCachesOnComplete(PERMISSION_PROVIDER.setPermissionValue(holder, flag, value, contexts, check, save));
     }
 
     public CompletableFuture<PermissionResult> setPermissionValue(GDPermissionHolder holder, String permission, Tristate value, Set<Context> contexts, boolean check, boolean save) {
-        return PERMISSION_PROVIDER.setPermissionValue(holder, permission, value, contexts, check, save);
+        this.invalidateCaches();
+        return this.invalidateCachesOnComplete(PERMISSION_PROVIDER.setPermissionValue(holder, permission, value, contexts, check, save));
     }
 
     public CompletableFuture<PermissionResult> setTransientOption(GDPermissionHolder holder, String permission, String value, Set<Context> contexts) {
-        return PERMISSION_PROVIDER.setTransientOption(holder, permission, value, contexts);
+        this.invalidateCaches();
+        return this.invalidateCachesOnComplete(PERMISSION_PROVIDER.setTransientOption(holder, permission, value, contexts));
     }
 
     public CompletableFuture<PermissionResult> setTransientPermission(GDPermissionHolder holder, String permission, Tristate value, Set<Context> contexts) {
-        return PERMISSION_PROVIDER.setTransientPermission(holder, permission, value, contexts);
+        this.invalidateCaches();
+        return this.invalidateCachesOnComplete(PERMISSION_PROVIDER.setTransientPermission(holder, permission, value, contexts));
     }
 
     public void refreshCachedData(GDPermissionHolder holder) {
+        this.invalidateCaches();
         PERMISSION_PROVIDER.refreshCachedData(holder);
+        this.invalidateCaches();
     }
 
     public CompletableFuture<Void> save(GDPermissionHolder holder) {
         return PERMISSION_PROVIDER.save(holder);
     }
 
+    private void invalidateCaches() {
+        FlagDecisionCache.getInstance().invalidateAll();
+        OptionValueCache.getInstance().invalidateAll();
+    }
+
+    // Lookups made before an asynchronous write is applied may cache the old value
+    private <T> CompletableFuture<T> invalidateCachesOnComplete(CompletableFuture<T> future) {
+        if (future == null) {
+            return null;
+        }
+        return future.whenComplete((result, error) -> this.invalidateCaches());
+    }
+
     public boolean containsKey(Set<Context> contexts, String key) {
         for (Context context : contexts) {
             if (context.getKey().equalsIgnoreCase(key)) {
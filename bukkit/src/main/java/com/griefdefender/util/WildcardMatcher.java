@@ -0,0 +1,219 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.commons.io.FilenameUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A set of '*' and '?' wildcard patterns compiled once for repeated matching.
+ *
+ * <p>Matching follows the case sensitive rules of
+ * {@code FilenameUtils.wildcardMatch}. Plain ids are resolved with a hash
+ * lookup, patterns ending in a single '*' are resolved with a prefix trie and
+ * the remaining patterns fall back to {@code FilenameUtils.wildcardMatch}
+ * itself, which has its own quirks such as never matching '?' after '*'.
+ * Results are memoized per id.</p>
+ *
+ * <p>Patterns keep the iteration order of the source collection so callers
+ * can select the first or last matching pattern.</p>
+ */
+public class WildcardMatcher {
+
+    private static final int[] NO_MATCH = new int[] {-1, -1};
+
+    private final Object source;
+    private final int sourceSize;
+    private final String[] patterns;
+    private final Map<String, int[]> exactPatterns = new HashMap<>();
+    private final PrefixNode prefixRoot = new PrefixNode();
+    private final List<Integer> globPatterns = new ArrayList<>();
+    private final Cache<String, int[]> matchCache = Caffeine.newBuilder().maximumSize(1000).build();
+
+    public WildcardMatcher(Collection<String> patterns) {
+        this(patterns, patterns);
+    }
+
+    /**
+     * Compiles the given patterns.
+     *
+     * @param source The object the patterns were read from, used by {@link #isCompiledFrom(Object, int)}
+     * @param patterns The patterns in match order
+     */
+    public WildcardMatcher(Object source, Collection<String> patterns) {
+        this.source = source;
+        this.sourceSize = patterns == null ? 0 : patterns.size();
+        this.patterns = patterns == null ? new String[0] : patterns.toArray(new String[0]);
+        for (int i = 0; i < this.patterns.length; i++) {
+            final String pattern = this.patterns[i];
+            if (pattern == null) {
+                continue;
+            }
+            final int wildcardIndex = indexOfWildcard(pattern);
+            if (wildcardIndex == -1) {
+                // Lists may repeat an id, keep its first and last index
+                final int[] exact = this.exactPatterns.get(pattern);
+                if (exact == null) {
+                    this.exactPatterns.put(pattern, new int[] {i, i});
+                } else {
+                    exact[1] = i;
+                }
+            } else if (wildcardIndex == pattern.length() - 1 && pattern.charAt(wildcardIndex) == '*') {
+                this.prefixRoot.insert(pattern, wildcardIndex, i);
+            } else {
+                this.globPatterns.add(i);
+            }
+        }
+    }
+
+    /**
+     * Checks if this matcher was compiled from the given source.
+     *
+     * <p>Config loads replace collections rather than mutating them so an
+     * identity and size check is enough to detect a stale matcher.</p>
+     *
+     * @param source The current source
+     * @param size The current size of the source
+     * @return Whether this matcher is still valid for the source
+     */
+    public boolean isCompiledFrom(Object source, int size) {
+        return this.source == source && this.sourceSize == size;
+    }
+
+    public boolean isEmpty() {
+        return this.patterns.length == 0;
+    }
+
+    public boolean matches(String id) {
+        return this.getMatch(id)[0] != -1;
+    }
+
+    /**
+     * Gets the first pattern, in source order, that matches the id.
+     *
+     * @param id The id
+     * @return The matching pattern or null if none matched
+     */
+    public String findFirst(String id) {
+        final int index = this.getMatch(id)[0];
+        return index == -1 ? null : this.patterns[index];
+    }
+
+    /**
+     * Gets the last pattern, in source order, that matches the id.
+     *
+     * @param id The id
+     * @return The matching pattern or null if none matched
+     */
+    public String findLast(String id) {
+        final int index = this.getMatch(id)[1];
+        return index == -1 ? null : this.patterns[index];
+    }
+
+    private int[] getMatch(String id) {
+        if (id == null || this.patterns.length == 0) {
+            return NO_MATCH;
+        }
+        return this.matchCache.get(id, this::computeMatch);
+    }
+
+    private int[] computeMatch(String id) {
+        int first = -1;
+        int last = -1;
+        final int[] exact = this.exactPatterns.get(id);
+        if (exact != null) {
+            first = exact[0];
+            last = exact[1];
+        }
+
+        PrefixNode node = this.prefixRoot;
+        for (int i = 0; ; i++) {
+            if (node.patternIndex != -1) {
+                first = first == -1 ? node.patternIndex : Math.min(first, node.patternIndex);
+                last = Math.max(last, node.lastPatternIndex);
+            }
+            if (i == id.length() || node.children == null) {
+                break;
+            }
+            node = node.children.get(id.charAt(i));
+            if (node == null) {
+                break;
+            }
+        }
+
+        for (int index : this.globPatterns) {
+            if ((first != -1 && index > first) && index < last) {
+                continue;
+            }
+            if (FilenameUtils.wildcardMatch(id, this.patterns[index])) {
+                first = first == -1 ? index : Math.min(first, index);
+                last = Math.max(last, index);
+            }
+        }
+
+        if (first == -1) {
+            return NO_MATCH;
+        }
+        return new int[] {first, last};
+    }
+
+    private static int indexOfWildcard(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            final char c = pattern.charAt(i);
+            if (c == '*' || c == '?') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static class PrefixNode {
+
+        private Map<Character, PrefixNode> children;
+        private int patternIndex = -1;
+        private int lastPatternIndex = -1;
+
+        private void insert(String pattern, int length, int index) {
+            PrefixNode node = this;
+            for (int i = 0; i < length; i++) {
+                if (node.children == null) {
+                    node.children = new HashMap<>();
+                }
+                node = node.children.computeIfAbsent(pattern.charAt(i), k -> new PrefixNode());
+            }
+            if (node.patternIndex == -1) {
+                node.patternIndex = index;
+            }
+            node.lastPatternIndex = index;
+        }
+    }
+}
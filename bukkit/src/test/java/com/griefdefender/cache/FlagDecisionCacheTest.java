@@ -0,0 +1,228 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableSet;
+import com.griefdefender.api.Tristate;
+import com.griefdefender.api.claim.Claim;
+import com.griefdefender.api.claim.TrustType;
+import com.griefdefender.api.permission.Context;
+import com.griefdefender.api.permission.flag.Flag;
+import com.griefdefender.permission.GDPermissionHolder;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+public class FlagDecisionCacheTest {
+
+    private static final Tristate[] VALUES = {Tristate.TRUE, Tristate.FALSE, Tristate.UNDEFINED};
+    // Claim index -> parent index, -1 for top level claims
+    private static final int[] PARENTS = {-1, 0, 0, 2, -1};
+
+    private final List<Claim> claims = new ArrayList<>();
+    private final List<Flag> flags = new ArrayList<>();
+    private final List<GDPermissionHolder> holders = new ArrayList<>();
+    // Ordered from weakest to strongest
+    private final List<TrustType> trustTypes = new ArrayList<>();
+    private final List<Set<Context>> contextSets = new ArrayList<>();
+
+    public FlagDecisionCacheTest() {
+        for (int i = 0; i < PARENTS.length; i++) {
+            final Claim claim = mock(Claim.class);
+            when(claim.getUniqueId()).thenReturn(new UUID(0, i));
+            this.claims.add(claim);
+        }
+        for (int i = 0; i < PARENTS.length; i++) {
+            final Set<Claim> children = new HashSet<>();
+            for (int child = 0; child < PARENTS.length; child++) {
+                if (child != i && this.isAncestor(i, child)) {
+                    children.add(this.claims.get(child));
+                }
+            }
+            when(this.claims.get(i).getChildren(true)).thenReturn(children);
+        }
+        for (int i = 0; i < 4; i++) {
+            this.flags.add(mock(Flag.class));
+        }
+        for (int i = 0; i < 5; i++) {
+            final GDPermissionHolder holder = mock(GDPermissionHolder.class);
+            when(holder.getIdentifier()).thenReturn("holder-" + i);
+            this.holders.add(holder);
+        }
+        for (int i = 0; i < 3; i++) {
+            this.trustTypes.add(mock(TrustType.class));
+        }
+        this.contextSets.add(new HashSet<>());
+        this.contextSets.add(ImmutableSet.of(new Context("source", "minecraft:player")));
+        this.contextSets.add(ImmutableSet.of(new Context("source", "minecraft:player"), new Context("target", "minecraft:chest")));
+    }
+
+    @Test
+    public void testCachedDecisionsMatchDirectResolution() {
+        for (long seed = 0; seed < 10; seed++) {
+            this.replay(seed, 4000);
+        }
+    }
+
+    @Test
+    public void testInvalidatingParentInvalidatesChildren() {
+        final FlagDecisionCache cache = new FlagDecisionCache();
+        final FlagDecisionCache.Key key = this.createKey(cache, 3, 0, 0, 0, false, this.contextSets.get(0));
+        cache.put(key, Tristate.TRUE, null);
+
+        cache.invalidate(this.claims.get(0));
+        assertNull(cache.get(this.createKey(cache, 3, 0, 0, 0, false, this.contextSets.get(0))));
+    }
+
+    @Test
+    public void testRemovedClaimsDropGenerationsAndEntries() {
+        final FlagDecisionCache cache = new FlagDecisionCache();
+        final Set<Context> contexts = this.contextSets.get(0);
+        cache.put(this.createKey(cache, 4, 0, 0, 0, false, contexts), Tristate.TRUE, null);
+        cache.invalidate(this.claims.get(4));
+        cache.put(this.createKey(cache, 4, 0, 0, 0, false, contexts), Tristate.FALSE, null);
+        cache.put(this.createKey(cache, 1, 0, 0, 0, false, contexts), Tristate.TRUE, null);
+        assertEquals(1, cache.getClaimGenerationCount());
+
+        cache.remove(this.claims.get(4));
+        assertEquals(0, cache.getClaimGenerationCount());
+        // Generation 0 entries written before the claim was invalidated must not come back
+        assertNull(cache.get(this.createKey(cache, 4, 0, 0, 0, false, contexts)));
+        assertEquals(Tristate.TRUE, cache.get(this.createKey(cache, 1, 0, 0, 0, false, contexts)).getResult());
+
+        cache.invalidate(this.claims.get(0));
+        assertEquals(4, cache.getClaimGenerationCount());
+        final Set<UUID> unloaded = new HashSet<>();
+        for (Claim claim : this.claims) {
+            unloaded.add(claim.getUniqueId());
+        }
+        cache.removeAll(unloaded);
+        assertEquals(0, cache.getClaimGenerationCount());
+        assertEquals(0, cache.size());
+    }
+
+    // Mirrors claim flags, trust and holder permissions with plain maps and checks every cache hit
+    private void replay(long seed, int operations) {
+        final Random random = new Random(seed);
+        final FlagDecisionCache cache = new FlagDecisionCache();
+        final Map<String, Tristate> claimFlags = new HashMap<>();
+        final Map<String, Integer> trust = new HashMap<>();
+        final Map<String, Tristate> holderPermissions = new HashMap<>();
+        final boolean[] ignoring = new boolean[this.holders.size()];
+        int hits = 0;
+        for (int i = 0; i < operations; i++) {
+            final int claimIndex = random.nextInt(this.claims.size());
+            final int flagIndex = random.nextInt(this.flags.size());
+            final int holderIndex = random.nextInt(this.holders.size());
+            final int action = random.nextInt(40);
+            if (action < 26) {
+                final int trustIndex = random.nextInt(this.trustTypes.size());
+                final int contextIndex = random.nextInt(this.contextSets.size());
+                final Tristate expected = this.resolve(claimFlags, trust, holderPermissions, ignoring, claimIndex, flagIndex, holderIndex, trustIndex, contextIndex);
+                final FlagDecisionCache.Key key = this.createKey(cache, claimIndex, flagIndex, holderIndex, trustIndex, ignoring[holderIndex],
+                        this.contextSets.get(contextIndex));
+                final FlagDecisionCache.Decision decision = cache.get(key);
+                if (decision == null) {
+                    cache.put(key, expected, null);
+                } else {
+                    assertEquals("seed " + seed + " operation " + i, expected, decision.getResult());
+                    hits++;
+                }
+            } else if (action < 31) {
+                // Claim flag set or removed through commands
+                claimFlags.put(claimIndex + "/" + flagIndex + "/" + random.nextInt(this.contextSets.size()), VALUES[random.nextInt(VALUES.length)]);
+                cache.invalidate(this.claims.get(claimIndex));
+            } else if (action < 35) {
+                // Trust added or removed
+                trust.put(claimIndex + "/" + holderIndex, random.nextInt(this.trustTypes.size() + 1) - 1);
+                cache.invalidate(this.claims.get(claimIndex));
+            } else if (action < 37) {
+                // Permission or option changed in the permission plugin
+                holderPermissions.put(holderIndex + "/" + flagIndex, VALUES[random.nextInt(VALUES.length)]);
+                cache.invalidateAll();
+            } else if (action < 39) {
+                // Ignore claims is toggled without any invalidation
+                ignoring[holderIndex] = !ignoring[holderIndex];
+            } else {
+                // World unloaded and loaded again with changed claim files
+                final Set<UUID> unloaded = new HashSet<>();
+                for (Claim claim : this.claims) {
+                    unloaded.add(claim.getUniqueId());
+                }
+                cache.removeAll(unloaded);
+                claimFlags.put(claimIndex + "/" + flagIndex + "/" + random.nextInt(this.contextSets.size()), VALUES[random.nextInt(VALUES.length)]);
+            }
+        }
+        assertTrue(hits > 0);
+    }
+
+    private Tristate resolve(Map<String, Tristate> claimFlags, Map<String, Integer> trust, Map<String, Tristate> holderPermissions, boolean[] ignoring,
+            int claimIndex, int flagIndex, int holderIndex, int trustIndex, int contextIndex) {
+        if (ignoring[holderIndex]) {
+            return Tristate.TRUE;
+        }
+        // Trust and flags are inherited from parents
+        for (int claim = claimIndex; claim != -1; claim = PARENTS[claim]) {
+            if (trust.getOrDefault(claim + "/" + holderIndex, -1) >= trustIndex) {
+                return Tristate.TRUE;
+            }
+        }
+        for (int claim = claimIndex; claim != -1; claim = PARENTS[claim]) {
+            final Tristate value = claimFlags.getOrDefault(claim + "/" + flagIndex + "/" + contextIndex, Tristate.UNDEFINED);
+            if (value != Tristate.UNDEFINED) {
+                return value;
+            }
+        }
+        return holderPermissions.getOrDefault(holderIndex + "/" + flagIndex, Tristate.UNDEFINED);
+    }
+
+    private boolean isAncestor(int ancestor, int claim) {
+        for (int current = claim; current != -1; current = PARENTS[current]) {
+            if (current == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private FlagDecisionCache.Key createKey(FlagDecisionCache cache, int claimIndex, int flagIndex, int holderIndex, int trustIndex, boolean ignoreClaim,
+            Set<Context> contexts) {
+        return cache.createKey(this.claims.get(claimIndex), this.flags.get(flagIndex), "minecraft:player", "minecraft:chest", this.holders.get(holderIndex),
+                this.trustTypes.get(trustIndex), true, ignoreClaim, false, contexts);
+    }
+}
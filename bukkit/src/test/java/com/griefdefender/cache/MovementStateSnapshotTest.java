@@ -0,0 +1,197 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.reflect.TypeToken;
+import com.griefdefender.api.permission.option.Option;
+import com.griefdefender.claim.GDClaim;
+import com.griefdefender.permission.GDPermissionHolder;
+import org.bukkit.GameMode;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Replays random player moves, world and game mode changes, option edits and
+ * context updates, and checks every snapshot value against a direct
+ * resolution of the same option, so the values applied to the player are
+ * the same as without the snapshot.
+ */
+public class MovementStateSnapshotTest {
+
+    private static final TypeToken<Boolean> BOOLEAN_TYPE = TypeToken.of(Boolean.class);
+    private static final TypeToken<Double> DOUBLE_TYPE = TypeToken.of(Double.class);
+    private static final GameMode[] GAME_MODES = {GameMode.SURVIVAL, GameMode.CREATIVE, GameMode.ADVENTURE};
+
+    @SuppressWarnings("unchecked")
+    private final Option<Boolean> denyFlight = mock(Option.class);
+    @SuppressWarnings("unchecked")
+    private final Option<Boolean> denyGodMode = mock(Option.class);
+    @SuppressWarnings("unchecked")
+    private final Option<Double> flySpeed = mock(Option.class);
+    private final GDPermissionHolder holder = mock(GDPermissionHolder.class);
+    private final List<GDClaim> claims = new ArrayList<>();
+    private final List<World> worlds = new ArrayList<>();
+    private final Player player = mock(Player.class);
+
+    // Live permission data
+    private GDClaim currentClaim;
+    private World currentWorld;
+    private GameMode currentGameMode;
+    private int optionData;
+    private int activeContexts;
+    private int resolveCount;
+
+    public MovementStateSnapshotTest() {
+        when(this.holder.getIdentifier()).thenReturn("snapshot-holder");
+        for (int i = 0; i < 4; i++) {
+            final GDClaim claim = mock(GDClaim.class);
+            when(claim.getUniqueId()).thenReturn(new UUID(1, i));
+            this.claims.add(claim);
+        }
+        for (int i = 0; i < 2; i++) {
+            final World world = mock(World.class);
+            when(world.getUID()).thenReturn(new UUID(2, i));
+            this.worlds.add(world);
+        }
+        this.currentClaim = this.claims.get(0);
+        this.currentWorld = this.worlds.get(0);
+        this.currentGameMode = GameMode.SURVIVAL;
+        when(this.player.getWorld()).thenAnswer(invocation -> this.currentWorld);
+        when(this.player.getGameMode()).thenAnswer(invocation -> this.currentGameMode);
+    }
+
+    @Test
+    public void testSnapshotMatchesDirectResolution() {
+        for (long seed = 0; seed < 10; seed++) {
+            final Random random = new Random(seed);
+            final MovementStateSnapshot snapshot = this.createSnapshot();
+            for (int i = 0; i < 1000; i++) {
+                final int operation = random.nextInt(20);
+                if (operation == 0) {
+                    this.currentClaim = this.claims.get(random.nextInt(this.claims.size()));
+                } else if (operation == 1) {
+                    this.currentWorld = this.worlds.get(random.nextInt(this.worlds.size()));
+                } else if (operation == 2) {
+                    this.currentGameMode = GAME_MODES[random.nextInt(GAME_MODES.length)];
+                } else if (operation == 3) {
+                    this.optionData++;
+                    this.invalidateOptionCache(random);
+                } else if (operation == 4) {
+                    // What the context update listener does
+                    this.activeContexts++;
+                    snapshot.invalidate();
+                }
+
+                final String message = "seed=" + seed + " step=" + i;
+                assertEquals(message, this.resolve(this.denyFlight), snapshot.getOptionValue(BOOLEAN_TYPE, this.denyFlight, this.holder, this.currentClaim, this.player));
+                assertEquals(message, this.resolve(this.flySpeed), snapshot.getOptionValue(DOUBLE_TYPE, this.flySpeed, this.holder, this.currentClaim, this.player));
+                if (random.nextBoolean()) {
+                    assertEquals(message, this.resolve(this.denyGodMode), snapshot.getOptionValue(BOOLEAN_TYPE, this.denyGodMode, this.holder, this.currentClaim,
+                            this.player));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testValuesResolvedOncePerState() {
+        final MovementStateSnapshot snapshot = this.createSnapshot();
+        for (int i = 0; i < 10; i++) {
+            snapshot.getOptionValue(BOOLEAN_TYPE, this.denyFlight, this.holder, this.currentClaim, this.player);
+            snapshot.getOptionValue(DOUBLE_TYPE, this.flySpeed, this.holder, this.currentClaim, this.player);
+        }
+        assertEquals(2, this.resolveCount);
+
+        this.currentGameMode = GameMode.CREATIVE;
+        snapshot.getOptionValue(BOOLEAN_TYPE, this.denyFlight, this.holder, this.currentClaim, this.player);
+        assertEquals(3, this.resolveCount);
+    }
+
+    @Test
+    public void testContextUpdateResolvesAgain() {
+        final MovementStateSnapshot snapshot = this.createSnapshot();
+        final Boolean before = this.resolve(this.denyFlight);
+        assertEquals(before, snapshot.getOptionValue(BOOLEAN_TYPE, this.denyFlight, this.holder, this.currentClaim, this.player));
+        // Contexts change in the same claim until deny-flight flips
+        do {
+            this.activeContexts++;
+        } while (Objects.equals(before, this.resolve(this.denyFlight)));
+
+        snapshot.invalidate();
+        assertEquals(this.resolve(this.denyFlight), snapshot.getOptionValue(BOOLEAN_TYPE, this.denyFlight, this.holder, this.currentClaim, this.player));
+    }
+
+    private MovementStateSnapshot createSnapshot() {
+        return new MovementStateSnapshot(new MovementStateSnapshot.OptionResolver() {
+
+            @Override
+            public <T> T getOptionValue(TypeToken<T> type, GDPermissionHolder holder, Option<T> option, GDClaim claim) {
+                MovementStateSnapshotTest.this.resolveCount++;
+                assertEquals(MovementStateSnapshotTest.this.currentClaim, claim);
+                return MovementStateSnapshotTest.this.resolve(option);
+            }
+        });
+    }
+
+    private void invalidateOptionCache(Random random) {
+        final int kind = random.nextInt(3);
+        if (kind == 0) {
+            OptionValueCache.getInstance().invalidate(this.holder);
+        } else if (kind == 1) {
+            OptionValueCache.getInstance().invalidate(this.currentClaim);
+        } else {
+            OptionValueCache.getInstance().invalidateAll();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T resolve(Option<T> option) {
+        return (T) this.resolveRaw(option);
+    }
+
+    private Object resolveRaw(Option<?> option) {
+        final int hash = Objects.hash(this.claims.indexOf(this.currentClaim), this.worlds.indexOf(this.currentWorld), this.currentGameMode, this.optionData,
+                this.activeContexts, option == this.denyFlight ? 0 : option == this.denyGodMode ? 1 : 2);
+        final int value = Math.floorMod(hash, 5);
+        if (value == 0) {
+            return null;
+        }
+        if (option == this.flySpeed) {
+            return value / 10.0;
+        }
+        return value % 2 == 0;
+    }
+}
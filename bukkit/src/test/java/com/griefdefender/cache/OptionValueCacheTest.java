@@ -0,0 +1,170 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.reflect.TypeToken;
+import com.griefdefender.api.claim.Claim;
+import com.griefdefender.api.claim.ClaimType;
+import com.griefdefender.api.permission.Context;
+import com.griefdefender.api.permission.option.Option;
+import com.griefdefender.permission.GDPermissionHolder;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+public class OptionValueCacheTest {
+
+    private static final TypeToken<Integer> INTEGER_TYPE = TypeToken.of(Integer.class);
+
+    private final Option<?> option = mock(Option.class);
+    private final ClaimType claimType = mock(ClaimType.class);
+    private final List<GDPermissionHolder> holders = new ArrayList<>();
+    private final List<Claim> claims = new ArrayList<>();
+    private final List<Set<Context>> contextSets = new ArrayList<>();
+
+    public OptionValueCacheTest() {
+        for (int i = 0; i < 6; i++) {
+            final GDPermissionHolder holder = mock(GDPermissionHolder.class);
+            when(holder.getIdentifier()).thenReturn("holder-" + i);
+            this.holders.add(holder);
+        }
+        for (int i = 0; i < 6; i++) {
+            final Claim claim = mock(Claim.class);
+            when(claim.getUniqueId()).thenReturn(new UUID(0, i));
+            when(claim.getType()).thenReturn(this.claimType);
+            this.claims.add(claim);
+        }
+        // Wilderness lookups pass no claim
+        this.claims.add(null);
+        this.contextSets.add(new HashSet<>());
+        this.contextSets.add(ImmutableSet.of(new Context("server", "a")));
+        this.contextSets.add(ImmutableSet.of(new Context("server", "a"), new Context("world", "b")));
+    }
+
+    @Test
+    public void testRandomMutationsNeverReturnStaleValues() {
+        for (long seed = 0; seed < 20; seed++) {
+            this.replay(seed, 3000);
+        }
+    }
+
+    @Test
+    public void testInvalidationBumpsGeneration() {
+        final OptionValueCache cache = new OptionValueCache();
+        final int generation = cache.getGeneration();
+        cache.invalidate(this.holders.get(0));
+        cache.invalidate(this.claims.get(0));
+        cache.invalidateAll();
+        assertEquals(generation + 3, cache.getGeneration());
+
+        cache.invalidate((GDPermissionHolder) null);
+        cache.invalidate((Claim) null);
+        assertEquals(generation + 3, cache.getGeneration());
+    }
+
+    @Test
+    public void testStoredContextsAreCopied() {
+        final OptionValueCache cache = new OptionValueCache();
+        final Set<Context> contexts = new HashSet<>();
+        contexts.add(new Context("server", "a"));
+        cache.put(this.createKey(cache, 0, 0, contexts), 5);
+
+        contexts.add(new Context("world", "b"));
+        assertNull(cache.get(this.createKey(cache, 0, 0, contexts)));
+        assertEquals(Integer.valueOf(5), cache.get(this.createKey(cache, 0, 0, ImmutableSet.of(new Context("server", "a")))).getValue());
+    }
+
+    // Mirrors option storage with a plain map and checks every cache hit against it
+    private void replay(long seed, int operations) {
+        final Random random = new Random(seed);
+        final OptionValueCache cache = new OptionValueCache();
+        final Map<String, Integer> values = new HashMap<>();
+        int hits = 0;
+        for (int i = 0; i < operations; i++) {
+            final int holderIndex = random.nextInt(this.holders.size());
+            final int claimIndex = random.nextInt(this.claims.size());
+            final int action = random.nextInt(20);
+            if (action < 12) {
+                final Set<Context> contexts = this.contextSets.get(random.nextInt(this.contextSets.size()));
+                final OptionValueCache.Key key = this.createKey(cache, holderIndex, claimIndex, contexts);
+                final Integer expected = values.get(valueKey(holderIndex, claimIndex, contexts));
+                final OptionValueCache.CachedValue cached = cache.get(key);
+                if (cached == null) {
+                    cache.put(key, expected);
+                } else {
+                    assertEquals("seed " + seed + " operation " + i, expected, cached.getValue());
+                    hits++;
+                }
+            } else if (action < 16) {
+                // Holder data changed, such as a permission plugin update
+                this.setValue(random, values, holderIndex, -1);
+                cache.invalidate(this.holders.get(holderIndex));
+            } else if (action < 19) {
+                if (this.claims.get(claimIndex) != null) {
+                    // Claim data changed, such as an option set on the claim
+                    this.setValue(random, values, -1, claimIndex);
+                    cache.invalidate(this.claims.get(claimIndex));
+                }
+            } else {
+                this.setValue(random, values, -1, -1);
+                cache.invalidateAll();
+            }
+        }
+        assertTrue(hits > 0);
+    }
+
+    // Changes a random value belonging to the holder and/or claim, -1 matches any
+    private void setValue(Random random, Map<String, Integer> values, int holderIndex, int claimIndex) {
+        final int holder = holderIndex == -1 ? random.nextInt(this.holders.size()) : holderIndex;
+        final int claim = claimIndex == -1 ? random.nextInt(this.claims.size()) : claimIndex;
+        final Set<Context> contexts = this.contextSets.get(random.nextInt(this.contextSets.size()));
+        final int value = random.nextInt(4);
+        // Unset options resolve to null which is cached as well
+        values.put(valueKey(holder, claim, contexts), value == 0 ? null : value);
+    }
+
+    private OptionValueCache.Key createKey(OptionValueCache cache, int holderIndex, int claimIndex, Set<Context> contexts) {
+        return cache.createKey(this.holders.get(holderIndex), this.option, INTEGER_TYPE, this.claims.get(claimIndex), this.claimType, contexts);
+    }
+
+    private static String valueKey(int holderIndex, int claimIndex, Set<Context> contexts) {
+        return holderIndex + "/" + claimIndex + "/" + Objects.hash(contexts);
+    }
+}
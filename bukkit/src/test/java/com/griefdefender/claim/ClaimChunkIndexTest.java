@@ -0,0 +1,156 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import com.griefdefender.api.claim.Claim;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class ClaimChunkIndexTest {
+
+    private static final int CLAIM_COUNT = 16;
+
+    @Test
+    public void testRandomOperationsMatchHashMap() {
+        // Small key ranges force long probe chains, wrap around and backward shifts
+        for (long seed = 0; seed < 20; seed++) {
+            this.replay(seed, 64, 20000);
+            this.replay(seed, 4096, 20000);
+        }
+    }
+
+    @Test
+    public void testClaimsSortedByDepth() {
+        final GDClaim town = mock(GDClaim.class);
+        final GDClaim basic = mock(GDClaim.class);
+        final GDClaim subdivision = mock(GDClaim.class);
+        basic.parent = town;
+        subdivision.parent = basic;
+
+        final ClaimChunkIndex index = new ClaimChunkIndex();
+        assertTrue(index.add(1L, subdivision));
+        assertTrue(index.add(1L, town));
+        assertTrue(index.add(1L, basic));
+        assertFalse(index.add(1L, basic));
+        assertArrayEquals(new GDClaim[] {town, basic, subdivision}, index.get(1L));
+
+        assertTrue(index.remove(1L, basic));
+        assertArrayEquals(new GDClaim[] {town, subdivision}, index.get(1L));
+    }
+
+    @Test
+    public void testReturnedArrayUnaffectedByChanges() {
+        final GDClaim first = mock(GDClaim.class);
+        final GDClaim second = mock(GDClaim.class);
+        final ClaimChunkIndex index = new ClaimChunkIndex();
+        index.add(7L, first);
+        final GDClaim[] claims = index.get(7L);
+        index.add(7L, second);
+        index.remove(7L, first);
+        assertArrayEquals(new GDClaim[] {first}, claims);
+    }
+
+    private void replay(long seed, int keyRange, int operations) {
+        final Random random = new Random(seed);
+        final GDClaim[] claims = new GDClaim[CLAIM_COUNT];
+        for (int i = 0; i < claims.length; i++) {
+            claims[i] = mock(GDClaim.class);
+        }
+        final long[] keyPool = new long[keyRange];
+        for (int i = 0; i < keyPool.length; i++) {
+            // Mix packed chunk coordinates, including negative x and z
+            final int x = random.nextInt(2001) - 1000;
+            final int z = random.nextInt(2001) - 1000;
+            keyPool[i] = (long) x & 0xffffffffL | ((long) z & 0xffffffffL) << 32;
+        }
+
+        final ClaimChunkIndex index = new ClaimChunkIndex();
+        final Map<Long, List<GDClaim>> expected = new HashMap<>();
+        for (int i = 0; i < operations; i++) {
+            final long key = keyPool[random.nextInt(keyPool.length)];
+            final GDClaim claim = claims[random.nextInt(claims.length)];
+            final int op = random.nextInt(10);
+            if (op < 5) {
+                final List<GDClaim> list = expected.computeIfAbsent(key, k -> new ArrayList<>());
+                final boolean added = !list.contains(claim);
+                if (added) {
+                    list.add(claim);
+                }
+                assertEquals("add seed " + seed + " op " + i, added, index.add(key, claim));
+            } else if (op < 9) {
+                final List<GDClaim> list = expected.get(key);
+                final boolean removed = list != null && list.remove(claim);
+                if (list != null && list.isEmpty()) {
+                    expected.remove(key);
+                }
+                assertEquals("remove seed " + seed + " op " + i, removed, index.remove(key, claim));
+            } else if (random.nextInt(200) == 0) {
+                expected.clear();
+                index.clear();
+            }
+
+            if (i % 500 == 0) {
+                this.assertMatches(seed, keyPool, expected, index);
+            }
+        }
+        this.assertMatches(seed, keyPool, expected, index);
+    }
+
+    private void assertMatches(long seed, long[] keyPool, Map<Long, List<GDClaim>> expected, ClaimChunkIndex index) {
+        assertEquals("size seed " + seed, expected.size(), index.size());
+        assertEquals(expected.isEmpty(), index.isEmpty());
+        for (long key : keyPool) {
+            final List<GDClaim> list = expected.get(key);
+            if (list == null) {
+                assertNull("key " + key + " seed " + seed, index.get(key));
+                assertFalse(index.containsKey(key));
+            } else {
+                assertTrue(index.containsKey(key));
+                // All claims share a depth so insertion order is kept
+                assertArrayEquals("key " + key + " seed " + seed, list.toArray(new GDClaim[0]), index.get(key));
+            }
+        }
+
+        final Map<Long, Set<Claim>> map = index.toMap();
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, List<GDClaim>> entry : expected.entrySet()) {
+            assertEquals(new ArrayList<>(new LinkedHashSet<Claim>(entry.getValue())), new ArrayList<>(map.get(entry.getKey())));
+        }
+    }
+}
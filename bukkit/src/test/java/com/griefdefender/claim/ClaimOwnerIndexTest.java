@@ -0,0 +1,317 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import com.griefdefender.api.claim.Claim;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+public class ClaimOwnerIndexTest {
+
+    private static final UUID ADMIN_USER_UUID = new UUID(0, 0);
+
+    private final List<UUID> owners = new ArrayList<>();
+    private final Map<GDClaim, ClaimState> claimStates = new HashMap<>();
+    // Mirrors GDClaimManager.worldClaims
+    private final Set<Claim> worldClaims = new HashSet<>();
+    private ClaimOwnerIndex index;
+
+    @Before
+    public void setUp() {
+        this.index = new ClaimOwnerIndex();
+        for (int i = 0; i < 4; i++) {
+            this.owners.add(UUID.randomUUID());
+        }
+    }
+
+    @Test
+    public void testTransferOwnerMovesClaim() {
+        final UUID first = this.owners.get(0);
+        final UUID second = this.owners.get(1);
+        final GDClaim claim = this.createClaim(first, false, null);
+        this.addClaim(claim);
+        assertEquals(Collections.singleton(claim), this.index.getClaims(first));
+
+        this.transferOwner(claim, second);
+        assertTrue(this.index.getClaims(first).isEmpty());
+        assertEquals(Collections.singleton(claim), this.index.getClaims(second));
+        this.assertMatchesScan();
+    }
+
+    @Test
+    public void testTransferOwnerOfAdminClaim() {
+        final UUID owner = this.owners.get(0);
+        final GDClaim claim = this.createClaim(owner, true, null);
+        this.addClaim(claim);
+        assertTrue(this.index.getClaims(ADMIN_USER_UUID).isEmpty());
+
+        this.transferOwner(claim, owner);
+        assertEquals(Collections.singleton(claim), this.index.getClaims(owner));
+        this.assertMatchesScan();
+    }
+
+    @Test
+    public void testChangeTypeToAndFromAdmin() {
+        final UUID owner = this.owners.get(0);
+        final GDClaim claim = this.createClaim(owner, false, null);
+        this.addClaim(claim);
+
+        this.changeType(claim, true, owner);
+        assertTrue(this.index.getClaims(owner).isEmpty());
+        assertTrue(this.index.getClaims(ADMIN_USER_UUID).isEmpty());
+        this.assertMatchesScan();
+
+        final UUID newOwner = this.owners.get(1);
+        this.changeType(claim, false, newOwner);
+        assertTrue(this.index.getClaims(owner).isEmpty());
+        assertEquals(Collections.singleton(claim), this.index.getClaims(newOwner));
+        this.assertMatchesScan();
+    }
+
+    @Test
+    public void testTownChildrenNotIndexed() {
+        final UUID owner = this.owners.get(0);
+        final UUID member = this.owners.get(1);
+        final GDClaim town = this.createClaim(owner, false, null);
+        this.addClaim(town);
+        final GDClaim child = this.createClaim(member, false, town);
+        this.addClaim(child);
+        assertEquals(Collections.singleton(town), this.index.getClaims(owner));
+        assertTrue(this.index.getClaims(member).isEmpty());
+
+        // Child owner changes go through updateOwnerIndex but stay out of the index
+        this.transferOwner(child, this.owners.get(2));
+        assertTrue(this.index.getClaims(this.owners.get(2)).isEmpty());
+        this.changeType(child, false, member);
+        assertTrue(this.index.getClaims(member).isEmpty());
+        this.assertMatchesScan();
+    }
+
+    @Test
+    public void testTopLevelClaimBecomingChild() {
+        final UUID owner = this.owners.get(0);
+        final GDClaim parent = this.createClaim(owner, false, null);
+        final GDClaim claim = this.createClaim(owner, false, null);
+        this.addClaim(parent);
+        this.addClaim(claim);
+        assertEquals(new HashSet<>(Arrays.asList(parent, claim)), this.index.getClaims(owner));
+
+        this.makeChild(claim, parent);
+        assertEquals(Collections.singleton(parent), this.index.getClaims(owner));
+        this.assertMatchesScan();
+    }
+
+    @Test
+    public void testDeleteAndUnload() {
+        final UUID owner = this.owners.get(0);
+        final GDClaim first = this.createClaim(owner, false, null);
+        final GDClaim second = this.createClaim(owner, false, null);
+        this.addClaim(first);
+        this.addClaim(second);
+
+        this.deleteClaim(first);
+        assertEquals(Collections.singleton(second), this.index.getClaims(owner));
+        this.assertMatchesScan();
+
+        this.unload();
+        assertTrue(this.index.getClaims(owner).isEmpty());
+        this.assertMatchesScan();
+
+        // Claims are indexed again when the world reloads
+        this.addClaim(second);
+        assertEquals(Collections.singleton(second), this.index.getClaims(owner));
+    }
+
+    @Test
+    public void testRandomOperationsMatchScan() {
+        for (int seed = 0; seed < 20; seed++) {
+            this.unload();
+            this.claimStates.clear();
+            final Random random = new Random(seed);
+            final List<GDClaim> claims = new ArrayList<>();
+            for (int step = 0; step < 300; step++) {
+                final GDClaim target = claims.isEmpty() ? null : claims.get(random.nextInt(claims.size()));
+                final UUID owner = this.owners.get(random.nextInt(this.owners.size()));
+                final int op = random.nextInt(100);
+                if (target == null || op < 25) {
+                    final GDClaim claim = this.createClaim(owner, random.nextInt(5) == 0, null);
+                    claims.add(claim);
+                    this.addClaim(claim);
+                } else if (op < 35) {
+                    final GDClaim child = this.createClaim(owner, random.nextInt(5) == 0, target);
+                    claims.add(child);
+                    this.addClaim(child);
+                } else if (op < 40) {
+                    if (target.parent == null) {
+                        final GDClaim parent = claims.get(random.nextInt(claims.size()));
+                        if (parent != target && parent.parent == null) {
+                            this.makeChild(target, parent);
+                        }
+                    }
+                } else if (op < 55) {
+                    this.transferOwner(target, owner);
+                } else if (op < 70) {
+                    this.changeType(target, random.nextBoolean(), owner);
+                } else if (op < 85) {
+                    this.deleteClaim(target);
+                    claims.remove(target);
+                } else if (op < 95) {
+                    // Re-adding an indexed claim, as on a reload of its data
+                    if (target.parent == null && this.worldClaims.contains(target)) {
+                        this.addClaim(target);
+                    }
+                } else if (op < 97) {
+                    this.unload();
+                    claims.clear();
+                }
+                this.assertMatchesScan();
+            }
+        }
+    }
+
+    private GDClaim createClaim(UUID owner, boolean admin, GDClaim parent) {
+        final GDClaim claim = mock(GDClaim.class, withSettings().stubOnly());
+        final UUID uniqueId = UUID.randomUUID();
+        claim.parent = parent;
+        claim.children = new HashSet<>();
+        final ClaimState state = new ClaimState(owner, admin);
+        this.claimStates.put(claim, state);
+        when(claim.getUniqueId()).thenReturn(uniqueId);
+        when(claim.isAdminClaim()).thenAnswer(invocation -> state.admin);
+        when(claim.getOwnerUniqueId()).thenAnswer(invocation -> state.admin ? ADMIN_USER_UUID : state.owner);
+        return claim;
+    }
+
+    // GDClaimManager.addClaim
+    private void addClaim(GDClaim claim) {
+        if (claim.parent != null) {
+            claim.parent.children.add(claim);
+            this.worldClaims.remove(claim);
+            this.index.remove(claim);
+            return;
+        }
+        this.worldClaims.add(claim);
+        this.index.add(claim);
+    }
+
+    // GDClaimManager.removeClaimData followed by addClaim under the new parent
+    private void makeChild(GDClaim claim, GDClaim parent) {
+        this.worldClaims.remove(claim);
+        this.index.remove(claim);
+        claim.parent = parent;
+        this.addClaim(claim);
+    }
+
+    // GDClaimManager.deleteClaimInternal
+    private void deleteClaim(GDClaim claim) {
+        this.worldClaims.remove(claim);
+        this.index.remove(claim);
+    }
+
+    // GDClaimManager.unload
+    private void unload() {
+        this.worldClaims.clear();
+        this.index.clear();
+    }
+
+    // GDClaim.transferOwner, admin claims are converted to basic
+    private void transferOwner(GDClaim claim, UUID owner) {
+        final ClaimState state = this.claimStates.get(claim);
+        state.admin = false;
+        state.owner = owner;
+        this.updateOwnerIndex(claim);
+    }
+
+    // GDClaim.changeType, the owner is kept when switching to admin
+    private void changeType(GDClaim claim, boolean admin, UUID owner) {
+        final ClaimState state = this.claimStates.get(claim);
+        state.admin = admin;
+        if (!admin) {
+            state.owner = owner;
+        }
+        this.updateOwnerIndex(claim);
+    }
+
+    // GDClaimManager.updateOwnerIndex
+    private void updateOwnerIndex(GDClaim claim) {
+        if (this.worldClaims.contains(claim)) {
+            this.index.add(claim);
+        } else {
+            this.index.remove(claim);
+        }
+    }
+
+    private void assertMatchesScan() {
+        final Map<UUID, Set<Claim>> scan = this.scanWorldClaims();
+        final List<UUID> uniqueIds = new ArrayList<>(this.owners);
+        uniqueIds.add(ADMIN_USER_UUID);
+        for (UUID owner : uniqueIds) {
+            assertEquals(scan.getOrDefault(owner, Collections.emptySet()), this.index.getClaims(owner));
+        }
+    }
+
+    // The worldClaims scan createPlayerClaimList used before the index,
+    // grouped by owner so every player is checked in one pass
+    private Map<UUID, Set<Claim>> scanWorldClaims() {
+        final Map<UUID, Set<Claim>> claimLists = new HashMap<>();
+        for (Claim claim : this.worldClaims) {
+            final GDClaim gdClaim = (GDClaim) claim;
+            if (gdClaim.isAdminClaim()) {
+                continue;
+            }
+            final UUID ownerUniqueId = gdClaim.parent != null ? gdClaim.parent.getOwnerUniqueId() : gdClaim.getOwnerUniqueId();
+            claimLists.computeIfAbsent(ownerUniqueId, k -> new HashSet<>()).add(claim);
+        }
+        return claimLists;
+    }
+
+    private static class ClaimState {
+
+        private UUID owner;
+        private boolean admin;
+
+        private ClaimState(UUID owner, boolean admin) {
+            this.owner = owner;
+            this.admin = admin;
+        }
+    }
+}
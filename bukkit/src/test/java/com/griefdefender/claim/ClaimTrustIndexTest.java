@@ -0,0 +1,174 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.griefdefender.api.claim.TrustType;
+import com.griefdefender.api.claim.TrustTypes;
+import com.griefdefender.configuration.IClaimData;
+import com.griefdefender.registry.TrustTypeRegistryModule;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+public class ClaimTrustIndexTest {
+
+    private static final int USER_COUNT = 8;
+
+    private final List<UUID> users = new ArrayList<>();
+    private List<UUID> accessors = new ArrayList<>();
+    private List<UUID> containers = new ArrayList<>();
+    private List<UUID> builders = new ArrayList<>();
+    private List<UUID> managers = new ArrayList<>();
+    private ClaimTrustIndex index;
+
+    @BeforeClass
+    public static void registerTrustTypes() {
+        TrustTypeRegistryModule.getInstance().registerDefaults();
+    }
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < USER_COUNT; i++) {
+            this.users.add(new UUID(0, i));
+        }
+        final IClaimData data = mock(IClaimData.class);
+        when(data.getAccessors()).thenAnswer(invocation -> this.accessors);
+        when(data.getContainers()).thenAnswer(invocation -> this.containers);
+        when(data.getBuilders()).thenAnswer(invocation -> this.builders);
+        when(data.getManagers()).thenAnswer(invocation -> this.managers);
+        final GDClaim claim = mock(GDClaim.class);
+        when(claim.getInternalClaimData()).thenReturn(data);
+        this.index = new ClaimTrustIndex(claim);
+    }
+
+    @Test
+    public void testRandomTrustChangesMatchListScan() {
+        final Random random = new Random(0);
+        for (int i = 0; i < 500; i++) {
+            final List<UUID> list = this.getList(random.nextInt(4));
+            final UUID uuid = this.users.get(random.nextInt(USER_COUNT));
+            switch (random.nextInt(5)) {
+                case 0:
+                case 1:
+                    if (!list.contains(uuid)) {
+                        list.add(uuid);
+                    }
+                    this.index.invalidate();
+                    break;
+                case 2:
+                case 3:
+                    list.remove(uuid);
+                    this.index.invalidate();
+                    break;
+                default:
+                    // Reloaded claim data replaces the lists without invalidating
+                    this.replaceLists();
+                    break;
+            }
+            this.assertMatchesListScan();
+        }
+    }
+
+    @Test
+    public void testHigherTrustImpliesLower() {
+        final UUID user = this.users.get(0);
+        this.builders.add(user);
+        assertTrue(this.index.hasTrust(user, TrustTypes.ACCESSOR));
+        assertTrue(this.index.hasTrust(user, TrustTypes.CONTAINER));
+        assertTrue(this.index.hasTrust(user, TrustTypes.BUILDER));
+        assertFalse(this.index.hasTrust(user, TrustTypes.MANAGER));
+        assertFalse(this.index.hasTrust(user, TrustTypes.NONE));
+        assertFalse(this.index.hasTrust(this.users.get(1), TrustTypes.ACCESSOR));
+    }
+
+    @Test
+    public void testSnapshotKeptUntilInvalidated() {
+        final UUID user = this.users.get(0);
+        assertFalse(this.index.hasTrust(user, TrustTypes.MANAGER));
+
+        // Lists mutated in place are only seen after invalidation
+        this.managers.add(user);
+        assertFalse(this.index.hasTrust(user, TrustTypes.MANAGER));
+        this.index.invalidate();
+        assertTrue(this.index.hasTrust(user, TrustTypes.MANAGER));
+
+        this.managers = new ArrayList<>();
+        assertFalse(this.index.hasTrust(user, TrustTypes.MANAGER));
+    }
+
+    private void assertMatchesListScan() {
+        for (UUID uuid : this.users) {
+            for (TrustType type : Arrays.asList(TrustTypes.NONE, TrustTypes.ACCESSOR, TrustTypes.CONTAINER, TrustTypes.BUILDER, TrustTypes.MANAGER)) {
+                assertEquals(uuid + " " + type, this.isTrustedByListScan(uuid, type), this.index.hasTrust(uuid, type));
+            }
+        }
+    }
+
+    // The list checks isUserTrusted ran before the index
+    private boolean isTrustedByListScan(UUID uuid, TrustType type) {
+        if (type == TrustTypes.ACCESSOR) {
+            return this.accessors.contains(uuid) || this.builders.contains(uuid) || this.containers.contains(uuid) || this.managers.contains(uuid);
+        } else if (type == TrustTypes.BUILDER) {
+            return this.builders.contains(uuid) || this.managers.contains(uuid);
+        } else if (type == TrustTypes.CONTAINER) {
+            return this.containers.contains(uuid) || this.builders.contains(uuid) || this.managers.contains(uuid);
+        } else if (type == TrustTypes.MANAGER) {
+            return this.managers.contains(uuid);
+        }
+        return false;
+    }
+
+    private List<UUID> getList(int index) {
+        switch (index) {
+            case 0:
+                return this.accessors;
+            case 1:
+                return this.containers;
+            case 2:
+                return this.builders;
+            default:
+                return this.managers;
+        }
+    }
+
+    private void replaceLists() {
+        this.accessors = new ArrayList<>(this.containers);
+        this.containers = new ArrayList<>(this.builders);
+        this.builders = new ArrayList<>(this.managers);
+        this.managers = new ArrayList<>(this.accessors.subList(0, this.accessors.size() / 2));
+    }
+}
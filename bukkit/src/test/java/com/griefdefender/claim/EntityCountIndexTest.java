@@ -0,0 +1,216 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.griefdefender.util.BlockUtil;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+public class EntityCountIndexTest {
+
+    private final Map<Long, Chunk> loadedChunks = new HashMap<>();
+    private final Map<Chunk, List<Entity>> chunkEntities = new HashMap<>();
+    private final Set<Long> claimLoadedChunks = new HashSet<>();
+    private int currentTick;
+    private EntityCountIndex index;
+    private GDClaim claim;
+    private Chunk first;
+    private Chunk second;
+
+    @Before
+    public void setUp() {
+        this.index = new EntityCountIndex(this.loadedChunks::get, () -> this.currentTick);
+        this.first = this.loadChunk(0, 0);
+        this.second = this.loadChunk(1, 0);
+        this.claim = mock(GDClaim.class);
+        this.claimLoadedChunks.addAll(Arrays.asList(chunkKey(0, 0), chunkKey(1, 0)));
+        when(this.claim.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(this.claim.getLoadedChunkHashes()).thenReturn(this.claimLoadedChunks);
+    }
+
+    @Test
+    public void testSpawnsTrackedWithoutRecount() {
+        this.addEntity(this.first, EntityType.ZOMBIE);
+        this.addEntity(this.second, EntityType.COW);
+        assertEquals(1, this.index.countEntities(this.claim, EntityType.ZOMBIE, 10));
+
+        final Entity zombie = this.addEntity(this.second, EntityType.ZOMBIE);
+        this.index.onEntitySpawn(zombie, location(1, 0));
+        assertEquals(2, this.index.countEntities(this.claim, EntityType.ZOMBIE, 10));
+        assertEquals(1, this.index.countEntities(this.claim, EntityType.COW, 10));
+        verify(this.first, times(1)).getEntities();
+        verify(this.second, times(1)).getEntities();
+    }
+
+    @Test
+    public void testMissedRemovalRecountedBeforeLimit() {
+        final Entity zombie = this.addEntity(this.first, EntityType.ZOMBIE);
+        this.addEntity(this.first, EntityType.ZOMBIE);
+        assertEquals(2, this.index.countEntities(this.claim, EntityType.ZOMBIE, 10));
+
+        // Despawned without an event
+        this.chunkEntities.get(this.first).remove(zombie);
+        assertEquals(2, this.index.countEntities(this.claim, EntityType.ZOMBIE, 10));
+        assertEquals(1, this.index.countEntities(this.claim, EntityType.ZOMBIE, 2));
+        assertEquals(1, this.index.countEntities(this.claim, EntityType.ZOMBIE, 10));
+    }
+
+    @Test
+    public void testLimitRecountRateLimited() {
+        final Entity zombie = this.addEntity(this.first, EntityType.ZOMBIE);
+        this.addEntity(this.second, EntityType.ZOMBIE);
+        assertEquals(2, this.index.countEntities(this.claim, EntityType.ZOMBIE, 2));
+        assertEquals(2, this.index.countEntities(this.claim, EntityType.ZOMBIE, 2));
+        assertEquals(2, this.index.countEntities(this.claim, EntityType.ZOMBIE, 2));
+        // Counted once, then recounted once at the limit
+        verify(this.first, times(2)).getEntities();
+        verify(this.second, times(2)).getEntities();
+
+        // Despawned without an event, trusted until the interval passes
+        this.chunkEntities.get(this.first).remove(zombie);
+        this.currentTick += EntityCountIndex.RECONCILE_INTERVAL_TICKS - 1;
+        assertEquals(2, this.index.countEntities(this.claim, EntityType.ZOMBIE, 2));
+        this.currentTick++;
+        assertEquals(1, this.index.countEntities(this.claim, EntityType.ZOMBIE, 2));
+        verify(this.first, times(3)).getEntities();
+    }
+
+    @Test
+    public void testLimitRecountTrackedPerType() {
+        this.addEntity(this.first, EntityType.ZOMBIE);
+        this.addEntity(this.first, EntityType.COW);
+        assertEquals(1, this.index.countEntities(this.claim, EntityType.ZOMBIE, 1));
+        assertEquals(1, this.index.countEntities(this.claim, EntityType.COW, 1));
+        assertEquals(1, this.index.countEntities(this.claim, EntityType.ZOMBIE, 1));
+        verify(this.first, times(3)).getEntities();
+
+        this.index.onClaimDelete(this.claim);
+        assertEquals(1, this.index.countEntities(this.claim, EntityType.ZOMBIE, 1));
+        verify(this.first, times(4)).getEntities();
+    }
+
+    @Test
+    public void testNoLimitNeverRecounts() {
+        final Entity zombie = this.addEntity(this.first, EntityType.ZOMBIE);
+        assertEquals(1, this.index.countEntities(this.claim, EntityType.ZOMBIE, -1));
+        this.chunkEntities.get(this.first).remove(zombie);
+        assertEquals(1, this.index.countEntities(this.claim, EntityType.ZOMBIE, -1));
+        verify(this.first, times(1)).getEntities();
+    }
+
+    @Test
+    public void testStaleCountsRecounted() {
+        final Entity zombie = this.addEntity(this.first, EntityType.ZOMBIE);
+        assertEquals(1, this.index.countEntities(this.claim, EntityType.ZOMBIE, -1));
+
+        // Walked out of the claim
+        this.chunkEntities.get(this.first).remove(zombie);
+        this.currentTick += EntityCountIndex.RECONCILE_INTERVAL_TICKS - 1;
+        assertEquals(1, this.index.countEntities(this.claim, EntityType.ZOMBIE, -1));
+        this.currentTick++;
+        assertEquals(0, this.index.countEntities(this.claim, EntityType.ZOMBIE, -1));
+    }
+
+    @Test
+    public void testRemoveAndTeleportAdjustCounts() {
+        final Entity zombie = this.addEntity(this.first, EntityType.ZOMBIE);
+        final Entity cow = this.addEntity(this.first, EntityType.COW);
+        assertEquals(1, this.index.countEntities(this.claim, EntityType.ZOMBIE, -1));
+
+        this.index.onEntityRemove(zombie, location(0, 0));
+        this.index.onEntityRemove(zombie, location(0, 0));
+        assertEquals(0, this.index.countEntities(this.claim, EntityType.ZOMBIE, -1));
+
+        // Teleported out of the claim
+        this.index.onEntityRemove(cow, location(0, 0));
+        this.index.onEntitySpawn(cow, location(5, 5));
+        assertEquals(0, this.index.countEntities(this.claim, EntityType.COW, -1));
+    }
+
+    @Test
+    public void testUnloadedChunksIgnored() {
+        this.addEntity(this.first, EntityType.ZOMBIE);
+        this.addEntity(this.second, EntityType.ZOMBIE);
+        assertEquals(2, this.index.countEntities(this.claim, EntityType.ZOMBIE, -1));
+
+        this.loadedChunks.remove(chunkKey(1, 0));
+        this.claimLoadedChunks.remove(chunkKey(1, 0));
+        this.index.onChunkUnload(this.second);
+        assertEquals(1, this.index.countEntities(this.claim, EntityType.ZOMBIE, -1));
+
+        this.loadedChunks.put(chunkKey(1, 0), this.second);
+        this.claimLoadedChunks.add(chunkKey(1, 0));
+        this.index.onChunkLoad(this.second);
+        assertEquals(2, this.index.countEntities(this.claim, EntityType.ZOMBIE, -1));
+        // Unloaded chunks of the claim are never looked up
+        verify(this.claim, never()).getChunkHashes();
+    }
+
+    private Chunk loadChunk(int x, int z) {
+        final Chunk chunk = mock(Chunk.class);
+        final List<Entity> entities = new ArrayList<>();
+        when(chunk.getX()).thenReturn(x);
+        when(chunk.getZ()).thenReturn(z);
+        when(chunk.getEntities()).thenAnswer(invocation -> entities.toArray(new Entity[0]));
+        this.loadedChunks.put(chunkKey(x, z), chunk);
+        this.chunkEntities.put(chunk, entities);
+        return chunk;
+    }
+
+    private Entity addEntity(Chunk chunk, EntityType type) {
+        final Entity entity = mock(Entity.class);
+        when(entity.getType()).thenReturn(type);
+        this.chunkEntities.get(chunk).add(entity);
+        return entity;
+    }
+
+    private static long chunkKey(int x, int z) {
+        return BlockUtil.getInstance().asLong(x, z);
+    }
+
+    private static Location location(int chunkX, int chunkZ) {
+        return new Location(null, (chunkX << 4) + 8, 64, (chunkZ << 4) + 8);
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.flowpowered.math.vector.Vector3i;
+import com.griefdefender.GriefDefenderPlugin;
+import com.griefdefender.api.claim.Claim;
+import com.griefdefender.api.claim.ClaimResult;
+import com.griefdefender.api.claim.ClaimResultType;
+import com.griefdefender.api.claim.ClaimType;
+import com.griefdefender.api.claim.ClaimTypes;
+import com.griefdefender.storage.BaseStorage;
+import org.bukkit.World;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Compares {@link GDClaim#doesClaimOverlap()} and {@link GDClaim#checkArea(boolean)}
+ * with the scan they replaced, which visited every claim of every chunk and
+ * confirmed each one by a linear search of the world claims.
+ */
+public class GDClaimOverlapTest {
+
+    private final World world = mock(World.class);
+    private final GDClaimManager claimManager = mock(GDClaimManager.class);
+    private final Set<Claim> worldClaims = new HashSet<>();
+    private ClaimChunkIndex chunkIndex;
+    private BaseStorage previousDataStore;
+
+    @Before
+    public void setUp() {
+        when(this.world.getName()).thenReturn("world");
+        when(this.world.getUID()).thenReturn(new UUID(0, 1));
+        final BaseStorage dataStore = mock(BaseStorage.class);
+        when(dataStore.getClaimWorldManager(any())).thenReturn(this.claimManager);
+        this.previousDataStore = GriefDefenderPlugin.getInstance().dataStore;
+        GriefDefenderPlugin.getInstance().dataStore = dataStore;
+
+        final GDClaim wilderness = new GDClaim(this.world, new Vector3i(-30000000, 0, -30000000), new Vector3i(30000000, 255, 30000000), UUID.randomUUID(),
+                ClaimTypes.WILDERNESS, null, false);
+        when(this.claimManager.getWildernessClaim()).thenReturn(wilderness);
+        when(this.claimManager.getChunkIfLoaded(anyInt(), anyInt())).thenReturn(null);
+        when(this.claimManager.getWorldClaims()).thenReturn(this.worldClaims);
+        when(this.claimManager.getChunksToClaimsIndex()).thenAnswer(invocation -> this.chunkIndex);
+        this.chunkIndex = new ClaimChunkIndex();
+    }
+
+    @After
+    public void tearDown() {
+        GriefDefenderPlugin.getInstance().dataStore = this.previousDataStore;
+    }
+
+    @Test
+    public void testRandomLayoutsMatchChunkScan() {
+        int overlapping = 0;
+        int enclosing = 0;
+        for (long seed = 0; seed < 200; seed++) {
+            final Random random = new Random(seed);
+            this.worldClaims.clear();
+            this.chunkIndex = new ClaimChunkIndex();
+            final List<GDClaim> claims = new ArrayList<>();
+            for (int i = 0; i < 25; i++) {
+                final GDClaim claim = this.randomClaim(random);
+                claims.add(claim);
+                // Some chunk entries point at claims that no longer exist
+                this.addClaim(claim, random.nextInt(10) != 0);
+            }
+
+            final GDClaim checked;
+            if (random.nextBoolean()) {
+                checked = this.randomClaim(random);
+            } else {
+                // Resizing a claim that is already indexed
+                checked = claims.get(random.nextInt(claims.size()));
+                final GDClaim resized = this.randomClaim(random);
+                checked.lesserBoundaryCorner = resized.lesserBoundaryCorner;
+                checked.greaterBoundaryCorner = resized.greaterBoundaryCorner;
+            }
+
+            final String message = "seed=" + seed;
+            final ClaimResult expectedOverlap = this.doesClaimOverlapByChunkScan(checked);
+            assertResult(message, expectedOverlap, checked.doesClaimOverlap());
+            final ClaimResult expectedArea = this.checkAreaByChunkScan(checked);
+            assertResult(message, expectedArea, checked.checkArea(false));
+            assertResult(message, expectedArea, checked.checkArea(true));
+            if (expectedArea.getResultType() == ClaimResultType.OVERLAPPING_CLAIM) {
+                overlapping++;
+            } else if (expectedArea.getClaims().size() > 1) {
+                enclosing++;
+            }
+        }
+        // Both result types must be covered, including claims enclosing others
+        assertTrue(overlapping > 0);
+        assertTrue(enclosing > 0);
+    }
+
+    @Test
+    public void testClaimSpanningChunkBandsReportedOnce() {
+        // Crosses five chunks along x and overlaps the long claim in each of them
+        final GDClaim longClaim = this.createClaim(ClaimTypes.BASIC, 0, 0, 79, 3);
+        this.addClaim(longClaim, true);
+        final GDClaim crossing = this.createClaim(ClaimTypes.BASIC, 2, -10, 70, 1);
+
+        final ClaimResult result = crossing.doesClaimOverlap();
+        assertEquals(ClaimResultType.OVERLAPPING_CLAIM, result.getResultType());
+        assertEquals(Arrays.asList(longClaim), result.getClaims());
+        assertResult("crossing", this.checkAreaByChunkScan(crossing), crossing.checkArea(false));
+    }
+
+    @Test
+    public void testInsideClaims() {
+        final GDClaim basic = this.createClaim(ClaimTypes.BASIC, 20, 20, 40, 40);
+        this.addClaim(basic, true);
+
+        // A basic claim can not enclose another basic claim
+        final GDClaim basicAround = this.createClaim(ClaimTypes.BASIC, 0, 0, 60, 60);
+        assertEquals(ClaimResultType.SUCCESS, basicAround.doesClaimOverlap().getResultType());
+        assertEquals(ClaimResultType.OVERLAPPING_CLAIM, basicAround.checkArea(false).getResultType());
+
+        // An admin claim encloses it
+        final GDClaim adminAround = this.createClaim(ClaimTypes.ADMIN, 0, 0, 60, 60);
+        final ClaimResult result = adminAround.checkArea(false);
+        assertEquals(ClaimResultType.SUCCESS, result.getResultType());
+        assertEquals(Arrays.asList(adminAround, basic), result.getClaims());
+
+        // A basic claim inside an existing one may not be created there either
+        final GDClaim basicInside = this.createClaim(ClaimTypes.BASIC, 25, 25, 30, 30);
+        assertEquals(ClaimResultType.OVERLAPPING_CLAIM, basicInside.checkArea(false).getResultType());
+    }
+
+    @Test
+    public void testDisjointAndMissingClaimsIgnored() {
+        // Shares a chunk but not any blocks
+        this.addClaim(this.createClaim(ClaimTypes.BASIC, 0, 0, 5, 5), true);
+        // Indexed but no longer in the world claims
+        this.addClaim(this.createClaim(ClaimTypes.BASIC, 8, 0, 12, 5), false);
+
+        final GDClaim claim = this.createClaim(ClaimTypes.BASIC, 7, 0, 14, 14);
+        assertEquals(ClaimResultType.SUCCESS, claim.checkArea(false).getResultType());
+        assertEquals(Arrays.asList(claim), claim.checkArea(false).getClaims());
+    }
+
+    private ClaimResult doesClaimOverlapByChunkScan(GDClaim claim) {
+        for (long chunkHash : claim.getChunkHashes(true)) {
+            final GDClaim[] claimsInChunk = this.chunkIndex.get(chunkHash);
+            if (claimsInChunk == null) {
+                continue;
+            }
+            for (GDClaim chunkClaim : claimsInChunk) {
+                if (claim.isBandingAcross(chunkClaim) || chunkClaim.isBandingAcross(claim)) {
+                    return new GDClaimResult(chunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
+                }
+            }
+        }
+        return new GDClaimResult(claim, ClaimResultType.SUCCESS);
+    }
+
+    private ClaimResult checkAreaByChunkScan(GDClaim claim) {
+        final List<Claim> claimsInArea = new ArrayList<>();
+        claimsInArea.add(claim);
+        for (long chunkHash : claim.getChunkHashes(true)) {
+            final GDClaim[] claimsInChunk = this.chunkIndex.get(chunkHash);
+            if (claimsInChunk == null) {
+                continue;
+            }
+            for (GDClaim chunkClaim : claimsInChunk) {
+                if (chunkClaim.equals(claim) || claimsInArea.contains(chunkClaim)) {
+                    continue;
+                }
+                if (claim.isAdminClaim() && chunkClaim.isAdminClaim() && chunkClaim.parent != null && chunkClaim.parent.equals(claim)) {
+                    continue;
+                }
+                boolean claimExists = false;
+                for (Claim worldClaim : this.worldClaims) {
+                    if (worldClaim.getUniqueId().equals(chunkClaim.getUniqueId())) {
+                        claimExists = true;
+                        break;
+                    }
+                }
+                if (!claimExists) {
+                    continue;
+                }
+                if (claim.isBandingAcross(chunkClaim) || chunkClaim.isBandingAcross(claim)) {
+                    return new GDClaimResult(chunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
+                }
+                if (chunkClaim.isInside(claim)) {
+                    if (!claim.isAdminClaim()) {
+                        if (claim.getType().equals(chunkClaim.getType()) || chunkClaim.isAdminClaim()) {
+                            return new GDClaimResult(chunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
+                        }
+                    }
+                    if (!claim.canEnclose(chunkClaim)) {
+                        return new GDClaimResult(chunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
+                    }
+                    if (!claim.isSubdivision()) {
+                        claimsInArea.add(chunkClaim);
+                    }
+                } else if (claim.isInside(chunkClaim)) {
+                    if (!chunkClaim.canEnclose(claim)) {
+                        return new GDClaimResult(chunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
+                    }
+                }
+            }
+        }
+        return new GDClaimResult(claimsInArea, ClaimResultType.SUCCESS);
+    }
+
+    private GDClaim randomClaim(Random random) {
+        final int x = random.nextInt(240) - 120;
+        final int z = random.nextInt(240) - 120;
+        // Mostly small claims, with some spanning several chunk bands
+        final int maxSize = random.nextInt(4) == 0 ? 120 : 30;
+        final GDClaim claim = this.createClaim(random.nextInt(3) == 0 ? ClaimTypes.ADMIN : ClaimTypes.BASIC, x, z, x + random.nextInt(maxSize),
+                z + random.nextInt(maxSize));
+        if (random.nextInt(5) == 0) {
+            // 3D claim covering part of the height
+            final int y = random.nextInt(200);
+            claim.cuboid = true;
+            claim.lesserBoundaryCorner = new Vector3i(claim.lesserBoundaryCorner.getX(), y, claim.lesserBoundaryCorner.getZ());
+            claim.greaterBoundaryCorner = new Vector3i(claim.greaterBoundaryCorner.getX(), y + random.nextInt(50), claim.greaterBoundaryCorner.getZ());
+        }
+        return claim;
+    }
+
+    private GDClaim createClaim(ClaimType type, int minX, int minZ, int maxX, int maxZ) {
+        return new GDClaim(this.world, new Vector3i(minX, 0, minZ), new Vector3i(maxX, 255, maxZ), UUID.randomUUID(), type, null, false);
+    }
+
+    private void addClaim(GDClaim claim, boolean exists) {
+        for (long chunkHash : claim.getChunkHashes(true)) {
+            this.chunkIndex.add(chunkHash, claim);
+        }
+        if (exists) {
+            this.worldClaims.add(claim);
+        }
+    }
+
+    private static void assertResult(String message, ClaimResult expected, ClaimResult actual) {
+        assertEquals(message, expected.getResultType(), actual.getResultType());
+        assertEquals(message, expected.getClaims(), actual.getClaims());
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.griefdefender.api.claim.Claim;
+import com.griefdefender.configuration.IClaimData;
+import com.griefdefender.internal.tracking.chunk.GDChunk;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+public class WorldSaveQueueTest {
+
+    private final Map<UUID, Claim> claimsById = new HashMap<>();
+    private WorldSaveQueue queue;
+
+    @Before
+    public void setUp() {
+        this.queue = new WorldSaveQueue();
+    }
+
+    @Test
+    public void unchangedClaimIsNeverSaved() {
+        final GDClaim claim = this.addClaim(false);
+
+        this.queue.markClaimDirty(claim);
+        assertEquals(0, this.queue.getQueuedClaimCount());
+        assertEquals(0, this.queue.saveClaims(this.claimsById));
+        verify(claim, never()).save();
+    }
+
+    @Test
+    public void dirtyClaimIsSavedOnce() {
+        final GDClaim claim = this.addClaim(true);
+        // save() clears the flag like GDClaim does
+        final IClaimData data = claim.getInternalClaimData();
+        doAnswer(invocation -> {
+            when(data.requiresSave()).thenReturn(false);
+            return null;
+        }).when(claim).save();
+
+        this.queue.markClaimDirty(claim);
+        this.queue.markClaimDirty(claim);
+        assertEquals(1, this.queue.saveClaims(this.claimsById));
+        assertEquals(0, this.queue.saveClaims(this.claimsById));
+
+        // Queueing a claim that is clean again does not rewrite it
+        this.queue.markClaimDirty(claim);
+        assertEquals(0, this.queue.saveClaims(this.claimsById));
+        verify(claim, times(1)).save();
+    }
+
+    @Test
+    public void claimCleanedBeforeSaveIsSkipped() {
+        final GDClaim claim = this.addClaim(true);
+
+        this.queue.markClaimDirty(claim);
+        // A parent saved this child since it was queued
+        when(claim.getInternalClaimData().requiresSave()).thenReturn(false);
+        assertEquals(0, this.queue.saveClaims(this.claimsById));
+        verify(claim, never()).save();
+    }
+
+    @Test
+    public void removedClaimIsSkipped() {
+        final GDClaim claim = this.addClaim(true);
+
+        this.queue.markClaimDirty(claim);
+        this.claimsById.remove(claim.getUniqueId());
+        assertEquals(0, this.queue.saveClaims(this.claimsById));
+        verify(claim, never()).save();
+    }
+
+    @Test
+    public void onlyDirtyChunksAreSaved() {
+        final GDChunk clean = this.mockChunk(false, 3);
+        final GDChunk dirty = this.mockChunk(true, 2);
+        final GDChunk dirtyUntracked = this.mockChunk(true, 0);
+
+        assertEquals(1, this.queue.saveChunks(Arrays.asList(clean, dirty, dirtyUntracked)));
+        verify(clean, never()).saveChunkTrackingData();
+        verify(dirty, times(1)).saveChunkTrackingData();
+        verify(dirtyUntracked, never()).saveChunkTrackingData();
+    }
+
+    @Test
+    public void playerIndexOnlyDirtyAfterTrackingChange() {
+        final GDChunk clean = this.mockChunk(false, 3);
+
+        this.queue.saveChunks(Arrays.asList(clean));
+        assertFalse(this.queue.takePlayerIndexDirty());
+
+        this.queue.saveChunks(Arrays.asList(clean, this.mockChunk(true, 1)));
+        assertTrue(this.queue.takePlayerIndexDirty());
+        assertFalse(this.queue.takePlayerIndexDirty());
+
+        // Tracking written to a chunk that unloaded before the save
+        this.queue.markPlayerIndexDirty();
+        assertTrue(this.queue.takePlayerIndexDirty());
+    }
+
+    @Test
+    public void clearDropsPendingWork() {
+        final GDClaim claim = this.addClaim(true);
+
+        this.queue.markClaimDirty(claim);
+        this.queue.markPlayerIndexDirty();
+        this.queue.clear();
+        assertEquals(0, this.queue.saveClaims(this.claimsById));
+        assertFalse(this.queue.takePlayerIndexDirty());
+        verify(claim, never()).save();
+    }
+
+    private GDClaim addClaim(boolean requiresSave) {
+        final GDClaim claim = mock(GDClaim.class);
+        final IClaimData data = mock(IClaimData.class);
+        final UUID uniqueId = UUID.randomUUID();
+        when(claim.getUniqueId()).thenReturn(uniqueId);
+        when(claim.getInternalClaimData()).thenReturn(data);
+        when(data.requiresSave()).thenReturn(requiresSave);
+        this.claimsById.put(uniqueId, claim);
+        return claim;
+    }
+
+    private GDChunk mockChunk(boolean dirty, int trackedPositions) {
+        final GDChunk chunk = mock(GDChunk.class, RETURNS_DEEP_STUBS);
+        when(chunk.isDirty()).thenReturn(dirty);
+        when(chunk.getTrackedShortPlayerPositions().size()).thenReturn(trackedPositions);
+        return chunk;
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.listener;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import com.griefdefender.api.Tristate;
+import com.griefdefender.api.permission.flag.Flag;
+import com.griefdefender.api.permission.flag.Flags;
+import com.griefdefender.claim.GDClaim;
+import com.griefdefender.claim.GDClaimManager;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.event.block.BlockPistonEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Compares {@link PistonEvaluator} with the per-block loop the piston
+ * listeners used before, on random moves across claim borders.
+ *
+ * <p>Claims are bands along x: wilderness below 0, then A, B and C, and
+ * wilderness again from 20. C only reaches up to z 3.</p>
+ */
+public class PistonEvaluatorTest {
+
+    private static final BlockFace[] DIRECTIONS = {BlockFace.NORTH, BlockFace.SOUTH, BlockFace.EAST, BlockFace.WEST, BlockFace.UP, BlockFace.DOWN};
+    private static final Material[] SOLIDS = {Material.STONE, Material.DIRT, Material.SAND};
+
+    private final Map<Long, Block> blocks = new HashMap<>();
+    private final Set<Long> solidPositions = new HashSet<>();
+    private final World world = mock(World.class);
+    private GDClaim wilderness;
+    private GDClaim claimA;
+    private GDClaim claimB;
+    private GDClaim claimC;
+    private GDClaimManager claimManager;
+    private Set<String> deniedPermissions;
+    private int resolverCalls;
+    private int emptyChecks;
+
+    @Before
+    public void setUp() {
+        this.wilderness = createClaim(true);
+        this.claimA = createClaim(false);
+        this.claimB = createClaim(false);
+        this.claimC = createClaim(false);
+        this.claimManager = mock(GDClaimManager.class, withSettings().stubOnly());
+        when(this.claimManager.getClaimAt(anyInt(), anyInt(), anyInt())).thenAnswer(invocation -> this.getClaimAt(invocation.getArgument(0), invocation.getArgument(2)));
+        this.deniedPermissions = new HashSet<>();
+    }
+
+    @Test
+    public void testExtendMatchesPerBlockLoop() {
+        for (long seed = 0; seed < 100; seed++) {
+            final Random random = new Random(seed);
+            this.populateWorld(random);
+            final GDClaim sourceClaim = this.randomClaim(random);
+            final BlockFace direction = DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+            final List<Block> moved = this.randomLine(random, direction);
+            for (boolean pistonProtectionInClaims : new boolean[] {false, true}) {
+                final boolean expected = this.isExtendDeniedPerBlock(moved, direction, sourceClaim, pistonProtectionInClaims);
+                for (boolean groupResults : new boolean[] {false, true}) {
+                    final String message = "seed=" + seed + " protection=" + pistonProtectionInClaims + " grouped=" + groupResults;
+                    assertEquals(message, expected, this.createEvaluator(groupResults).isExtendDenied(this.createEvent(), moved, direction, sourceClaim, null,
+                            pistonProtectionInClaims));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRetractMatchesPerBlockLoop() {
+        for (long seed = 0; seed < 100; seed++) {
+            final Random random = new Random(seed);
+            this.populateWorld(random);
+            final GDClaim sourceClaim = this.randomClaim(random);
+            final List<Block> moved = this.randomLine(random, DIRECTIONS[random.nextInt(DIRECTIONS.length)]);
+            final boolean expected = this.isRetractDeniedPerBlock(moved, sourceClaim);
+            for (boolean groupResults : new boolean[] {false, true}) {
+                assertEquals("seed=" + seed + " grouped=" + groupResults, expected,
+                        this.createEvaluator(groupResults).isRetractDenied(this.createEvent(), moved, sourceClaim, null));
+            }
+        }
+    }
+
+    @Test
+    public void testMoveInsideOwnClaimReadsNoBlocks() {
+        this.solidPositions.add(pos(2, 64, 2));
+        this.solidPositions.add(pos(3, 64, 2));
+        this.denyAll(this.claimA, Flags.BLOCK_PLACE);
+        this.denyAll(this.claimA, Flags.BLOCK_BREAK);
+        final List<Block> moved = this.line(2, 64, 2, BlockFace.EAST, 2);
+
+        assertFalse(this.createEvaluator(true).isExtendDenied(this.createEvent(), moved, BlockFace.EAST, this.claimA, null, false));
+        assertFalse(this.createEvaluator(true).isRetractDenied(this.createEvent(), moved, this.claimA, null));
+        assertEquals(0, this.resolverCalls);
+        assertEquals(0, this.emptyChecks);
+
+        // Piston protection in claims checks the piston's own claim too
+        assertTrue(this.createEvaluator(true).isExtendDenied(this.createEvent(), moved, BlockFace.EAST, this.claimA, null, true));
+    }
+
+    @Test
+    public void testWildernessDestinationsSkipped() {
+        this.solidPositions.add(pos(-3, 64, 0));
+        this.solidPositions.add(pos(-2, 64, 0));
+        this.solidPositions.add(pos(-1, 64, 0));
+        this.denyAll(this.claimA, Flags.BLOCK_PLACE);
+        this.denyAll(this.wilderness, Flags.BLOCK_PLACE);
+        this.denyAll(this.wilderness, Flags.BLOCK_BREAK);
+
+        // Pushed further into the wilderness by a piston in A
+        assertFalse(this.createEvaluator(true).isExtendDenied(this.createEvent(), this.line(-2, 64, 0, BlockFace.WEST, 2), BlockFace.WEST, this.claimA,
+                null, true));
+        assertEquals(0, this.resolverCalls);
+        // Pushed from the wilderness into A
+        assertTrue(this.createEvaluator(true).isExtendDenied(this.createEvent(), this.line(-2, 64, 0, BlockFace.EAST, 2), BlockFace.EAST,
+                this.wilderness, null, false));
+        // Pulled out of the wilderness by a piston in A
+        assertTrue(this.createEvaluator(true).isRetractDenied(this.createEvent(), this.line(-3, 64, 0, BlockFace.EAST, 2), this.claimA, null));
+    }
+
+    @Test
+    public void testAirAndSolidDestinations() {
+        // Pushed across the border from A into B
+        this.solidPositions.add(pos(6, 64, 0));
+        this.solidPositions.add(pos(7, 64, 0));
+        this.denyAll(this.claimB, Flags.BLOCK_BREAK);
+        final List<Block> moved = this.line(6, 64, 0, BlockFace.EAST, 2);
+
+        // Air in B places the pushed block
+        assertFalse(this.createEvaluator(true).isExtendDenied(this.createEvent(), moved, BlockFace.EAST, this.claimA, null, false));
+        this.solidPositions.add(pos(8, 64, 0));
+        // Solid in B breaks the block that is there
+        assertTrue(this.createEvaluator(true).isExtendDenied(this.createEvent(), moved, BlockFace.EAST, this.claimA, null, false));
+    }
+
+    @Test
+    public void testGroupedResultsResolveOncePerClaimAndBlock() {
+        for (int z = 0; z < 5; z++) {
+            this.solidPositions.add(pos(9, 64, z));
+        }
+        final List<Block> moved = this.line(9, 64, 0, BlockFace.SOUTH, 5);
+
+        assertFalse(this.createEvaluator(false).isRetractDenied(this.createEvent(), moved, this.claimA, null));
+        assertEquals(5, this.resolverCalls);
+        this.resolverCalls = 0;
+        assertFalse(this.createEvaluator(true).isRetractDenied(this.createEvent(), moved, this.claimA, null));
+        assertEquals(1, this.resolverCalls);
+    }
+
+    private boolean isExtendDeniedPerBlock(List<Block> moved, BlockFace direction, GDClaim sourceClaim, boolean pistonProtectionInClaims) {
+        for (Block block : moved) {
+            final Block toBlock = this.getBlock(block.getX() + direction.getModX(), block.getY() + direction.getModY(), block.getZ() + direction.getModZ());
+            final GDClaim targetClaim = this.getClaimAt(toBlock.getX(), toBlock.getZ());
+            if (targetClaim.isWilderness()) {
+                continue;
+            }
+            if (!pistonProtectionInClaims && sourceClaim.getUniqueId().equals(targetClaim.getUniqueId())) {
+                continue;
+            }
+            if (this.isSolid(toBlock) ? this.resolve(targetClaim, Flags.BLOCK_BREAK, toBlock) : this.resolve(targetClaim, Flags.BLOCK_PLACE, block)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isRetractDeniedPerBlock(List<Block> moved, GDClaim sourceClaim) {
+        for (Block block : moved) {
+            final GDClaim targetClaim = this.getClaimAt(block.getX(), block.getZ());
+            if (sourceClaim.getUniqueId().equals(targetClaim.getUniqueId())) {
+                continue;
+            }
+            if (this.resolve(targetClaim, this.isSolid(block) ? Flags.BLOCK_BREAK : Flags.BLOCK_PLACE, block)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void denyAll(GDClaim claim, Flag flag) {
+        for (Material type : SOLIDS) {
+            this.deniedPermissions.add(permission(claim, flag, type));
+        }
+    }
+
+    private boolean resolve(GDClaim claim, Flag flag, Block target) {
+        return this.deniedPermissions.contains(permission(claim, flag, target.getType()));
+    }
+
+    private PistonEvaluator createEvaluator(boolean groupResults) {
+        return new PistonEvaluator(world -> this.claimManager, block -> "[facing=" + (block.getY() & 1) + "]", () -> groupResults,
+                (event, location, claim, flag, source, target, user) -> {
+                    this.resolverCalls++;
+                    return this.resolve(claim, flag, target) ? Tristate.FALSE : Tristate.UNDEFINED;
+                });
+    }
+
+    private BlockPistonEvent createEvent() {
+        final Block piston = mock(Block.class, withSettings().stubOnly());
+        when(piston.getWorld()).thenReturn(this.world);
+        final BlockPistonEvent event = mock(BlockPistonEvent.class, withSettings().stubOnly());
+        when(event.getBlock()).thenReturn(piston);
+        return event;
+    }
+
+    private void populateWorld(Random random) {
+        this.solidPositions.clear();
+        this.deniedPermissions.clear();
+        for (int x = -4; x < 24; x++) {
+            for (int y = 60; y < 68; y++) {
+                for (int z = -2; z < 8; z++) {
+                    if (random.nextInt(3) != 0) {
+                        this.solidPositions.add(pos(x, y, z));
+                    }
+                }
+            }
+        }
+        for (GDClaim claim : new GDClaim[] {this.wilderness, this.claimA, this.claimB, this.claimC}) {
+            for (Flag flag : new Flag[] {Flags.BLOCK_PLACE, Flags.BLOCK_BREAK}) {
+                for (Material type : SOLIDS) {
+                    if (random.nextInt(6) == 0) {
+                        this.deniedPermissions.add(permission(claim, flag, type));
+                    }
+                }
+            }
+        }
+    }
+
+    private GDClaim randomClaim(Random random) {
+        final GDClaim[] claims = {this.wilderness, this.claimA, this.claimB, this.claimC};
+        return claims[random.nextInt(claims.length)];
+    }
+
+    private List<Block> randomLine(Random random, BlockFace direction) {
+        return this.line(random.nextInt(26) - 3, 61 + random.nextInt(6), random.nextInt(8) - 1, direction, 1 + random.nextInt(12));
+    }
+
+    private List<Block> line(int x, int y, int z, BlockFace direction, int length) {
+        final List<Block> line = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            line.add(this.getBlock(x + direction.getModX() * i, y + direction.getModY() * i, z + direction.getModZ() * i));
+        }
+        return line;
+    }
+
+    private GDClaim getClaimAt(int x, int z) {
+        if (x < 0 || x >= 20) {
+            return this.wilderness;
+        }
+        if (x < 8) {
+            return this.claimA;
+        }
+        if (x < 14) {
+            return this.claimB;
+        }
+        return z < 4 ? this.claimC : this.wilderness;
+    }
+
+    private boolean isSolid(Block block) {
+        return this.solidPositions.contains(pos(block.getX(), block.getY(), block.getZ()));
+    }
+
+    private Block getBlock(int x, int y, int z) {
+        final long pos = pos(x, y, z);
+        Block block = this.blocks.get(pos);
+        if (block == null) {
+            final Block created = mock(Block.class, withSettings().stubOnly());
+            when(created.getX()).thenReturn(x);
+            when(created.getY()).thenReturn(y);
+            when(created.getZ()).thenReturn(z);
+            when(created.getWorld()).thenReturn(this.world);
+            when(created.getLocation()).thenAnswer(invocation -> new Location(this.world, x, y, z));
+            when(created.isEmpty()).thenAnswer(invocation -> {
+                this.emptyChecks++;
+                return !this.isSolid(created);
+            });
+            // Solid blocks vary along x so several types meet in one move
+            when(created.getType()).thenAnswer(invocation -> this.isSolid(created) ? SOLIDS[Math.floorMod(x, SOLIDS.length)] : Material.AIR);
+            when(created.getRelative(any(BlockFace.class))).thenAnswer(invocation -> {
+                final BlockFace face = invocation.getArgument(0);
+                return this.getBlock(x + face.getModX(), y + face.getModY(), z + face.getModZ());
+            });
+            this.blocks.put(pos, created);
+            block = created;
+        }
+        return block;
+    }
+
+    private static GDClaim createClaim(boolean wilderness) {
+        final GDClaim claim = mock(GDClaim.class, withSettings().stubOnly());
+        when(claim.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(claim.isWilderness()).thenReturn(wilderness);
+        return claim;
+    }
+
+    private static String permission(GDClaim claim, Flag flag, Material type) {
+        return claim.getUniqueId() + ":" + (flag == Flags.BLOCK_PLACE ? "place" : "break") + ":" + type;
+    }
+
+    private static long pos(int x, int y, int z) {
+        return ((long) (x + 1024) << 32) | ((long) (y & 0xffff) << 16) | (z + 1024);
+    }
+}
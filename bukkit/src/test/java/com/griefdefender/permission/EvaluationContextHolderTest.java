@@ -0,0 +1,133 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.permission;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import net.kyori.text.Component;
+import net.kyori.text.TextComponent;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class EvaluationContextHolderTest {
+
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 20000;
+
+    @Test
+    public void testNestedEvaluationRestoresOuter() {
+        final EvaluationContextHolder holder = new EvaluationContextHolder();
+        final PermissionEvaluationContext outer = new PermissionEvaluationContext(null, null, null);
+        final PermissionEvaluationContext inner = new PermissionEvaluationContext(null, null, null);
+        final Component outerMessage = TextComponent.of("outer");
+        outer.setMessage(outerMessage);
+        inner.setMessage(TextComponent.of("inner"));
+
+        final PermissionEvaluationContext outerPrevious = holder.enter(outer);
+        final PermissionEvaluationContext innerPrevious = holder.enter(inner);
+        assertSame(inner, holder.get());
+        holder.exit(innerPrevious, inner);
+        assertSame(outer, holder.get());
+        holder.exit(outerPrevious, outer);
+
+        final PermissionEvaluationContext result = holder.get();
+        assertFalse(result.isEvaluating());
+        assertSame(outerMessage, result.getMessage());
+        assertNull(result.getEvent());
+        assertNull(result.getLocation());
+        assertNull(result.getSubject());
+        assertTrue(result.getContexts().isEmpty());
+    }
+
+    @Test
+    public void testExitRestoresOnException() {
+        final EvaluationContextHolder holder = new EvaluationContextHolder();
+        final PermissionEvaluationContext evaluation = new PermissionEvaluationContext(null, null, null);
+        final PermissionEvaluationContext previous = holder.enter(evaluation);
+        try {
+            throw new IllegalStateException();
+        } catch (IllegalStateException e) {
+            // expected
+        } finally {
+            holder.exit(previous, evaluation);
+        }
+        assertFalse(holder.get().isEvaluating());
+    }
+
+    @Test
+    public void testConcurrentEvaluationsAreIsolated() throws Exception {
+        final EvaluationContextHolder holder = new EvaluationContextHolder();
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final String threadId = "thread" + t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    final PermissionEvaluationContext outer = new PermissionEvaluationContext(null, null, null);
+                    final Component message = TextComponent.of(threadId + ":" + i);
+                    final PermissionEvaluationContext outerPrevious = holder.enter(outer);
+                    outer.setSourceId(threadId);
+                    assertSame(outer, holder.get());
+
+                    final PermissionEvaluationContext inner = new PermissionEvaluationContext(null, null, null);
+                    final PermissionEvaluationContext innerPrevious = holder.enter(inner);
+                    inner.setSourceId(threadId + ":inner");
+                    Thread.yield();
+                    assertSame(inner, holder.get());
+                    holder.exit(innerPrevious, inner);
+
+                    assertSame(outer, holder.get());
+                    assertEquals(threadId, holder.get().getSourceId());
+                    outer.setMessage(message);
+                    holder.exit(outerPrevious, outer);
+
+                    assertFalse(holder.get().isEvaluating());
+                    assertSame(message, holder.get().getMessage());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+        for (Future<?> future : futures) {
+            // Rethrows any assertion failure from the worker thread
+            future.get();
+        }
+    }
+}
@@ -0,0 +1,334 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.permission;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import com.google.common.reflect.TypeToken;
+import com.griefdefender.GriefDefenderPlugin;
+import com.griefdefender.api.Tristate;
+import com.griefdefender.api.claim.Claim;
+import com.griefdefender.api.permission.Context;
+import com.griefdefender.api.permission.flag.Flag;
+import com.griefdefender.api.permission.option.Option;
+import com.griefdefender.cache.FlagDecisionCache;
+import com.griefdefender.cache.MessageCache;
+import com.griefdefender.cache.OptionValueCache;
+import com.griefdefender.cache.PermissionIdentifierCache;
+import com.griefdefender.claim.GDClaim;
+import com.griefdefender.configuration.IClaimData;
+import com.griefdefender.provider.PermissionProvider.PermissionDataType;
+import com.griefdefender.util.PermissionUtil;
+import net.kyori.text.Component;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates flags and options from many threads at once and compares every
+ * result with single threaded evaluation.
+ *
+ * <p>The permission plugin is replaced by a pure function of the holder,
+ * permission and contexts it is asked about. Source and target ids end up in
+ * those contexts and in the flag decision cache keys. Flag overrides also
+ * leave a message on the evaluation, which is read back once it finishes.
+ * Any evaluation state leaking between threads changes one of these.</p>
+ */
+public class GDPermissionManagerConcurrencyTest {
+
+    private static final TypeToken<Integer> INTEGER_TYPE = TypeToken.of(Integer.class);
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 40;
+    // Claim index -> parent index, -1 for top level claims
+    private static final int[] PARENTS = {-1, 0, 0, 2, -1};
+    private static final String[] SOURCES = {"player", "zombie", "minecraft:tnt", "modid:drill", "spawnreason:natural"};
+    private static final String[] TARGETS = {"minecraft:chest", "stone", "cow", "modid:machine"};
+
+    private static GDPermissionGroup previousDefaultHolder;
+    private static GDPermissionGroup previousGdDefaultHolder;
+    private static PermissionUtil previousPermissionUtil;
+    private static Component previousOverrideDenyMessage;
+    private static final Component OVERRIDE_DENY_MESSAGE = mock(Component.class);
+
+    private static final List<GDClaim> claims = new ArrayList<>();
+    private static final List<Flag> flags = new ArrayList<>();
+    private static final List<GDPermissionHolder> holders = new ArrayList<>();
+    private static final List<Option<Integer>> options = new ArrayList<>();
+
+    @BeforeClass
+    @SuppressWarnings("unchecked")
+    public static void setUp() throws Exception {
+        previousDefaultHolder = GriefDefenderPlugin.DEFAULT_HOLDER;
+        previousGdDefaultHolder = GriefDefenderPlugin.GD_DEFAULT_HOLDER;
+        previousPermissionUtil = PermissionUtil.getInstance();
+        previousOverrideDenyMessage = MessageCache.getInstance().PERMISSION_OVERRIDE_DENY;
+        MessageCache.getInstance().PERMISSION_OVERRIDE_DENY = OVERRIDE_DENY_MESSAGE;
+        GriefDefenderPlugin.DEFAULT_HOLDER = new GDPermissionGroup(GriefDefenderPlugin.DEFAULT_GROUP_NAME);
+        GriefDefenderPlugin.GD_DEFAULT_HOLDER = new GDPermissionGroup(GriefDefenderPlugin.GD_DEFAULT_GROUP_NAME);
+
+        final PermissionUtil permissionUtil = mock(PermissionUtil.class, withSettings().stubOnly());
+        when(permissionUtil.getPermissionValue(any(GDClaim.class), any(GDPermissionHolder.class), anyString(), anySet(), any(PermissionDataType.class)))
+                .thenAnswer(invocation -> permissionValue(invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3)));
+        when(permissionUtil.getOptionValue(any(GDPermissionHolder.class), any(Option.class), anySet()))
+                .thenAnswer(invocation -> optionValue(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)));
+        setPermissionUtil(permissionUtil);
+
+        final IClaimData claimData = mock(IClaimData.class, withSettings().stubOnly());
+        when(claimData.allowFlagOverrides()).thenReturn(true);
+        for (int i = 0; i < PARENTS.length; i++) {
+            final GDClaim claim = mock(GDClaim.class, withSettings().stubOnly());
+            final UUID uniqueId = new UUID(0, i);
+            when(claim.getUniqueId()).thenReturn(uniqueId);
+            when(claim.getContext()).thenReturn(new Context("gd_claim", uniqueId.toString()));
+            when(claim.getOverrideClaimContext()).thenReturn(new Context("gd_claim_override", uniqueId.toString()));
+            when(claim.getDefaultTypeContext()).thenReturn(new Context("gd_claim_default", "basic"));
+            when(claim.getWorldContext()).thenReturn(new Context("world", "world"));
+            when(claim.isBasicClaim()).thenReturn(true);
+            when(claim.getInternalClaimData()).thenReturn(claimData);
+            claims.add(claim);
+        }
+        for (int i = 0; i < PARENTS.length; i++) {
+            final List<Claim> parents = new ArrayList<>();
+            for (int parent = PARENTS[i]; parent != -1; parent = PARENTS[parent]) {
+                parents.add(0, claims.get(parent));
+            }
+            when(claims.get(i).getInheritedParents()).thenReturn(parents);
+        }
+        for (String name : new String[] {"block-break", "block-place", "interact-block-secondary", "entity-damage"}) {
+            final Flag flag = mock(Flag.class, withSettings().stubOnly());
+            when(flag.getPermission()).thenReturn("griefdefender.flag." + name);
+            flags.add(flag);
+        }
+        holders.add(GriefDefenderPlugin.DEFAULT_HOLDER);
+        holders.add(new GDPermissionGroup("builders"));
+        holders.add(new GDPermissionGroup("visitors"));
+        for (int i = 0; i < 3; i++) {
+            final Option<Integer> option = mock(Option.class, withSettings().stubOnly());
+            when(option.getDefaultValue()).thenReturn(-1);
+            options.add(option);
+        }
+        clearCaches();
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        GriefDefenderPlugin.DEFAULT_HOLDER = previousDefaultHolder;
+        GriefDefenderPlugin.GD_DEFAULT_HOLDER = previousGdDefaultHolder;
+        setPermissionUtil(previousPermissionUtil);
+        MessageCache.getInstance().PERMISSION_OVERRIDE_DENY = previousOverrideDenyMessage;
+        clearCaches();
+    }
+
+    @Test
+    public void testConcurrentEvaluationMatchesSingleThreaded() throws Exception {
+        final List<Query> queries = new ArrayList<>();
+        for (int claim = 0; claim < claims.size(); claim++) {
+            for (int flag = 0; flag < flags.size(); flag++) {
+                for (int holder = 0; holder < holders.size(); holder++) {
+                    queries.add(new Query(claim, flag, holder, SOURCES[(claim + flag) % SOURCES.length], TARGETS[(flag + holder) % TARGETS.length], false));
+                    queries.add(new Query(claim, flag, holder, SOURCES[(claim + holder + 1) % SOURCES.length], null, false));
+                    queries.add(new Query(claim, flag, holder, SOURCES[(flag + holder) % SOURCES.length], TARGETS[claim % TARGETS.length], true));
+                }
+                queries.add(new Query(claim, flag, -1, SOURCES[flag % SOURCES.length], TARGETS[claim % TARGETS.length], false));
+                queries.add(new Query(claim, flag, -1, SOURCES[claim % SOURCES.length], TARGETS[flag % TARGETS.length], true));
+            }
+            for (int option = 0; option < options.size(); option++) {
+                for (int holder = 0; holder < holders.size(); holder++) {
+                    queries.add(new Query(claim, option, holder));
+                }
+            }
+        }
+
+        final List<Object> expected = new ArrayList<>();
+        final List<Component> expectedMessages = new ArrayList<>();
+        int definedResults = 0;
+        int overrideDenials = 0;
+        for (Query query : queries) {
+            final Object result = query.evaluate();
+            expected.add(result);
+            expectedMessages.add(GDPermissionManager.getInstance().getEventMessage());
+            if (result == Tristate.TRUE || result == Tristate.FALSE) {
+                definedResults++;
+            }
+            if (query.isFlag() && GDPermissionManager.getInstance().getEventMessage() == OVERRIDE_DENY_MESSAGE) {
+                overrideDenials++;
+            }
+        }
+        // Make sure results actually depend on what is evaluated
+        assertTrue(definedResults > 0);
+        assertTrue(overrideDenials > 0);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final Random random = new Random(t);
+            futures.add(executor.submit(() -> {
+                start.await();
+                final List<Integer> order = new ArrayList<>();
+                for (int i = 0; i < queries.size(); i++) {
+                    order.add(i);
+                }
+                for (int round = 0; round < ROUNDS; round++) {
+                    if (random.nextInt(4) == 0) {
+                        // Force evaluations to run again instead of hitting the caches
+                        clearCaches();
+                    }
+                    Collections.shuffle(order, random);
+                    for (int index : order) {
+                        final Query query = queries.get(index);
+                        final Object result = query.evaluate();
+                        // Let other threads start evaluations before the message is read back
+                        Thread.yield();
+                        assertEquals(query.toString(), expected.get(index), result);
+                        if (query.isFlag()) {
+                            assertSame(query.toString(), expectedMessages.get(index), GDPermissionManager.getInstance().getEventMessage());
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(120, TimeUnit.SECONDS));
+        for (Future<?> future : futures) {
+            // Rethrows any assertion failure from the worker thread
+            future.get();
+        }
+    }
+
+    private static Tristate permissionValue(GDPermissionHolder holder, String permission, Set<Context> contexts) {
+        // Let other threads run in the middle of an evaluation
+        Thread.yield();
+        switch (Math.floorMod(describe(holder, permission, contexts).hashCode(), 7)) {
+            case 0:
+                return Tristate.TRUE;
+            case 1:
+                return Tristate.FALSE;
+            default:
+                return Tristate.UNDEFINED;
+        }
+    }
+
+    private static String optionValue(GDPermissionHolder holder, Option<?> option, Set<Context> contexts) {
+        final int value = Math.floorMod(describe(holder, "option-" + options.indexOf(option), contexts).hashCode(), 9);
+        return value < 3 ? String.valueOf(value) : null;
+    }
+
+    private static String describe(GDPermissionHolder holder, String permission, Set<Context> contexts) {
+        final Set<String> sorted = new TreeSet<>();
+        for (Context context : contexts) {
+            sorted.add(context.getKey() + "=" + context.getValue());
+        }
+        return holder.getIdentifier() + "|" + permission + "|" + sorted;
+    }
+
+    private static void clearCaches() {
+        FlagDecisionCache.getInstance().invalidateAll();
+        OptionValueCache.getInstance().invalidateAll();
+        PermissionIdentifierCache.getInstance().invalidateAll();
+    }
+
+    private static void setPermissionUtil(PermissionUtil permissionUtil) throws Exception {
+        final Field field = PermissionUtil.class.getDeclaredField("instance");
+        field.setAccessible(true);
+        field.set(null, permissionUtil);
+    }
+
+    private static final class Query {
+
+        private final int claim;
+        private final int flag;
+        private final int option;
+        private final int holder;
+        private final String source;
+        private final String target;
+        private final boolean checkOverride;
+
+        private Query(int claim, int flag, int holder, String source, String target, boolean checkOverride) {
+            this.claim = claim;
+            this.flag = flag;
+            this.option = -1;
+            this.holder = holder;
+            this.source = source;
+            this.target = target;
+            this.checkOverride = checkOverride;
+        }
+
+        private Query(int claim, int option, int holder) {
+            this.claim = claim;
+            this.flag = -1;
+            this.option = option;
+            this.holder = holder;
+            this.source = null;
+            this.target = null;
+            this.checkOverride = false;
+        }
+
+        private boolean isFlag() {
+            return this.flag != -1;
+        }
+
+        private Object evaluate() {
+            final GDPermissionHolder permissionHolder = this.holder == -1 ? null : holders.get(this.holder);
+            if (this.option != -1) {
+                return GDPermissionManager.getInstance().getInternalOptionValue(INTEGER_TYPE, permissionHolder, options.get(this.option), claims.get(this.claim),
+                        new HashSet<>());
+            }
+            return GDPermissionManager.getInstance().getFinalPermission(null, null, claims.get(this.claim), flags.get(this.flag), this.source, this.target,
+                    permissionHolder, this.checkOverride);
+        }
+
+        @Override
+        public String toString() {
+            return "claim=" + this.claim + " flag=" + this.flag + " option=" + this.option + " holder=" + this.holder + " source=" + this.source
+                    + " target=" + this.target + " checkOverride=" + this.checkOverride;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.permission;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.griefdefender.api.permission.Context;
+import com.griefdefender.api.permission.ContextKeys;
+import com.griefdefender.cache.PermissionIdentifierCache;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class IdentifierContextsTest {
+
+    private static final Pattern BLOCKSTATE_PATTERN = Pattern.compile("(?:\\w+=\\w+,)*\\w+=\\w+", Pattern.MULTILINE);
+    private static final List<String> IDS = Arrays.asList(
+            "minecraft:stone", "minecraft:oak_log", "Minecraft:Creeper", "pixelmon:pixelmon", "mod:Item.Name", "minecraft:minecraft:dirt", "dirt", "a:b:c");
+    private static final List<String> BLOCK_DATA = Arrays.asList(
+            "minecraft:oak_log[axis=y]", "minecraft:chest[facing=north,type=single,waterlogged=false]",
+            "minecraft:slab[type=invalid,waterlogged=true]", "minecraft:stone", "", "minecraft:wheat[age=7]");
+
+    private final Map<String, Set<Context>> tagMap = ImmutableMap.of(
+            "minecraft:oak_log", ImmutableSet.of(new Context("minecraft", "logs"), new Context("minecraft", "logs_that_burn")),
+            "minecraft:stone", ImmutableSet.of(new Context("forge", "stone")));
+
+    @Before
+    public void setUp() {
+        PermissionIdentifierCache.getInstance().invalidateAll();
+    }
+
+    @Test
+    public void testIdContextsMatchUncached() {
+        for (String rawId : IDS) {
+            final String id = rawId.contains(":") ? rawId : "minecraft:" + rawId;
+            for (boolean isSource : new boolean[] {true, false}) {
+                final String expected = serialize(legacyIdContexts(new HashSet<>(), id, isSource, this.tagMap));
+                for (int i = 0; i < 2; i++) {
+                    final Set<Context> cached = PermissionIdentifierCache.getInstance().getIdContexts(id, isSource,
+                            k -> IdentifierContexts.createIdContexts(k, isSource, this.tagMap));
+                    assertEquals(expected, serialize(cached));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBlockStateContextsMatchUncached() {
+        for (String blockData : BLOCK_DATA) {
+            final String expected = serialize(legacyBlockStateContexts(new HashSet<>(), blockData));
+            for (int i = 0; i < 2; i++) {
+                final Set<Context> cached = PermissionIdentifierCache.getInstance().getBlockStateContexts(blockData, IdentifierContexts::createBlockStateContexts);
+                assertEquals(expected, serialize(cached));
+            }
+        }
+    }
+
+    @Test
+    public void testNormalizedIdsMatchUncached() {
+        for (String id : IDS) {
+            assertEquals(legacyNormalizeId(id), PermissionIdentifierCache.getInstance().getNormalizedId(id, IdentifierContexts::normalizeId));
+            assertEquals(legacyNormalizeId(id), PermissionIdentifierCache.getInstance().getNormalizedId(id, IdentifierContexts::normalizeId));
+        }
+    }
+
+    @Test
+    public void testTagChangeRequiresInvalidation() {
+        final String id = "minecraft:oak_log";
+        final Set<Context> before = PermissionIdentifierCache.getInstance().getIdContexts(id, false, k -> IdentifierContexts.createIdContexts(k, false, this.tagMap));
+        // A datapack change replaces the tag map
+        final Map<String, Set<Context>> reloaded = ImmutableMap.of(id, ImmutableSet.of(new Context("minecraft", "planks")));
+        assertSame(before, PermissionIdentifierCache.getInstance().getIdContexts(id, false, k -> IdentifierContexts.createIdContexts(k, false, reloaded)));
+
+        PermissionIdentifierCache.getInstance().invalidateAll();
+        final Set<Context> after = PermissionIdentifierCache.getInstance().getIdContexts(id, false, k -> IdentifierContexts.createIdContexts(k, false, reloaded));
+        assertEquals(serialize(legacyIdContexts(new HashSet<>(), id, false, reloaded)), serialize(after));
+    }
+
+    // Sorted key=value lines so sets compare byte for byte
+    private static String serialize(Set<Context> contexts) {
+        final List<String> lines = new ArrayList<>();
+        for (Context context : contexts) {
+            lines.add(context.getKey() + "=" + context.getValue());
+        }
+        lines.sort(null);
+        return String.join("\n", lines);
+    }
+
+    // The per call implementations that ran before contexts were cached
+
+    private static Set<Context> legacyIdContexts(Set<Context> contexts, String id, boolean isSource, Map<String, Set<Context>> tagMap) {
+        final Set<Context> tagContexts = tagMap.get(id);
+        if (tagContexts != null) {
+            for (Context context : tagContexts) {
+                if (isSource) {
+                    contexts.add(new Context(ContextKeys.SOURCE, "#" + context.getKey() + ":" + context.getValue()));
+                    if (context.getKey().equalsIgnoreCase("minecraft")) {
+                        contexts.add(new Context(ContextKeys.SOURCE, "#" + context.getValue()));
+                    }
+                } else {
+                    contexts.add(new Context(ContextKeys.TARGET, "#" + context.getKey() + ":" + context.getValue()));
+                    if (context.getKey().equalsIgnoreCase("minecraft")) {
+                        contexts.add(new Context(ContextKeys.TARGET, "#" + context.getValue()));
+                    }
+                }
+            }
+        }
+        contexts.add(ContextGroups.SOURCE_ANY);
+        contexts.add(ContextGroups.TARGET_ANY);
+        final String[] parts = id.split(":");
+        final String modId = parts[0];
+        if (isSource) {
+            contexts.add(new Context("source", id.toLowerCase()));
+            contexts.add(new Context("source", modId + ":any"));
+        } else {
+            contexts.add(new Context("target", id.toLowerCase()));
+            contexts.add(new Context("target", modId + ":any"));
+        }
+        return contexts;
+    }
+
+    private static Set<Context> legacyBlockStateContexts(Set<Context> contexts, String blockData) {
+        Matcher matcher = BLOCKSTATE_PATTERN.matcher(blockData);
+        if (matcher.find()) {
+            final String properties[] = matcher.group(0).split(",");
+            for (String property : properties) {
+                String prop = property.replace("=", ":");
+                if (prop.equals("type:invalid")) {
+                    continue;
+                }
+                contexts.add(new Context(ContextKeys.STATE, prop));
+            }
+        }
+        return contexts;
+    }
+
+    private static String legacyNormalizeId(String id) {
+        if (!id.contains(":")) {
+            id = "minecraft:" + id;
+        }
+        String[] parts = id.split(":");
+        if (parts != null && parts.length == 3) {
+            if (parts[0].equals(parts[1])) {
+                id = parts[1] + ":" + parts[2];
+            }
+        }
+        return id;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.task;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.flowpowered.math.vector.Vector3i;
+import com.griefdefender.api.claim.Claim;
+import com.griefdefender.claim.GDClaim;
+import com.griefdefender.task.NearbyClaimVisualTask.Candidate;
+import org.bukkit.entity.Player;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+public class NearbyClaimVisualTaskTest {
+
+    private final Player player = mock(Player.class);
+
+    @Test
+    public void testSameClaimsVisualizedInSameOrder() {
+        final Random random = new Random(0);
+        final List<GDClaim[]> chunks = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            final int x = random.nextInt(200) - 100;
+            final int z = random.nextInt(200) - 100;
+            // Identical bounds force ties that must be broken by claim id
+            final int size = i % 4 == 0 ? 10 : random.nextInt(30);
+            final GDClaim claim = this.createClaim(new UUID(0, i), x, z, x + size, z + size, i % 5 == 0);
+            chunks.add(new GDClaim[] {claim});
+            // A claim found in several chunks is captured more than once
+            if (i % 3 == 0) {
+                chunks.add(new GDClaim[] {claim});
+            }
+        }
+        chunks.add(new GDClaim[] {this.createClaim(new UUID(0, 5000), 0, 0, 10, 10, false),
+                this.createClaim(new UUID(0, 4000), 0, 0, 10, 10, false)});
+
+        final List<Candidate> candidates = this.capture(chunks);
+        final List<GDClaim> expectedClaims = getClaims(NearbyClaimVisualTask.sortByDistance(candidates, 3, -7));
+        final List<GDClaim> expectedVisuals = getClaims(NearbyClaimVisualTask.getVisualCandidates(NearbyClaimVisualTask.sortByDistance(candidates, 3, -7)));
+        assertEquals(42, expectedClaims.size());
+        for (long seed = 0; seed < 20; seed++) {
+            final List<GDClaim[]> shuffled = new ArrayList<>(chunks);
+            Collections.shuffle(shuffled, new Random(seed));
+            final List<Candidate> claims = NearbyClaimVisualTask.sortByDistance(this.capture(shuffled), 3, -7);
+            assertEquals(expectedClaims, getClaims(claims));
+            assertEquals(expectedVisuals, getClaims(NearbyClaimVisualTask.getVisualCandidates(claims)));
+        }
+    }
+
+    @Test
+    public void testNearestClaimFirst() {
+        final Candidate far = this.createCandidate(new UUID(0, 1), 100, 100, 120, 120, false);
+        final Candidate containing = this.createCandidate(new UUID(0, 2), -10, -10, 10, 10, false);
+        final Candidate near = this.createCandidate(new UUID(0, 3), 20, 0, 30, 5, false);
+        final Candidate tieLow = this.createCandidate(new UUID(0, 4), 0, 20, 5, 30, false);
+
+        final List<Candidate> claims = NearbyClaimVisualTask.sortByDistance(Arrays.asList(far, near, tieLow, containing), 0, 0);
+        assertEquals(Arrays.asList(containing.getClaim(), near.getClaim(), tieLow.getClaim(), far.getClaim()), getClaims(claims));
+    }
+
+    @Test
+    public void testActiveVisualsListedButNotDrawn() {
+        final Candidate active = this.createCandidate(new UUID(0, 1), 0, 0, 10, 10, true);
+        final Candidate inactive = this.createCandidate(new UUID(0, 2), 20, 20, 30, 30, false);
+
+        final List<Candidate> claims = NearbyClaimVisualTask.sortByDistance(Arrays.asList(inactive, active), 0, 0);
+        assertEquals(2, claims.size());
+        final List<Candidate> visualClaims = NearbyClaimVisualTask.getVisualCandidates(claims);
+        assertEquals(1, visualClaims.size());
+        assertSame(inactive.getClaim(), visualClaims.get(0).getClaim());
+    }
+
+    @Test
+    public void testClaimCapturedOncePerRequest() {
+        final GDClaim town = this.createClaim(new UUID(0, 1), 0, 0, 40, 40, false);
+        final GDClaim child = this.createClaim(new UUID(0, 2), 0, 0, 10, 10, false);
+        final GDClaim nestedChild = this.createClaim(new UUID(0, 3), 0, 0, 5, 5, true);
+        final GDClaim other = this.createClaim(new UUID(0, 4), 50, 50, 60, 60, false);
+        when(town.getChildren(true)).thenReturn(new HashSet<>(Arrays.asList(child, nestedChild)));
+
+        // The town spans four chunks, one of which it shares with another claim
+        final List<Candidate> candidates = this.capture(Arrays.asList(new GDClaim[] {town}, new GDClaim[] {town},
+                new GDClaim[] {town, other}, new GDClaim[] {town}));
+        assertEquals(4, candidates.size());
+        final Set<GDClaim> claims = new HashSet<>(getClaims(candidates));
+        assertEquals(new HashSet<>(Arrays.asList(town, child, nestedChild, other)), claims);
+
+        verify(town, times(1)).getChildren(true);
+        verify(town, times(1)).hasActiveVisual(this.player);
+        verify(child, times(1)).hasActiveVisual(this.player);
+        verify(nestedChild, times(1)).hasActiveVisual(this.player);
+        verify(other, times(1)).getChildren(true);
+        verify(other, times(1)).hasActiveVisual(this.player);
+    }
+
+    private List<Candidate> capture(List<GDClaim[]> chunks) {
+        final List<Candidate> candidates = new ArrayList<>();
+        final Set<UUID> seen = new HashSet<>();
+        for (GDClaim[] claimsInChunk : chunks) {
+            NearbyClaimVisualTask.addCandidates(candidates, seen, claimsInChunk, this.player);
+        }
+        return candidates;
+    }
+
+    private Candidate createCandidate(UUID uniqueId, int lesserX, int lesserZ, int greaterX, int greaterZ, boolean hasActiveVisual) {
+        return new Candidate(this.createClaim(uniqueId, lesserX, lesserZ, greaterX, greaterZ, hasActiveVisual), this.player);
+    }
+
+    private GDClaim createClaim(UUID uniqueId, int lesserX, int lesserZ, int greaterX, int greaterZ, boolean hasActiveVisual) {
+        final GDClaim claim = mock(GDClaim.class);
+        when(claim.getUniqueId()).thenReturn(uniqueId);
+        when(claim.getLesserBoundaryCorner()).thenReturn(new Vector3i(lesserX, 0, lesserZ));
+        when(claim.getGreaterBoundaryCorner()).thenReturn(new Vector3i(greaterX, 255, greaterZ));
+        when(claim.hasActiveVisual(this.player)).thenReturn(hasActiveVisual);
+        when(claim.getChildren(true)).thenReturn(Collections.<Claim>emptySet());
+        return claim;
+    }
+
+    private static List<GDClaim> getClaims(List<Candidate> candidates) {
+        final List<GDClaim> claims = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            claims.add(candidate.getClaim());
+        }
+        return claims;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.task;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class StaggeredTickSchedulerTest {
+
+    private static final long TASK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private long now;
+
+    @Test
+    public void testElementsSpreadEvenlyAcrossCycle() {
+        final StaggeredTickScheduler<Integer> scheduler = new StaggeredTickScheduler<>(20, Long.MAX_VALUE, () -> this.now);
+        final List<Integer> elements = range(100);
+        final Map<Integer, Integer> runs = new HashMap<>();
+        for (int cycle = 0; cycle < 3; cycle++) {
+            for (int tick = 0; tick < 20; tick++) {
+                assertEquals(5, scheduler.tick(elements, element -> runs.merge(element, 1, Integer::sum)));
+            }
+            assertEquals(0, scheduler.getPendingCount());
+        }
+        for (Integer element : elements) {
+            assertEquals(Integer.valueOf(3), runs.get(element));
+        }
+    }
+
+    @Test
+    public void testUnevenCountSpreadsRemainder() {
+        final StaggeredTickScheduler<Integer> scheduler = new StaggeredTickScheduler<>(4, Long.MAX_VALUE, () -> this.now);
+        final List<Integer> processed = new ArrayList<>();
+        for (int tick = 0; tick < 4; tick++) {
+            processed.add(scheduler.tick(range(10), element -> {}));
+        }
+        // Never more than one element above an even share
+        assertEquals(10, sum(processed));
+        for (int count : processed) {
+            assertTrue(count == 2 || count == 3);
+        }
+    }
+
+    @Test
+    public void testBudgetStopsTick() {
+        final StaggeredTickScheduler<Integer> scheduler = new StaggeredTickScheduler<>(2, TASK_NANOS * 5 / 2, () -> this.now);
+        // Each task takes 1ms so the 2.5ms budget is used up after the third
+        assertEquals(3, scheduler.tick(range(100), element -> this.now += TASK_NANOS));
+        assertEquals(97, scheduler.getPendingCount());
+    }
+
+    @Test
+    public void testLeftoverElementsCarryOverBeforeNextCycle() {
+        final StaggeredTickScheduler<Integer> scheduler = new StaggeredTickScheduler<>(5, TASK_NANOS * 2, () -> this.now);
+        final List<Integer> elements = range(20);
+        final List<Integer> order = new ArrayList<>();
+        int ticks = 0;
+        while (order.size() < elements.size()) {
+            scheduler.tick(elements, element -> {
+                this.now += TASK_NANOS;
+                order.add(element);
+            });
+            ticks++;
+        }
+        // Two per tick over a period of five, so the cycle runs past its period
+        assertEquals(10, ticks);
+        assertEquals(elements, order);
+
+        // Only then does the next cycle read the elements again
+        scheduler.tick(Collections.singletonList(99), element -> {
+            this.now += TASK_NANOS;
+            order.add(element);
+        });
+        assertEquals(Integer.valueOf(99), order.get(order.size() - 1));
+    }
+
+    @Test
+    public void testAlwaysProcessesOneElement() {
+        final StaggeredTickScheduler<Integer> scheduler = new StaggeredTickScheduler<>(1, 0, () -> this.now);
+        for (int tick = 0; tick < 10; tick++) {
+            assertEquals(1, scheduler.tick(range(10), element -> this.now += TASK_NANOS));
+        }
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    public void testNewElementsWaitForNextCycle() {
+        final StaggeredTickScheduler<Integer> scheduler = new StaggeredTickScheduler<>(3, Long.MAX_VALUE, () -> this.now);
+        assertEquals(0, scheduler.tick(Collections.emptyList(), element -> {}));
+        assertEquals(0, scheduler.tick(range(3), element -> {}));
+        assertEquals(0, scheduler.tick(range(3), element -> {}));
+        assertEquals(1, scheduler.tick(range(3), element -> {}));
+
+        scheduler.clear();
+        assertEquals(0, scheduler.getPendingCount());
+        assertEquals(2, scheduler.tick(range(6), element -> {}));
+    }
+
+    private static List<Integer> range(int size) {
+        final List<Integer> elements = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            elements.add(i);
+        }
+        return elements;
+    }
+
+    private static int sum(List<Integer> values) {
+        int sum = 0;
+        for (int value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+}
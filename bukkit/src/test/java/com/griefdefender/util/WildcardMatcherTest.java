@@ -0,0 +1,159 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.commons.io.FilenameUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class WildcardMatcherTest {
+
+    // A small alphabet makes overlapping exact, prefix and glob matches likely
+    private static final char[] ID_CHARS = {'a', 'b', ':', '_'};
+    private static final char[] PATTERN_CHARS = {'a', 'b', ':', '_', '*', '?'};
+
+    @Test
+    public void testRandomPatternsMatchFilenameUtils() {
+        for (long seed = 0; seed < 200; seed++) {
+            final Random random = new Random(seed);
+            final List<String> patterns = new ArrayList<>();
+            final int patternCount = random.nextInt(12);
+            for (int i = 0; i < patternCount; i++) {
+                patterns.add(this.randomPattern(random));
+            }
+            final WildcardMatcher matcher = new WildcardMatcher(patterns);
+            for (int i = 0; i < 500; i++) {
+                // Ids taken from the patterns hit the exact and prefix paths
+                final String id = !patterns.isEmpty() && random.nextInt(4) == 0
+                        ? patterns.get(random.nextInt(patterns.size())).replace("*", "").replace('?', 'a')
+                        : this.randomString(random, ID_CHARS, 6);
+                assertMatches(patterns, matcher, id);
+                // Second lookup is served from the match cache
+                assertMatches(patterns, matcher, id);
+            }
+        }
+    }
+
+    @Test
+    public void testFirstAndLastAcrossPatternKinds() {
+        final List<String> patterns = Arrays.asList(
+                "minecraft:*",
+                "minecraft:creeper",
+                "*:creeper",
+                "minecraft:c*",
+                "minecraft:creeper",
+                "mine?raft:*",
+                "minecraft:zombie");
+        final WildcardMatcher matcher = new WildcardMatcher(patterns);
+
+        assertEquals("minecraft:*", matcher.findFirst("minecraft:creeper"));
+        assertEquals("mine?raft:*", matcher.findLast("minecraft:creeper"));
+        assertEquals("minecraft:*", matcher.findFirst("minecraft:zombie"));
+        assertEquals("minecraft:zombie", matcher.findLast("minecraft:zombie"));
+        assertEquals("*:creeper", matcher.findFirst("modded:creeper"));
+        assertEquals("*:creeper", matcher.findLast("modded:creeper"));
+        assertNull(matcher.findFirst("modded:zombie"));
+        assertFalse(matcher.matches("modded:zombie"));
+        for (String id : Arrays.asList("minecraft:creeper", "minecraft:zombie", "modded:creeper", "modded:zombie", "minecraft:", "")) {
+            assertMatches(patterns, matcher, id);
+        }
+    }
+
+    @Test
+    public void testExactOnlyPatterns() {
+        final Map<String, Boolean> source = new LinkedHashMap<>();
+        source.put("minecraft:tnt", true);
+        source.put("minecraft:lava", true);
+        final WildcardMatcher matcher = new WildcardMatcher(source, source.keySet());
+
+        assertEquals("minecraft:tnt", matcher.findFirst("minecraft:tnt"));
+        assertEquals("minecraft:lava", matcher.findLast("minecraft:lava"));
+        assertNull(matcher.findFirst("minecraft:tn"));
+        assertTrue(matcher.isCompiledFrom(source, 2));
+        assertFalse(matcher.isCompiledFrom(source, 3));
+        assertFalse(matcher.isCompiledFrom(new LinkedHashMap<>(source), 2));
+    }
+
+    @Test
+    public void testEmptyAndNull() {
+        final WildcardMatcher empty = new WildcardMatcher(Collections.emptyList());
+        assertTrue(empty.isEmpty());
+        assertFalse(empty.matches("minecraft:stone"));
+
+        final WildcardMatcher matcher = new WildcardMatcher(Arrays.asList(null, "*"));
+        assertFalse(matcher.matches(null));
+        assertEquals("*", matcher.findFirst(""));
+        assertEquals("*", matcher.findLast("minecraft:stone"));
+    }
+
+    private static void assertMatches(List<String> patterns, WildcardMatcher matcher, String id) {
+        String first = null;
+        String last = null;
+        for (String pattern : patterns) {
+            if (FilenameUtils.wildcardMatch(id, pattern)) {
+                if (first == null) {
+                    first = pattern;
+                }
+                last = pattern;
+            }
+        }
+        final String message = "id '" + id + "' patterns " + patterns;
+        assertEquals(message, first != null, matcher.matches(id));
+        assertEquals(message, first, matcher.findFirst(id));
+        assertEquals(message, last, matcher.findLast(id));
+    }
+
+    private String randomPattern(Random random) {
+        switch (random.nextInt(3)) {
+            case 0:
+                return this.randomString(random, ID_CHARS, 5);
+            case 1:
+                return this.randomString(random, ID_CHARS, 4) + "*";
+            default:
+                return this.randomString(random, PATTERN_CHARS, 6);
+        }
+    }
+
+    private String randomString(Random random, char[] chars, int maxLength) {
+        final int length = random.nextInt(maxLength + 1);
+        final StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(chars[random.nextInt(chars.length)]);
+        }
+        return builder.toString();
+    }
+}